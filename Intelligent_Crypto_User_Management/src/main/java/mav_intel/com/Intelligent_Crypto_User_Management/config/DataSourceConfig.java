@@ -0,0 +1,82 @@
+package mav_intel.com.Intelligent_Crypto_User_Management.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import mav_intel.com.Intelligent_Crypto_User_Management.service.ConnectionPoolTracker;
+import mav_intel.com.Intelligent_Crypto_User_Management.service.QueryStatistics;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+
+/**
+ * Read/write datasource routing
+ *
+ * - write-pool: spring.datasource.* - trade execution, config and all other writes
+ * - read-pool: app.datasource.read.* - @Transactional(readOnly = true) listings and analytics
+ * - The primary DataSource is a LazyConnectionDataSourceProxy: the physical connection is
+ *   fetched on first statement, from the read pool when the transaction is read-only
+ * - Both pools report wait/usage times to ConnectionPoolTracker
+ * - Every statement is timed by SqlStatisticsDataSource (GET /api/metrics/queries)
+ * - The read pool points at the primary database unless DB_READ_URL is set
+ */
+@Slf4j
+@Configuration
+public class DataSourceConfig {
+
+    // ============ WRITE POOL ============
+
+    @Bean
+    @Primary
+    @ConfigurationProperties("spring.datasource")
+    public DataSourceProperties writeDataSourceProperties() {
+        return new DataSourceProperties();
+    }
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource writeDataSource(@Qualifier("writeDataSourceProperties") DataSourceProperties properties,
+                                            ConnectionPoolTracker poolTracker) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("write-pool");
+        dataSource.setMetricsTrackerFactory(poolTracker);
+        return dataSource;
+    }
+
+    // ============ READ POOL ============
+
+    @Bean
+    @ConfigurationProperties("app.datasource.read")
+    public DataSourceProperties readDataSourceProperties() {
+        return new DataSourceProperties();
+    }
+
+    @Bean
+    @ConfigurationProperties("app.datasource.read.hikari")
+    public HikariDataSource readDataSource(@Qualifier("readDataSourceProperties") DataSourceProperties properties,
+                                           ConnectionPoolTracker poolTracker) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("read-pool");
+        dataSource.setMetricsTrackerFactory(poolTracker);
+        return dataSource;
+    }
+
+    // ============ ROUTING ============
+
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("writeDataSource") HikariDataSource writeDataSource,
+                                 @Qualifier("readDataSource") HikariDataSource readDataSource,
+                                 QueryStatistics queryStatistics) {
+        LazyConnectionDataSourceProxy proxy = new LazyConnectionDataSourceProxy(writeDataSource);
+        proxy.setReadOnlyDataSource(readDataSource);
+        log.info("✅ DataSource routing enabled: writes -> {}, read-only transactions -> {}",
+                writeDataSource.getPoolName(), readDataSource.getPoolName());
+        return new SqlStatisticsDataSource(proxy, queryStatistics);
+    }
+}
@@ -0,0 +1,40 @@
+package mav_intel.com.Intelligent_Crypto_User_Management.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import mav_intel.com.Intelligent_Crypto_User_Management.service.QueryStatistics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+/**
+ * Groups the SQL statements of one HTTP request into a query scope
+ * The scope is reported under the matched route (e.g. "GET /api/trades/{id}"),
+ * which is where QueryStatistics attributes N+1 suspects and slow queries.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+public class QueryScopeFilter extends OncePerRequestFilter {
+
+    @Autowired
+    private QueryStatistics queryStatistics;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        QueryStatistics.Scope scope = queryStatistics.openScope(request.getMethod() + " " + request.getRequestURI());
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            queryStatistics.closeScope(scope, pattern != null ? request.getMethod() + " " + pattern : null);
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package mav_intel.com.Intelligent_Crypto_User_Management.config;
+
+import mav_intel.com.Intelligent_Crypto_User_Management.service.QueryStatistics;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Times every Spring Data repository method and reports it to QueryStatistics
+ *
+ * Hooks into each repository factory before the repository proxy is built, so the
+ * interceptor wraps derived queries, @Query methods and CRUD methods alike.
+ * A repository call outside an HTTP request opens its own query scope, so N+1
+ * patterns inside a single call (lazy loads, per-row selects) are still caught.
+ */
+@Component
+public class RepositoryMetricsPostProcessor implements BeanPostProcessor {
+
+    private final ObjectProvider<QueryStatistics> queryStatistics;
+
+    public RepositoryMetricsPostProcessor(ObjectProvider<QueryStatistics> queryStatistics) {
+        this.queryStatistics = queryStatistics;
+    }
+
+    @Override
+    public Object postProcessBeforeInitialization(Object bean, String beanName) {
+        if (bean instanceof RepositoryFactoryBeanSupport<?, ?, ?> factoryBean) {
+            factoryBean.addRepositoryFactoryCustomizer(factory -> factory.addRepositoryProxyPostProcessor(
+                    (proxyFactory, info) -> proxyFactory.addAdvice(0,
+                            interceptor(info.getRepositoryInterface().getSimpleName()))));
+        }
+        return bean;
+    }
+
+    private MethodInterceptor interceptor(String repositoryName) {
+        return invocation -> {
+            QueryStatistics stats = queryStatistics.getObject();
+            String method = repositoryName + "." + invocation.getMethod().getName();
+            QueryStatistics.Scope scope = stats.openScope(method);
+            int statementsBefore = stats.currentStatementCount();
+            long start = System.nanoTime();
+            boolean failed = true;
+            Object result = null;
+            try {
+                result = invocation.proceed();
+                failed = false;
+                return result;
+            } finally {
+                stats.recordRepositoryCall(method, System.nanoTime() - start, resultSize(result),
+                        stats.currentStatementCount() - statementsBefore, failed);
+                stats.closeScope(scope, null);
+            }
+        };
+    }
+
+    /**
+     * Rows handed back to the caller (-1 if the return type says nothing about it)
+     */
+    private static long resultSize(Object result) {
+        if (result instanceof Collection<?> collection) {
+            return collection.size();
+        }
+        if (result instanceof Slice<?> slice) {
+            return slice.getNumberOfElements();
+        }
+        if (result instanceof Map<?, ?> map) {
+            return map.size();
+        }
+        if (result instanceof Optional<?> optional) {
+            return optional.isPresent() ? 1 : 0;
+        }
+        if (result == null || result instanceof Number || result instanceof Boolean) {
+            return -1;
+        }
+        return 1;
+    }
+}
@@ -0,0 +1,12 @@
+package mav_intel.com.Intelligent_Crypto_User_Management.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Enables @Scheduled background jobs (partition maintenance, archival)
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -0,0 +1,207 @@
+package mav_intel.com.Intelligent_Crypto_User_Management.config;
+
+import mav_intel.com.Intelligent_Crypto_User_Management.service.QueryStatistics;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * DataSource wrapper that reports every JDBC statement to QueryStatistics
+ *
+ * - Covers JPA and JdbcTemplate alike (both go through the primary DataSource)
+ * - Queries are timed from execute to ResultSet close, so the time to stream
+ *   the rows counts too; rows = ResultSet.next() calls that returned true
+ * - Updates and batches are recorded when they return, rows = affected rows
+ * - Bind parameters are captured by index and JDBC type name only
+ */
+public class SqlStatisticsDataSource extends DelegatingDataSource {
+
+    private static final Set<String> EXECUTE_METHODS = Set.of(
+            "execute", "executeQuery", "executeUpdate", "executeLargeUpdate", "executeBatch", "executeLargeBatch");
+
+    private final QueryStatistics queryStatistics;
+
+    public SqlStatisticsDataSource(DataSource targetDataSource, QueryStatistics queryStatistics) {
+        super(targetDataSource);
+        this.queryStatistics = queryStatistics;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return wrapConnection(obtainTargetDataSource().getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return wrapConnection(obtainTargetDataSource().getConnection(username, password));
+    }
+
+    private Connection wrapConnection(Connection connection) {
+        return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    Object result = invoke(connection, method, args);
+                    if (result instanceof Statement statement && method.getName().startsWith("prepare")) {
+                        return wrapStatement(statement, (String) args[0]);
+                    }
+                    if (result instanceof Statement statement && method.getName().equals("createStatement")) {
+                        return wrapStatement(statement, null);
+                    }
+                    return result;
+                });
+    }
+
+    private Statement wrapStatement(Statement statement, String preparedSql) {
+        Class<?> type = statement instanceof java.sql.CallableStatement ? java.sql.CallableStatement.class
+                : statement instanceof PreparedStatement ? PreparedStatement.class : Statement.class;
+        return (Statement) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{type},
+                new StatementHandler(statement, preparedSql));
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+
+    /**
+     * Times executions of one statement and tracks its bind parameter types
+     */
+    private class StatementHandler implements InvocationHandler {
+        private final Statement target;
+        private final String preparedSql;
+        private final List<String> paramTypes = new ArrayList<>();
+        private final List<String> batchSql = new ArrayList<>();
+        private PendingQuery pending;
+
+        StatementHandler(Statement target, String preparedSql) {
+            this.target = target;
+            this.preparedSql = preparedSql;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer index) {
+                recordParamType(index, name, args[1]);
+            } else if (name.equals("clearParameters")) {
+                paramTypes.clear();
+            } else if (name.equals("addBatch") && args != null && args.length == 1) {
+                batchSql.add((String) args[0]);
+            } else if (name.equals("close")) {
+                finishPending();
+            }
+
+            if (!EXECUTE_METHODS.contains(name)) {
+                Object result = SqlStatisticsDataSource.invoke(target, method, args);
+                if (result instanceof ResultSet resultSet && name.equals("getResultSet") && pending != null) {
+                    return wrapResultSet(resultSet);
+                }
+                return result;
+            }
+
+            finishPending();
+            String sql = args != null && args.length > 0 && args[0] instanceof String s ? s
+                    : !batchSql.isEmpty() ? String.join("; ", batchSql) : preparedSql;
+            List<String> types = List.copyOf(paramTypes);
+            long start = System.nanoTime();
+            Object result;
+            try {
+                result = SqlStatisticsDataSource.invoke(target, method, args);
+            } catch (Throwable t) {
+                queryStatistics.recordStatement(sql, System.nanoTime() - start, -1, types);
+                throw t;
+            }
+
+            if (result instanceof ResultSet resultSet) {
+                pending = new PendingQuery(sql, types, start);
+                return wrapResultSet(resultSet);
+            }
+            if (name.equals("execute") && Boolean.TRUE.equals(result)) {
+                // Result set fetched via getResultSet(); record once it is consumed
+                pending = new PendingQuery(sql, types, start);
+                return result;
+            }
+            queryStatistics.recordStatement(sql, System.nanoTime() - start, affectedRows(result), types);
+            batchSql.clear();
+            return result;
+        }
+
+        private void recordParamType(int index, String setter, Object value) {
+            while (paramTypes.size() < index) {
+                paramTypes.add(null);
+            }
+            String type = setter.equals("setNull") ? "null"
+                    : setter.equals("setObject") && value != null ? value.getClass().getSimpleName()
+                    : setter.substring(3);
+            paramTypes.set(index - 1, index + ":" + type);
+        }
+
+        private ResultSet wrapResultSet(ResultSet resultSet) {
+            PendingQuery query = pending;
+            return (ResultSet) Proxy.newProxyInstance(SqlStatisticsDataSource.class.getClassLoader(),
+                    new Class<?>[]{ResultSet.class}, (proxy, method, args) -> {
+                        Object result = SqlStatisticsDataSource.invoke(resultSet, method, args);
+                        if (method.getName().equals("next") && Boolean.TRUE.equals(result)) {
+                            query.rows++;
+                        } else if (method.getName().equals("close") && query == pending) {
+                            finishPending();
+                        }
+                        return result;
+                    });
+        }
+
+        private void finishPending() {
+            if (pending != null) {
+                PendingQuery query = pending;
+                pending = null;
+                queryStatistics.recordStatement(query.sql, System.nanoTime() - query.startNanos, query.rows, query.paramTypes);
+            }
+        }
+
+        private long affectedRows(Object result) {
+            if (result instanceof Number number) {
+                return number.longValue();
+            }
+            long total = 0;
+            if (result instanceof int[] counts) {
+                for (int count : counts) {
+                    total += Math.max(0, count);
+                }
+            } else if (result instanceof long[] counts) {
+                for (long count : counts) {
+                    total += Math.max(0, count);
+                }
+            } else {
+                return -1;
+            }
+            return total;
+        }
+    }
+
+    private static class PendingQuery {
+        final String sql;
+        final List<String> paramTypes;
+        final long startNanos;
+        long rows;
+
+        PendingQuery(String sql, List<String> paramTypes, long startNanos) {
+            this.sql = sql;
+            this.paramTypes = paramTypes;
+            this.startNanos = startNanos;
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package mav_intel.com.Intelligent_Crypto_User_Management.controller;
+
+import lombok.extern.slf4j.Slf4j;
+import mav_intel.com.Intelligent_Crypto_User_Management.dto.MonteCarloResultDTO;
+import mav_intel.com.Intelligent_Crypto_User_Management.model.User;
+import mav_intel.com.Intelligent_Crypto_User_Management.repository.UserRepository;
+import mav_intel.com.Intelligent_Crypto_User_Management.service.MonteCarloService;
+import mav_intel.com.Intelligent_Crypto_User_Management.service.PnlRollupService;
+import mav_intel.com.Intelligent_Crypto_User_Management.service.SignalAttributionService;
+import mav_intel.com.Intelligent_Crypto_User_Management.service.TradeDistributionService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Slice-and-dice PnL analytics over the pre-aggregated rollup cube and signal attribution,
+ * PnL / holding-time distributions from quantile sketches, and Monte Carlo risk of the
+ * current user's trade returns
+ * GET /api/analytics/...
+ */
+@Slf4j
+@RestController
+@RequestMapping("/api/analytics")
+@PreAuthorize("hasRole('USER')")
+public class AnalyticsController {
+
+    @Autowired
+    private PnlRollupService pnlRollupService;
+
+    @Autowired
+    private SignalAttributionService signalAttributionService;
+
+    @Autowired
+    private MonteCarloService monteCarloService;
+
+    @Autowired
+    private TradeDistributionService tradeDistributionService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    /**
+     * PnL, win/loss counts, extremes and ratios of the current user's closed trades
+     * GET /api/analytics/pnl?groupBy=symbol,month&from=yyyy-MM-dd&to=yyyy-MM-dd&symbol=&side=&exitReason=
+     *
+     * groupBy: any of symbol, side, exitReason, day, week, month (none = one total row)
+     * e.g. "PnL by symbol this month": groupBy=symbol&from=2025-06-01
+     *      "win rate of SHORTs per week": groupBy=week&side=SHORT
+     */
+    @GetMapping("/pnl")
+    public ResponseEntity<List<Map<String, Object>>> getPnl(
+            @RequestParam(required = false) List<String> groupBy,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) String symbol,
+            @RequestParam(required = false) String side,
+            @RequestParam(required = false) String exitReason) {
+        Long userId = getCurrentUserId();
+        log.info("📊 PnL analytics request: user={}, groupBy={}, from={}, to={}", userId, groupBy, from, to);
+        try {
+            return ResponseEntity.ok(pnlRollupService.query(userId, groupBy != null ? groupBy : List.of(),
+                    from, to, symbol, side, exitReason));
+        } catch (IllegalArgumentException e) {
+            log.warn("⚠️ Invalid analytics request: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * Signal-source performance of the current user's closed signal trades: TP1-TP4/SL hit rates,
+     * expectancy, average win/loss, profit factor and time from signal to outcome
+     * GET /api/analytics/signals?groupBy=channel,setupType&from=yyyy-MM-dd&to=yyyy-MM-dd&channel=&setupType=&symbol=
+     *
+     * groupBy: any of channel, setupType, symbol, side, day, week, month (none = one total row)
+     * e.g. "which channel makes money": groupBy=channel
+     *      "setups of one channel per month": groupBy=setupType,month&channel=VIP
+     */
+    @GetMapping("/signals")
+    public ResponseEntity<List<Map<String, Object>>> getSignalAttribution(
+            @RequestParam(required = false) List<String> groupBy,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) String channel,
+            @RequestParam(required = false) String setupType,
+            @RequestParam(required = false) String symbol) {
+        Long userId = getCurrentUserId();
+        log.info("🎯 Signal attribution request: user={}, groupBy={}, from={}, to={}", userId, groupBy, from, to);
+        try {
+            return ResponseEntity.ok(signalAttributionService.report(userId, groupBy != null ? groupBy : List.of(),
+                    from, to, channel, setupType, symbol));
+        } catch (IllegalArgumentException e) {
+            log.warn("⚠️ Invalid signal attribution request: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * Percentiles (p1-p99, min, max) of PnL, PnL % and holding time of the current user's closed trades,
+     * from per-symbol quantile sketches (within 1% of the exact values)
+     * GET /api/analytics/distribution?symbol=BTC&groupBy=symbol
+     *
+     * groupBy: "symbol" for one row per symbol; otherwise one row merged over the matching symbols
+     */
+    @GetMapping("/distribution")
+    public ResponseEntity<List<Map<String, Object>>> getDistribution(
+            @RequestParam(required = false) String symbol,
+            @RequestParam(required = false) String groupBy) {
+        Long userId = getCurrentUserId();
+        log.info("📐 Distribution request: user={}, symbol={}, groupBy={}", userId, symbol, groupBy);
+        if (groupBy != null && !groupBy.isEmpty() && !groupBy.equals("symbol")) {
+            log.warn("⚠️ Invalid distribution groupBy: {}", groupBy);
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(tradeDistributionService.distribution(userId, symbol, "symbol".equals(groupBy)));
+    }
+
+    /**
+     * Drawdown / terminal-equity percentiles and ruin probability from resampling the current
+     * user's closed-trade returns, for each position size (margin per trade, % of equity)
+     * GET /api/analytics/monte-carlo?paths=100000&horizon=200&blockLength=5&positionPercent=5,10,20&ruinDrawdown=50&seed=
+     *
+     * horizon: trades per path (default: as many as the user has closed)
+     * blockLength: consecutive trades drawn together (default 1); > 1 keeps losing streaks intact
+     * seed: repeat a run exactly
+     */
+    @GetMapping("/monte-carlo")
+    public ResponseEntity<MonteCarloResultDTO> getMonteCarlo(
+            @RequestParam(required = false) Integer paths,
+            @RequestParam(required = false) Integer horizon,
+            @RequestParam(required = false) Integer blockLength,
+            @RequestParam(required = false) List<Double> positionPercent,
+            @RequestParam(required = false) Double ruinDrawdown,
+            @RequestParam(required = false) Long seed) {
+        Long userId = getCurrentUserId();
+        log.info("🎲 Monte Carlo request: user={}, paths={}, horizon={}, blockLength={}, positionPercent={}",
+                userId, paths, horizon, blockLength, positionPercent);
+        try {
+            return ResponseEntity.ok(monteCarloService.simulate(userId, paths, horizon, blockLength,
+                    positionPercent, ruinDrawdown, seed));
+        } catch (IllegalArgumentException e) {
+            log.warn("⚠️ Invalid Monte Carlo request: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        } catch (IllegalStateException e) {
+            log.warn("⚠️ Monte Carlo request rejected: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).build();
+        }
+    }
+
+    private Long getCurrentUserId() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !authentication.isAuthenticated()) {
+            throw new RuntimeException("User not authenticated");
+        }
+
+        String username = authentication.getName();
+        User user = userRepository.findByUsername(username)
+                .orElseThrow(() -> new RuntimeException("User not found: " + username));
+
+        return user.getId();
+    }
+}
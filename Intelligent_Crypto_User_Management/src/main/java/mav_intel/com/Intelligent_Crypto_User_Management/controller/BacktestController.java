@@ -0,0 +1,59 @@
+package mav_intel.com.Intelligent_Crypto_User_Management.controller;
+
+import lombok.extern.slf4j.Slf4j;
+import mav_intel.com.Intelligent_Crypto_User_Management.dto.BacktestRequestDTO;
+import mav_intel.com.Intelligent_Crypto_User_Management.dto.BacktestResultDTO;
+import mav_intel.com.Intelligent_Crypto_User_Management.service.BacktestService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+/**
+ * Offline backtests of stored signals against local candles
+ * POST /api/backtest
+ */
+@Slf4j
+@RestController
+@RequestMapping("/api/backtest")
+@PreAuthorize("hasRole('ADMIN')")
+public class BacktestController {
+
+    @Autowired
+    private BacktestService backtestService;
+
+    /**
+     * Replay the selected signals under each config and compare equity and statistics
+     * POST /api/backtest
+     * {
+     *   "fromDate": "2025-01-01", "toDate": "2025-06-30", "channel": "VIP",
+     *   "startingBalance": 1000, "maxHoldHours": 72,
+     *   "configs": {
+     *     "current":  {},
+     *     "lowLev":   {"maxLeverage": 5},
+     *     "frontTP":  {"tp1ExitPercentage": 50, "tp2ExitPercentage": 30, "tp3ExitPercentage": 20, "tp4ExitPercentage": 0}
+     *   }
+     * }
+     */
+    @PostMapping
+    public ResponseEntity<List<BacktestResultDTO>> runBacktest(@RequestBody BacktestRequestDTO request) {
+        log.info("🧪 Backtest request: from={}, to={}, channel={}, configs={}",
+                request.getFromDate(), request.getToDate(), request.getChannel(),
+                request.getConfigs() != null ? request.getConfigs().keySet() : null);
+        try {
+            return ResponseEntity.ok(backtestService.run(request));
+        } catch (IllegalArgumentException e) {
+            log.warn("⚠️ Invalid backtest request: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+    }
+}
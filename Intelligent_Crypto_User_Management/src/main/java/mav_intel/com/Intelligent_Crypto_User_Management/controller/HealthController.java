@@ -0,0 +1,37 @@
+package mav_intel.com.Intelligent_Crypto_User_Management.controller;
+
+import mav_intel.com.Intelligent_Crypto_User_Management.service.WarmUpService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+/**
+ * Probes for the deployment platform
+ * GET /api/health/live  - process is up (restart if this fails)
+ * GET /api/health/ready - warm-up finished, route traffic here (503 until then)
+ */
+@RestController
+@RequestMapping("/api/health")
+public class HealthController {
+
+    @Autowired
+    private WarmUpService warmUpService;
+
+    @GetMapping("/live")
+    public ResponseEntity<Map<String, Object>> live() {
+        return ResponseEntity.ok(Map.of("status", "UP"));
+    }
+
+    @GetMapping("/ready")
+    public ResponseEntity<Map<String, Object>> ready() {
+        Map<String, Object> status = warmUpService.getStatus();
+        return warmUpService.isReady()
+                ? ResponseEntity.ok(status)
+                : ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(status);
+    }
+}
@@ -0,0 +1,238 @@
+package mav_intel.com.Intelligent_Crypto_User_Management.controller;
+
+import mav_intel.com.Intelligent_Crypto_User_Management.service.BacktestService;
+import mav_intel.com.Intelligent_Crypto_User_Management.service.ClusterCoordinator;
+import mav_intel.com.Intelligent_Crypto_User_Management.service.ColumnarTradeStore;
+import mav_intel.com.Intelligent_Crypto_User_Management.service.ConnectionPoolMetrics;
+import mav_intel.com.Intelligent_Crypto_User_Management.service.EquityCurveService;
+import mav_intel.com.Intelligent_Crypto_User_Management.service.ExchangePnlSyncService;
+import mav_intel.com.Intelligent_Crypto_User_Management.service.ExchangeRateLimiter;
+import mav_intel.com.Intelligent_Crypto_User_Management.service.JobQueueService;
+import mav_intel.com.Intelligent_Crypto_User_Management.service.MonteCarloService;
+import mav_intel.com.Intelligent_Crypto_User_Management.service.OrderOutboxDispatcher;
+import mav_intel.com.Intelligent_Crypto_User_Management.service.PnlRollupService;
+import mav_intel.com.Intelligent_Crypto_User_Management.service.QueryStatistics;
+import mav_intel.com.Intelligent_Crypto_User_Management.service.SignalAttributionService;
+import mav_intel.com.Intelligent_Crypto_User_Management.service.TradeConfigCache;
+import mav_intel.com.Intelligent_Crypto_User_Management.service.TradeDistributionService;
+import mav_intel.com.Intelligent_Crypto_User_Management.service.TradeHistoryCache;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+/**
+ * Operational metrics for admins
+ * GET /api/metrics/...
+ */
+@RestController
+@RequestMapping("/api/metrics")
+public class MetricsController {
+
+    @Autowired
+    private TradeConfigCache tradeConfigCache;
+
+    @Autowired
+    private ConnectionPoolMetrics connectionPoolMetrics;
+
+    @Autowired
+    private OrderOutboxDispatcher orderOutboxDispatcher;
+
+    @Autowired
+    private JobQueueService jobQueueService;
+
+    @Autowired
+    private ClusterCoordinator clusterCoordinator;
+
+    @Autowired
+    private ExchangeRateLimiter exchangeRateLimiter;
+
+    @Autowired
+    private QueryStatistics queryStatistics;
+
+    @Autowired
+    private ExchangePnlSyncService exchangePnlSyncService;
+
+    @Autowired
+    private EquityCurveService equityCurveService;
+
+    @Autowired
+    private PnlRollupService pnlRollupService;
+
+    @Autowired
+    private SignalAttributionService signalAttributionService;
+
+    @Autowired
+    private TradeHistoryCache tradeHistoryCache;
+
+    @Autowired
+    private ColumnarTradeStore columnarTradeStore;
+
+    @Autowired
+    private BacktestService backtestService;
+
+    @Autowired
+    private MonteCarloService monteCarloService;
+
+    @Autowired
+    private TradeDistributionService tradeDistributionService;
+
+    /**
+     * Trade management config cache hit/miss statistics
+     * GET /api/metrics/config-cache
+     */
+    @GetMapping("/config-cache")
+    public ResponseEntity<Map<String, Object>> getConfigCacheStats() {
+        return ResponseEntity.ok(tradeConfigCache.getStats());
+    }
+
+    /**
+     * Write/read connection pool usage
+     * GET /api/metrics/pools
+     */
+    @GetMapping("/pools")
+    public ResponseEntity<Map<String, Object>> getPoolStats() {
+        return ResponseEntity.ok(connectionPoolMetrics.getStats());
+    }
+
+    /**
+     * Order outbox backlog and dispatch counters
+     * GET /api/metrics/outbox
+     */
+    @GetMapping("/outbox")
+    public ResponseEntity<Map<String, Object>> getOutboxStats() {
+        return ResponseEntity.ok(orderOutboxDispatcher.getStats());
+    }
+
+    /**
+     * Job queue counts per queue and status (READY, RUNNING, DONE, DEAD)
+     * GET /api/metrics/jobs
+     */
+    @GetMapping("/jobs")
+    public ResponseEntity<Map<String, Object>> getJobStats() {
+        return ResponseEntity.ok(jobQueueService.getStats());
+    }
+
+    /**
+     * This node's identity, live nodes, singleton jobs it leads and accounts it owns
+     * GET /api/metrics/cluster
+     */
+    @GetMapping("/cluster")
+    public ResponseEntity<Map<String, Object>> getClusterStats() {
+        return ResponseEntity.ok(clusterCoordinator.getStats());
+    }
+
+    /**
+     * Binance weight/order budget of the current minute, for this node and fleet-wide
+     * GET /api/metrics/rate-limit
+     */
+    @GetMapping("/rate-limit")
+    public ResponseEntity<Map<String, Object>> getRateLimitStats() {
+        return ResponseEntity.ok(exchangeRateLimiter.getStats());
+    }
+
+    /**
+     * Statement latency/rows by SQL shape, per repository method, N+1 suspects and slow queries
+     * GET /api/metrics/queries?limit=50
+     */
+    @GetMapping("/queries")
+    public ResponseEntity<Map<String, Object>> getQueryStats(@RequestParam(defaultValue = "50") int limit) {
+        return ResponseEntity.ok(queryStatistics.getStats(limit));
+    }
+
+    /**
+     * Start a fresh measurement (e.g. before and after a deploy)
+     * DELETE /api/metrics/queries
+     */
+    @DeleteMapping("/queries")
+    public ResponseEntity<Map<String, Object>> resetQueryStats() {
+        queryStatistics.reset();
+        return ResponseEntity.ok(Map.of("reset", true));
+    }
+
+    /**
+     * Exchange fill sync: cursors, applied fills, unmatched fills, last error
+     * GET /api/metrics/pnl-sync
+     */
+    @GetMapping("/pnl-sync")
+    public ResponseEntity<Map<String, Object>> getPnlSyncStats() {
+        return ResponseEntity.ok(exchangePnlSyncService.getStats());
+    }
+
+    /**
+     * Equity curve cache: users and points in memory, loads, incremental updates
+     * GET /api/metrics/equity-curve
+     */
+    @GetMapping("/equity-curve")
+    public ResponseEntity<Map<String, Object>> getEquityCurveStats() {
+        return ResponseEntity.ok(equityCurveService.getStats());
+    }
+
+    /**
+     * PnL rollup cube: cells, trades applied, reconcile/backfill runs, failures
+     * GET /api/metrics/pnl-rollup
+     */
+    @GetMapping("/pnl-rollup")
+    public ResponseEntity<Map<String, Object>> getPnlRollupStats() {
+        return ResponseEntity.ok(pnlRollupService.getStats());
+    }
+
+    /**
+     * Signal attribution: rows, trades applied, refresh/backfill runs, watermark, failures
+     * GET /api/metrics/signal-attribution
+     */
+    @GetMapping("/signal-attribution")
+    public ResponseEntity<Map<String, Object>> getSignalAttributionStats() {
+        return ResponseEntity.ok(signalAttributionService.getStats());
+    }
+
+    /**
+     * Trade history result cache: hit ratio, saved load/compute time, evictions
+     * GET /api/metrics/history-cache
+     */
+    @GetMapping("/history-cache")
+    public ResponseEntity<Map<String, Object>> getHistoryCacheStats() {
+        return ResponseEntity.ok(tradeHistoryCache.getStats());
+    }
+
+    /**
+     * Columnar closed-trade store: scopes, rows held, loads, appends and rebuilds
+     * GET /api/metrics/columnar-store
+     */
+    @GetMapping("/columnar-store")
+    public ResponseEntity<Map<String, Object>> getColumnarStoreStats() {
+        return ResponseEntity.ok(columnarTradeStore.getStats());
+    }
+
+    /**
+     * Backtests: runs, configs and signals replayed, loaded candle series
+     * GET /api/metrics/backtest
+     */
+    @GetMapping("/backtest")
+    public ResponseEntity<Map<String, Object>> getBacktestStats() {
+        return ResponseEntity.ok(backtestService.getStats());
+    }
+
+    /**
+     * Monte Carlo simulations: runs, paths simulated, throughput
+     * GET /api/metrics/monte-carlo
+     */
+    @GetMapping("/monte-carlo")
+    public ResponseEntity<Map<String, Object>> getMonteCarloStats() {
+        return ResponseEntity.ok(monteCarloService.getStats());
+    }
+
+    /**
+     * Trade distribution sketches: sketches and bytes stored, trades applied, reconcile runs, failures
+     * GET /api/metrics/trade-distribution
+     */
+    @GetMapping("/trade-distribution")
+    public ResponseEntity<Map<String, Object>> getTradeDistributionStats() {
+        return ResponseEntity.ok(tradeDistributionService.getStats());
+    }
+}
@@ -1,9 +1,18 @@
 package mav_intel.com.Intelligent_Crypto_User_Management.controller;
 
+import mav_intel.com.Intelligent_Crypto_User_Management.dto.SignalSummary;
 import mav_intel.com.Intelligent_Crypto_User_Management.model.Signal;
 import mav_intel.com.Intelligent_Crypto_User_Management.repository.SignalRepository;
+import mav_intel.com.Intelligent_Crypto_User_Management.service.HistoryExportService;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
 import java.util.List;
 
 @RestController
@@ -11,45 +20,80 @@ import java.util.List;
 public class SignalController {
 
     private final SignalRepository signalRepository;
+    private final HistoryExportService historyExportService;
 
-    public SignalController(SignalRepository signalRepository) {
+    public SignalController(SignalRepository signalRepository, HistoryExportService historyExportService) {
         this.signalRepository = signalRepository;
+        this.historyExportService = historyExportService;
     }
 
     /**
      * Get all signals sorted by newest first
+     * List endpoints return SignalSummary (no fullMessage); ?days=N limits them to the
+     * last N days, which also limits the scan to the matching monthly partitions
      */
     @GetMapping
-    public List<Signal> getAllSignals() {
-        return signalRepository.findAllByOrderByIdDesc();
+    public List<SignalSummary> getAllSignals(@RequestParam(required = false) Integer days) {
+        return signalRepository.findRecentSummaries(since(days));
     }
 
     /**
      * Get signals by trading pair (e.g., BTCUSDT)
      */
     @GetMapping("/pair/{pair}")
-    public List<Signal> getSignalsByPair(@PathVariable String pair) {
-        return signalRepository.findByPair(pair);
+    public List<SignalSummary> getSignalsByPair(@PathVariable String pair,
+                                                @RequestParam(required = false) Integer days) {
+        return signalRepository.findSummariesByPair(pair, since(days));
     }
 
     /**
      * Get signals by setup type
      */
     @GetMapping("/setup/{setupType}")
-    public List<Signal> getSignalsBySetupType(@PathVariable String setupType) {
-        return signalRepository.findBySetupType(setupType);
+    public List<SignalSummary> getSignalsBySetupType(@PathVariable String setupType,
+                                                     @RequestParam(required = false) Integer days) {
+        return signalRepository.findSummariesBySetupType(setupType, since(days));
     }
 
     /**
      * Get signals by channel
      */
     @GetMapping("/channel/{channel}")
-    public List<Signal> getSignalsByChannel(@PathVariable String channel) {
-        return signalRepository.findByChannel(channel);
+    public List<SignalSummary> getSignalsByChannel(@PathVariable String channel,
+                                                   @RequestParam(required = false) Integer days) {
+        return signalRepository.findSummariesByChannel(channel, since(days));
+    }
+
+    /**
+     * Stream signal history as CSV or NDJSON
+     * GET /api/signals/export?format=csv|ndjson&gzip=true|false&pair=&channel=&setupType=&fromDate=&toDate=
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportSignals(
+            @RequestParam(defaultValue = "csv") String format,
+            @RequestParam(defaultValue = "false") boolean gzip,
+            @RequestParam(required = false) String pair,
+            @RequestParam(required = false) String channel,
+            @RequestParam(required = false) String setupType,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fromDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate toDate) {
+        HistoryExportService.ExportFormat exportFormat = HistoryExportService.ExportFormat.parse(format);
+        if (exportFormat == null) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        StreamingResponseBody body = out -> historyExportService.exportSignals(
+                pair, channel, setupType, fromDate, toDate, exportFormat, gzip, out);
+        String fileName = "signals." + exportFormat.extension + (gzip ? ".gz" : "");
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + fileName + "\"")
+                .contentType(MediaType.parseMediaType(gzip ? "application/gzip" : exportFormat.contentType))
+                .body(body);
     }
 
     /**
      * Get signal by ID
+     * Only endpoint that loads the raw Telegram message (fullMessage)
      */
     @GetMapping("/{id}")
     public Signal getSignalById(@PathVariable Long id) {
@@ -94,4 +138,16 @@ public class SignalController {
     public void deleteSignal(@PathVariable Long id) {
         signalRepository.deleteById(id);
     }
+
+    // ============ HELPER METHODS ============
+
+    /**
+     * Lower timestamp bound for list queries (no days or days <= 0 means no bound)
+     */
+    private OffsetDateTime since(Integer days) {
+        if (days == null || days <= 0) {
+            return OffsetDateTime.parse("1970-01-01T00:00:00Z");
+        }
+        return OffsetDateTime.now().minusDays(days);
+    }
 }
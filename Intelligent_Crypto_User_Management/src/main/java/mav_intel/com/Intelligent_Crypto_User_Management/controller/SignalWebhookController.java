@@ -2,11 +2,9 @@ package mav_intel.com.Intelligent_Crypto_User_Management.controller;
 
 import lombok.extern.slf4j.Slf4j;
 import mav_intel.com.Intelligent_Crypto_User_Management.dto.ExecuteTradeRequest;
-import mav_intel.com.Intelligent_Crypto_User_Management.dto.ExecuteTradeResponse;
 import mav_intel.com.Intelligent_Crypto_User_Management.model.Signal;
 import mav_intel.com.Intelligent_Crypto_User_Management.repository.SignalRepository;
 import mav_intel.com.Intelligent_Crypto_User_Management.service.AutoTradeExecutor;
-import mav_intel.com.Intelligent_Crypto_User_Management.service.TradeService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.ResponseEntity;
@@ -20,16 +18,13 @@ import java.net.UnknownHostException;
 
 /**
  * Webhook endpoint to receive trading signals from Python backend (Telegram message collector)
- * This controller listens for incoming signals and automatically executes trades
+ * This controller listens for incoming signals and queues their trades for execution
  */
 @Slf4j
 @RestController
 @RequestMapping("/api/webhook")
 public class SignalWebhookController {
 
-    @Autowired
-    private TradeService tradeService;
-
     @Autowired
     private AutoTradeExecutor autoTradeExecutor;
 
@@ -74,27 +69,24 @@ public class SignalWebhookController {
             }
             log.info("✅ Signal for user_id: {}", userId);
 
-            // 1. Save signal to database
             Signal signal = mapToSignal(signalData, userId);
-            Signal savedSignal = signalRepository.save(signal);
-            log.info("✅ Signal saved to database with ID: {} for user {}", savedSignal.getId(), userId);
 
-            // 2. Auto-execute trade if enabled
+            // Auto-execute: signal row + execution job committed together, any node's JobWorker runs it
             if (autoExecuteEnabled) {
-                ExecuteTradeRequest tradeRequest = mapSignalToTradeRequest(signalData, savedSignal.getId(), userId);
-                ExecuteTradeResponse tradeResponse = tradeService.executeTrade(tradeRequest);
+                ExecuteTradeRequest tradeRequest = mapSignalToTradeRequest(signalData, null, userId);
+                Signal savedSignal = autoTradeExecutor.saveAndQueue(signal, tradeRequest);
+                log.info("✅ Signal saved with ID: {} and queued for execution (user {})", savedSignal.getId(), userId);
 
                 Map<String, Object> response = new HashMap<>();
                 response.put("status", "success");
-                response.put("message", "Signal received and trade executed");
+                response.put("message", "Signal received and trade queued for execution");
                 response.put("signal_id", savedSignal.getId());
-                response.put("trade_status", tradeResponse.getStatus());
-                response.put("trade_id", tradeResponse.getTradeId());
-                response.put("trade_message", tradeResponse.getMessage());
+                response.put("trade_status", "QUEUED");
 
-                log.info("🎯 Trade auto-executed for signal {} (user {})", savedSignal.getId(), userId);
                 return ResponseEntity.ok(response);
             } else {
+                Signal savedSignal = signalRepository.save(signal);
+                log.info("✅ Signal saved to database with ID: {} for user {}", savedSignal.getId(), userId);
                 log.warn("⚠️ Auto-execution disabled. Signal saved but trade not executed");
                 Map<String, Object> response = new HashMap<>();
                 response.put("status", "success");
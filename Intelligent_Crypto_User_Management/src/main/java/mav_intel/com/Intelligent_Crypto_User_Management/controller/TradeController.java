@@ -1,22 +1,31 @@
 package mav_intel.com.Intelligent_Crypto_User_Management.controller;
 
 import lombok.extern.slf4j.Slf4j;
+import mav_intel.com.Intelligent_Crypto_User_Management.dto.EquityCurveDTO;
 import mav_intel.com.Intelligent_Crypto_User_Management.dto.ExecuteTradeRequest;
 import mav_intel.com.Intelligent_Crypto_User_Management.dto.ExecuteTradeResponse;
 import mav_intel.com.Intelligent_Crypto_User_Management.dto.TradeFilterDTO;
 import mav_intel.com.Intelligent_Crypto_User_Management.dto.TradeHistoryResponseDTO;
+import mav_intel.com.Intelligent_Crypto_User_Management.dto.TradeSummary;
 import mav_intel.com.Intelligent_Crypto_User_Management.model.Trade;
 import mav_intel.com.Intelligent_Crypto_User_Management.model.User;
 import mav_intel.com.Intelligent_Crypto_User_Management.repository.UserRepository;
+import mav_intel.com.Intelligent_Crypto_User_Management.service.EquityCurveService;
+import mav_intel.com.Intelligent_Crypto_User_Management.service.HistoryExportService;
 import mav_intel.com.Intelligent_Crypto_User_Management.service.TradeService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.LocalDate;
 import java.util.List;
 
 @Slf4j
@@ -31,6 +40,12 @@ public class TradeController {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private HistoryExportService historyExportService;
+
+    @Autowired
+    private EquityCurveService equityCurveService;
+
     /**
      * Execute a new trade
      * POST /api/trades/execute
@@ -45,11 +60,14 @@ public class TradeController {
 
         ExecuteTradeResponse response = tradeService.executeTrade(request);
 
-        if ("SUCCESS".equals(response.getStatus())) {
-            return ResponseEntity.ok(response);
-        } else {
+        if ("PENDING".equals(response.getStatus())) {
+            // Queued in the outbox; orders are placed asynchronously
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(response);
+        } else if ("FAILED".equals(response.getStatus())) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
         }
+        // Recorded as OPEN without an exchange call (Binance client not configured)
+        return ResponseEntity.ok(response);
     }
 
     /**
@@ -89,9 +107,9 @@ public class TradeController {
      * GET /api/trades
      */
     @GetMapping
-    public ResponseEntity<List<Trade>> getAllTrades() {
+    public ResponseEntity<List<TradeSummary>> getAllTrades() {
         log.info("📥 Get all trades request");
-        List<Trade> trades = tradeService.getAllTrades();
+        List<TradeSummary> trades = tradeService.getAllTrades();
         return ResponseEntity.ok(trades);
     }
 
@@ -111,9 +129,9 @@ public class TradeController {
      * GET /api/trades/status/open
      */
     @GetMapping("/status/open")
-    public ResponseEntity<List<Trade>> getOpenTrades() {
+    public ResponseEntity<List<TradeSummary>> getOpenTrades() {
         log.info("📥 Get open trades request");
-        List<Trade> trades = tradeService.getOpenTrades();
+        List<TradeSummary> trades = tradeService.getOpenTrades();
         return ResponseEntity.ok(trades);
     }
 
@@ -122,9 +140,9 @@ public class TradeController {
      * GET /api/trades/pair/{pair}
      */
     @GetMapping("/pair/{pair}")
-    public ResponseEntity<List<Trade>> getTradesByPair(@PathVariable String pair) {
+    public ResponseEntity<List<TradeSummary>> getTradesByPair(@PathVariable String pair) {
         log.info("📥 Get trades for pair: {}", pair);
-        List<Trade> trades = tradeService.getTradesByPair(pair);
+        List<TradeSummary> trades = tradeService.getTradesByPair(pair);
         return ResponseEntity.ok(trades);
     }
 
@@ -140,4 +158,47 @@ public class TradeController {
         TradeHistoryResponseDTO response = tradeService.getClosedTrades(filter);
         return ResponseEntity.ok(response);
     }
+
+    /**
+     * Stream trade history as CSV or NDJSON (same filters as /history, no pagination)
+     * POST /api/trades/export?format=csv|ndjson&gzip=true|false
+     */
+    @PostMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportTrades(
+            @RequestBody TradeFilterDTO filter,
+            @RequestParam(defaultValue = "csv") String format,
+            @RequestParam(defaultValue = "false") boolean gzip) {
+        HistoryExportService.ExportFormat exportFormat = HistoryExportService.ExportFormat.parse(format);
+        if (exportFormat == null) {
+            log.warn("⚠️ Unknown export format: {}", format);
+            return ResponseEntity.badRequest().build();
+        }
+        log.info("📤 Trade export requested: format={}, gzip={}, symbol={}", exportFormat, gzip, filter.getSymbol());
+
+        StreamingResponseBody body = out -> historyExportService.exportTrades(filter, exportFormat, gzip, out);
+        String fileName = "trades." + exportFormat.extension + (gzip ? ".gz" : "");
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + fileName + "\"")
+                .contentType(MediaType.parseMediaType(gzip ? "application/gzip" : exportFormat.contentType))
+                .body(body);
+    }
+
+    /**
+     * Cumulative realized PnL with peak and drawdown of the current user, one point per bucket
+     * GET /api/trades/equity-curve?bucket=HOUR|DAY|WEEK|MONTH&from=yyyy-MM-dd&to=yyyy-MM-dd
+     */
+    @GetMapping("/equity-curve")
+    public ResponseEntity<EquityCurveDTO> getEquityCurve(
+            @RequestParam(defaultValue = "DAY") String bucket,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        Long userId = getCurrentUserId();
+        log.info("📈 Equity curve request: user={}, bucket={}, from={}, to={}", userId, bucket, from, to);
+        try {
+            return ResponseEntity.ok(equityCurveService.getCurve(userId, bucket, from, to));
+        } catch (IllegalArgumentException e) {
+            log.warn("⚠️ Invalid equity curve request: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+    }
 }
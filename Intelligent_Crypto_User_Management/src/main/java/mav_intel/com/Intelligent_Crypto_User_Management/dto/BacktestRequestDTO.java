@@ -0,0 +1,32 @@
+package mav_intel.com.Intelligent_Crypto_User_Management.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+/**
+ * Backtest request: which stored signals to replay and the configurations to compare
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BacktestRequestDTO {
+
+    // ============ SIGNALS ============
+    private LocalDate fromDate;            // Signals received on or after (UTC), null = all
+    private LocalDate toDate;              // Signals received on or before (UTC), null = all
+    private String channel;                // Only signals of this channel, null = all
+    private Long userId;                   // Only signals received for this user, null = all
+
+    // ============ SIMULATION ============
+    private Double startingBalance;        // USDT, default backtest.starting-balance
+    private Integer maxHoldHours;          // Close still-open positions (or cancel the entry) after this, null/0 = never
+
+    // ============ CONFIGURATIONS ============
+    private Map<String, TradeManagementConfigDTO> configs;  // Name -> config; unset fields use the defaults
+}
@@ -0,0 +1,57 @@
+package mav_intel.com.Intelligent_Crypto_User_Management.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Outcome of replaying the signals under one configuration
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BacktestResultDTO {
+
+    private String name;
+    private TradeManagementConfigDTO config;
+
+    // ============ SIGNALS ============
+    private Integer signals;                   // Signals replayed
+    private Integer trades;                    // Entries filled
+    private Map<String, Integer> skipped;      // Reason (balance, minNotional, noKlines, invalid, notFilled) -> count
+
+    // ============ OUTCOMES ============
+    private Integer wins;
+    private Integer losses;
+    private BigDecimal winRate;                // 0-100
+    private Map<String, Integer> exitReasons;  // Last leg filled: TP1-TP4, SL, LIQUIDATED, TIMEOUT, END
+    private BigDecimal netPnl;                 // After fees
+    private BigDecimal fees;
+    private BigDecimal expectancy;             // netPnl per trade
+    private BigDecimal profitFactor;           // Gross profit / gross loss, null without losses
+
+    // ============ EQUITY ============
+    private BigDecimal startingBalance;
+    private BigDecimal finalEquity;
+    private BigDecimal returnPercent;
+    private BigDecimal maxDrawdown;            // Largest peak-to-trough fall of realized equity (USDT)
+    private BigDecimal maxDrawdownPercent;     // Same, relative to the peak
+    private List<Point> equity;                // Realized equity at the end of each day with closes
+
+    private Long elapsedMillis;                // Simulation time of this configuration
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Point {
+        private LocalDate day;
+        private BigDecimal equity;
+    }
+}
@@ -0,0 +1,50 @@
+package mav_intel.com.Intelligent_Crypto_User_Management.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Cumulative realized PnL with running peak and drawdown, bucketed for charting
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class EquityCurveDTO {
+
+    // ============ REQUEST ============
+    private String bucket;                 // HOUR, DAY, WEEK or MONTH
+    private String zone;                   // Time zone of the bucket boundaries
+
+    // ============ SUMMARY (whole history) ============
+    private Integer totalTrades;           // Closed trades on the curve
+    private BigDecimal totalPnL;           // Final cumulative PnL
+    private BigDecimal peak;               // Highest cumulative PnL reached (0 = starting point)
+    private BigDecimal currentDrawdown;    // peak - current equity
+    private BigDecimal maxDrawdown;        // Largest peak-to-trough fall
+    private Long longestDrawdownSeconds;   // Longest time from a peak until it was regained (or until now)
+    private Long currentDrawdownSeconds;   // Time since the last peak, 0 when at a peak
+
+    // ============ SERIES ============
+    private BigDecimal startEquity;        // Cumulative PnL before the first bucket
+    private List<Point> points;            // One point per bucket with closed trades
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Point {
+        private String time;               // Bucket start (ISO-8601 with offset)
+        private Integer trades;            // Trades closed in the bucket
+        private BigDecimal pnl;            // Realized PnL of the bucket
+        private BigDecimal equity;         // Cumulative PnL at the end of the bucket
+        private BigDecimal low;            // Lowest cumulative PnL within the bucket
+        private BigDecimal peak;           // Running peak at the end of the bucket
+        private BigDecimal drawdown;       // Drawdown at the end of the bucket
+        private BigDecimal maxDrawdown;    // Deepest drawdown within the bucket
+    }
+}
@@ -0,0 +1,46 @@
+package mav_intel.com.Intelligent_Crypto_User_Management.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Drawdown and terminal-equity distributions from resampling a user's closed-trade returns
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MonteCarloResultDTO {
+
+    // ============ INPUT ============
+    private Integer sampleTrades;              // Closed trades resampled
+    private BigDecimal meanReturnPercent;      // Mean return per trade on its margin
+    private Integer paths;
+    private Integer horizon;                   // Trades per path
+    private Integer blockLength;               // Consecutive trades per draw (1 = i.i.d. bootstrap)
+    private BigDecimal ruinDrawdownPercent;    // Drawdown counted as ruin
+    private Long seed;                         // Same seed = same paths
+
+    // ============ SCENARIOS ============
+    private List<Scenario> scenarios;          // One per position size, all over the same random paths
+    private Long elapsedMillis;
+    private Long pathsPerSecond;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Scenario {
+        private BigDecimal positionPercent;                  // Margin per trade, % of current equity
+        private BigDecimal ruinProbability;                  // Share of paths reaching the ruin drawdown (0-1)
+        private BigDecimal lossProbability;                  // Share of paths ending below the starting equity (0-1)
+        private Map<String, BigDecimal> maxDrawdownPercent;  // Percentile (p1..p99) -> max drawdown %
+        private Map<String, BigDecimal> terminalEquity;      // Percentile (p1..p99) -> final equity, multiple of start
+    }
+}
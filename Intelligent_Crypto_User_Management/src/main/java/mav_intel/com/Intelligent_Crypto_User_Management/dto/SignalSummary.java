@@ -0,0 +1,32 @@
+package mav_intel.com.Intelligent_Crypto_User_Management.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.OffsetDateTime;
+
+/**
+ * Lean read model for signal listings
+ * Same JSON shape as Signal minus the raw Telegram post (fullMessage),
+ * which is only loaded by the single-signal detail endpoint
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SignalSummary {
+
+    private Long id;
+    private String pair;
+    private String setupType;           // LONG or SHORT
+    private Double entry;
+    private Integer leverage;
+    private Double tp1;
+    private Double tp2;
+    private Double tp3;
+    private Double tp4;
+    private Double stopLoss;
+    private OffsetDateTime timestamp;
+    private String channel;
+    private Double quantity;
+    private Long userId;
+}
@@ -0,0 +1,97 @@
+package mav_intel.com.Intelligent_Crypto_User_Management.dto;
+
+import lombok.Builder;
+import lombok.Value;
+import mav_intel.com.Intelligent_Crypto_User_Management.model.TradeManagementConfig;
+import java.math.BigDecimal;
+
+/**
+ * Immutable copy of a user's TradeManagementConfig
+ * Safe to cache and share between threads (the entity is mutable and JPA-managed)
+ */
+@Value
+@Builder
+public class TradeConfigSnapshot {
+
+    Long id;
+    Long userId;
+
+    // ============ MARGIN & LEVERAGE ============
+    String marginMode;
+    BigDecimal maxLeverage;
+
+    // ============ POSITION SIZING ============
+    BigDecimal maxPositionSizePercent;
+    Integer maxConcurrentPositions;
+    BigDecimal riskPercentagePerTrade;
+
+    // ============ TAKE PROFIT LEVELS ============
+    BigDecimal tp1Percentage;
+    BigDecimal tp2Percentage;
+    BigDecimal tp3Percentage;
+    BigDecimal tp4Percentage;
+    Integer numTPLevels;
+
+    // ============ STOP LOSS SETTINGS ============
+    Boolean enableTrailingStop;
+    BigDecimal trailingStopPercent;
+    BigDecimal breakevenProfitPercent;
+
+    // ============ PROFIT REALLOCATION ============
+    Boolean enableProfitReallocation;
+    BigDecimal profitReallocationPercent;
+
+    // ============ ORDER PREFERENCES ============
+    String orderType;
+    String timeInForce;
+
+    // ============ AUTO-EXECUTION ============
+    Boolean autoExecuteTrades;
+
+    public static TradeConfigSnapshot from(TradeManagementConfig config) {
+        return TradeConfigSnapshot.builder()
+                .id(config.getId())
+                .userId(config.getUserId())
+                .marginMode(config.getMarginMode())
+                .maxLeverage(config.getMaxLeverage())
+                .maxPositionSizePercent(config.getMaxPositionSizePercent())
+                .maxConcurrentPositions(config.getMaxConcurrentPositions())
+                .riskPercentagePerTrade(config.getRiskPercentagePerTrade())
+                .tp1Percentage(config.getTp1Percentage())
+                .tp2Percentage(config.getTp2Percentage())
+                .tp3Percentage(config.getTp3Percentage())
+                .tp4Percentage(config.getTp4Percentage())
+                .numTPLevels(config.getNumTPLevels())
+                .enableTrailingStop(config.getEnableTrailingStop())
+                .trailingStopPercent(config.getTrailingStopPercent())
+                .breakevenProfitPercent(config.getBreakevenProfitPercent())
+                .enableProfitReallocation(config.getEnableProfitReallocation())
+                .profitReallocationPercent(config.getProfitReallocationPercent())
+                .orderType(config.getOrderType())
+                .timeInForce(config.getTimeInForce())
+                .autoExecuteTrades(config.getAutoExecuteTrades())
+                .build();
+    }
+
+    // ============ LEGACY FIELD MAPPING (same names as TradeManagementConfig) ============
+
+    public BigDecimal getMaxPositionSize() {
+        return maxPositionSizePercent;
+    }
+
+    public BigDecimal getTp1ExitPercentage() {
+        return tp1Percentage;
+    }
+
+    public BigDecimal getTp2ExitPercentage() {
+        return tp2Percentage;
+    }
+
+    public BigDecimal getTp3ExitPercentage() {
+        return tp3Percentage;
+    }
+
+    public BigDecimal getTp4ExitPercentage() {
+        return tp4Percentage;
+    }
+}
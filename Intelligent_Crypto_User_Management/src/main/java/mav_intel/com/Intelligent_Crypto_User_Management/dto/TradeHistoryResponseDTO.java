@@ -4,7 +4,6 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
-import mav_intel.com.Intelligent_Crypto_User_Management.model.Trade;
 import java.math.BigDecimal;
 import java.util.List;
 
@@ -19,7 +18,7 @@ import java.util.List;
 public class TradeHistoryResponseDTO {
 
     // ============ TRADES LIST ============
-    private List<Trade> trades;        // Filtered list of trades
+    private List<TradeSummary> trades; // Filtered list of trades
 
     // ============ PAGINATION INFO ============
     private Integer page;              // Current page number (0-indexed)
@@ -39,8 +38,8 @@ public class TradeHistoryResponseDTO {
     private BigDecimal averagePnLPct;  // Average P&L percentage
 
     // ============ TRADE EXTREMES ============
-    private Trade bestTrade;           // Trade with highest P&L
-    private Trade worstTrade;          // Trade with lowest P&L
+    private TradeSummary bestTrade;    // Trade with highest P&L
+    private TradeSummary worstTrade;   // Trade with lowest P&L
     private BigDecimal largestWin;     // Largest profitable trade amount
     private BigDecimal largestLoss;    // Largest losing trade amount
 
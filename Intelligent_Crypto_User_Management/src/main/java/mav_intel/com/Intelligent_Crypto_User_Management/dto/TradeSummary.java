@@ -0,0 +1,39 @@
+package mav_intel.com.Intelligent_Crypto_User_Management.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.OffsetDateTime;
+
+/**
+ * Lean read model for trade listings and history analytics
+ * Loaded through a JPQL constructor expression, so rows are plain objects
+ * (no persistence-context snapshot, no dirty checking)
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TradeSummary {
+
+    private Long id;
+    private Long userId;
+    private Long signalId;
+    private String pair;
+    private String side;                // BUY or SELL
+    private Integer leverage;
+    private Double entryPrice;
+    private Double entryQuantity;
+    private Double stopLoss;
+    private Double tp1;
+    private Double tp2;
+    private Double tp3;
+    private Double tp4;
+    private String status;              // OPEN, CLOSED, PENDING, FAILED
+    private String binanceOrderId;
+    private OffsetDateTime openedAt;
+    private OffsetDateTime closedAt;
+    private Double exitPrice;
+    private Double pnl;                 // Profit/Loss in USDT
+    private Double pnlPercent;          // Profit/Loss percentage
+    private String exitReason;          // TP1, TP2, TP3, TP4, SL, MANUAL
+}
@@ -0,0 +1,31 @@
+package mav_intel.com.Intelligent_Crypto_User_Management.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.OffsetDateTime;
+
+/**
+ * Progress of one derived table's backfill from trades (BackfillCursorStore)
+ */
+@Entity
+@Data
+@Table(name = "backfill_cursor")
+@NoArgsConstructor
+@AllArgsConstructor
+public class BackfillCursor {
+
+    @Id
+    @Column(name = "name", length = 60)
+    private String name;
+
+    @Column(name = "last_trade_id", nullable = false, columnDefinition = "BIGINT DEFAULT 0")
+    private Long lastTradeId; // trades up to this id are backfilled
+
+    @Column(name = "completed_at")
+    private OffsetDateTime completedAt; // null while the backfill still has trades to go
+
+    @Column(name = "updated_at", nullable = false, columnDefinition = "TIMESTAMPTZ DEFAULT now()")
+    private OffsetDateTime updatedAt;
+}
@@ -0,0 +1,28 @@
+package mav_intel.com.Intelligent_Crypto_User_Management.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.OffsetDateTime;
+
+/**
+ * Live backend node, renewed by ClusterCoordinator heartbeats
+ */
+@Entity
+@Data
+@Table(name = "cluster_nodes")
+@NoArgsConstructor
+@AllArgsConstructor
+public class ClusterNode {
+
+    @Id
+    @Column(name = "node_id", length = 100)
+    private String nodeId;
+
+    @Column(name = "started_at", nullable = false, columnDefinition = "TIMESTAMPTZ DEFAULT now()")
+    private OffsetDateTime startedAt;
+
+    @Column(name = "heartbeat_at", nullable = false, columnDefinition = "TIMESTAMPTZ DEFAULT now()")
+    private OffsetDateTime heartbeatAt;
+}
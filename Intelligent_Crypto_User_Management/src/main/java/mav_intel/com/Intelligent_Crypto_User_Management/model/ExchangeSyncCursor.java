@@ -0,0 +1,31 @@
+package mav_intel.com.Intelligent_Crypto_User_Management.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.OffsetDateTime;
+
+/**
+ * Read position of one exchange fill stream (ExchangePnlSyncService)
+ */
+@Entity
+@Data
+@Table(name = "exchange_sync_cursor")
+@NoArgsConstructor
+@AllArgsConstructor
+public class ExchangeSyncCursor {
+
+    @Id
+    @Column(name = "stream", length = 60)
+    private String stream;
+
+    @Column(name = "last_id", nullable = false)
+    private Long lastId;
+
+    @Column(name = "last_time", nullable = false)
+    private Long lastTime;
+
+    @Column(name = "updated_at", nullable = false, columnDefinition = "TIMESTAMPTZ DEFAULT now()")
+    private OffsetDateTime updatedAt;
+}
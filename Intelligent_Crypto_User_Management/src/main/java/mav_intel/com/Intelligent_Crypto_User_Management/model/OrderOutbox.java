@@ -0,0 +1,79 @@
+package mav_intel.com.Intelligent_Crypto_User_Management.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.Builder.Default;
+import java.time.OffsetDateTime;
+
+/**
+ * Order intent written in the same transaction as its Trade
+ * Drained by OrderOutboxDispatcher; the exchange is never called from the request thread
+ */
+@Entity
+@Data
+@Builder
+@Table(name = "order_outbox", indexes = {
+        @Index(name = "idx_order_outbox_status_next", columnList = "status, next_attempt_at"),
+        @Index(name = "idx_order_outbox_account", columnList = "account_key, id")
+})
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderOutbox {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id")
+    private Long id;
+
+    @Column(name = "trade_id", nullable = false)
+    private Long tradeId;
+
+    // Ordering key: intents of one account are dispatched strictly in id order
+    @Column(name = "account_key", nullable = false)
+    private Long accountKey;
+
+    @Column(name = "type", length = 20, nullable = false)
+    @Default
+    private String type = "BRACKET"; // BRACKET (entry + SL + TPs)
+
+    @Column(name = "status", length = 20, nullable = false)
+    @Default
+    private String status = "PENDING"; // PENDING, IN_FLIGHT, DONE, FAILED
+
+    @Column(name = "attempts", nullable = false)
+    @Default
+    private Integer attempts = 0;
+
+    @Column(name = "next_attempt_at", nullable = false)
+    private OffsetDateTime nextAttemptAt;
+
+    // Lease of the node dispatching an IN_FLIGHT intent; an expired lease is reclaimed by any node
+    @Column(name = "locked_by", length = 100)
+    private String lockedBy;
+
+    @Column(name = "locked_until")
+    private OffsetDateTime lockedUntil;
+
+    @Column(name = "last_error", length = 500)
+    private String lastError;
+
+    @Column(name = "created_at", nullable = false)
+    private OffsetDateTime createdAt;
+
+    @Column(name = "updated_at")
+    private OffsetDateTime updatedAt;
+
+    @PrePersist
+    protected void onCreate() {
+        OffsetDateTime now = OffsetDateTime.now();
+        if (createdAt == null) {
+            createdAt = now;
+        }
+        if (nextAttemptAt == null) {
+            nextAttemptAt = now;
+        }
+    }
+}
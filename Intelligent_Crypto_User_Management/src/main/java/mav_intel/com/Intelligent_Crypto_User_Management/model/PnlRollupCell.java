@@ -0,0 +1,79 @@
+package mav_intel.com.Intelligent_Crypto_User_Management.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Aggregates of one (user, day, symbol, side, exit reason) cell of the PnL rollup (PnlRollupService)
+ */
+@Entity
+@Data
+@Table(name = "pnl_rollup")
+@IdClass(PnlRollupCell.Key.class)
+@NoArgsConstructor
+@AllArgsConstructor
+public class PnlRollupCell {
+
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Id
+    @Column(name = "day")
+    private LocalDate day;
+
+    @Id
+    @Column(name = "symbol", length = 30)
+    private String symbol;
+
+    @Id
+    @Column(name = "side", length = 10)
+    private String side;
+
+    @Id
+    @Column(name = "exit_reason", length = 30)
+    private String exitReason;
+
+    @Column(name = "trades", nullable = false)
+    private Integer trades;
+
+    @Column(name = "wins", nullable = false)
+    private Integer wins;
+
+    @Column(name = "losses", nullable = false)
+    private Integer losses;
+
+    @Column(name = "pnl_sum", precision = 38, scale = 8, nullable = false)
+    private BigDecimal pnlSum;
+
+    @Column(name = "pnl_percent_sum", precision = 38, scale = 8, nullable = false)
+    private BigDecimal pnlPercentSum;
+
+    @Column(name = "gross_profit", precision = 38, scale = 8, nullable = false)
+    private BigDecimal grossProfit;
+
+    @Column(name = "gross_loss", precision = 38, scale = 8, nullable = false)
+    private BigDecimal grossLoss;
+
+    @Column(name = "best_pnl", precision = 38, scale = 8, nullable = false)
+    private BigDecimal bestPnl;
+
+    @Column(name = "worst_pnl", precision = 38, scale = 8, nullable = false)
+    private BigDecimal worstPnl;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private Long userId;
+        private LocalDate day;
+        private String symbol;
+        private String side;
+        private String exitReason;
+    }
+}
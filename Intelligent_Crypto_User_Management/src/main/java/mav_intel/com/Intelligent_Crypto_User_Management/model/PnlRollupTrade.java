@@ -0,0 +1,50 @@
+package mav_intel.com.Intelligent_Crypto_User_Management.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+
+/**
+ * Closed trade counted in the PnL rollup, with the cell it was counted in (PnlRollupService)
+ */
+@Entity
+@Data
+@Table(name = "pnl_rollup_trade", indexes = {
+        @Index(name = "idx_pnl_rollup_trade_cell", columnList = "user_id, day, symbol, side, exit_reason")
+})
+@NoArgsConstructor
+@AllArgsConstructor
+public class PnlRollupTrade {
+
+    @Id
+    @Column(name = "trade_id")
+    private Long tradeId;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "day", nullable = false)
+    private LocalDate day;
+
+    @Column(name = "symbol", length = 30, nullable = false)
+    private String symbol;
+
+    @Column(name = "side", length = 10, nullable = false)
+    private String side;
+
+    @Column(name = "exit_reason", length = 30, nullable = false)
+    private String exitReason;
+
+    @Column(name = "closed_at", nullable = false)
+    private OffsetDateTime closedAt;
+
+    @Column(name = "pnl", precision = 38, scale = 8)
+    private BigDecimal pnl;
+
+    @Column(name = "pnl_percent", precision = 38, scale = 8)
+    private BigDecimal pnlPercent;
+}
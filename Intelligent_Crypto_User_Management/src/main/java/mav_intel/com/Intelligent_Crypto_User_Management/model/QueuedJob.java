@@ -0,0 +1,62 @@
+package mav_intel.com.Intelligent_Crypto_User_Management.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.OffsetDateTime;
+
+/**
+ * Row of the shared job queue (JobQueueService reads and writes it with SQL)
+ * Column defaults are part of the schema: enqueue only inserts queue, dedup key, payload and max attempts
+ */
+@Entity
+@Data
+@Table(name = "job_queue", indexes = {
+        @Index(name = "idx_job_queue_queue_status", columnList = "queue, status, id")
+})
+@NoArgsConstructor
+@AllArgsConstructor
+public class QueuedJob {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id")
+    private Long id;
+
+    @Column(name = "queue", length = 50, nullable = false)
+    private String queue;
+
+    @Column(name = "dedup_key", length = 100, unique = true)
+    private String dedupKey;
+
+    @Column(name = "payload", nullable = false, columnDefinition = "TEXT")
+    private String payload;
+
+    @Column(name = "status", nullable = false, columnDefinition = "VARCHAR(20) DEFAULT 'READY'")
+    private String status; // READY, RUNNING, DONE, DEAD
+
+    @Column(name = "attempts", nullable = false, columnDefinition = "INT DEFAULT 0")
+    private Integer attempts;
+
+    @Column(name = "max_attempts", nullable = false, columnDefinition = "INT DEFAULT 5")
+    private Integer maxAttempts;
+
+    @Column(name = "run_at", nullable = false, columnDefinition = "TIMESTAMPTZ DEFAULT now()")
+    private OffsetDateTime runAt;
+
+    @Column(name = "locked_by", length = 100)
+    private String lockedBy;
+
+    @Column(name = "locked_until")
+    private OffsetDateTime lockedUntil;
+
+    @Column(name = "last_error", length = 500)
+    private String lastError;
+
+    @Column(name = "created_at", nullable = false, columnDefinition = "TIMESTAMPTZ DEFAULT now()")
+    private OffsetDateTime createdAt;
+
+    @Column(name = "updated_at", nullable = false, columnDefinition = "TIMESTAMPTZ DEFAULT now()")
+    private OffsetDateTime updatedAt;
+}
@@ -0,0 +1,50 @@
+package mav_intel.com.Intelligent_Crypto_User_Management.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.io.Serializable;
+import java.time.OffsetDateTime;
+
+/**
+ * Weight one node reserved and used in a rate-limit window (PostgresRateLimitLedger)
+ */
+@Entity
+@Data
+@Table(name = "rate_limit_ledger")
+@IdClass(RateLimitLedgerEntry.Key.class)
+@NoArgsConstructor
+@AllArgsConstructor
+public class RateLimitLedgerEntry {
+
+    @Id
+    @Column(name = "bucket", length = 20)
+    private String bucket;
+
+    @Id
+    @Column(name = "window_start")
+    private OffsetDateTime windowStart;
+
+    @Id
+    @Column(name = "node_id", length = 100)
+    private String nodeId;
+
+    @Column(name = "reserved", nullable = false, columnDefinition = "INT DEFAULT 0")
+    private Integer reserved;
+
+    @Column(name = "used", nullable = false, columnDefinition = "INT DEFAULT 0")
+    private Integer used;
+
+    @Column(name = "updated_at", nullable = false, columnDefinition = "TIMESTAMPTZ DEFAULT now()")
+    private OffsetDateTime updatedAt;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private String bucket;
+        private OffsetDateTime windowStart;
+        private String nodeId;
+    }
+}
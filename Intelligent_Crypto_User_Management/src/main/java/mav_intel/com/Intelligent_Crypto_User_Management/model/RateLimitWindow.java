@@ -0,0 +1,40 @@
+package mav_intel.com.Intelligent_Crypto_User_Management.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.io.Serializable;
+import java.time.OffsetDateTime;
+
+/**
+ * Weight reserved by all nodes in one rate-limit window (PostgresRateLimitLedger)
+ * The row is locked while a reservation is granted
+ */
+@Entity
+@Data
+@Table(name = "rate_limit_window")
+@IdClass(RateLimitWindow.Key.class)
+@NoArgsConstructor
+@AllArgsConstructor
+public class RateLimitWindow {
+
+    @Id
+    @Column(name = "bucket", length = 20)
+    private String bucket;
+
+    @Id
+    @Column(name = "window_start")
+    private OffsetDateTime windowStart;
+
+    @Column(name = "reserved", nullable = false, columnDefinition = "INT DEFAULT 0")
+    private Integer reserved;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private String bucket;
+        private OffsetDateTime windowStart;
+    }
+}
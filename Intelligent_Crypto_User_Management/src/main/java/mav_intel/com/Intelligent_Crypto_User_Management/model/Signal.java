@@ -8,7 +8,9 @@ import java.time.OffsetDateTime;
 
 @Entity
 @Data
-@Table(name = "signal_messages")
+@Table(name = "signal_messages", indexes = {
+        @Index(name = "idx_signal_messages_timestamp", columnList = "timestamp")
+})
 @NoArgsConstructor
 @AllArgsConstructor
 public class Signal {
@@ -59,4 +61,12 @@ public class Signal {
 
     @Column(name = "user_id")
     private Long userId;
+
+    @PrePersist
+    protected void onCreate() {
+        // timestamp is the partition key and must never be null
+        if (timestamp == null) {
+            timestamp = OffsetDateTime.now();
+        }
+    }
 }
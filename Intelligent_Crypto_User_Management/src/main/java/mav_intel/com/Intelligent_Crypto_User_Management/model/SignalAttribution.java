@@ -0,0 +1,59 @@
+package mav_intel.com.Intelligent_Crypto_User_Management.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+
+/**
+ * Closed trade joined with the signal that opened it (SignalAttributionService)
+ */
+@Entity
+@Data
+@Table(name = "signal_attribution", indexes = {
+        @Index(name = "idx_signal_attribution_user", columnList = "user_id, closed_at"),
+        @Index(name = "idx_signal_attribution_closed", columnList = "closed_at")
+})
+@NoArgsConstructor
+@AllArgsConstructor
+public class SignalAttribution {
+
+    @Id
+    @Column(name = "trade_id")
+    private Long tradeId;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "signal_id", nullable = false)
+    private Long signalId;
+
+    @Column(name = "channel", nullable = false)
+    private String channel;
+
+    @Column(name = "setup_type", nullable = false)
+    private String setupType;
+
+    @Column(name = "symbol", length = 30, nullable = false)
+    private String symbol;
+
+    @Column(name = "side", length = 10, nullable = false)
+    private String side;
+
+    @Column(name = "exit_reason", length = 30, nullable = false)
+    private String exitReason;
+
+    @Column(name = "signal_at")
+    private OffsetDateTime signalAt;
+
+    @Column(name = "closed_at", nullable = false)
+    private OffsetDateTime closedAt;
+
+    @Column(name = "pnl", precision = 38, scale = 8)
+    private BigDecimal pnl;
+
+    @Column(name = "pnl_percent", precision = 38, scale = 8)
+    private BigDecimal pnlPercent;
+}
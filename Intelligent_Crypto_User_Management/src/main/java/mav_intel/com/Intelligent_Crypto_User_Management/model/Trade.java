@@ -4,11 +4,18 @@ import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.DynamicUpdate;
 import java.time.OffsetDateTime;
+import java.time.temporal.ChronoUnit;
 
 @Entity
 @Data
-@Table(name = "trades")
+@DynamicUpdate // UPDATE only the changed columns, not all 25
+@Table(name = "trades", indexes = {
+        @Index(name = "idx_trades_status", columnList = "status"),
+        @Index(name = "idx_trades_user_closed_at", columnList = "user_id, closed_at"),
+        @Index(name = "idx_trades_closed_at_id", columnList = "closed_at, id") // watermark walks (signal attribution)
+})
 @NoArgsConstructor
 @AllArgsConstructor
 public class Trade {
@@ -73,7 +80,7 @@ public class Trade {
     private Double exitPrice;
 
     @Column(name = "pnl")
-    private Double pnl; // Profit/Loss in USDT
+    private Double pnl; // Profit/Loss in USDT (net of fees once synced from the exchange)
 
     @Column(name = "pnl_percent")
     private Double pnlPercent; // Profit/Loss percentage
@@ -81,6 +88,12 @@ public class Trade {
     @Column(name = "exit_reason")
     private String exitReason; // TP1, TP2, TP3, TP4, SL, MANUAL, etc
 
+    @Column(name = "fees")
+    private Double fees; // Exchange commission in USDT (entry + exits)
+
+    @Column(name = "exit_quantity")
+    private Double exitQuantity; // Filled so far by exit orders (SL/TP/manual)
+
     @Column(name = "created_at")
     private OffsetDateTime createdAt;
 
@@ -90,7 +103,8 @@ public class Trade {
             createdAt = OffsetDateTime.now();
         }
         if (openedAt == null) {
-            openedAt = OffsetDateTime.now();
+            // Stored precision: partial updates match the row on (id, opened_at)
+            openedAt = OffsetDateTime.now().truncatedTo(ChronoUnit.MICROS);
         }
     }
 }
@@ -0,0 +1,47 @@
+package mav_intel.com.Intelligent_Crypto_User_Management.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.io.Serializable;
+import java.time.OffsetDateTime;
+
+/**
+ * Exchange order id -> trade and bracket leg (TradeOrderRegistry), used to attribute fills
+ */
+@Entity
+@Data
+@Table(name = "trade_orders", indexes = {
+        @Index(name = "idx_trade_orders_trade", columnList = "trade_id")
+})
+@IdClass(TradeOrder.Key.class)
+@NoArgsConstructor
+@AllArgsConstructor
+public class TradeOrder {
+
+    @Id
+    @Column(name = "symbol", length = 30)
+    private String symbol;
+
+    @Id
+    @Column(name = "order_id")
+    private Long orderId;
+
+    @Column(name = "trade_id")
+    private Long tradeId;
+
+    @Column(name = "leg", length = 8, nullable = false)
+    private String leg; // E, SL, TP1-TP4, X
+
+    @Column(name = "created_at", nullable = false, columnDefinition = "TIMESTAMPTZ DEFAULT now()")
+    private OffsetDateTime createdAt;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private String symbol;
+        private Long orderId;
+    }
+}
@@ -0,0 +1,40 @@
+package mav_intel.com.Intelligent_Crypto_User_Management.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.OffsetDateTime;
+
+/**
+ * Values a closed trade contributed to the quantile sketches (TradeDistributionService)
+ */
+@Entity
+@Data
+@Table(name = "trade_quantile_member")
+@NoArgsConstructor
+@AllArgsConstructor
+public class TradeQuantileMember {
+
+    @Id
+    @Column(name = "trade_id")
+    private Long tradeId;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "symbol", length = 30, nullable = false)
+    private String symbol;
+
+    @Column(name = "closed_at", nullable = false)
+    private OffsetDateTime closedAt;
+
+    @Column(name = "pnl")
+    private Double pnl;
+
+    @Column(name = "pnl_percent")
+    private Double pnlPercent;
+
+    @Column(name = "holding_seconds")
+    private Double holdingSeconds;
+}
@@ -0,0 +1,50 @@
+package mav_intel.com.Intelligent_Crypto_User_Management.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.io.Serializable;
+import java.time.OffsetDateTime;
+
+/**
+ * Serialized QuantileSketch of one metric per user and symbol (TradeDistributionService)
+ */
+@Entity
+@Data
+@Table(name = "trade_quantile_sketch")
+@IdClass(TradeQuantileSketch.Key.class)
+@NoArgsConstructor
+@AllArgsConstructor
+public class TradeQuantileSketch {
+
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Id
+    @Column(name = "symbol", length = 30)
+    private String symbol;
+
+    @Id
+    @Column(name = "metric", length = 20)
+    private String metric;
+
+    @Column(name = "trades", nullable = false)
+    private Long trades;
+
+    @Column(name = "sketch", nullable = false, columnDefinition = "BYTEA")
+    private byte[] sketch;
+
+    @Column(name = "updated_at", nullable = false)
+    private OffsetDateTime updatedAt;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private Long userId;
+        private String symbol;
+        private String metric;
+    }
+}
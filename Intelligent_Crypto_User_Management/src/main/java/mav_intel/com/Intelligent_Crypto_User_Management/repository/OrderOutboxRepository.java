@@ -0,0 +1,39 @@
+package mav_intel.com.Intelligent_Crypto_User_Management.repository;
+
+import mav_intel.com.Intelligent_Crypto_User_Management.model.OrderOutbox;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.OffsetDateTime;
+import java.util.Collection;
+
+@Repository
+public interface OrderOutboxRepository extends JpaRepository<OrderOutbox, Long> {
+
+    @Transactional
+    @Modifying
+    @Query("update OrderOutbox o set o.status = 'DONE', o.lastError = null, o.lockedUntil = null, o.updatedAt = :now "
+            + "where o.id = :id and o.lockedBy = :lockedBy")
+    int markDone(@Param("id") Long id, @Param("lockedBy") String lockedBy, @Param("now") OffsetDateTime now);
+
+    @Transactional
+    @Modifying
+    @Query("update OrderOutbox o set o.status = 'PENDING', o.nextAttemptAt = :nextAttemptAt, o.lastError = :error, "
+            + "o.lockedBy = null, o.lockedUntil = null, o.updatedAt = :now where o.id = :id and o.lockedBy = :lockedBy")
+    int scheduleRetry(@Param("id") Long id, @Param("lockedBy") String lockedBy, @Param("nextAttemptAt") OffsetDateTime nextAttemptAt,
+                      @Param("error") String error, @Param("now") OffsetDateTime now);
+
+    @Transactional
+    @Modifying
+    @Query("update OrderOutbox o set o.status = 'FAILED', o.lastError = :error, o.lockedUntil = null, o.updatedAt = :now "
+            + "where o.id = :id and o.lockedBy = :lockedBy")
+    int markFailed(@Param("id") Long id, @Param("lockedBy") String lockedBy, @Param("error") String error, @Param("now") OffsetDateTime now);
+
+    boolean existsByTradeIdAndStatusIn(Long tradeId, Collection<String> statuses);
+
+    long countByStatus(String status);
+}
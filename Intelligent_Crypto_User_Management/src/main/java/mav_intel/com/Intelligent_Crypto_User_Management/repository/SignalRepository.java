@@ -1,22 +1,43 @@
 package mav_intel.com.Intelligent_Crypto_User_Management.repository;
 
+import mav_intel.com.Intelligent_Crypto_User_Management.dto.SignalSummary;
 import mav_intel.com.Intelligent_Crypto_User_Management.model.Signal;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.OffsetDateTime;
 import java.util.List;
 
 @Repository
 public interface SignalRepository extends JpaRepository<Signal, Long> {
-    // Find signals by pair (e.g., BTCUSDT)
-    List<Signal> findByPair(String pair);
 
-    // Find signals by setup type
-    List<Signal> findBySetupType(String setupType);
+    // Lean projection for list views - never selects full_message
+    String SUMMARY_SELECT = "select new mav_intel.com.Intelligent_Crypto_User_Management.dto.SignalSummary("
+            + "s.id, s.pair, s.setupType, s.entry, s.leverage, s.tp1, s.tp2, s.tp3, s.tp4, "
+            + "s.stopLoss, s.timestamp, s.channel, s.quantity, s.userId) from Signal s ";
 
-    // Find all signals sorted by newest first (by id descending)
-    List<Signal> findAllByOrderByIdDesc();
+    // All list queries are bounded by timestamp so partition pruning keeps them on recent partitions
 
-    // Find signals by channel
-    List<Signal> findByChannel(String channel);
+    // Find recent signals by pair (e.g., BTCUSDT)
+    @Transactional(readOnly = true)
+    @Query(SUMMARY_SELECT + "where s.pair = :pair and s.timestamp >= :since order by s.id desc")
+    List<SignalSummary> findSummariesByPair(@Param("pair") String pair, @Param("since") OffsetDateTime since);
+
+    // Find recent signals by setup type
+    @Transactional(readOnly = true)
+    @Query(SUMMARY_SELECT + "where s.setupType = :setupType and s.timestamp >= :since order by s.id desc")
+    List<SignalSummary> findSummariesBySetupType(@Param("setupType") String setupType, @Param("since") OffsetDateTime since);
+
+    // Find recent signals sorted by newest first (by id descending)
+    @Transactional(readOnly = true)
+    @Query(SUMMARY_SELECT + "where s.timestamp >= :since order by s.id desc")
+    List<SignalSummary> findRecentSummaries(@Param("since") OffsetDateTime since);
+
+    // Find recent signals by channel
+    @Transactional(readOnly = true)
+    @Query(SUMMARY_SELECT + "where s.channel = :channel and s.timestamp >= :since order by s.id desc")
+    List<SignalSummary> findSummariesByChannel(@Param("channel") String channel, @Param("since") OffsetDateTime since);
 }
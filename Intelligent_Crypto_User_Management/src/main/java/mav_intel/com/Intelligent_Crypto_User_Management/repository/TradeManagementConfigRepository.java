@@ -4,11 +4,15 @@ import mav_intel.com.Intelligent_Crypto_User_Management.model.TradeManagementCon
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface TradeManagementConfigRepository extends JpaRepository<TradeManagementConfig, Long> {
     Optional<TradeManagementConfig> findByUserId(Long userId);
 
+    List<TradeManagementConfig> findByUserIdIn(Collection<Long> userIds);
+
     void deleteByUserId(Long userId);
 }
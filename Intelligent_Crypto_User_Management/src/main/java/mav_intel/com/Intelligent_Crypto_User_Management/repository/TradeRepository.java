@@ -1,18 +1,92 @@
 package mav_intel.com.Intelligent_Crypto_User_Management.repository;
 
+import mav_intel.com.Intelligent_Crypto_User_Management.dto.TradeSummary;
 import mav_intel.com.Intelligent_Crypto_User_Management.model.Trade;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.OffsetDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface TradeRepository extends JpaRepository<Trade, Long> {
-    List<Trade> findByStatus(String status);
-    List<Trade> findByStatusAndUserId(String status, Long userId);
-    List<Trade> findByUserId(Long userId);
-    List<Trade> findByUserIdOrderByOpenedAtDesc(Long userId);
-    List<Trade> findByPair(String pair);
-    List<Trade> findBySignalId(Long signalId);
-    List<Trade> findAllByOrderByOpenedAtDesc();
+
+    // Lean projection for listings and analytics - plain objects, not managed entities
+    String SUMMARY_SELECT = "select new mav_intel.com.Intelligent_Crypto_User_Management.dto.TradeSummary("
+            + "t.id, t.userId, t.signalId, t.pair, t.side, t.leverage, t.entryPrice, t.entryQuantity, "
+            + "t.stopLoss, t.tp1, t.tp2, t.tp3, t.tp4, t.status, t.binanceOrderId, t.openedAt, t.closedAt, "
+            + "t.exitPrice, t.pnl, t.pnlPercent, t.exitReason) from Trade t ";
+
+    @Transactional(readOnly = true)
+    @Query(SUMMARY_SELECT + "where t.status = :status")
+    List<TradeSummary> findSummariesByStatus(@Param("status") String status);
+
+    // Literal status, so every partition answers from its partial idx_trades_open index
+    // (a bound :status parameter cannot match a partial index under a generic plan)
+    @Transactional(readOnly = true)
+    @Query(SUMMARY_SELECT + "where t.status = 'OPEN'")
+    List<TradeSummary> findOpenSummaries();
+
+    @Transactional(readOnly = true)
+    @Query(SUMMARY_SELECT + "where t.status = :status and t.userId = :userId")
+    List<TradeSummary> findSummariesByStatusAndUserId(@Param("status") String status, @Param("userId") Long userId);
+
+    @Transactional(readOnly = true)
+    @Query(SUMMARY_SELECT + "where t.userId = :userId order by t.openedAt desc")
+    List<TradeSummary> findSummariesByUserIdOrderByOpenedAtDesc(@Param("userId") Long userId);
+
+    @Transactional(readOnly = true)
+    @Query(SUMMARY_SELECT + "where t.pair = :pair")
+    List<TradeSummary> findSummariesByPair(@Param("pair") String pair);
+
+    @Transactional(readOnly = true)
+    @Query(SUMMARY_SELECT + "where t.signalId = :signalId")
+    List<TradeSummary> findSummariesBySignalId(@Param("signalId") Long signalId);
+
+    @Transactional(readOnly = true)
+    @Query(SUMMARY_SELECT + "where t.id in :ids")
+    List<TradeSummary> findSummariesByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Transactional(readOnly = true)
+    @Query(SUMMARY_SELECT + "order by t.openedAt desc")
+    List<TradeSummary> findAllSummariesOrderByOpenedAtDesc();
+
+    // PENDING trades without an open outbox intent (e.g. a crash right after the trade was written):
+    // nothing else will ever dispatch or fail them
+    @Transactional(readOnly = true)
+    @Query("select t.id from Trade t where t.status = 'PENDING' and t.openedAt < :before and not exists ("
+            + "select 1 from OrderOutbox o where o.tradeId = t.id and o.status in ('PENDING', 'IN_FLIGHT'))")
+    List<Long> findOrphanedPendingIds(@Param("before") OffsetDateTime before);
+
+    // Users by their latest trade, most recent first (config cache warm-up)
+    @Transactional(readOnly = true)
+    @Query("select t.userId from Trade t where t.userId is not null group by t.userId order by max(t.openedAt) desc")
+    List<Long> findUserIdsByLatestTrade(Pageable pageable);
+
+    // Idempotency check for queued signal executions (a job can be re-run after a lease expiry)
+    Optional<Trade> findFirstBySignalIdAndUserId(Long signalId, Long userId);
+
+    // ============ PARTIAL UPDATES (lifecycle transitions) ============
+    // openedAt is the partition key of trades: with it the update touches one monthly partition
+
+    @Transactional
+    @Modifying
+    @Query("update Trade t set t.status = :status, t.binanceOrderId = coalesce(:orderId, t.binanceOrderId) "
+            + "where t.id = :id and t.openedAt = :openedAt")
+    int updateStatusAndOrderId(@Param("id") Long id, @Param("openedAt") OffsetDateTime openedAt,
+                               @Param("status") String status, @Param("orderId") String orderId);
+
+    @Transactional
+    @Modifying
+    @Query("update Trade t set t.status = 'CLOSED', t.closedAt = :closedAt, t.exitReason = coalesce(:exitReason, t.exitReason) "
+            + "where t.id = :id and t.openedAt = :openedAt and t.status <> 'CLOSED'")
+    int markClosed(@Param("id") Long id, @Param("openedAt") OffsetDateTime openedAt,
+                   @Param("closedAt") OffsetDateTime closedAt, @Param("exitReason") String exitReason);
 }
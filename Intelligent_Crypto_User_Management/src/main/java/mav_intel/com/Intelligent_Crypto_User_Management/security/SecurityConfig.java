@@ -75,12 +75,17 @@ public class SecurityConfig {
                 .csrf(csrf -> csrf.disable())
                 .authorizeHttpRequests(auth -> auth
                         .requestMatchers("/auth/login", "/auth/register", "/auth/test", "/auth/health").permitAll()
+                        .requestMatchers("/api/signals/export").hasAnyRole("USER", "ADMIN")
                         .requestMatchers("/api/signals/**").permitAll()
                         .requestMatchers("/api/webhook/**").permitAll()
+                        .requestMatchers("/api/health/**").permitAll()
                         .requestMatchers("/admin/**").hasRole("ADMIN")
+                        .requestMatchers("/api/metrics/**").hasRole("ADMIN")
+                        .requestMatchers("/api/backtest/**").hasRole("ADMIN")
                         .requestMatchers("/api/user/**").hasAnyRole("USER", "ADMIN")
                         .requestMatchers("/api/config/**").hasAnyRole("USER", "ADMIN")
                         .requestMatchers("/api/trades/**").hasAnyRole("USER", "ADMIN")
+                        .requestMatchers("/api/analytics/**").hasAnyRole("USER", "ADMIN")
                         .anyRequest().authenticated()
                 )
                 .addFilterBefore(jwtAuthFilter, UsernamePasswordAuthenticationFilter.class);
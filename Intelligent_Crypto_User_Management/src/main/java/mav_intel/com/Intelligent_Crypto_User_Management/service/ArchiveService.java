@@ -0,0 +1,236 @@
+package mav_intel.com.Intelligent_Crypto_User_Management.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedWriter;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Moves old closed trades and old signals out of Postgres into gzip NDJSON files
+ *
+ * - Trades: CLOSED/FAILED rows whose closed_at (or opened_at) is older than the retention window
+ * - Signals: rows older than the window that no trade references any more, i.e. a signal
+ *   is archived with (or after) the last of its trades, so trades.signal_id never dangles
+ * - Each file holds up to rows-per-file rows: written to a .tmp file, fsynced and renamed,
+ *   and only then are its rows deleted. A crash never loses a row; a crash between the
+ *   rename and the delete archives those rows again on the next run (dedupe by id)
+ * - Afterwards, monthly partitions that became empty are dropped
+ */
+@Slf4j
+@Service
+public class ArchiveService {
+
+    private static final DateTimeFormatter FILE_STAMP = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss");
+
+    // opened_at <= closed_at, so the opened_at bound only prunes partitions
+    private static final String TRADES_SQL =
+            "SELECT * FROM trades WHERE opened_at < ? AND status IN ('CLOSED', 'FAILED') " +
+            "AND COALESCE(closed_at, opened_at) < ? AND id > ? ORDER BY id LIMIT ?";
+
+    private static final String SIGNALS_SQL =
+            "SELECT * FROM signal_messages s WHERE s.\"timestamp\" < ? AND s.id > ? " +
+            "AND NOT EXISTS (SELECT 1 FROM trades t WHERE t.signal_id = s.id) " +
+            "ORDER BY s.id LIMIT ?";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private PartitionMaintenanceService partitionMaintenanceService;
+
+    @Autowired
+    private ClusterCoordinator clusterCoordinator;
+
+    @Autowired
+    private ColumnarTradeStore columnarTradeStore;
+
+    @Value("${archive.enabled:false}")
+    private boolean enabled;
+
+    @Value("${archive.retention-months:12}")
+    private int retentionMonths;
+
+    @Value("${archive.dir:./archive}")
+    private String archiveDir;
+
+    @Value("${archive.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${archive.rows-per-file:50000}")
+    private int rowsPerFile;
+
+    /**
+     * Nightly archival run (leader node only - archive files land on that node's archive.dir)
+     */
+    @Scheduled(cron = "${archive.cron:0 30 3 * * *}")
+    public void scheduledArchive() {
+        if (!enabled || !clusterCoordinator.isLeader("archive")) {
+            return;
+        }
+        archiveOlderThan(LocalDate.now(ZoneOffset.UTC).minusMonths(retentionMonths).withDayOfMonth(1));
+    }
+
+    /**
+     * Archive everything older than the cutoff (start of day, UTC)
+     *
+     * @return rows archived per table
+     */
+    public Map<String, Integer> archiveOlderThan(LocalDate cutoff) {
+        OffsetDateTime cutoffTime = cutoff.atStartOfDay().atOffset(ZoneOffset.UTC);
+        Map<String, Integer> result = new LinkedHashMap<>();
+        try {
+            log.info("📦 Archiving trades and signals older than {}", cutoff);
+            // Trades first: their signals become unreferenced and follow in the same run
+            result.put("trades", archiveTable("trades", TRADES_SQL, cutoffTime, cutoffTime));
+            if (result.get("trades") > 0) {
+                columnarTradeStore.clear();
+            }
+            result.put("signal_messages", archiveTable("signal_messages", SIGNALS_SQL, cutoffTime));
+
+            for (String table : PartitionMaintenanceService.PARTITIONED_TABLES.keySet()) {
+                partitionMaintenanceService.dropEmptyPartitionsBefore(table, cutoff);
+            }
+            log.info("✅ Archive complete: {}", result);
+        } catch (Exception e) {
+            log.error("❌ Archive run failed: {}", e.getMessage(), e);
+        }
+        return result;
+    }
+
+    // ============ HELPER METHODS ============
+
+    /**
+     * @param filter leading parameters of selectSql; id > ? and LIMIT ? follow them
+     */
+    private int archiveTable(String table, String selectSql, Object... filter) throws IOException {
+        Path dir = Paths.get(archiveDir, table);
+        Files.createDirectories(dir);
+        deleteTempFiles(dir);
+        String stamp = OffsetDateTime.now(ZoneOffset.UTC).format(FILE_STAMP);
+
+        int total = 0;
+        long lastId = 0;
+        for (int part = 0; ; part++) {
+            String name = table + "-" + stamp + "-" + part + ".ndjson.gz";
+            Path temp = dir.resolve(name + ".tmp");
+            List<Long> ids = new ArrayList<>();
+
+            try (FileOutputStream fileOut = new FileOutputStream(temp.toFile());
+                 GZIPOutputStream gzip = new GZIPOutputStream(fileOut, 64 * 1024);
+                 BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(gzip, StandardCharsets.UTF_8))) {
+
+                while (ids.size() < rowsPerFile) {
+                    List<Map<String, Object>> rows = jdbcTemplate.queryForList(selectSql,
+                            params(filter, lastId, Math.min(batchSize, rowsPerFile - ids.size())));
+                    if (rows.isEmpty()) {
+                        break;
+                    }
+                    for (Map<String, Object> row : rows) {
+                        writer.write(objectMapper.writeValueAsString(normalize(row)));
+                        writer.newLine();
+                        ids.add(((Number) row.get("id")).longValue());
+                    }
+                    lastId = ids.get(ids.size() - 1);
+                }
+                // Complete gzip stream on disk before the file becomes visible
+                writer.flush();
+                gzip.finish();
+                fileOut.getFD().sync();
+            }
+
+            if (ids.isEmpty()) {
+                Files.delete(temp);
+                break;
+            }
+            Path file = dir.resolve(name);
+            Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE);
+            syncDirectory(dir);
+
+            for (int from = 0; from < ids.size(); from += batchSize) {
+                deleteByIds(table, ids.subList(from, Math.min(ids.size(), from + batchSize)));
+            }
+            total += ids.size();
+            log.info("📦 Archived {} rows from {} to {}", ids.size(), table, file);
+
+            if (ids.size() < rowsPerFile) {
+                break;
+            }
+        }
+        return total;
+    }
+
+    private static Object[] params(Object[] filter, long lastId, int limit) {
+        Object[] params = new Object[filter.length + 2];
+        System.arraycopy(filter, 0, params, 0, filter.length);
+        params[filter.length] = lastId;
+        params[filter.length + 1] = limit;
+        return params;
+    }
+
+    /**
+     * Leftovers of a crashed run: their rows were never deleted, so they are archived again
+     */
+    private static void deleteTempFiles(Path dir) throws IOException {
+        List<Path> temps;
+        try (Stream<Path> files = Files.list(dir)) {
+            temps = files.filter(file -> file.toString().endsWith(".tmp")).collect(Collectors.toList());
+        }
+        for (Path temp : temps) {
+            log.warn("⚠️ Removing incomplete archive file {}", temp);
+            Files.delete(temp);
+        }
+    }
+
+    // Make the rename durable (directory entry) before deleting the rows
+    private static void syncDirectory(Path dir) {
+        try (FileChannel channel = FileChannel.open(dir, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            // Not supported on every platform (e.g. Windows)
+            log.debug("Directory fsync not supported for {}: {}", dir, e.getMessage());
+        }
+    }
+
+    private void deleteByIds(String table, List<Long> ids) {
+        String placeholders = ids.stream().map(id -> "?").collect(Collectors.joining(","));
+        jdbcTemplate.update("DELETE FROM " + table + " WHERE id IN (" + placeholders + ")", ids.toArray());
+    }
+
+    private Map<String, Object> normalize(Map<String, Object> row) {
+        Map<String, Object> out = new LinkedHashMap<>(row);
+        out.replaceAll((column, value) -> value instanceof Timestamp
+                ? ((Timestamp) value).toInstant().toString()
+                : value);
+        return out;
+    }
+}
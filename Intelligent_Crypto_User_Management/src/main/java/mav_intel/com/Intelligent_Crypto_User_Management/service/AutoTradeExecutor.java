@@ -3,13 +3,16 @@ package mav_intel.com.Intelligent_Crypto_User_Management.service;
 import lombok.extern.slf4j.Slf4j;
 import mav_intel.com.Intelligent_Crypto_User_Management.dto.ExecuteTradeRequest;
 import mav_intel.com.Intelligent_Crypto_User_Management.dto.ExecuteTradeResponse;
+import mav_intel.com.Intelligent_Crypto_User_Management.dto.SignalSummary;
 import mav_intel.com.Intelligent_Crypto_User_Management.model.Signal;
 import mav_intel.com.Intelligent_Crypto_User_Management.repository.SignalRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.OffsetDateTime;
 import java.util.List;
 
 /**
@@ -18,6 +21,9 @@ import java.util.List;
  * 1. Telegram signal webhooks (from Python backend)
  * 2. Manual API calls
  * 3. Scheduled tasks
+ *
+ * Executions go through the signal-execution job queue, so with several
+ * backend nodes each signal is executed by exactly one of them
  */
 @Slf4j
 @Service
@@ -29,17 +35,27 @@ public class AutoTradeExecutor {
     @Autowired
     private SignalRepository signalRepository;
 
+    @Autowired
+    private SignalExecutionJobHandler signalExecutionJobHandler;
+
+    @Autowired
+    private ClusterCoordinator clusterCoordinator;
+
     @Value("${trade.max-concurrent-trades:5}")
     private int maxConcurrentTrades;
 
     @Value("${trade.min-signal-confidence:0.8}")
     private double minSignalConfidence;
 
+    // Only signals from the last N days are considered by the pending sweep
+    @Value("${trade.pending-signal-window-days:1}")
+    private int pendingWindowDays;
+
     /**
      * Execute trade from signal asynchronously
      */
     @Async
-    public void executeTradeAsync(Signal signal) {
+    public void executeTradeAsync(SignalSummary signal) {
         try {
             log.info("🔄 Async trade execution started for signal ID: {}", signal.getId());
             ExecuteTradeRequest request = convertSignalToTradeRequest(signal);
@@ -53,7 +69,7 @@ public class AutoTradeExecutor {
     /**
      * Execute trade synchronously (for immediate execution)
      */
-    public ExecuteTradeResponse executeTradeSync(Signal signal) {
+    public ExecuteTradeResponse executeTradeSync(SignalSummary signal) {
         try {
             log.info("🚀 Synchronous trade execution for signal ID: {}", signal.getId());
             ExecuteTradeRequest request = convertSignalToTradeRequest(signal);
@@ -65,27 +81,42 @@ public class AutoTradeExecutor {
     }
 
     /**
-     * Execute all pending signals
+     * Save an incoming signal and queue its execution in one transaction
+     * Either both rows exist or neither does - a crash can't lose the execution
+     */
+    @Transactional
+    public Signal saveAndQueue(Signal signal, ExecuteTradeRequest request) throws Exception {
+        Signal saved = signalRepository.save(signal);
+        request.setSignalId(saved.getId());
+        signalExecutionJobHandler.enqueue(request);
+        return saved;
+    }
+
+    /**
+     * Queue all pending signals for execution
+     * Sharded by account: each node only sweeps the accounts it owns
      */
     public void executePendingSignals() {
         try {
             log.info("🔍 Checking for pending signals to execute...");
-            List<Signal> signals = signalRepository.findAll();
+            List<SignalSummary> signals = signalRepository.findRecentSummaries(OffsetDateTime.now().minusDays(pendingWindowDays));
 
             int executeCount = 0;
-            for (Signal signal : signals) {
+            for (SignalSummary signal : signals) {
                 if (executeCount >= maxConcurrentTrades) {
                     log.warn("⚠️ Max concurrent trades ({}) reached. Stopping execution.", maxConcurrentTrades);
                     break;
                 }
 
-                if (shouldExecuteSignal(signal)) {
-                    executeTradeAsync(signal);
+                if (!clusterCoordinator.ownsAccount(signal.getUserId())) {
+                    continue;
+                }
+                if (shouldExecuteSignal(signal) && signalExecutionJobHandler.enqueue(convertSignalToTradeRequest(signal))) {
                     executeCount++;
                 }
             }
 
-            log.info("✅ Pending signal execution complete. Executed: {} trades", executeCount);
+            log.info("✅ Pending signal sweep complete. Queued: {} trades", executeCount);
         } catch (Exception e) {
             log.error("❌ Error executing pending signals: {}", e.getMessage(), e);
         }
@@ -95,7 +126,7 @@ public class AutoTradeExecutor {
      * Determine if a signal should be executed
      * Can be extended with more validation logic
      */
-    private boolean shouldExecuteSignal(Signal signal) {
+    private boolean shouldExecuteSignal(SignalSummary signal) {
         // Check required fields
         if (signal.getPair() == null || signal.getEntry() == null) {
             log.warn("⚠️ Signal {} missing required fields", signal.getId());
@@ -115,7 +146,7 @@ public class AutoTradeExecutor {
     /**
      * Convert Signal to ExecuteTradeRequest
      */
-    private ExecuteTradeRequest convertSignalToTradeRequest(Signal signal) {
+    private ExecuteTradeRequest convertSignalToTradeRequest(SignalSummary signal) {
         ExecuteTradeRequest request = new ExecuteTradeRequest();
 
         // Convert LONG/SHORT to BUY/SELL
@@ -132,6 +163,7 @@ public class AutoTradeExecutor {
         request.setStopLoss(signal.getStopLoss());
         request.setQuantity(signal.getQuantity()); // Can be null, auto-calculated
         request.setSignalId(signal.getId());
+        request.setUserId(signal.getUserId());
 
         return request;
     }
@@ -0,0 +1,47 @@
+package mav_intel.com.Intelligent_Crypto_User_Management.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+/**
+ * Persisted progress of backfills that build a derived table from the whole trade history
+ *
+ * A backfill walks trades by id and records the last id it applied after every batch,
+ * so a crash or a leader change resumes where it stopped. Completion is explicit: it is
+ * never inferred from the derived table having rows (closes applied by events before the
+ * first run would otherwise end the backfill before it started). Deleting the row
+ * restarts the backfill from the first trade.
+ */
+@Service
+public class BackfillCursorStore {
+
+    /**
+     * @param lastTradeId trades up to this id are applied
+     * @param complete    the whole history was applied once
+     */
+    public record Cursor(long lastTradeId, boolean complete) {
+    }
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    public Cursor get(String name) {
+        List<Cursor> rows = jdbcTemplate.query("SELECT last_trade_id, completed_at FROM backfill_cursor WHERE name = ?",
+                (rs, i) -> new Cursor(rs.getLong("last_trade_id"), rs.getTimestamp("completed_at") != null), name);
+        return rows.isEmpty() ? new Cursor(0, false) : rows.get(0);
+    }
+
+    public void advance(String name, long lastTradeId) {
+        jdbcTemplate.update("INSERT INTO backfill_cursor (name, last_trade_id) VALUES (?, ?) " +
+                "ON CONFLICT (name) DO UPDATE SET last_trade_id = EXCLUDED.last_trade_id, updated_at = now()",
+                name, lastTradeId);
+    }
+
+    public void complete(String name) {
+        jdbcTemplate.update("INSERT INTO backfill_cursor (name, completed_at) VALUES (?, now()) " +
+                "ON CONFLICT (name) DO UPDATE SET completed_at = now(), updated_at = now()", name);
+    }
+}
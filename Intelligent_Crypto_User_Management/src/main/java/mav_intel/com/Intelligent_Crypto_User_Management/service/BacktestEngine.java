@@ -0,0 +1,357 @@
+package mav_intel.com.Intelligent_Crypto_User_Management.service;
+
+import mav_intel.com.Intelligent_Crypto_User_Management.dto.BacktestResultDTO;
+import mav_intel.com.Intelligent_Crypto_User_Management.dto.TradeConfigSnapshot;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.function.Function;
+
+/**
+ * Replays signals in time order against candles under one trade management config
+ *
+ * Orders are built exactly like TradeService.placeBinanceOrder (OrderSizing): capped
+ * leverage, entry quantity from the signal or 50% of the available balance, capped
+ * to maxPositionSize, rounded/stepped with the symbol filters, rejected below
+ * MIN_NOTIONAL; a GTC LIMIT entry, a reduce-only STOP_MARKET for the whole position
+ * and reduce-only TAKE_PROFIT_MARKET legs TP1-TP4 with the config's quantity split.
+ *
+ * Fill model per candle (OHLC only, so intra-candle order is resolved pessimistically):
+ * - Entry: fills at the open if the limit is marketable on the first candle
+ *   (taker fee), otherwise when the price trades through the limit (maker fee)
+ * - Legs are live from placement: a TP or SL that triggers before the entry has
+ *   filled finds no position and is rejected, as reduce-only orders are
+ * - In a candle that reaches both a stop and a take-profit, the stop wins; in the
+ *   entry candle only the stop can trigger
+ * - Stops and TPs fill at their price, or at the open when the candle gaps through
+ *   it (taker fee); the stop closes whatever is left of the position
+ * - Isolated liquidation at entry * (1 -/+ 1/leverage +/- maintenance margin), if it
+ *   comes before the stop; this is where the leverage cap matters
+ * - Still open after maxHold (or at the end of the data): closed at the market
+ *
+ * Balance: available = realized equity - margin reserved by orders not yet closed
+ * (notional / leverage, from placement until close or expiry). As in the live path,
+ * a signal is skipped when the available balance is 10 USDT or less.
+ *
+ * Not thread-safe per instance; the inputs (signals, candles) are shared read-only.
+ */
+final class BacktestEngine {
+
+    /**
+     * A stored signal as the webhook turns it into a trade (LONG = BUY, anything else SELL)
+     *
+     * @param buy         null when the signal has no setup type
+     * @param leverage    null when the signal has none
+     * @param stopLoss    0 when the signal has none
+     * @param takeProfits TP1-TP4 prices, 0 when missing
+     */
+    record Signal(long id, long time, String symbol, Boolean buy, double entry, Integer leverage,
+                  Double quantity, double stopLoss, double[] takeProfits) {
+    }
+
+    record Settings(double startingBalance, double makerFee, double takerFee, double maintenanceMargin,
+                    long maxHoldMillis) {
+    }
+
+    /**
+     * One trade: entry filled or not, when its margin is released, net pnl after fees
+     */
+    record Outcome(boolean filled, long endTime, double pnl, double fees, String exitReason) {
+    }
+
+    private record Pending(Outcome outcome, double margin) {
+    }
+
+    private static final double MIN_BALANCE = 10;
+    private static final double EPSILON = 1e-12;
+
+    private final Function<String, KlineSeries> klines;
+    private final Function<String, SymbolFilters> filters;
+    private final Settings settings;
+
+    BacktestEngine(Function<String, KlineSeries> klines, Function<String, SymbolFilters> filters, Settings settings) {
+        this.klines = klines;
+        this.filters = filters;
+        this.settings = settings;
+    }
+
+    // ============ PORTFOLIO ============
+
+    /**
+     * @param signals in ascending time order
+     */
+    BacktestResultDTO run(String name, List<Signal> signals, TradeConfigSnapshot config) {
+        long started = System.nanoTime();
+        Portfolio portfolio = new Portfolio(settings.startingBalance());
+
+        for (Signal signal : signals) {
+            portfolio.settle(signal.time());
+            KlineSeries series = klines.apply(signal.symbol());
+            if (series == null) {
+                portfolio.skip("noKlines");
+                continue;
+            }
+            // Signals the live executor rejects or cannot size (no setup type, no leverage)
+            if (!(signal.entry() > 0) || signal.buy() == null || signal.leverage() == null) {
+                portfolio.skip("invalid");
+                continue;
+            }
+            double available = portfolio.equity - portfolio.reservedMargin;
+            if (available <= MIN_BALANCE) {
+                portfolio.skip("balance");
+                continue;
+            }
+
+            SymbolFilters symbolFilters = filters.apply(signal.symbol());
+            int leverage = OrderSizing.cappedLeverage(signal.leverage(), config);
+            double quantity = OrderSizing.placedEntryQuantity(signal.quantity(), signal.entry(), available, config, symbolFilters);
+            if (quantity * signal.entry() < symbolFilters.minNotional) {
+                portfolio.skip("minNotional");
+                continue;
+            }
+            double entryPrice = OrderSizing.roundPrice(signal.entry(), symbolFilters.pricePrecision);
+            double stopLoss = signal.stopLoss() > 0 ? OrderSizing.roundPrice(signal.stopLoss(), symbolFilters.pricePrecision) : 0;
+            double[] tpPrices = new double[4];
+            for (int k = 0; k < 4; k++) {
+                double price = signal.takeProfits()[k];
+                tpPrices[k] = price > 0 ? OrderSizing.roundPrice(price, symbolFilters.pricePrecision) : 0;
+            }
+            double[] tpQuantities = OrderSizing.takeProfitQuantities(quantity, config, symbolFilters);
+
+            Outcome outcome = simulate(series, signal.time(), signal.buy(), entryPrice, quantity, leverage,
+                    stopLoss, tpPrices, tpQuantities);
+            portfolio.open(outcome, quantity * entryPrice / leverage);
+            if (!outcome.filled()) {
+                portfolio.skip("notFilled");
+            }
+        }
+        portfolio.settle(Long.MAX_VALUE);
+        return portfolio.result(name, signals.size(), settings.startingBalance(), System.nanoTime() - started);
+    }
+
+    /**
+     * Realized equity, reserved margin and statistics, advanced in close-time order
+     */
+    private static final class Portfolio {
+        double equity;
+        double reservedMargin;
+        double peak;
+        double maxDrawdown;
+        double maxDrawdownPercent;
+        double fees;
+        double grossProfit;
+        double grossLoss;
+        int trades;
+        int wins;
+        int losses;
+        final PriorityQueue<Pending> pending =
+                new PriorityQueue<>((a, b) -> Long.compare(a.outcome().endTime(), b.outcome().endTime()));
+        final Map<String, Integer> skipped = new TreeMap<>();
+        final Map<String, Integer> exitReasons = new TreeMap<>();
+        final Map<LocalDate, Double> daily = new LinkedHashMap<>();
+
+        Portfolio(double startingBalance) {
+            equity = startingBalance;
+            peak = startingBalance;
+        }
+
+        void skip(String reason) {
+            skipped.merge(reason, 1, Integer::sum);
+        }
+
+        void open(Outcome outcome, double margin) {
+            reservedMargin += margin;
+            pending.add(new Pending(outcome, margin));
+        }
+
+        void settle(long time) {
+            while (!pending.isEmpty() && pending.peek().outcome().endTime() <= time) {
+                Pending closed = pending.poll();
+                reservedMargin -= closed.margin();
+                Outcome outcome = closed.outcome();
+                if (!outcome.filled()) {
+                    continue;
+                }
+                trades++;
+                equity += outcome.pnl();
+                fees += outcome.fees();
+                if (outcome.pnl() > 0) {
+                    wins++;
+                    grossProfit += outcome.pnl();
+                } else if (outcome.pnl() < 0) {
+                    losses++;
+                    grossLoss -= outcome.pnl();
+                }
+                exitReasons.merge(outcome.exitReason(), 1, Integer::sum);
+                peak = Math.max(peak, equity);
+                maxDrawdown = Math.max(maxDrawdown, peak - equity);
+                if (peak > 0) {
+                    maxDrawdownPercent = Math.max(maxDrawdownPercent, (peak - equity) * 100 / peak);
+                }
+                daily.put(Instant.ofEpochMilli(outcome.endTime()).atOffset(ZoneOffset.UTC).toLocalDate(), equity);
+            }
+        }
+
+        BacktestResultDTO result(String name, int signals, double startingBalance, long elapsedNanos) {
+            List<BacktestResultDTO.Point> points = new ArrayList<>(daily.size());
+            daily.forEach((day, value) -> points.add(new BacktestResultDTO.Point(day, money(value))));
+            double netPnl = equity - startingBalance;
+            return BacktestResultDTO.builder()
+                    .name(name)
+                    .signals(signals)
+                    .trades(trades)
+                    .skipped(skipped)
+                    .wins(wins)
+                    .losses(losses)
+                    .winRate(trades > 0 ? BigDecimal.valueOf(wins * 100.0 / trades).setScale(2, RoundingMode.HALF_UP) : BigDecimal.ZERO)
+                    .exitReasons(exitReasons)
+                    .netPnl(money(netPnl))
+                    .fees(money(fees))
+                    .expectancy(trades > 0 ? money(netPnl / trades) : BigDecimal.ZERO)
+                    .profitFactor(grossLoss > 0 ? BigDecimal.valueOf(grossProfit / grossLoss).setScale(4, RoundingMode.HALF_UP) : null)
+                    .startingBalance(money(startingBalance))
+                    .finalEquity(money(equity))
+                    .returnPercent(startingBalance > 0
+                            ? BigDecimal.valueOf(netPnl * 100 / startingBalance).setScale(2, RoundingMode.HALF_UP) : null)
+                    .maxDrawdown(money(maxDrawdown))
+                    .maxDrawdownPercent(BigDecimal.valueOf(maxDrawdownPercent).setScale(2, RoundingMode.HALF_UP))
+                    .equity(points)
+                    .elapsedMillis(elapsedNanos / 1_000_000)
+                    .build();
+        }
+
+        private static BigDecimal money(double value) {
+            return BigDecimal.valueOf(value).setScale(8, RoundingMode.HALF_UP).stripTrailingZeros();
+        }
+    }
+
+    // ============ ONE TRADE ============
+
+    /**
+     * Walk the candles from the signal time: wait for the entry, then apply the bracket legs
+     */
+    Outcome simulate(KlineSeries series, long time, boolean buy, double entryPrice, double quantity, int leverage,
+                     double stopLoss, double[] tpPrices, double[] tpQuantities) {
+        long deadline = settings.maxHoldMillis() > 0 ? time + settings.maxHoldMillis() : Long.MAX_VALUE;
+        long interval = series.intervalMillis();
+        int first = series.firstAtOrAfter(time);
+        int size = series.size();
+
+        boolean stopLive = stopLoss > 0;
+        boolean[] tpLive = new boolean[4];
+        for (int k = 0; k < 4; k++) {
+            tpLive[k] = tpPrices[k] > 0 && tpQuantities[k] > 0;
+        }
+
+        // Waiting for the entry
+        int fillIndex = -1;
+        double fillPrice = 0;
+        double fees = 0;
+        int index = first;
+        for (; index < size && series.openTime(index) < deadline; index++) {
+            double open = series.open(index);
+            if (index == first && (buy ? open <= entryPrice : open >= entryPrice)) {
+                fillIndex = index;
+                fillPrice = open;
+                fees = open * quantity * settings.takerFee();
+                break;
+            }
+            if (buy ? series.low(index) <= entryPrice : series.high(index) >= entryPrice) {
+                fillIndex = index;
+                fillPrice = entryPrice;
+                fees = entryPrice * quantity * settings.makerFee();
+                break;
+            }
+            // Triggered without a position: reduce-only legs are rejected
+            double favourable = buy ? series.high(index) : series.low(index);
+            double adverse = buy ? series.low(index) : series.high(index);
+            for (int k = 0; k < 4; k++) {
+                if (tpLive[k] && (buy ? favourable >= tpPrices[k] : favourable <= tpPrices[k])) {
+                    tpLive[k] = false;
+                }
+            }
+            if (stopLive && (buy ? adverse <= stopLoss : adverse >= stopLoss)) {
+                stopLive = false;
+            }
+        }
+        if (fillIndex < 0) {
+            long end = index < size ? Math.min(deadline, series.openTime(index))
+                    : size > 0 ? Math.max(time, series.openTime(size - 1) + interval) : time;
+            return new Outcome(false, end, 0, 0, null);
+        }
+
+        // In the position
+        double liquidation = buy
+                ? fillPrice * (1 - 1.0 / leverage + settings.maintenanceMargin())
+                : fillPrice * (1 + 1.0 / leverage - settings.maintenanceMargin());
+        double remaining = quantity;
+        double pnl = 0;
+        String exitReason = null;
+        long end = 0;
+        for (index = fillIndex; index < size && remaining > EPSILON; index++) {
+            long openTime = series.openTime(index);
+            double open = series.open(index);
+            if (openTime >= deadline) {
+                pnl += exitPnl(buy, fillPrice, open, remaining);
+                fees += open * remaining * settings.takerFee();
+                remaining = 0;
+                exitReason = "TIMEOUT";
+                end = openTime;
+                break;
+            }
+            end = openTime + interval;
+            boolean fillCandle = index == fillIndex;
+
+            // Adverse side first: stop or liquidation, whichever the price reaches first
+            double stopLevel = stopLive
+                    ? (buy ? Math.max(stopLoss, liquidation) : Math.min(stopLoss, liquidation))
+                    : liquidation;
+            if (buy ? series.low(index) <= stopLevel : series.high(index) >= stopLevel) {
+                boolean gapped = !fillCandle && (buy ? open <= stopLevel : open >= stopLevel);
+                double price = gapped ? open : stopLevel;
+                pnl += exitPnl(buy, fillPrice, price, remaining);
+                fees += price * remaining * settings.takerFee();
+                remaining = 0;
+                exitReason = stopLive && stopLevel == stopLoss ? "SL" : "LIQUIDATED";
+                break;
+            }
+            if (fillCandle) {
+                continue;
+            }
+            for (int k = 0; k < 4 && remaining > EPSILON; k++) {
+                if (tpLive[k] && (buy ? series.high(index) >= tpPrices[k] : series.low(index) <= tpPrices[k])) {
+                    boolean gapped = buy ? open >= tpPrices[k] : open <= tpPrices[k];
+                    double price = gapped ? open : tpPrices[k];
+                    double filled = Math.min(tpQuantities[k], remaining);
+                    pnl += exitPnl(buy, fillPrice, price, filled);
+                    fees += price * filled * settings.takerFee();
+                    remaining -= filled;
+                    tpLive[k] = false;
+                    exitReason = "TP" + (k + 1);
+                }
+            }
+        }
+        if (remaining > EPSILON) {
+            // Out of data: mark the rest to the last close
+            double close = series.close(size - 1);
+            pnl += exitPnl(buy, fillPrice, close, remaining);
+            fees += close * remaining * settings.takerFee();
+            exitReason = "END";
+            end = series.openTime(size - 1) + interval;
+        }
+        return new Outcome(true, end, pnl - fees, fees, exitReason);
+    }
+
+    private static double exitPnl(boolean buy, double entry, double exit, double quantity) {
+        return (buy ? exit - entry : entry - exit) * quantity;
+    }
+}
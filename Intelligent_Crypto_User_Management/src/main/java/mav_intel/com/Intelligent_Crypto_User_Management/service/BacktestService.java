@@ -0,0 +1,239 @@
+package mav_intel.com.Intelligent_Crypto_User_Management.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import mav_intel.com.Intelligent_Crypto_User_Management.dto.BacktestRequestDTO;
+import mav_intel.com.Intelligent_Crypto_User_Management.dto.BacktestResultDTO;
+import mav_intel.com.Intelligent_Crypto_User_Management.dto.TradeConfigSnapshot;
+import mav_intel.com.Intelligent_Crypto_User_Management.dto.TradeManagementConfigDTO;
+import mav_intel.com.Intelligent_Crypto_User_Management.model.TradeManagementConfig;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Offline backtest: replays stored signals against local candles (KlineStore) under
+ * several trade management configs and compares the outcomes
+ *
+ * - Signals are read once, in time order; each config is simulated independently by a
+ *   BacktestEngine on the backtest pool, so configs run in parallel on all cores while
+ *   sharing the signal list and the memory-mapped candles read-only
+ * - Orders are sized exactly like the live path (OrderSizing, SymbolFilterCache)
+ * - Nothing is written: no trades, no orders, no Binance calls
+ */
+@Slf4j
+@Service
+public class BacktestService {
+
+    private static final String SIGNALS_SQL =
+            "SELECT id, pair, setup_type, entry, leverage, quantity, stop_loss, tp1, tp2, tp3, tp4, \"timestamp\" " +
+            "FROM signal_messages WHERE 1 = 1";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private KlineStore klineStore;
+
+    @Autowired
+    private SymbolFilterCache symbolFilterCache;
+
+    @Value("${backtest.threads:0}")
+    private int threads;
+
+    @Value("${backtest.max-configs:32}")
+    private int maxConfigs;
+
+    @Value("${backtest.starting-balance:1000}")
+    private double defaultStartingBalance;
+
+    @Value("${backtest.maker-fee:0.0002}")
+    private double makerFee;
+
+    @Value("${backtest.taker-fee:0.0005}")
+    private double takerFee;
+
+    @Value("${backtest.maintenance-margin:0.004}")
+    private double maintenanceMargin;
+
+    private ExecutorService pool;
+
+    private final LongAdder runs = new LongAdder();
+    private final LongAdder configsRun = new LongAdder();
+    private final LongAdder signalsReplayed = new LongAdder();
+    private final LongAdder runMillis = new LongAdder();
+
+    @PostConstruct
+    public void init() {
+        int size = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        pool = Executors.newFixedThreadPool(size, r -> new Thread(r, "backtest"));
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        pool.shutdownNow();
+        pool.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Run every config of the request over the same signals
+     *
+     * @return one result per config, in request order
+     * @throws IllegalArgumentException for an empty or oversized config set or an invalid config
+     */
+    public List<BacktestResultDTO> run(BacktestRequestDTO request) throws InterruptedException {
+        Map<String, TradeManagementConfigDTO> configs = request.getConfigs();
+        if (configs == null || configs.isEmpty()) {
+            throw new IllegalArgumentException("At least one config is required");
+        }
+        if (configs.size() > maxConfigs) {
+            throw new IllegalArgumentException("At most " + maxConfigs + " configs per backtest, got " + configs.size());
+        }
+        Map<String, TradeConfigSnapshot> snapshots = new LinkedHashMap<>();
+        configs.forEach((name, dto) -> snapshots.put(name, merge(dto)));
+
+        long started = System.currentTimeMillis();
+        List<BacktestEngine.Signal> signals = loadSignals(request);
+        double startingBalance = request.getStartingBalance() != null && request.getStartingBalance() > 0
+                ? request.getStartingBalance() : defaultStartingBalance;
+        long maxHoldMillis = request.getMaxHoldHours() != null && request.getMaxHoldHours() > 0
+                ? TimeUnit.HOURS.toMillis(request.getMaxHoldHours()) : 0;
+        BacktestEngine.Settings settings =
+                new BacktestEngine.Settings(startingBalance, makerFee, takerFee, maintenanceMargin, maxHoldMillis);
+
+        List<Callable<BacktestResultDTO>> tasks = new ArrayList<>(snapshots.size());
+        snapshots.forEach((name, snapshot) -> tasks.add(() -> {
+            BacktestEngine engine = new BacktestEngine(klineStore::get, symbolFilterCache::get, settings);
+            BacktestResultDTO result = engine.run(name, signals, snapshot);
+            result.setConfig(toDto(snapshot));
+            return result;
+        }));
+
+        List<BacktestResultDTO> results = new ArrayList<>(tasks.size());
+        for (Future<BacktestResultDTO> future : pool.invokeAll(tasks)) {
+            try {
+                results.add(future.get());
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Backtest failed: " + e.getCause().getMessage(), e.getCause());
+            }
+        }
+
+        long elapsed = System.currentTimeMillis() - started;
+        runs.increment();
+        configsRun.add(tasks.size());
+        signalsReplayed.add((long) signals.size() * tasks.size());
+        runMillis.add(elapsed);
+        log.info("🧪 Backtest of {} signals x {} configs in {} ms", signals.size(), tasks.size(), elapsed);
+        return results;
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("runs", runs.sum());
+        stats.put("configs", configsRun.sum());
+        stats.put("signalsReplayed", signalsReplayed.sum());
+        stats.put("runMillis", runMillis.sum());
+        stats.put("klines", klineStore.getStats());
+        return stats;
+    }
+
+    // ============ HELPER METHODS ============
+
+    private List<BacktestEngine.Signal> loadSignals(BacktestRequestDTO request) {
+        StringBuilder sql = new StringBuilder(SIGNALS_SQL);
+        List<Object> args = new ArrayList<>();
+        if (request.getFromDate() != null) {
+            sql.append(" AND \"timestamp\" >= ?");
+            args.add(startOfDay(request.getFromDate()));
+        }
+        if (request.getToDate() != null) {
+            sql.append(" AND \"timestamp\" < ?");
+            args.add(startOfDay(request.getToDate().plusDays(1)));
+        }
+        if (request.getChannel() != null && !request.getChannel().isEmpty()) {
+            sql.append(" AND channel = ?");
+            args.add(request.getChannel());
+        }
+        if (request.getUserId() != null) {
+            sql.append(" AND user_id = ?");
+            args.add(request.getUserId());
+        }
+        sql.append(" ORDER BY \"timestamp\", id");
+
+        return jdbcTemplate.query(sql.toString(), (rs, i) -> {
+            String pair = rs.getString("pair");
+            String symbol = pair != null && pair.endsWith(".P") ? pair.substring(0, pair.length() - 2) : pair;
+            String setupType = rs.getString("setup_type");
+            return new BacktestEngine.Signal(
+                    rs.getLong("id"),
+                    rs.getTimestamp("timestamp").getTime(),
+                    symbol,
+                    setupType != null ? "LONG".equalsIgnoreCase(setupType) : null,
+                    rs.getDouble("entry"),
+                    rs.getObject("leverage") != null ? rs.getInt("leverage") : null,
+                    rs.getObject("quantity") != null ? rs.getDouble("quantity") : null,
+                    rs.getDouble("stop_loss"),
+                    new double[]{rs.getDouble("tp1"), rs.getDouble("tp2"), rs.getDouble("tp3"), rs.getDouble("tp4")});
+        }, args.toArray());
+    }
+
+    private static Timestamp startOfDay(LocalDate date) {
+        // Candles are in UTC, so are the request's day boundaries
+        return Timestamp.from(date.atStartOfDay(ZoneOffset.UTC).toInstant());
+    }
+
+    /**
+     * Config fields left unset take the TradeManagementConfig defaults
+     */
+    private static TradeConfigSnapshot merge(TradeManagementConfigDTO dto) {
+        TradeManagementConfig config = new TradeManagementConfig();
+        if (dto != null) {
+            if (dto.getMaxPositionSize() != null) config.setMaxPositionSize(dto.getMaxPositionSize());
+            if (dto.getMaxLeverage() != null) config.setMaxLeverage(dto.getMaxLeverage());
+            if (dto.getTp1ExitPercentage() != null) config.setTp1ExitPercentage(dto.getTp1ExitPercentage());
+            if (dto.getTp2ExitPercentage() != null) config.setTp2ExitPercentage(dto.getTp2ExitPercentage());
+            if (dto.getTp3ExitPercentage() != null) config.setTp3ExitPercentage(dto.getTp3ExitPercentage());
+            if (dto.getTp4ExitPercentage() != null) config.setTp4ExitPercentage(dto.getTp4ExitPercentage());
+            if (dto.getMarginMode() != null) config.setMarginMode(dto.getMarginMode());
+        }
+        BigDecimal total = config.getTp1ExitPercentage().add(config.getTp2ExitPercentage())
+                .add(config.getTp3ExitPercentage()).add(config.getTp4ExitPercentage());
+        if (total.compareTo(new BigDecimal("100")) != 0) {
+            throw new IllegalArgumentException("Take Profit percentages must sum to 100%, got " + total);
+        }
+        if (config.getMaxLeverage().signum() <= 0 || config.getMaxPositionSize().signum() <= 0) {
+            throw new IllegalArgumentException("maxLeverage and maxPositionSize must be positive");
+        }
+        return TradeConfigSnapshot.from(config);
+    }
+
+    private static TradeManagementConfigDTO toDto(TradeConfigSnapshot snapshot) {
+        return TradeManagementConfigDTO.builder()
+                .maxPositionSize(snapshot.getMaxPositionSize())
+                .maxLeverage(snapshot.getMaxLeverage())
+                .tp1ExitPercentage(snapshot.getTp1ExitPercentage())
+                .tp2ExitPercentage(snapshot.getTp2ExitPercentage())
+                .tp3ExitPercentage(snapshot.getTp3ExitPercentage())
+                .tp4ExitPercentage(snapshot.getTp4ExitPercentage())
+                .marginMode(snapshot.getMarginMode())
+                .build();
+    }
+}
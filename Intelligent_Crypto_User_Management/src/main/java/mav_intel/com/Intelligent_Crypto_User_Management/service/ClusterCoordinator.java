@@ -0,0 +1,302 @@
+package mav_intel.com.Intelligent_Crypto_User_Management.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.CRC32;
+
+/**
+ * Leader election and per-account ownership across backend instances
+ *
+ * - Ownership is a Postgres session advisory lock held on a dedicated connection
+ *   (outside the Hikari pools); if this node dies its session ends and the locks
+ *   are released for another node to take over
+ * - isLeader(job): exactly one node runs a singleton job (maintenance, archival)
+ * - ownsAccount(userId): accounts are spread over the live nodes in cluster_nodes
+ *   by rendezvous hashing, and the assignment is enforced by a per-account lock,
+ *   so pollers/streams for an account run on exactly one node
+ * - Lease: every heartbeat checks the lock session and extends a local lease;
+ *   when renewal fails the lease lapses and this node stops claiming ownership
+ *   even before it notices its locks are gone
+ *
+ * The lock connection must be a direct Postgres session - session advisory
+ * locks do not survive a transaction-pooling proxy (e.g. Neon's -pooler host).
+ * Startup fails when cluster.lock-url points at a pooler host. When it is unset the
+ * node runs single-node: it leads every job and owns every account, without locks,
+ * so only one instance may run.
+ */
+@Slf4j
+@Service
+public class ClusterCoordinator {
+
+    // pg_try_advisory_lock(int, int) key spaces
+    private static final int LEADER_NAMESPACE = 0x4C454144; // "LEAD"
+    private static final int ACCOUNT_NAMESPACE = 0x41434354; // "ACCT"
+
+    // Accounts without a user id belong to whoever leads this job
+    private static final String UNASSIGNED_ACCOUNTS = "unassigned-accounts";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private NodeIdentity nodeIdentity;
+
+    @Value("${cluster.lock-url:}")
+    private String lockUrl;
+
+    @Value("${cluster.lock-username:${spring.datasource.username}}")
+    private String lockUsername;
+
+    @Value("${cluster.lock-password:${spring.datasource.password}}")
+    private String lockPassword;
+
+    @Value("${cluster.lease-ms:15000}")
+    private long leaseMs;
+
+    @Value("${cluster.node-ttl-seconds:30}")
+    private int nodeTtlSeconds;
+
+    private SingleConnectionDataSource lockDataSource;
+    private JdbcTemplate lockJdbc;
+
+    private final Set<String> leaderOf = ConcurrentHashMap.newKeySet();
+    private final Set<Long> ownedAccounts = ConcurrentHashMap.newKeySet();
+    private volatile List<String> liveNodes = List.of();
+    private volatile long leaseExpiresAt; // System.nanoTime()
+    private boolean singleNode;
+
+    @PostConstruct
+    public void init() {
+        if (lockUrl == null || lockUrl.isBlank()) {
+            singleNode = true;
+            liveNodes = List.of(nodeIdentity.getNodeId());
+            log.warn("⚠️ cluster.lock-url is not set: node {} runs single-node and leads every job; "
+                    + "set DB_LOCK_URL to a direct Postgres endpoint before running more than one instance",
+                    nodeIdentity.getNodeId());
+            return;
+        }
+        validateLockUrl(lockUrl);
+        lockDataSource = new SingleConnectionDataSource(lockUrl, lockUsername, lockPassword, true);
+        lockJdbc = new JdbcTemplate(lockDataSource);
+        heartbeat();
+        log.info("✅ Cluster node {} joined ({} live node(s))", nodeIdentity.getNodeId(), liveNodes.size());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (singleNode) {
+            return;
+        }
+        leaseExpiresAt = 0;
+        try {
+            jdbcTemplate.update("DELETE FROM cluster_nodes WHERE node_id = ?", nodeIdentity.getNodeId());
+        } catch (Exception e) {
+            log.warn("⚠️ Could not deregister cluster node: {}", e.getMessage());
+        }
+        // Closing the session releases every advisory lock at once
+        lockDataSource.destroy();
+    }
+
+    /**
+     * Refuse to elect leaders over a URL where session advisory locks do not hold
+     */
+    static void validateLockUrl(String url) {
+        String host = url.replaceFirst("^jdbc:postgresql://", "").split("[/?]", 2)[0];
+        if (host.contains("-pooler")) {
+            throw new IllegalStateException("cluster.lock-url points at a connection pooler (" + host
+                    + "): session advisory locks need the direct endpoint");
+        }
+    }
+
+    // ============ OWNERSHIP ============
+
+    /**
+     * Whether this node runs the singleton job; acquires leadership if nobody holds it
+     */
+    public boolean isLeader(String job) {
+        if (singleNode) {
+            return true;
+        }
+        if (!leaseValid()) {
+            return false;
+        }
+        if (leaderOf.contains(job)) {
+            return true;
+        }
+        if (tryLock(LEADER_NAMESPACE, key(job))) {
+            leaderOf.add(job);
+            log.info("👑 Node {} is now leader of {}", nodeIdentity.getNodeId(), job);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Whether this node owns the account's background work (pollers, streams, sweeps)
+     */
+    public boolean ownsAccount(Long userId) {
+        if (singleNode) {
+            return true;
+        }
+        if (userId == null) {
+            return isLeader(UNASSIGNED_ACCOUNTS);
+        }
+        if (!leaseValid()) {
+            return false;
+        }
+        if (!nodeIdentity.getNodeId().equals(assignedNode(userId))) {
+            if (ownedAccounts.remove(userId)) {
+                unlock(ACCOUNT_NAMESPACE, accountKey(userId));
+            }
+            return false;
+        }
+        if (ownedAccounts.contains(userId)) {
+            return true;
+        }
+        // Assigned here, but the previous owner may not have handed it over yet
+        if (tryLock(ACCOUNT_NAMESPACE, accountKey(userId))) {
+            ownedAccounts.add(userId);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Renew the lease, publish this node's heartbeat and rebalance account ownership
+     */
+    @Scheduled(fixedDelayString = "${cluster.heartbeat-interval-ms:5000}")
+    public void heartbeat() {
+        if (singleNode || !renewLockSession()) {
+            return;
+        }
+        try {
+            jdbcTemplate.update("INSERT INTO cluster_nodes (node_id) VALUES (?) " +
+                    "ON CONFLICT (node_id) DO UPDATE SET heartbeat_at = now()", nodeIdentity.getNodeId());
+            liveNodes = jdbcTemplate.queryForList(
+                    "SELECT node_id FROM cluster_nodes WHERE heartbeat_at > now() - make_interval(secs => ?) ORDER BY node_id",
+                    String.class, nodeTtlSeconds);
+            jdbcTemplate.update("DELETE FROM cluster_nodes WHERE heartbeat_at < now() - make_interval(secs => ?)",
+                    nodeTtlSeconds * 10);
+        } catch (Exception e) {
+            log.warn("⚠️ Cluster heartbeat failed: {}", e.getMessage());
+            return;
+        }
+        leaseExpiresAt = System.nanoTime() + leaseMs * 1_000_000;
+
+        // Hand over accounts that now hash to another node
+        for (Long userId : new ArrayList<>(ownedAccounts)) {
+            if (!nodeIdentity.getNodeId().equals(assignedNode(userId)) && ownedAccounts.remove(userId)) {
+                unlock(ACCOUNT_NAMESPACE, accountKey(userId));
+            }
+        }
+    }
+
+    public int getLiveNodeCount() {
+        return Math.max(1, liveNodes.size());
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("nodeId", nodeIdentity.getNodeId());
+        stats.put("singleNode", singleNode);
+        stats.put("liveNodes", liveNodes);
+        stats.put("leaseValid", leaseValid());
+        stats.put("leaderOf", new TreeSet<>(leaderOf));
+        stats.put("ownedAccounts", new TreeSet<>(ownedAccounts));
+        return stats;
+    }
+
+    // ============ HELPER METHODS ============
+
+    private boolean leaseValid() {
+        return System.nanoTime() - leaseExpiresAt < 0;
+    }
+
+    /**
+     * Check the lock session; if it was lost every lock went with it, so drop all ownership and reconnect
+     */
+    private synchronized boolean renewLockSession() {
+        try {
+            lockJdbc.queryForObject("SELECT 1", Integer.class);
+            return true;
+        } catch (Exception e) {
+            log.error("❌ Cluster lock session lost ({}), releasing ownership of {} job(s) and {} account(s)",
+                    e.getMessage(), leaderOf.size(), ownedAccounts.size());
+            leaseExpiresAt = 0;
+            leaderOf.clear();
+            ownedAccounts.clear();
+            lockDataSource.resetConnection();
+            return false;
+        }
+    }
+
+    private synchronized boolean tryLock(int namespace, int key) {
+        try {
+            return Boolean.TRUE.equals(lockJdbc.queryForObject(
+                    "SELECT pg_try_advisory_lock(?, ?)", Boolean.class, namespace, key));
+        } catch (Exception e) {
+            log.warn("⚠️ Advisory lock ({}, {}) failed: {}", namespace, key, e.getMessage());
+            return false;
+        }
+    }
+
+    private synchronized void unlock(int namespace, int key) {
+        try {
+            lockJdbc.queryForObject("SELECT pg_advisory_unlock(?, ?)", Boolean.class, namespace, key);
+        } catch (Exception e) {
+            log.warn("⚠️ Advisory unlock ({}, {}) failed: {}", namespace, key, e.getMessage());
+        }
+    }
+
+    /**
+     * Rendezvous (highest random weight) hashing: a node joining or leaving only moves its own share of accounts
+     */
+    private String assignedNode(long userId) {
+        List<String> nodes = liveNodes;
+        if (nodes.isEmpty()) {
+            return nodeIdentity.getNodeId();
+        }
+        String best = null;
+        long bestWeight = Long.MIN_VALUE;
+        for (String node : nodes) {
+            long weight = mix(node.hashCode() * 0x9E3779B97F4A7C15L ^ userId);
+            if (best == null || weight > bestWeight) {
+                best = node;
+                bestWeight = weight;
+            }
+        }
+        return best;
+    }
+
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    private static int key(String job) {
+        CRC32 crc = new CRC32();
+        crc.update(job.getBytes(StandardCharsets.UTF_8));
+        return (int) crc.getValue();
+    }
+
+    private static int accountKey(long userId) {
+        return (int) (userId ^ (userId >>> 32));
+    }
+}
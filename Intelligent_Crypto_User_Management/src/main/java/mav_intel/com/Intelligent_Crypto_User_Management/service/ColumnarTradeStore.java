@@ -0,0 +1,301 @@
+package mav_intel.com.Intelligent_Crypto_User_Management.service;
+
+import lombok.extern.slf4j.Slf4j;
+import mav_intel.com.Intelligent_Crypto_User_Management.dto.TradeSummary;
+import mav_intel.com.Intelligent_Crypto_User_Management.repository.TradeRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * In-memory closed trades as TradeColumns, per user (or all users), kept current as trades close
+ *
+ * - A scope is loaded from the DB on first use (lean TradeSummary projection)
+ * - TradesClosed (after commit) re-reads only the affected trades: new closes are
+ *   appended in place (TradeColumns.append, no copy of the history); a revised,
+ *   reopened or archived trade rebuilds the scope's columns once
+ * - Readers get an immutable TradeColumns (volatile snapshot per scope), so scans
+ *   never block on loads or updates
+ * - After applying a change the store bumps TradeHistoryCache, so cached results
+ *   are only ever recomputed against updated columns
+ * - Least recently used scopes are dropped beyond max-scopes
+ *
+ * Loads run without any lock, so loading one user never holds up another user or
+ * the close handler; a scope is published and updated through
+ * ConcurrentHashMap.compute on its key. A close that commits during a load is
+ * recorded and re-read into the loaded columns before they are published
+ * (updates re-read committed rows, so applying one twice is harmless). Closes
+ * handled by another instance are picked up when the scope is reloaded
+ * (reload-seconds).
+ */
+@Slf4j
+@Service
+public class ColumnarTradeStore {
+
+    @Autowired
+    private TradeRepository tradeRepository;
+
+    @Autowired
+    private TradeHistoryCache tradeHistoryCache;
+
+    @Value("${trades.columnar-store.max-scopes:16}")
+    private int maxScopes;
+
+    // Full reload interval per scope, bounding staleness from closes on other instances (0 = never)
+    @Value("${trades.columnar-store.reload-seconds:300}")
+    private long reloadSeconds;
+
+    private final ConcurrentHashMap<Scope, Holder> scopes = new ConcurrentHashMap<>();
+
+    // Trade ids closed while each in-flight load was running
+    private final Set<Set<Long>> loadsInFlight = ConcurrentHashMap.newKeySet();
+
+    // Bumped by clear(): a load that started before it must not publish
+    private final AtomicLong generation = new AtomicLong();
+
+    private final LongAdder loads = new LongAdder();
+    private final LongAdder loadNanos = new LongAdder();
+    private final LongAdder appendedRows = new LongAdder();
+    private final LongAdder rebuilds = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    private record Scope(Long userId) {
+
+        boolean contains(TradeSummary trade) {
+            return userId == null || userId.equals(trade.getUserId());
+        }
+    }
+
+    /**
+     * One scope's columns; rowById is only touched inside compute() on the scope's key
+     * (or before the holder is published)
+     */
+    private static final class Holder {
+        volatile TradeColumns columns;
+        volatile long lastUsedNanos = System.nanoTime();
+        final Map<Long, Integer> rowById = new HashMap<>();
+        final long loadedAtNanos = System.nanoTime();
+
+        Holder(TradeColumns columns) {
+            index(columns);
+        }
+
+        void index(TradeColumns columns) {
+            rowById.clear();
+            for (int row = 0; row < columns.size(); row++) {
+                rowById.put(columns.row(row).getId(), row);
+            }
+            this.columns = columns;
+        }
+    }
+
+    // ============ READ ============
+
+    /**
+     * Closed trades of the user (null = all users)
+     */
+    public TradeColumns columns(Long userId) {
+        Scope scope = new Scope(userId);
+        Holder holder = scopes.get(scope);
+        if (holder != null && !isStale(holder)) {
+            holder.lastUsedNanos = System.nanoTime();
+            return holder.columns;
+        }
+        return load(scope).columns;
+    }
+
+    private Holder load(Scope scope) {
+        long loadGeneration = generation.get();
+        Set<Long> closedMeanwhile = ConcurrentHashMap.newKeySet();
+        loadsInFlight.add(closedMeanwhile);
+        try {
+            long start = System.nanoTime();
+            List<TradeSummary> trades = scope.userId() == null
+                    ? tradeRepository.findSummariesByStatus("CLOSED")
+                    : tradeRepository.findSummariesByStatusAndUserId("CLOSED", scope.userId());
+            Holder loaded = new Holder(TradeColumns.of(trades));
+            long elapsed = System.nanoTime() - start;
+            loads.increment();
+            loadNanos.add(elapsed);
+            log.info("🗂️ Columnar trade store: loaded {} closed trades for {} in {} ms",
+                    trades.size(), scope.userId() != null ? "user " + scope.userId() : "all users", elapsed / 1_000_000);
+
+            while (true) {
+                // Re-read closes that committed during the load (outside any lock)
+                Set<Long> ids = new HashSet<>(closedMeanwhile);
+                if (!ids.isEmpty()) {
+                    closedMeanwhile.removeAll(ids);
+                    apply(scope, loaded, tradeRepository.findSummariesByIdIn(ids), ids);
+                }
+                boolean[] published = {false};
+                scopes.compute(scope, (key, current) -> {
+                    if (!closedMeanwhile.isEmpty() || generation.get() != loadGeneration) {
+                        return current;
+                    }
+                    published[0] = true;
+                    return loaded;
+                });
+                if (published[0]) {
+                    evictLeastRecentlyUsed();
+                    return loaded;
+                }
+                if (generation.get() != loadGeneration) {
+                    return loaded; // cleared meanwhile: serve it to this caller only
+                }
+            }
+        } finally {
+            loadsInFlight.remove(closedMeanwhile);
+        }
+    }
+
+    private boolean isStale(Holder holder) {
+        return reloadSeconds > 0 && System.nanoTime() - holder.loadedAtNanos > reloadSeconds * 1_000_000_000L;
+    }
+
+    private void evictLeastRecentlyUsed() {
+        while (scopes.size() > maxScopes) {
+            Scope oldest = null;
+            long oldestUse = Long.MAX_VALUE;
+            for (Map.Entry<Scope, Holder> entry : scopes.entrySet()) {
+                if (entry.getValue().lastUsedNanos < oldestUse) {
+                    oldestUse = entry.getValue().lastUsedNanos;
+                    oldest = entry.getKey();
+                }
+            }
+            if (oldest == null || scopes.remove(oldest) == null) {
+                return;
+            }
+            evictions.increment();
+        }
+    }
+
+    // ============ UPDATES ============
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTradesClosed(TradeLifecycleWriter.TradesClosed event) {
+        if (event.tradeIds().isEmpty()) {
+            return;
+        }
+        // Loads in flight re-read these before publishing
+        for (Set<Long> closedMeanwhile : loadsInFlight) {
+            closedMeanwhile.addAll(event.tradeIds());
+        }
+        try {
+            List<TradeSummary> changed = tradeRepository.findSummariesByIdIn(event.tradeIds());
+            Set<Long> users = new HashSet<>();
+            for (TradeSummary trade : changed) {
+                if (trade.getUserId() != null) {
+                    users.add(trade.getUserId());
+                }
+            }
+            for (Scope scope : scopes.keySet()) {
+                scopes.computeIfPresent(scope, (key, holder) -> {
+                    apply(key, holder, changed, event.tradeIds());
+                    return holder;
+                });
+            }
+            users.forEach(tradeHistoryCache::invalidate);
+            tradeHistoryCache.invalidate(null);
+        } catch (Exception e) {
+            // Drop everything rather than serve columns that missed a change
+            log.warn("⚠️ Columnar trade store update failed for trades {}: {}", event.tradeIds(), e.getMessage());
+            clear();
+        }
+    }
+
+    /**
+     * Append new closes in place; rebuild once if a trade already in the scope changed or left it
+     *
+     * @param changed  current rows of the affected trades (absent = archived)
+     * @param tradeIds all affected trade ids
+     */
+    private void apply(Scope scope, Holder holder, List<TradeSummary> changed, Collection<Long> tradeIds) {
+        List<TradeSummary> appended = new ArrayList<>();
+        Map<Integer, TradeSummary> replaced = new HashMap<>();
+        Set<Integer> removed = new HashSet<>();
+        Set<Long> missing = new HashSet<>(tradeIds);
+        for (TradeSummary trade : changed) {
+            missing.remove(trade.getId());
+            Integer row = holder.rowById.get(trade.getId());
+            boolean closed = "CLOSED".equals(trade.getStatus()) && scope.contains(trade);
+            if (row == null) {
+                if (closed) {
+                    appended.add(trade);
+                }
+            } else if (closed) {
+                replaced.put(row, trade);
+            } else {
+                removed.add(row);
+            }
+        }
+        for (Long id : missing) {
+            Integer row = holder.rowById.get(id);
+            if (row != null) {
+                removed.add(row);
+            }
+        }
+
+        if (replaced.isEmpty() && removed.isEmpty()) {
+            if (appended.isEmpty()) {
+                return;
+            }
+            int first = holder.columns.size();
+            for (int i = 0; i < appended.size(); i++) {
+                holder.rowById.put(appended.get(i).getId(), first + i);
+            }
+            holder.columns = holder.columns.append(appended);
+            appendedRows.add(appended.size());
+            return;
+        }
+
+        List<TradeSummary> rows = new ArrayList<>(holder.columns.size() + appended.size());
+        List<TradeSummary> current = holder.columns.rows();
+        for (int row = 0; row < current.size(); row++) {
+            if (!removed.contains(row)) {
+                rows.add(replaced.getOrDefault(row, current.get(row)));
+            }
+        }
+        rows.addAll(appended);
+        holder.index(TradeColumns.of(rows));
+        rebuilds.increment();
+    }
+
+    /**
+     * Drop every scope (e.g. after archival); they reload on next use
+     */
+    public void clear() {
+        generation.incrementAndGet();
+        scopes.clear();
+        tradeHistoryCache.invalidateAll();
+    }
+
+    public Map<String, Object> getStats() {
+        long rows = 0;
+        for (Holder holder : scopes.values()) {
+            rows += holder.columns.size();
+        }
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("scopes", scopes.size());
+        stats.put("rows", rows);
+        stats.put("loadsInFlight", loadsInFlight.size());
+        stats.put("loads", loads.sum());
+        stats.put("loadMillis", loadNanos.sum() / 1_000_000);
+        stats.put("appendedRows", appendedRows.sum());
+        stats.put("rebuilds", rebuilds.sum());
+        stats.put("evictions", evictions.sum());
+        return stats;
+    }
+}
@@ -0,0 +1,58 @@
+package mav_intel.com.Intelligent_Crypto_User_Management.service;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Live statistics for the write and read connection pools
+ */
+@Component
+public class ConnectionPoolMetrics {
+
+    @Autowired
+    @Qualifier("writeDataSource")
+    private HikariDataSource writeDataSource;
+
+    @Autowired
+    @Qualifier("readDataSource")
+    private HikariDataSource readDataSource;
+
+    @Autowired
+    private ConnectionPoolTracker poolTracker;
+
+    /**
+     * Snapshot of both pools, keyed by pool name
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put(writeDataSource.getPoolName(), poolStats(writeDataSource));
+        stats.put(readDataSource.getPoolName(), poolStats(readDataSource));
+        return stats;
+    }
+
+    // ============ HELPER METHODS ============
+
+    private Map<String, Object> poolStats(HikariDataSource dataSource) {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("maxPoolSize", dataSource.getMaximumPoolSize());
+        HikariPoolMXBean pool = dataSource.getHikariPoolMXBean();
+        if (pool == null) {
+            // Pool not started yet (no connection requested so far)
+            stats.put("started", false);
+            return stats;
+        }
+        stats.put("active", pool.getActiveConnections());
+        stats.put("idle", pool.getIdleConnections());
+        stats.put("total", pool.getTotalConnections());
+        stats.put("pending", pool.getThreadsAwaitingConnection());
+        // Wait/usage histograms and timeouts since startup
+        stats.putAll(poolTracker.getStats(dataSource.getPoolName()));
+        return stats;
+    }
+}
@@ -0,0 +1,81 @@
+package mav_intel.com.Intelligent_Crypto_User_Management.service;
+
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import com.zaxxer.hikari.metrics.MetricsTrackerFactory;
+import com.zaxxer.hikari.metrics.PoolStats;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Hikari metrics tracker for pool saturation
+ *
+ * - Wait time: how long callers blocked in getConnection() (histogram, max, timeouts)
+ * - Usage time: how long a connection was borrowed before being returned
+ * - Pool gauges (active, idle, pending) come from Hikari's own PoolStats
+ *
+ * Usage time is the number to watch for connections held across exchange I/O.
+ */
+@Component
+public class ConnectionPoolTracker implements MetricsTrackerFactory {
+
+    private final ConcurrentHashMap<String, Tracker> trackers = new ConcurrentHashMap<>();
+
+    @Override
+    public IMetricsTracker create(String poolName, PoolStats poolStats) {
+        Tracker tracker = new Tracker(poolStats);
+        trackers.put(poolName, tracker);
+        return tracker;
+    }
+
+    /**
+     * Stats for one pool, or an empty map if the pool has not started
+     */
+    public Map<String, Object> getStats(String poolName) {
+        Tracker tracker = trackers.get(poolName);
+        return tracker != null ? tracker.snapshot() : Map.of();
+    }
+
+    private static class Tracker implements IMetricsTracker {
+        final PoolStats poolStats;
+        final LatencyHistogram waitTime = new LatencyHistogram();
+        final LatencyHistogram usageTime = new LatencyHistogram();
+        final LongAdder timeouts = new LongAdder();
+        final AtomicLong maxPending = new AtomicLong();
+
+        Tracker(PoolStats poolStats) {
+            this.poolStats = poolStats;
+        }
+
+        @Override
+        public void recordConnectionAcquiredNanos(long elapsedAcquiredNanos) {
+            waitTime.record(elapsedAcquiredNanos / 1_000);
+            maxPending.accumulateAndGet(poolStats.getPendingThreads(), Math::max);
+        }
+
+        @Override
+        public void recordConnectionUsageMillis(long elapsedBorrowedMillis) {
+            usageTime.record(elapsedBorrowedMillis * 1_000);
+        }
+
+        @Override
+        public void recordConnectionTimeout() {
+            timeouts.increment();
+        }
+
+        // Current active/idle/pending come from the live HikariPoolMXBean (ConnectionPoolMetrics);
+        // PoolStats values are cached for up to a second, so they are not repeated here
+        Map<String, Object> snapshot() {
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("maxPendingObserved", maxPending.get());
+            stats.put("timeouts", timeouts.sum());
+            stats.put("waitTime", waitTime.snapshot());
+            stats.put("usageTime", usageTime.snapshot());
+            return stats;
+        }
+    }
+}
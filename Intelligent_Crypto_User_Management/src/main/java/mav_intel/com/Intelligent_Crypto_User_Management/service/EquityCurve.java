@@ -0,0 +1,280 @@
+package mav_intel.com.Intelligent_Crypto_User_Management.service;
+
+import mav_intel.com.Intelligent_Crypto_User_Management.dto.EquityCurveDTO;
+
+import java.time.DayOfWeek;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Cumulative realized PnL of one account, ordered by (closedAt, tradeId)
+ *
+ * Every point carries the running values up to and including it: equity, peak
+ * (starting at 0), drawdown = peak - equity, max drawdown so far, the time the
+ * current peak was set and the longest underwater spell so far. A change at
+ * position i only invalidates points i..n-1, so:
+ * - a trade closing after the last point (the normal case) is O(1)
+ * - a late fill revising an older trade recomputes the suffix after it
+ *
+ * PnL is fixed-point (TradeColumns.SCALE), so sums are exact in any order.
+ * Not thread-safe; EquityCurveService guards each instance.
+ */
+public final class EquityCurve {
+
+    public enum Bucket {
+        HOUR, DAY, WEEK, MONTH;
+
+        ZonedDateTime start(ZonedDateTime time) {
+            return switch (this) {
+                case HOUR -> time.truncatedTo(ChronoUnit.HOURS);
+                case DAY -> time.truncatedTo(ChronoUnit.DAYS);
+                case WEEK -> time.truncatedTo(ChronoUnit.DAYS).with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+                case MONTH -> time.truncatedTo(ChronoUnit.DAYS).withDayOfMonth(1);
+            };
+        }
+
+        ZonedDateTime next(ZonedDateTime start) {
+            return switch (this) {
+                case HOUR -> start.plusHours(1);
+                case DAY -> start.plusDays(1);
+                case WEEK -> start.plusWeeks(1);
+                case MONTH -> start.plusMonths(1);
+            };
+        }
+
+        /** Approximate length, used to bound the number of buckets per request */
+        public long approxMillis() {
+            return switch (this) {
+                case HOUR -> 3_600_000L;
+                case DAY -> 86_400_000L;
+                case WEEK -> 7 * 86_400_000L;
+                case MONTH -> 28 * 86_400_000L;
+            };
+        }
+    }
+
+    private int size;
+    private long[] time = new long[16];        // closedAt, epoch millis
+    private long[] tradeId = new long[16];
+    private long[] pnl = new long[16];
+    private long[] equity = new long[16];
+    private long[] peak = new long[16];
+    private long[] peakTime = new long[16];
+    private long[] maxDrawdown = new long[16];
+    private long[] longestMillis = new long[16];
+
+    private final Map<Long, Long> timeByTrade = new HashMap<>();
+
+    /**
+     * Add a closed trade or update one already on the curve
+     */
+    public void upsert(long id, long closedAtMillis, long pnlFixed) {
+        Long previous = timeByTrade.get(id);
+        if (previous != null && previous == closedAtMillis) {
+            int index = insertionPoint(closedAtMillis, id);
+            if (pnl[index] != pnlFixed) {
+                pnl[index] = pnlFixed;
+                recompute(index);
+            }
+            return;
+        }
+        int dirty = size;
+        if (previous != null) {
+            dirty = removeAt(insertionPoint(previous, id));
+        }
+        int index = insertionPoint(closedAtMillis, id);
+        ensureCapacity(size + 1);
+        shift(index, index + 1, size - index);
+        time[index] = closedAtMillis;
+        tradeId[index] = id;
+        pnl[index] = pnlFixed;
+        size++;
+        timeByTrade.put(id, closedAtMillis);
+        recompute(Math.min(dirty, index));
+    }
+
+    /**
+     * Take a trade off the curve (reopened, archived or deleted); no-op if absent
+     */
+    public void remove(long id) {
+        Long previous = timeByTrade.get(id);
+        if (previous != null) {
+            recompute(removeAt(insertionPoint(previous, id)));
+        }
+    }
+
+    public boolean contains(long id) {
+        return timeByTrade.containsKey(id);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /** Close time of the earliest trade, epoch millis; only when size() > 0 */
+    public long firstTime() {
+        return time[0];
+    }
+
+    /** Close time of the latest trade, epoch millis; only when size() > 0 */
+    public long lastTime() {
+        return time[size - 1];
+    }
+
+    // ============ RUNNING VALUES ============
+
+    private void recompute(int from) {
+        for (int i = from; i < size; i++) {
+            long prevEquity = i > 0 ? equity[i - 1] : 0;
+            long prevPeak = i > 0 ? peak[i - 1] : 0;
+            long prevPeakTime = i > 0 ? peakTime[i - 1] : time[0];
+            long prevMax = i > 0 ? maxDrawdown[i - 1] : 0;
+            long prevLongest = i > 0 ? longestMillis[i - 1] : 0;
+            boolean wasUnderwater = prevEquity < prevPeak;
+
+            long e = prevEquity + pnl[i];
+            equity[i] = e;
+            long spell;
+            if (e >= prevPeak) {
+                // New peak, or the previous one regained: a running spell ends here
+                peak[i] = e;
+                peakTime[i] = time[i];
+                spell = wasUnderwater ? time[i] - prevPeakTime : 0;
+            } else {
+                peak[i] = prevPeak;
+                peakTime[i] = prevPeakTime;
+                spell = time[i] - prevPeakTime;
+            }
+            maxDrawdown[i] = Math.max(prevMax, peak[i] - e);
+            longestMillis[i] = Math.max(prevLongest, spell);
+        }
+    }
+
+    // ============ READ ============
+
+    public long equity() {
+        return size > 0 ? equity[size - 1] : 0;
+    }
+
+    public long peak() {
+        return size > 0 ? peak[size - 1] : 0;
+    }
+
+    public long drawdown() {
+        return peak() - equity();
+    }
+
+    public long maxDrawdown() {
+        return size > 0 ? maxDrawdown[size - 1] : 0;
+    }
+
+    /**
+     * Time since the last peak if currently in drawdown, else 0
+     */
+    public long currentDrawdownMillis(long nowMillis) {
+        return drawdown() > 0 ? Math.max(0, nowMillis - peakTime[size - 1]) : 0;
+    }
+
+    /**
+     * Longest time from a peak until it was regained, counting a spell still running at nowMillis
+     */
+    public long longestDrawdownMillis(long nowMillis) {
+        return Math.max(size > 0 ? longestMillis[size - 1] : 0, currentDrawdownMillis(nowMillis));
+    }
+
+    /**
+     * Cumulative PnL before the first point closed at or after fromMillis
+     */
+    public long equityBefore(long fromMillis) {
+        int first = insertionPoint(fromMillis, Long.MIN_VALUE);
+        return first > 0 ? equity[first - 1] : 0;
+    }
+
+    /**
+     * One point per non-empty bucket for trades closed in [fromMillis, toMillis)
+     */
+    public List<EquityCurveDTO.Point> buckets(long fromMillis, long toMillis, Bucket bucket, ZoneId zone) {
+        List<EquityCurveDTO.Point> points = new ArrayList<>();
+        int i = insertionPoint(fromMillis, Long.MIN_VALUE);
+        int end = insertionPoint(toMillis, Long.MIN_VALUE);
+        while (i < end) {
+            ZonedDateTime start = bucket.start(Instant.ofEpochMilli(time[i]).atZone(zone));
+            long boundary = bucket.next(start).toInstant().toEpochMilli();
+            int trades = 0;
+            long bucketPnl = 0;
+            long low = Long.MAX_VALUE;
+            long deepest = 0;
+            for (; i < end && time[i] < boundary; i++) {
+                trades++;
+                bucketPnl += pnl[i];
+                low = Math.min(low, equity[i]);
+                deepest = Math.max(deepest, peak[i] - equity[i]);
+            }
+            int last = i - 1;
+            points.add(new EquityCurveDTO.Point(start.toOffsetDateTime().toString(), trades,
+                    TradeStatsKernel.toDecimal(bucketPnl),
+                    TradeStatsKernel.toDecimal(equity[last]),
+                    TradeStatsKernel.toDecimal(low),
+                    TradeStatsKernel.toDecimal(peak[last]),
+                    TradeStatsKernel.toDecimal(peak[last] - equity[last]),
+                    TradeStatsKernel.toDecimal(deepest)));
+        }
+        return points;
+    }
+
+    // ============ STORAGE ============
+
+    /**
+     * First index whose (time, id) is >= the given key
+     */
+    private int insertionPoint(long t, long id) {
+        int lo = 0;
+        int hi = size;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (time[mid] < t || (time[mid] == t && tradeId[mid] < id)) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    private int removeAt(int index) {
+        timeByTrade.remove(tradeId[index]);
+        shift(index + 1, index, size - index - 1);
+        size--;
+        return index;
+    }
+
+    // Only the inputs move; running values are recomputed from the first changed index
+    private void shift(int from, int to, int length) {
+        System.arraycopy(time, from, time, to, length);
+        System.arraycopy(tradeId, from, tradeId, to, length);
+        System.arraycopy(pnl, from, pnl, to, length);
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= time.length) {
+            return;
+        }
+        int grown = Math.max(capacity, time.length * 2);
+        time = Arrays.copyOf(time, grown);
+        tradeId = Arrays.copyOf(tradeId, grown);
+        pnl = Arrays.copyOf(pnl, grown);
+        equity = Arrays.copyOf(equity, grown);
+        peak = Arrays.copyOf(peak, grown);
+        peakTime = Arrays.copyOf(peakTime, grown);
+        maxDrawdown = Arrays.copyOf(maxDrawdown, grown);
+        longestMillis = Arrays.copyOf(longestMillis, grown);
+    }
+}
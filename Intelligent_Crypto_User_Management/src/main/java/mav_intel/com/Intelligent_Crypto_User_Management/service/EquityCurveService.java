@@ -0,0 +1,233 @@
+package mav_intel.com.Intelligent_Crypto_User_Management.service;
+
+import lombok.extern.slf4j.Slf4j;
+import mav_intel.com.Intelligent_Crypto_User_Management.dto.EquityCurveDTO;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-user equity curves (cumulative realized PnL, peak, drawdown) for /api/trades/equity-curve
+ *
+ * - A user's curve is loaded from closed trades on first request (one ordered scan
+ *   of id, closed_at, pnl) and then kept in memory
+ * - TradesClosed events (after commit) re-read the affected rows and upsert them,
+ *   so closes and exchange-sync revisions are applied incrementally; the handler is
+ *   serialized so two revisions of one trade cannot be applied out of order
+ * - Responses are bucketed (HOUR/DAY/WEEK/MONTH) from the in-memory series, so a
+ *   chart is one small request whatever the number of trades
+ * - TTL bounds staleness from closes handled by another instance (and archival);
+ *   the size bound evicts the least recently loaded curve
+ */
+@Slf4j
+@Service
+public class EquityCurveService {
+
+    private static final String LOAD_SQL =
+            "SELECT id, closed_at, pnl FROM trades " +
+            "WHERE user_id = ? AND status = 'CLOSED' AND closed_at IS NOT NULL ORDER BY closed_at, id";
+
+    private static final String REREAD_SQL =
+            "SELECT id, user_id, status, closed_at, pnl FROM trades WHERE id = ANY (?)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${equity-curve.ttl-seconds:300}")
+    private long ttlSeconds;
+
+    @Value("${equity-curve.max-users:1000}")
+    private int maxUsers;
+
+    // Upper bound on buckets a request may span (e.g. HOUR over ~7 months)
+    @Value("${equity-curve.max-buckets:5000}")
+    private int maxBuckets;
+
+    private final ConcurrentHashMap<Long, Entry> curves = new ConcurrentHashMap<>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder loads = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder tradesApplied = new LongAdder();
+    private final LongAdder revisionsApplied = new LongAdder();
+
+    private static class Entry {
+        final EquityCurve curve;
+        final long loadedAtNanos;
+
+        Entry(EquityCurve curve, long loadedAtNanos) {
+            this.curve = curve;
+            this.loadedAtNanos = loadedAtNanos;
+        }
+    }
+
+    private record Row(long id, boolean closed, Timestamp closedAt, double pnl) {
+    }
+
+    // ============ QUERY ============
+
+    /**
+     * Bucketed curve of the user's trades closed in [from, to] (calendar days in the server zone)
+     *
+     * @throws IllegalArgumentException on an unknown bucket or a range spanning more than max-buckets
+     */
+    public EquityCurveDTO getCurve(Long userId, String bucket, LocalDate from, LocalDate to) {
+        EquityCurve.Bucket unit = EquityCurve.Bucket.valueOf(bucket.toUpperCase());
+        ZoneId zone = ZoneId.systemDefault();
+        long fromMillis = from != null ? from.atStartOfDay(zone).toInstant().toEpochMilli() : Long.MIN_VALUE;
+        long toMillis = to != null ? to.plusDays(1).atStartOfDay(zone).toInstant().toEpochMilli() : Long.MAX_VALUE;
+
+        Entry entry = entryFor(userId);
+        long now = System.currentTimeMillis();
+        synchronized (entry.curve) {
+            EquityCurve curve = entry.curve;
+            if (curve.size() > 0) {
+                // Checked before building: an open bound is clamped to the user's first/last trade
+                long rangeStart = from != null ? fromMillis : curve.firstTime();
+                long rangeEnd = to != null ? toMillis : curve.lastTime() + 1;
+                long span = Math.max(0, rangeEnd - rangeStart);
+                long bucketCount = (span + unit.approxMillis() - 1) / unit.approxMillis();
+                if (bucketCount > maxBuckets) {
+                    throw new IllegalArgumentException("Range spans about " + bucketCount + " " + unit
+                            + " buckets (max " + maxBuckets + "); use a larger bucket or a shorter range");
+                }
+            }
+            List<EquityCurveDTO.Point> points = curve.buckets(fromMillis, toMillis, unit, zone);
+            return EquityCurveDTO.builder()
+                    .bucket(unit.name())
+                    .zone(zone.getId())
+                    .totalTrades(curve.size())
+                    .totalPnL(TradeStatsKernel.toDecimal(curve.equity()))
+                    .peak(TradeStatsKernel.toDecimal(curve.peak()))
+                    .currentDrawdown(TradeStatsKernel.toDecimal(curve.drawdown()))
+                    .maxDrawdown(TradeStatsKernel.toDecimal(curve.maxDrawdown()))
+                    .longestDrawdownSeconds(curve.longestDrawdownMillis(now) / 1000)
+                    .currentDrawdownSeconds(curve.currentDrawdownMillis(now) / 1000)
+                    .startEquity(TradeStatsKernel.toDecimal(curve.equityBefore(fromMillis)))
+                    .points(points)
+                    .build();
+        }
+    }
+
+    private Entry entryFor(Long userId) {
+        Entry entry = curves.get(userId);
+        if (entry != null && System.nanoTime() - entry.loadedAtNanos <= ttlSeconds * 1_000_000_000L) {
+            hits.increment();
+            return entry;
+        }
+        // compute() blocks event upserts for this user until the load is in the map
+        Entry loaded = curves.compute(userId, (id, current) -> {
+            if (current != null && current != entry) {
+                return current; // reloaded concurrently
+            }
+            return new Entry(load(id), System.nanoTime());
+        });
+        if (curves.size() > maxUsers) {
+            evictOldest();
+        }
+        return loaded;
+    }
+
+    private EquityCurve load(Long userId) {
+        loads.increment();
+        EquityCurve curve = new EquityCurve();
+        // Missing pnl (close not yet synced) reads as 0, as in the history statistics
+        jdbcTemplate.query(LOAD_SQL, rs -> {
+            curve.upsert(rs.getLong("id"), rs.getTimestamp("closed_at").getTime(),
+                    TradeColumns.toFixed(rs.getDouble("pnl")));
+        }, userId);
+        log.debug("📈 Equity curve loaded for user {}: {} trades", userId, curve.size());
+        return curve;
+    }
+
+    private void evictOldest() {
+        Long oldestUser = null;
+        long oldestLoad = Long.MAX_VALUE;
+        for (Map.Entry<Long, Entry> e : curves.entrySet()) {
+            if (e.getValue().loadedAtNanos < oldestLoad) {
+                oldestLoad = e.getValue().loadedAtNanos;
+                oldestUser = e.getKey();
+            }
+        }
+        if (oldestUser != null && curves.remove(oldestUser) != null) {
+            evictions.increment();
+        }
+    }
+
+    // ============ INCREMENTAL UPDATES ============
+
+    /**
+     * Apply closes and PnL revisions to the curves already in memory
+     * Users without a loaded curve are skipped; their first request loads the committed state
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onTradesClosed(TradeLifecycleWriter.TradesClosed event) {
+        if (event.tradeIds().isEmpty() || curves.isEmpty()) {
+            return;
+        }
+        try {
+            Map<Long, List<Row>> rowsByUser = new HashMap<>();
+            jdbcTemplate.query(REREAD_SQL, rs -> {
+                long userId = rs.getLong("user_id");
+                if (rs.wasNull()) {
+                    return;
+                }
+                rowsByUser.computeIfAbsent(userId, id -> new ArrayList<>()).add(new Row(rs.getLong("id"),
+                        "CLOSED".equals(rs.getString("status")), rs.getTimestamp("closed_at"), rs.getDouble("pnl")));
+            }, (Object) event.tradeIds().toArray(new Long[0]));
+
+            for (Map.Entry<Long, List<Row>> user : rowsByUser.entrySet()) {
+                curves.computeIfPresent(user.getKey(), (id, entry) -> {
+                    synchronized (entry.curve) {
+                        for (Row row : user.getValue()) {
+                            if (row.closed() && row.closedAt() != null) {
+                                entry.curve.upsert(row.id(), row.closedAt().getTime(), TradeColumns.toFixed(row.pnl()));
+                            } else {
+                                entry.curve.remove(row.id());
+                            }
+                        }
+                    }
+                    return entry;
+                });
+            }
+            (event.revision() ? revisionsApplied : tradesApplied).add(event.tradeIds().size());
+        } catch (Exception e) {
+            // The affected curves are stale until their TTL expires
+            log.warn("⚠️ Equity curve update failed for trades {}: {}", event.tradeIds(), e.getMessage());
+        }
+    }
+
+    /**
+     * Drop one user's curve (reloaded on next request)
+     */
+    public void invalidate(Long userId) {
+        curves.remove(userId);
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("users", curves.size());
+        stats.put("points", curves.values().stream().mapToLong(e -> e.curve.size()).sum());
+        stats.put("hits", hits.sum());
+        stats.put("loads", loads.sum());
+        stats.put("evictions", evictions.sum());
+        stats.put("tradesApplied", tradesApplied.sum());
+        stats.put("revisionsApplied", revisionsApplied.sum());
+        stats.put("ttlSeconds", ttlSeconds);
+        stats.put("maxUsers", maxUsers);
+        return stats;
+    }
+}
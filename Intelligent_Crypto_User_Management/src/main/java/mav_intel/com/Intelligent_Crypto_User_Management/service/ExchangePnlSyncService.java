@@ -0,0 +1,461 @@
+package mav_intel.com.Intelligent_Crypto_User_Management.service;
+
+import com.binance.connector.futures.client.impl.UMFuturesClientImpl;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Pulls realized PnL, fees and exits of exchange-side fills back into trades
+ *
+ * TP/SL orders fill on Binance without us noticing; this job reads the fills
+ * incrementally and applies them:
+ * - /fapi/v1/income (account-wide) from a persisted (time, tranId) cursor tells
+ *   which symbols had fills since the last run
+ * - /fapi/v1/userTrades per symbol from a persisted fromId cursor returns the fills
+ *   themselves; each fill is matched to a trade by order id via TradeOrderRegistry
+ * - Per page, the trade deltas (pnl, fees, exit qty/price, exit reason, close) are
+ *   batch-applied in the same transaction that advances the symbol cursor, so a
+ *   fill is applied exactly once; the cursor update is a compare-and-set, so a
+ *   node that lost leadership mid-run cannot apply a page twice
+ * - After downtime the cursors resume where they stopped, so catch-up reads only
+ *   the missed fills (a fresh install starts initial-lookback-days back)
+ *
+ * Trades touched by a page are announced with TradeLifecycleWriter.TradesClosed
+ * after its commit (revision = true for trades that were already closed).
+ *
+ * Trade.pnl is net of fees. Commission paid in other assets (e.g. BNB) is not converted.
+ */
+@Slf4j
+@Service
+public class ExchangePnlSyncService {
+
+    private static final String INCOME_STREAM = "income";
+    private static final String USER_TRADES_STREAM = "user-trades:";
+    private static final int PAGE_SIZE = 1000;
+    private static final Set<String> FILL_INCOME_TYPES = Set.of("REALIZED_PNL", "COMMISSION");
+    private static final Set<String> FEE_ASSETS = Set.of("USDT", "USDC");
+
+    private static final String APPLY_SQL =
+            "UPDATE trades SET " +
+            "pnl = COALESCE(pnl, 0) + ?, " +
+            "fees = COALESCE(fees, 0) + ?, " +
+            "exit_price = CASE WHEN ? > 0 THEN (COALESCE(exit_price, 0) * COALESCE(exit_quantity, 0) + ?) " +
+            "  / (COALESCE(exit_quantity, 0) + ?) ELSE exit_price END, " +
+            "exit_quantity = COALESCE(exit_quantity, 0) + ?, " +
+            "exit_reason = COALESCE(?, exit_reason), " +
+            "closed_at = CASE WHEN status = 'OPEN' AND COALESCE(exit_quantity, 0) + ? >= entry_quantity * 0.999 " +
+            "  THEN ? ELSE closed_at END, " +
+            "status = CASE WHEN status = 'OPEN' AND COALESCE(exit_quantity, 0) + ? >= entry_quantity * 0.999 " +
+            "  THEN 'CLOSED' ELSE status END, " +
+            "pnl_percent = CASE WHEN entry_price > 0 AND entry_quantity > 0 " +
+            "  THEN (COALESCE(pnl, 0) + ?) * COALESCE(leverage, 1) * 100 / (entry_price * entry_quantity) " +
+            "  ELSE pnl_percent END " +
+            "WHERE id = ?";
+
+    @Autowired(required = false)
+    private UMFuturesClientImpl futuresClient;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private TradeOrderRegistry tradeOrderRegistry;
+
+    @Autowired
+    private ExchangeRateLimiter exchangeRateLimiter;
+
+    @Autowired
+    private ClusterCoordinator clusterCoordinator;
+
+    @Autowired
+    private WarmUpService warmUpService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Value("${exchange.pnl-sync.enabled:true}")
+    private boolean enabled;
+
+    @Value("${exchange.pnl-sync.initial-lookback-days:7}")
+    private int initialLookbackDays;
+
+    // Income pages per run; a long catch-up continues on the next run
+    @Value("${exchange.pnl-sync.max-pages:20}")
+    private int maxPages;
+
+    private TransactionTemplate transaction;
+
+    private final LongAdder runs = new LongAdder();
+    private final LongAdder fillsApplied = new LongAdder();
+    private final LongAdder unmatchedFills = new LongAdder();
+    private final LongAdder tradesUpdated = new LongAdder();
+    private final LongAdder cursorConflicts = new LongAdder();
+    private volatile String lastRunAt;
+    private volatile String lastError;
+
+    /**
+     * One fill from /fapi/v1/userTrades
+     */
+    private record Fill(long id, long orderId, double price, double qty, double realizedPnl,
+                        double commission, String commissionAsset, long time) {
+    }
+
+    /**
+     * Accumulated effect of a page of fills on one trade
+     */
+    private static class TradeDelta {
+        double pnl;
+        double fees;
+        double exitQty;
+        double exitNotional;
+        String exitReason;
+        long lastExitTime;
+    }
+
+    private static class StaleCursorException extends RuntimeException {
+        StaleCursorException(String stream) {
+            super("Sync cursor " + stream + " was advanced by another node");
+        }
+    }
+
+    @PostConstruct
+    public void init() {
+        transaction = new TransactionTemplate(transactionManager);
+    }
+
+    // ============ SYNC ============
+
+    /**
+     * Incremental sync run (leader node only - the exchange account is shared)
+     */
+    @Scheduled(fixedDelayString = "${exchange.pnl-sync.interval-ms:60000}", initialDelay = 30_000)
+    public void sync() {
+        if (!enabled || futuresClient == null || !warmUpService.isReady()
+                || !clusterCoordinator.isLeader("exchange-pnl-sync")) {
+            return;
+        }
+        runs.increment();
+        lastRunAt = Instant.now().toString();
+        try {
+            syncIncome();
+            lastError = null;
+        } catch (StaleCursorException e) {
+            cursorConflicts.increment();
+            log.warn("⚠️ PnL sync stopped: {}", e.getMessage());
+        } catch (Exception e) {
+            lastError = e.getMessage();
+            log.error("❌ PnL sync failed: {}", e.getMessage());
+        }
+    }
+
+    private void syncIncome() {
+        long[] cursor = readCursor(INCOME_STREAM);
+        long lastTime = cursor != null ? cursor[1] : System.currentTimeMillis() - initialLookbackDays * 86_400_000L;
+        long lastTranId = cursor != null ? cursor[0] : 0;
+
+        for (int page = 0; page < maxPages; page++) {
+            LinkedHashMap<String, Object> params = new LinkedHashMap<>();
+            params.put("startTime", lastTime);
+            params.put("limit", PAGE_SIZE);
+            params.put("recvWindow", 60000);
+            exchangeRateLimiter.acquire(ExchangeRateLimiter.W_INCOME);
+            JSONArray income = new JSONArray(futuresClient.account().getIncomeHistory(params));
+
+            // Symbols with fills on this page, with the time of their first fill
+            Map<String, Long> symbols = new LinkedHashMap<>();
+            long pageTime = lastTime;
+            long pageTranId = lastTranId;
+            for (int i = 0; i < income.length(); i++) {
+                JSONObject record = income.getJSONObject(i);
+                long time = record.optLong("time");
+                long tranId = record.optLong("tranId");
+                if (time < lastTime || (time == lastTime && tranId <= lastTranId)) {
+                    continue; // already seen (startTime is inclusive)
+                }
+                if (FILL_INCOME_TYPES.contains(record.optString("incomeType")) && !record.optString("symbol").isEmpty()) {
+                    symbols.merge(record.getString("symbol"), time, Math::min);
+                }
+                if (time > pageTime || (time == pageTime && tranId > pageTranId)) {
+                    pageTime = time;
+                    pageTranId = tranId;
+                }
+            }
+
+            for (Map.Entry<String, Long> symbol : symbols.entrySet()) {
+                syncSymbol(symbol.getKey(), symbol.getValue());
+            }
+            if (pageTime != lastTime || pageTranId != lastTranId) {
+                writeCursor(INCOME_STREAM, cursor != null ? new long[]{lastTranId, lastTime} : null, pageTranId, pageTime);
+                cursor = new long[]{pageTranId, pageTime};
+                lastTime = pageTime;
+                lastTranId = pageTranId;
+            }
+            if (income.length() < PAGE_SIZE) {
+                return;
+            }
+        }
+        log.info("⏩ PnL sync: income catch-up continues next run (cursor at {})", Instant.ofEpochMilli(lastTime));
+    }
+
+    /**
+     * Apply all fills of one symbol after its cursor, one transaction per page
+     */
+    private void syncSymbol(String symbol, long firstFillTime) {
+        String stream = USER_TRADES_STREAM + symbol;
+        long[] cursor = readCursor(stream);
+        while (true) {
+            LinkedHashMap<String, Object> params = new LinkedHashMap<>();
+            params.put("symbol", symbol);
+            if (cursor != null) {
+                params.put("fromId", cursor[0] + 1);
+            } else {
+                params.put("startTime", firstFillTime - 1_000);
+            }
+            params.put("limit", PAGE_SIZE);
+            params.put("recvWindow", 60000);
+            exchangeRateLimiter.acquire(ExchangeRateLimiter.W_USER_TRADES);
+            JSONArray response = new JSONArray(futuresClient.account().accountTradeList(params));
+
+            List<Fill> fills = new ArrayList<>(response.length());
+            for (int i = 0; i < response.length(); i++) {
+                JSONObject fill = response.getJSONObject(i);
+                if (cursor != null && fill.optLong("id") <= cursor[0]) {
+                    continue;
+                }
+                fills.add(new Fill(fill.optLong("id"), fill.optLong("orderId"), fill.optDouble("price", 0.0),
+                        fill.optDouble("qty", 0.0), fill.optDouble("realizedPnl", 0.0),
+                        fill.optDouble("commission", 0.0), fill.optString("commissionAsset", ""), fill.optLong("time")));
+            }
+            if (fills.isEmpty()) {
+                return;
+            }
+            fills.sort((a, b) -> Long.compare(a.id(), b.id()));
+
+            Map<Long, TradeDelta> deltas = aggregate(symbol, fills);
+            Fill last = fills.get(fills.size() - 1);
+            long[] expected = cursor;
+            transaction.executeWithoutResult(status -> {
+                Set<Long> alreadyClosed = closedTradeIds(deltas.keySet());
+                applyDeltas(deltas);
+                writeCursor(stream, expected, last.id(), last.time());
+                publishClosed(deltas.keySet(), alreadyClosed);
+            });
+            fillsApplied.add(fills.size());
+            tradesUpdated.add(deltas.size());
+            if (!deltas.isEmpty()) {
+                log.info("💰 PnL sync: {} fill(s) of {} applied to {} trade(s)", fills.size(), symbol, deltas.size());
+            }
+            cursor = new long[]{last.id(), last.time()};
+            if (response.length() < PAGE_SIZE) {
+                return;
+            }
+        }
+    }
+
+    // ============ MATCHING ============
+
+    private Map<Long, TradeDelta> aggregate(String symbol, List<Fill> fills) {
+        Set<Long> orderIds = new HashSet<>();
+        for (Fill fill : fills) {
+            orderIds.add(fill.orderId());
+        }
+        Map<Long, TradeOrderRegistry.OrderRef> refs = resolveOrders(symbol, orderIds);
+
+        Map<Long, TradeDelta> deltas = new HashMap<>();
+        for (Fill fill : fills) {
+            TradeOrderRegistry.OrderRef ref = refs.get(fill.orderId());
+            if (ref == null || ref.tradeId() == null) {
+                unmatchedFills.increment();
+                continue;
+            }
+            TradeDelta delta = deltas.computeIfAbsent(ref.tradeId(), id -> new TradeDelta());
+            double fee = FEE_ASSETS.contains(fill.commissionAsset()) ? fill.commission() : 0.0;
+            delta.fees += fee;
+            delta.pnl += fill.realizedPnl() - fee;
+            if (!TradeOrderRegistry.LEG_ENTRY.equals(ref.leg())) {
+                delta.exitQty += fill.qty();
+                delta.exitNotional += fill.qty() * fill.price();
+                delta.exitReason = TradeOrderRegistry.LEG_MANUAL.equals(ref.leg()) ? "MANUAL" : ref.leg();
+                delta.lastExitTime = fill.time();
+            }
+        }
+        return deltas;
+    }
+
+    /**
+     * Registry first, then entry order ids on trades (orders placed before the registry existed),
+     * then the exchange's client order id ("ict-{tradeId}-{leg}"); resolved orders are registered
+     */
+    private Map<Long, TradeOrderRegistry.OrderRef> resolveOrders(String symbol, Set<Long> orderIds) {
+        Map<Long, TradeOrderRegistry.OrderRef> refs = tradeOrderRegistry.find(symbol, orderIds);
+        Set<Long> missing = new HashSet<>(orderIds);
+        missing.removeAll(refs.keySet());
+        if (missing.isEmpty()) {
+            return refs;
+        }
+
+        List<String> ids = missing.stream().map(String::valueOf).toList();
+        jdbcTemplate.query("SELECT id, binance_order_id FROM trades WHERE binance_order_id = ANY (?)",
+                rs -> {
+                    long orderId = Long.parseLong(rs.getString("binance_order_id"));
+                    refs.put(orderId, new TradeOrderRegistry.OrderRef(rs.getLong("id"), TradeOrderRegistry.LEG_ENTRY));
+                    tradeOrderRegistry.register(rs.getLong("id"), symbol, TradeOrderRegistry.LEG_ENTRY, String.valueOf(orderId));
+                    missing.remove(orderId);
+                },
+                (Object) ids.toArray(new String[0]));
+
+        for (Long orderId : missing) {
+            TradeOrderRegistry.OrderRef ref = queryOrderRef(symbol, orderId);
+            if (ref != null) {
+                refs.put(orderId, ref);
+                tradeOrderRegistry.register(ref.tradeId(), symbol, ref.leg(), String.valueOf(orderId));
+            }
+        }
+        return refs;
+    }
+
+    private TradeOrderRegistry.OrderRef queryOrderRef(String symbol, long orderId) {
+        try {
+            LinkedHashMap<String, Object> params = new LinkedHashMap<>();
+            params.put("symbol", symbol);
+            params.put("orderId", orderId);
+            params.put("recvWindow", 60000);
+            exchangeRateLimiter.acquire(ExchangeRateLimiter.W_QUERY_ORDER);
+            String clientOrderId = new JSONObject(futuresClient.account().queryOrder(params)).optString("clientOrderId", "");
+            String[] parts = clientOrderId.split("-");
+            if (parts.length == 3 && "ict".equals(parts[0])) {
+                return new TradeOrderRegistry.OrderRef(Long.parseLong(parts[1]), parts[2]);
+            }
+            // Not ours (placed manually or by another tool): remember that too
+            return new TradeOrderRegistry.OrderRef(null, "EXT");
+        } catch (Exception e) {
+            log.warn("⚠️ PnL sync: could not resolve order {} on {}: {}", orderId, symbol, e.getMessage());
+            return null;
+        }
+    }
+
+    // ============ PERSISTENCE ============
+
+    private void applyDeltas(Map<Long, TradeDelta> deltas) {
+        if (deltas.isEmpty()) {
+            return;
+        }
+        List<Object[]> batch = new ArrayList<>(deltas.size());
+        for (Map.Entry<Long, TradeDelta> entry : deltas.entrySet()) {
+            TradeDelta d = entry.getValue();
+            OffsetDateTime closedAt = d.lastExitTime > 0
+                    ? OffsetDateTime.ofInstant(Instant.ofEpochMilli(d.lastExitTime), ZoneOffset.UTC)
+                    : null;
+            batch.add(new Object[]{
+                    d.pnl, d.fees,
+                    d.exitQty, d.exitNotional, d.exitQty,
+                    d.exitQty,
+                    d.exitReason,
+                    d.exitQty, closedAt,
+                    d.exitQty,
+                    d.pnl,
+                    entry.getKey()});
+        }
+        jdbcTemplate.batchUpdate(APPLY_SQL, batch);
+    }
+
+    private Set<Long> closedTradeIds(Set<Long> tradeIds) {
+        Set<Long> closed = new HashSet<>();
+        if (tradeIds.isEmpty()) {
+            return closed;
+        }
+        jdbcTemplate.query("SELECT id FROM trades WHERE id = ANY (?) AND status = 'CLOSED'",
+                rs -> {
+                    closed.add(rs.getLong("id"));
+                },
+                (Object) tradeIds.toArray(new Long[0]));
+        return closed;
+    }
+
+    /**
+     * Delivered after the page commits; open trades with a partial exit are skipped by listeners
+     */
+    private void publishClosed(Set<Long> tradeIds, Set<Long> alreadyClosed) {
+        List<Long> closes = new ArrayList<>();
+        for (Long tradeId : tradeIds) {
+            if (!alreadyClosed.contains(tradeId)) {
+                closes.add(tradeId);
+            }
+        }
+        if (!closes.isEmpty()) {
+            eventPublisher.publishEvent(new TradeLifecycleWriter.TradesClosed(closes, false));
+        }
+        if (!alreadyClosed.isEmpty()) {
+            eventPublisher.publishEvent(new TradeLifecycleWriter.TradesClosed(List.copyOf(alreadyClosed), true));
+        }
+    }
+
+    /**
+     * @return {last_id, last_time}, or null if the stream has never been synced
+     */
+    private long[] readCursor(String stream) {
+        List<long[]> rows = jdbcTemplate.query("SELECT last_id, last_time FROM exchange_sync_cursor WHERE stream = ?",
+                (rs, i) -> new long[]{rs.getLong("last_id"), rs.getLong("last_time")}, stream);
+        return rows.isEmpty() ? null : rows.get(0);
+    }
+
+    /**
+     * Compare-and-set the cursor from expected to (lastId, lastTime)
+     */
+    private void writeCursor(String stream, long[] expected, long lastId, long lastTime) {
+        int updated = expected == null
+                ? jdbcTemplate.update("INSERT INTO exchange_sync_cursor (stream, last_id, last_time) VALUES (?, ?, ?) " +
+                        "ON CONFLICT (stream) DO NOTHING", stream, lastId, lastTime)
+                : jdbcTemplate.update("UPDATE exchange_sync_cursor SET last_id = ?, last_time = ?, updated_at = now() " +
+                        "WHERE stream = ? AND last_id = ? AND last_time = ?", lastId, lastTime, stream, expected[0], expected[1]);
+        if (updated == 0) {
+            throw new StaleCursorException(stream);
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled && futuresClient != null);
+        stats.put("runs", runs.sum());
+        stats.put("lastRunAt", lastRunAt);
+        stats.put("lastError", lastError);
+        stats.put("fillsApplied", fillsApplied.sum());
+        stats.put("tradesUpdated", tradesUpdated.sum());
+        stats.put("unmatchedFills", unmatchedFills.sum());
+        stats.put("cursorConflicts", cursorConflicts.sum());
+        Map<String, Object> cursors = new LinkedHashMap<>();
+        jdbcTemplate.query("SELECT stream, last_id, last_time FROM exchange_sync_cursor ORDER BY stream",
+                rs -> {
+                    cursors.put(rs.getString("stream"), Map.of(
+                            "lastId", rs.getLong("last_id"),
+                            "lastTime", Instant.ofEpochMilli(rs.getLong("last_time")).toString()));
+                });
+        stats.put("cursors", cursors);
+        return stats;
+    }
+}
@@ -0,0 +1,388 @@
+package mav_intel.com.Intelligent_Crypto_User_Management.service;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Keeps the fleet's combined Binance traffic under the shared API key / IP limits
+ *
+ * - Binance counts request weight (per IP) and orders (per account) in one-minute
+ *   windows; all nodes share both budgets through the RateLimitLedger
+ * - A node reserves weight in chunks and spends it locally, so acquire() is
+ *   normally an in-memory decrement - the ledger is only hit once per chunk
+ * - Chunks are short leases: unspent weight is handed back after lease-ms so
+ *   an idle node does not starve busy ones
+ * - If the ledger is unreachable the node falls back to an equal local share
+ *   of the budget (limit / live nodes)
+ * - Ledger calls are made outside the bucket lock: one thread refills while the
+ *   others wait on the bucket, so a slow ledger never blocks in-memory acquires
+ * - When the fleet's budget is exhausted acquire() waits up to max-wait-ms,
+ *   re-checking for handed-back leases and starting over at the window boundary
+ *
+ * Call acquire() right before each exchange request with the endpoint's weight.
+ */
+@Slf4j
+@Service
+public class ExchangeRateLimiter {
+
+    public static final String IP_WEIGHT = "ip";
+    public static final String ORDERS = "orders";
+
+    // Request weights of the UM futures endpoints we call (IP limit)
+    public static final int W_ORDER = 0;             // POST /fapi/v1/order (counts against ORDERS)
+    public static final int W_CANCEL = 1;            // DELETE /fapi/v1/order, /allOpenOrders
+    public static final int W_QUERY_ORDER = 1;       // GET /fapi/v1/order
+    public static final int W_OPEN_ORDERS = 1;       // GET /fapi/v1/openOrders (with symbol)
+    public static final int W_OPEN_ORDERS_ALL = 40;  // GET /fapi/v1/openOrders (no symbol)
+    public static final int W_ACCOUNT = 5;           // GET /fapi/v2/balance, /v2/account, /v2/positionRisk
+    public static final int W_LEVERAGE = 1;          // POST /fapi/v1/leverage, /marginType
+    public static final int W_EXCHANGE_INFO = 1;     // GET /fapi/v1/exchangeInfo
+    public static final int W_TICKER_24H = 1;        // GET /fapi/v1/ticker/24hr (with symbol)
+    public static final int W_USER_TRADES = 5;       // GET /fapi/v1/userTrades
+    public static final int W_INCOME = 30;           // GET /fapi/v1/income
+
+    private static final long WINDOW_MS = 60_000;
+    private static final long EXHAUSTED_RECHECK_MS = 500;
+
+    @Autowired
+    private RateLimitLedger ledger;
+
+    @Autowired
+    private NodeIdentity nodeIdentity;
+
+    @Autowired
+    private ClusterCoordinator clusterCoordinator;
+
+    @Value("${ratelimit.ip-weight-per-minute:2400}")
+    private int ipWeightPerMinute;
+
+    @Value("${ratelimit.orders-per-minute:1200}")
+    private int ordersPerMinute;
+
+    // Share of the exchange limit we allow ourselves (headroom for manual use, clock skew)
+    @Value("${ratelimit.utilization-target:0.8}")
+    private double utilizationTarget;
+
+    @Value("${ratelimit.chunk-size:50}")
+    private int chunkSize;
+
+    @Value("${ratelimit.lease-ms:5000}")
+    private long leaseMs;
+
+    @Value("${ratelimit.max-wait-ms:5000}")
+    private long maxWaitMs;
+
+    private final Map<String, Bucket> buckets = new LinkedHashMap<>();
+    private long lastPurge;
+
+    /**
+     * This node's view of one bucket in the current window
+     */
+    private static class Bucket {
+        final String name;
+        final int limit;
+        long windowStart;
+        int available;      // reserved but not yet spent
+        int reserved;       // reserved this window
+        int used;           // spent this window
+        int unflushedUsed;  // spent but not yet reported to the ledger
+        long leaseExpiresAt;
+        boolean fallback;   // ledger unreachable this window
+        long exhaustedUntil; // ledger granted nothing; don't ask again before this
+        boolean refilling;   // a ledger reservation is in flight
+        final LongAdder acquires = new LongAdder();
+        final LongAdder ledgerCalls = new LongAdder();
+        final LongAdder waits = new LongAdder();
+        final LongAdder waitMs = new LongAdder();
+        final LongAdder rejected = new LongAdder();
+
+        Bucket(String name, int limit) {
+            this.name = name;
+            this.limit = limit;
+        }
+    }
+
+    @PostConstruct
+    public void init() {
+        buckets.put(IP_WEIGHT, new Bucket(IP_WEIGHT, (int) (ipWeightPerMinute * utilizationTarget)));
+        buckets.put(ORDERS, new Bucket(ORDERS, (int) (ordersPerMinute * utilizationTarget)));
+    }
+
+    /**
+     * Take request weight from the IP budget, waiting for the next window if it is exhausted
+     *
+     * @throws IllegalStateException if no budget frees up within ratelimit.max-wait-ms
+     */
+    public void acquire(int weight) {
+        acquire(IP_WEIGHT, weight);
+    }
+
+    /**
+     * Take one order from the order budget (order endpoints have no IP weight)
+     */
+    public void acquireOrder() {
+        acquire(ORDERS, 1);
+    }
+
+    public void acquire(String bucketName, int weight) {
+        if (weight <= 0) {
+            return;
+        }
+        Bucket bucket = buckets.get(bucketName);
+        long start = System.currentTimeMillis();
+        long deadline = start + maxWaitMs;
+        boolean waited = false;
+        try {
+            while (true) {
+                long now = System.currentTimeMillis();
+                Usage previous;
+                long window;
+                int requested = 0;
+                synchronized (bucket) {
+                    previous = rollWindow(bucket, now);
+                    window = bucket.windowStart;
+                    if (take(bucket, weight)) {
+                        requested = -1;
+                    } else if (!bucket.fallback && !bucket.refilling && now >= bucket.exhaustedUntil) {
+                        // This thread reserves the next chunk; the others wait for it on the bucket
+                        bucket.refilling = true;
+                        requested = Math.max(chunkSize, weight - bucket.available);
+                    }
+                }
+                report(bucket, previous);
+                if (requested < 0) {
+                    return;
+                }
+
+                if (requested > 0) {
+                    Integer granted = reserve(bucket, window, requested);
+                    synchronized (bucket) {
+                        bucket.refilling = false;
+                        credit(bucket, window, granted, System.currentTimeMillis());
+                        bucket.notifyAll();
+                        if (take(bucket, weight)) {
+                            return;
+                        }
+                    }
+                    continue;
+                }
+
+                // Exhausted fleet-wide (or a refill is in flight): wait for handed-back
+                // leases or the next window, whichever comes first, up to the deadline
+                if (now >= deadline) {
+                    bucket.rejected.increment();
+                    throw new IllegalStateException("Exchange " + bucketName + " rate limit budget exhausted, waited "
+                            + (now - start) + " ms");
+                }
+                if (!waited) {
+                    waited = true;
+                    bucket.waits.increment();
+                    log.warn("⏳ Exchange {} budget exhausted, waiting up to {} ms", bucketName, deadline - now);
+                }
+                long wakeAt = Math.min(deadline, Math.min(windowStart(now) + WINDOW_MS, now + EXHAUSTED_RECHECK_MS));
+                synchronized (bucket) {
+                    bucket.wait(Math.max(1, wakeAt - now));
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for exchange rate limit budget", e);
+        } finally {
+            if (waited) {
+                bucket.waitMs.add(System.currentTimeMillis() - start);
+            }
+        }
+    }
+
+    /**
+     * Hand back unspent weight of expired leases and report usage (off the request path)
+     */
+    @Scheduled(fixedDelayString = "${ratelimit.flush-interval-ms:1000}")
+    public void flush() {
+        long now = System.currentTimeMillis();
+        for (Bucket bucket : buckets.values()) {
+            Usage previous;
+            int unused = 0;
+            int used;
+            long window;
+            synchronized (bucket) {
+                previous = rollWindow(bucket, now);
+                if (bucket.available > 0 && now >= bucket.leaseExpiresAt && !bucket.fallback) {
+                    unused = bucket.available;
+                    bucket.available = 0;
+                    bucket.reserved -= unused;
+                }
+                used = bucket.unflushedUsed;
+                bucket.unflushedUsed = 0;
+                window = bucket.windowStart;
+            }
+            report(bucket, previous);
+            report(bucket, window, unused, used);
+        }
+        if (now - lastPurge >= 10 * WINDOW_MS && clusterCoordinator.isLeader("rate-limit-ledger-cleanup")) {
+            lastPurge = now;
+            try {
+                ledger.purgeBefore(windowStart(now) - 60 * WINDOW_MS);
+            } catch (Exception e) {
+                log.warn("⚠️ Rate-limit ledger cleanup failed: {}", e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Per-node and fleet-wide utilization of the current window
+     */
+    public Map<String, Object> getStats() {
+        long window = windowStart(System.currentTimeMillis());
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("nodeId", nodeIdentity.getNodeId());
+        stats.put("windowStart", window);
+        for (Bucket bucket : buckets.values()) {
+            Map<String, Object> node = new LinkedHashMap<>();
+            synchronized (bucket) {
+                boolean current = bucket.windowStart == window;
+                node.put("reserved", current ? bucket.reserved : 0);
+                node.put("used", current ? bucket.used : 0);
+                node.put("available", current ? bucket.available : 0);
+                node.put("fallback", current && bucket.fallback);
+            }
+            node.put("acquires", bucket.acquires.sum());
+            node.put("ledgerCalls", bucket.ledgerCalls.sum());
+            node.put("waits", bucket.waits.sum());
+            node.put("waitMs", bucket.waitMs.sum());
+            node.put("rejected", bucket.rejected.sum());
+
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("limit", bucket.limit);
+            entry.put("node", node);
+            try {
+                Map<String, Object> global = ledger.getUsage(bucket.name, window);
+                global.put("utilization", bucket.limit > 0 ? ((Number) global.get("reserved")).doubleValue() / bucket.limit : 0);
+                entry.put("global", global);
+            } catch (Exception e) {
+                entry.put("global", Map.of("error", String.valueOf(e.getMessage())));
+            }
+            stats.put(bucket.name, entry);
+        }
+        return stats;
+    }
+
+    // ============ HELPER METHODS ============
+
+    private static long windowStart(long millis) {
+        return millis - Math.floorMod(millis, WINDOW_MS);
+    }
+
+    /**
+     * Usage of a past window still to be reported to the ledger
+     */
+    private record Usage(long window, int used) {
+    }
+
+    /**
+     * Start a new window; weight left over from the previous one expires with it
+     *
+     * @return the previous window's unreported usage, for the caller to report outside the lock
+     */
+    private Usage rollWindow(Bucket bucket, long now) {
+        long window = windowStart(now);
+        if (bucket.windowStart == window) {
+            return null;
+        }
+        Usage previous = bucket.unflushedUsed > 0 ? new Usage(bucket.windowStart, bucket.unflushedUsed) : null;
+        bucket.windowStart = window;
+        bucket.available = 0;
+        bucket.reserved = 0;
+        bucket.used = 0;
+        bucket.unflushedUsed = 0;
+        bucket.leaseExpiresAt = 0;
+        bucket.fallback = false;
+        bucket.exhaustedUntil = 0;
+        return previous;
+    }
+
+    /**
+     * Spend weight from what this node holds; in fallback mode top up from the local share first
+     * Caller holds the bucket lock
+     */
+    private boolean take(Bucket bucket, int weight) {
+        if (bucket.available < weight && bucket.fallback) {
+            int share = bucket.limit / Math.max(1, clusterCoordinator.getLiveNodeCount());
+            int requested = Math.max(chunkSize, weight - bucket.available);
+            int granted = Math.max(0, Math.min(requested, share - bucket.reserved));
+            bucket.available += granted;
+            bucket.reserved += granted;
+        }
+        if (bucket.available < weight) {
+            return false;
+        }
+        bucket.available -= weight;
+        bucket.used += weight;
+        bucket.unflushedUsed += weight;
+        bucket.acquires.increment();
+        return true;
+    }
+
+    /**
+     * Reserve another chunk from the ledger (without holding the bucket lock)
+     *
+     * @return the granted weight, null if the ledger is unreachable
+     */
+    private Integer reserve(Bucket bucket, long window, int requested) {
+        bucket.ledgerCalls.increment();
+        try {
+            return ledger.reserve(bucket.name, window, nodeIdentity.getNodeId(), requested, bucket.limit);
+        } catch (Exception e) {
+            log.warn("⚠️ Rate-limit ledger unavailable ({}), using local share for this window", e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Apply a ledger reservation made for the given window; caller holds the bucket lock
+     */
+    private void credit(Bucket bucket, long window, Integer granted, long now) {
+        if (bucket.windowStart != window) {
+            return; // the window rolled meanwhile; that reservation expires with it
+        }
+        if (granted == null) {
+            bucket.fallback = true;
+            return;
+        }
+        if (granted == 0) {
+            // Other nodes may hand back expired leases; re-check shortly instead of on every call
+            bucket.exhaustedUntil = now + EXHAUSTED_RECHECK_MS;
+            return;
+        }
+        bucket.available += granted;
+        bucket.reserved += granted;
+        bucket.leaseExpiresAt = now + leaseMs;
+    }
+
+    private void report(Bucket bucket, Usage usage) {
+        if (usage != null) {
+            report(bucket, usage.window(), 0, usage.used());
+        }
+    }
+
+    private void report(Bucket bucket, long window, int unused, int used) {
+        try {
+            if (unused > 0) {
+                ledger.release(bucket.name, window, nodeIdentity.getNodeId(), unused);
+            }
+            if (used > 0) {
+                ledger.recordUsage(bucket.name, window, nodeIdentity.getNodeId(), used);
+            }
+        } catch (Exception e) {
+            log.warn("⚠️ Could not report rate-limit usage to the ledger: {}", e.getMessage());
+        }
+    }
+}
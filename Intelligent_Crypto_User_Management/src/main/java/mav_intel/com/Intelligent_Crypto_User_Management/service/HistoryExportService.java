@@ -0,0 +1,366 @@
+package mav_intel.com.Intelligent_Crypto_User_Management.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import mav_intel.com.Intelligent_Crypto_User_Management.dto.TradeFilterDTO;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Streams trade and signal history straight from a server-side cursor to the response
+ *
+ * - Runs in a read-only transaction (read pool) so Postgres honours the fetch size
+ *   and returns rows in batches instead of materialising the whole result
+ * - Each row is written through to the output stream as it arrives; heap use is
+ *   one fetch batch plus the write buffer, whatever the export size
+ * - Trade filters mirror TradeFilterDTO, pushed down to SQL
+ */
+@Slf4j
+@Service
+public class HistoryExportService {
+
+    public enum ExportFormat {
+        CSV("text/csv", "csv"),
+        NDJSON("application/x-ndjson", "ndjson");
+
+        public final String contentType;
+        public final String extension;
+
+        ExportFormat(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+
+        /**
+         * Format named by a request parameter (case-insensitive), null if unknown
+         */
+        public static ExportFormat parse(String name) {
+            for (ExportFormat format : values()) {
+                if (format.name().equalsIgnoreCase(name)) {
+                    return format;
+                }
+            }
+            return null;
+        }
+    }
+
+    private static final String TRADE_COLUMNS =
+            "id, user_id AS \"userId\", signal_id AS \"signalId\", pair, side, leverage, " +
+            "entry_price AS \"entryPrice\", entry_quantity AS \"entryQuantity\", stop_loss AS \"stopLoss\", " +
+            "tp1, tp2, tp3, tp4, status, binance_order_id AS \"binanceOrderId\", " +
+            "opened_at AS \"openedAt\", closed_at AS \"closedAt\", exit_price AS \"exitPrice\", " +
+            "pnl, pnl_percent AS \"pnlPercent\", exit_reason AS \"exitReason\"";
+
+    private static final String SIGNAL_COLUMNS =
+            "id, pair, setup_type AS \"setupType\", entry, leverage, tp1, tp2, tp3, tp4, " +
+            "stop_loss AS \"stopLoss\", \"timestamp\", channel, quantity, user_id AS \"userId\"";
+
+    // sortBy values accepted by /history -> SQL column
+    private static final Map<String, String> TRADE_SORT_COLUMNS = Map.of(
+            "closedAt", "closed_at",
+            "pnl", "pnl",
+            "pnlPercent", "pnl_percent",
+            "symbol", "pair"
+    );
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${export.fetch-size:500}")
+    private int fetchSize;
+
+    private JdbcTemplate cursorJdbcTemplate;
+    private TransactionTemplate readOnlyTransaction;
+
+    @PostConstruct
+    public void init() {
+        cursorJdbcTemplate = new JdbcTemplate(dataSource);
+        cursorJdbcTemplate.setFetchSize(fetchSize);
+        readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+    }
+
+    /**
+     * Stream trades matching the filter (pagination fields are ignored)
+     *
+     * @return rows written
+     */
+    public long exportTrades(TradeFilterDTO filter, ExportFormat format, boolean gzip, OutputStream out) throws IOException {
+        StringBuilder sql = new StringBuilder("SELECT ").append(TRADE_COLUMNS).append(" FROM trades WHERE 1 = 1");
+        List<Object> args = new ArrayList<>();
+
+        // Same default as /history: closed trades only
+        sql.append(" AND status = ?");
+        args.add(filter.getStatus() != null && !filter.getStatus().isEmpty() ? filter.getStatus() : "CLOSED");
+
+        if (filter.getSymbol() != null && !filter.getSymbol().isEmpty()) {
+            sql.append(" AND strpos(pair, ?) > 0");
+            args.add(filter.getSymbol());
+        }
+        if (filter.getFromDate() != null) {
+            sql.append(" AND closed_at >= ?");
+            args.add(startOfDay(filter.getFromDate()));
+        }
+        if (filter.getToDate() != null) {
+            sql.append(" AND closed_at < ?");
+            args.add(startOfDay(filter.getToDate().plusDays(1)));
+        }
+        if (filter.getPnlMin() != null) {
+            sql.append(" AND pnl >= ?");
+            args.add(filter.getPnlMin());
+        }
+        if (filter.getPnlMax() != null) {
+            sql.append(" AND pnl <= ?");
+            args.add(filter.getPnlMax());
+        }
+        if (filter.getPnlPercentMin() != null) {
+            sql.append(" AND pnl_percent >= ?");
+            args.add(filter.getPnlPercentMin());
+        }
+        if (filter.getPnlPercentMax() != null) {
+            sql.append(" AND pnl_percent <= ?");
+            args.add(filter.getPnlPercentMax());
+        }
+        if (filter.getSide() != null && !filter.getSide().isEmpty()) {
+            sql.append(" AND side = ?");
+            args.add(filter.getSide());
+        }
+        if (filter.getExitReason() != null && !filter.getExitReason().isEmpty()) {
+            sql.append(" AND exit_reason = ?");
+            args.add(filter.getExitReason());
+        }
+
+        String sortColumn = TRADE_SORT_COLUMNS.getOrDefault(filter.getSortBy(), "closed_at");
+        String sortOrder = "ASC".equals(filter.getSortOrder()) ? "ASC" : "DESC";
+        sql.append(" ORDER BY ").append(sortColumn).append(' ').append(sortOrder).append(" NULLS LAST, id");
+
+        return stream(sql.toString(), args, format, gzip, out);
+    }
+
+    /**
+     * Stream signals, optionally filtered by pair, channel, setup type and date range
+     *
+     * @return rows written
+     */
+    public long exportSignals(String pair, String channel, String setupType, LocalDate fromDate, LocalDate toDate,
+                              ExportFormat format, boolean gzip, OutputStream out) throws IOException {
+        StringBuilder sql = new StringBuilder("SELECT ").append(SIGNAL_COLUMNS).append(" FROM signal_messages WHERE 1 = 1");
+        List<Object> args = new ArrayList<>();
+
+        if (pair != null && !pair.isEmpty()) {
+            sql.append(" AND pair = ?");
+            args.add(pair);
+        }
+        if (channel != null && !channel.isEmpty()) {
+            sql.append(" AND channel = ?");
+            args.add(channel);
+        }
+        if (setupType != null && !setupType.isEmpty()) {
+            sql.append(" AND setup_type = ?");
+            args.add(setupType);
+        }
+        if (fromDate != null) {
+            sql.append(" AND \"timestamp\" >= ?");
+            args.add(startOfDay(fromDate));
+        }
+        if (toDate != null) {
+            sql.append(" AND \"timestamp\" < ?");
+            args.add(startOfDay(toDate.plusDays(1)));
+        }
+        sql.append(" ORDER BY id DESC");
+
+        return stream(sql.toString(), args, format, gzip, out);
+    }
+
+    // ============ HELPER METHODS ============
+
+    private long stream(String sql, List<Object> args, ExportFormat format, boolean gzip, OutputStream out) throws IOException {
+        OutputStream target = gzip ? new GZIPOutputStream(out, 64 * 1024) : new BufferedOutputStream(out, 64 * 1024);
+        long started = System.currentTimeMillis();
+
+        RowSink sink = format == ExportFormat.CSV ? new CsvSink(target) : new NdjsonSink(target, objectMapper);
+        long[] rows = {0};
+        try {
+            readOnlyTransaction.executeWithoutResult(status ->
+                    cursorJdbcTemplate.query(sql, (ResultSetExtractor<Void>) rs -> {
+                        try {
+                            // Header from the metadata, so an empty export still has one
+                            sink.header(rs.getMetaData());
+                            while (rs.next()) {
+                                sink.row(rs);
+                                rows[0]++;
+                            }
+                        } catch (IOException e) {
+                            // Client went away - abort the cursor
+                            throw new UncheckedIOException(e);
+                        }
+                        return null;
+                    }, args.toArray()));
+            sink.finish();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        } finally {
+            target.close();
+        }
+
+        log.info("📤 Exported {} rows as {}{} in {} ms", rows[0], format, gzip ? "+gzip" : "",
+                System.currentTimeMillis() - started);
+        return rows[0];
+    }
+
+    private static OffsetDateTime startOfDay(LocalDate date) {
+        // Same day boundaries as the in-memory /history filter
+        return date.atStartOfDay(ZoneId.systemDefault()).toOffsetDateTime();
+    }
+
+    private static Object readValue(ResultSet rs, int column, int sqlType) throws SQLException {
+        if (sqlType == Types.TIMESTAMP || sqlType == Types.TIMESTAMP_WITH_TIMEZONE) {
+            OffsetDateTime value = rs.getObject(column, OffsetDateTime.class);
+            return value != null ? value.toString() : null;
+        }
+        return rs.getObject(column);
+    }
+
+    private interface RowSink {
+        void header(ResultSetMetaData meta) throws SQLException, IOException;
+
+        void row(ResultSet rs) throws SQLException, IOException;
+
+        void finish() throws IOException;
+    }
+
+    /**
+     * RFC 4180 CSV with a header line
+     */
+    private static class CsvSink implements RowSink {
+        private final Writer writer;
+        private int[] types;
+
+        CsvSink(OutputStream out) {
+            this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        }
+
+        @Override
+        public void header(ResultSetMetaData meta) throws SQLException, IOException {
+            types = new int[meta.getColumnCount()];
+            for (int i = 1; i <= types.length; i++) {
+                types[i - 1] = meta.getColumnType(i);
+                if (i > 1) {
+                    writer.write(',');
+                }
+                writer.write(meta.getColumnLabel(i));
+            }
+            writer.write('\n');
+        }
+
+        @Override
+        public void row(ResultSet rs) throws SQLException, IOException {
+            for (int i = 1; i <= types.length; i++) {
+                if (i > 1) {
+                    writer.write(',');
+                }
+                Object value = readValue(rs, i, types[i - 1]);
+                if (value != null) {
+                    writeField(value.toString());
+                }
+            }
+            writer.write('\n');
+        }
+
+        private void writeField(String field) throws IOException {
+            boolean quote = field.indexOf(',') >= 0 || field.indexOf('"') >= 0
+                    || field.indexOf('\n') >= 0 || field.indexOf('\r') >= 0;
+            if (!quote) {
+                writer.write(field);
+                return;
+            }
+            writer.write('"');
+            writer.write(field.replace("\"", "\"\""));
+            writer.write('"');
+        }
+
+        @Override
+        public void finish() throws IOException {
+            writer.flush();
+        }
+    }
+
+    /**
+     * One JSON object per line
+     */
+    private static class NdjsonSink implements RowSink {
+        private final JsonGenerator generator;
+        private String[] labels;
+        private int[] types;
+        private long rows;
+
+        NdjsonSink(OutputStream out, ObjectMapper objectMapper) throws IOException {
+            this.generator = objectMapper.getFactory().createGenerator(out);
+            this.generator.setRootValueSeparator(new SerializedString("\n"));
+        }
+
+        @Override
+        public void header(ResultSetMetaData meta) throws SQLException {
+            labels = new String[meta.getColumnCount()];
+            types = new int[labels.length];
+            for (int i = 1; i <= labels.length; i++) {
+                labels[i - 1] = meta.getColumnLabel(i);
+                types[i - 1] = meta.getColumnType(i);
+            }
+        }
+
+        @Override
+        public void row(ResultSet rs) throws SQLException, IOException {
+            generator.writeStartObject();
+            for (int i = 1; i <= labels.length; i++) {
+                generator.writeFieldName(labels[i - 1]);
+                generator.writeObject(readValue(rs, i, types[i - 1]));
+            }
+            generator.writeEndObject();
+            rows++;
+        }
+
+        @Override
+        public void finish() throws IOException {
+            if (rows > 0) {
+                generator.writeRaw('\n');
+            }
+            generator.flush();
+        }
+    }
+}
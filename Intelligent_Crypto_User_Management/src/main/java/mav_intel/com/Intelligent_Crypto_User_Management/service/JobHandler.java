@@ -0,0 +1,12 @@
+package mav_intel.com.Intelligent_Crypto_User_Management.service;
+
+/**
+ * Handler for one job_queue queue
+ * Throwing marks the attempt failed (retried with backoff, then dead-lettered)
+ */
+public interface JobHandler {
+
+    String queue();
+
+    void handle(String payload) throws Exception;
+}
@@ -0,0 +1,140 @@
+package mav_intel.com.Intelligent_Crypto_User_Management.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Postgres-backed job queue shared by every backend node
+ *
+ * - claim() uses FOR UPDATE SKIP LOCKED: concurrent workers on any node never
+ *   receive the same job and never block each other
+ * - A claimed job is leased for a visibility timeout; if the worker dies the
+ *   lease expires and another worker picks it up
+ * - complete()/fail() are fenced on the lease owner, so a worker whose lease
+ *   expired cannot overwrite the new owner's outcome
+ * - Jobs that exhaust max_attempts are dead-lettered (status DEAD) and kept
+ * - dedup_key makes enqueue idempotent (e.g. one job per signal)
+ */
+@Slf4j
+@Service
+public class JobQueueService {
+
+    /**
+     * A claimed job
+     */
+    public record Job(long id, String queue, String payload, int attempts, int maxAttempts) {
+    }
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    public JobQueueService() {
+    }
+
+    /**
+     * Standalone constructor for tests and tools
+     */
+    public JobQueueService(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    // ============ PRODUCER ============
+
+    /**
+     * Enqueue a job; joins the caller's transaction if there is one
+     *
+     * @return false if a job with the same dedup key already exists
+     */
+    public boolean enqueue(String queue, String dedupKey, String payload, int maxAttempts) {
+        int inserted = jdbcTemplate.update(
+                "INSERT INTO job_queue (queue, dedup_key, payload, max_attempts) VALUES (?, ?, ?, ?) " +
+                "ON CONFLICT (dedup_key) DO NOTHING",
+                queue, dedupKey, payload, maxAttempts);
+        return inserted > 0;
+    }
+
+    // ============ CONSUMER ============
+
+    /**
+     * Claim up to limit runnable jobs (READY and due, or RUNNING with an expired lease)
+     */
+    public List<Job> claim(String queue, String workerId, int limit, int visibilityTimeoutSeconds) {
+        return jdbcTemplate.query(
+                "UPDATE job_queue j SET status = 'RUNNING', attempts = j.attempts + 1, locked_by = ?, " +
+                "locked_until = now() + make_interval(secs => ?), updated_at = now() " +
+                "WHERE j.id IN (SELECT id FROM job_queue WHERE queue = ? " +
+                "  AND ((status = 'READY' AND run_at <= now()) OR (status = 'RUNNING' AND locked_until < now())) " +
+                "  AND attempts < max_attempts " +
+                "  ORDER BY id LIMIT ? FOR UPDATE SKIP LOCKED) " +
+                "RETURNING j.id, j.queue, j.payload, j.attempts, j.max_attempts",
+                (rs, i) -> new Job(rs.getLong("id"), rs.getString("queue"), rs.getString("payload"),
+                        rs.getInt("attempts"), rs.getInt("max_attempts")),
+                workerId, visibilityTimeoutSeconds, queue, limit);
+    }
+
+    /**
+     * Mark a job done
+     *
+     * @return false if the lease was lost to another worker
+     */
+    public boolean complete(long jobId, String workerId) {
+        return jdbcTemplate.update(
+                "UPDATE job_queue SET status = 'DONE', locked_until = NULL, updated_at = now() " +
+                "WHERE id = ? AND locked_by = ? AND status = 'RUNNING'",
+                jobId, workerId) > 0;
+    }
+
+    /**
+     * Record a failed attempt: retry after backoff, or dead-letter when attempts are exhausted
+     */
+    public void fail(long jobId, String workerId, String error, int retryDelaySeconds) {
+        String lastError = error != null && error.length() > 500 ? error.substring(0, 500) : error;
+        jdbcTemplate.update(
+                "UPDATE job_queue SET " +
+                "status = CASE WHEN attempts >= max_attempts THEN 'DEAD' ELSE 'READY' END, " +
+                "run_at = now() + make_interval(secs => ?), locked_by = NULL, locked_until = NULL, " +
+                "last_error = ?, updated_at = now() " +
+                "WHERE id = ? AND locked_by = ? AND status = 'RUNNING'",
+                retryDelaySeconds, lastError, jobId, workerId);
+    }
+
+    /**
+     * Dead-letter jobs whose last lease expired with no attempts left (worker died on the final try)
+     */
+    public int deadLetterExpired() {
+        return jdbcTemplate.update(
+                "UPDATE job_queue SET status = 'DEAD', last_error = COALESCE(last_error, 'visibility timeout'), " +
+                "locked_by = NULL, locked_until = NULL, updated_at = now() " +
+                "WHERE status = 'RUNNING' AND locked_until < now() AND attempts >= max_attempts");
+    }
+
+    /**
+     * Delete finished jobs older than the given number of days
+     */
+    public int purgeDone(int olderThanDays) {
+        return jdbcTemplate.update(
+                "DELETE FROM job_queue WHERE status = 'DONE' AND updated_at < now() - make_interval(days => ?)",
+                olderThanDays);
+    }
+
+    /**
+     * Job counts per queue and status
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        jdbcTemplate.query("SELECT queue, status, count(*) AS n FROM job_queue GROUP BY queue, status ORDER BY queue, status",
+                rs -> {
+                    @SuppressWarnings("unchecked")
+                    Map<String, Object> byStatus = (Map<String, Object>) stats.computeIfAbsent(
+                            rs.getString("queue"), q -> new LinkedHashMap<String, Object>());
+                    byStatus.put(rs.getString("status"), rs.getLong("n"));
+                });
+        return stats;
+    }
+}
@@ -0,0 +1,150 @@
+package mav_intel.com.Intelligent_Crypto_User_Management.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs job_queue jobs on this node
+ *
+ * Every node runs a worker; SKIP LOCKED claiming spreads jobs across nodes
+ * so each job is executed by exactly one of them.
+ */
+@Slf4j
+@Component
+public class JobWorker {
+
+    @Autowired
+    private JobQueueService jobQueueService;
+
+    @Autowired
+    private List<JobHandler> handlers;
+
+    @Autowired
+    private NodeIdentity nodeIdentity;
+
+    @Autowired
+    private ClusterCoordinator clusterCoordinator;
+
+    @Autowired
+    private WarmUpService warmUpService;
+
+    @Value("${jobs.worker-threads:4}")
+    private int workerThreads;
+
+    @Value("${jobs.batch-size:10}")
+    private int batchSize;
+
+    @Value("${jobs.visibility-timeout-seconds:120}")
+    private int visibilityTimeoutSeconds;
+
+    @Value("${jobs.retry-delay-seconds:5}")
+    private int retryDelaySeconds;
+
+    @Value("${jobs.retention-days:7}")
+    private int retentionDays;
+
+    private String workerId;
+    private ExecutorService pool;
+
+    @PostConstruct
+    public void init() {
+        workerId = nodeIdentity.getNodeId();
+        pool = Executors.newFixedThreadPool(workerThreads, r -> new Thread(r, "job-worker"));
+        log.info("✅ Job worker {} started for queues {}", workerId, handlers.stream().map(JobHandler::queue).toList());
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        pool.shutdown();
+        pool.awaitTermination(30, TimeUnit.SECONDS);
+    }
+
+    public String getWorkerId() {
+        return workerId;
+    }
+
+    /**
+     * Claim and run a batch per queue until the queues are drained
+     */
+    @Scheduled(fixedDelayString = "${jobs.poll-interval-ms:500}")
+    public void poll() {
+        if (!warmUpService.isReady()) {
+            return;
+        }
+        for (JobHandler handler : handlers) {
+            try {
+                while (runBatch(handler) == batchSize) {
+                    // full batch - more may be waiting
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                log.error("❌ Job poll failed for queue {}: {}", handler.queue(), e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Dead-lettering of abandoned jobs and cleanup of finished ones (leader node only)
+     */
+    @Scheduled(fixedDelayString = "${jobs.maintenance-interval-ms:60000}")
+    public void maintenance() {
+        if (!clusterCoordinator.isLeader("job-queue-maintenance")) {
+            return;
+        }
+        try {
+            int dead = jobQueueService.deadLetterExpired();
+            if (dead > 0) {
+                log.warn("⚠️ Dead-lettered {} job(s) whose final lease expired", dead);
+            }
+            jobQueueService.purgeDone(retentionDays);
+        } catch (Exception e) {
+            log.error("❌ Job queue maintenance failed: {}", e.getMessage());
+        }
+    }
+
+    // ============ HELPER METHODS ============
+
+    private int runBatch(JobHandler handler) throws InterruptedException {
+        List<JobQueueService.Job> jobs = jobQueueService.claim(handler.queue(), workerId, batchSize, visibilityTimeoutSeconds);
+        if (jobs.isEmpty()) {
+            return 0;
+        }
+
+        List<Callable<Void>> tasks = new ArrayList<>(jobs.size());
+        for (JobQueueService.Job job : jobs) {
+            tasks.add(() -> {
+                run(handler, job);
+                return null;
+            });
+        }
+        pool.invokeAll(tasks);
+        return jobs.size();
+    }
+
+    private void run(JobHandler handler, JobQueueService.Job job) {
+        try {
+            handler.handle(job.payload());
+            if (!jobQueueService.complete(job.id(), workerId)) {
+                log.warn("⚠️ Job {} finished after its lease expired", job.id());
+            }
+        } catch (Exception e) {
+            log.error("❌ Job {} ({}) attempt {}/{} failed: {}",
+                    job.id(), job.queue(), job.attempts(), job.maxAttempts(), e.getMessage());
+            jobQueueService.fail(job.id(), workerId, e.getMessage(), retryDelaySeconds * job.attempts());
+        }
+    }
+}
@@ -0,0 +1,201 @@
+package mav_intel.com.Intelligent_Crypto_User_Management.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Candles of one symbol, read-only and safe to share between backtest threads
+ *
+ * Binary layout (little-endian), the same in memory and in a .klines file, so a
+ * file is memory-mapped and read in place without parsing:
+ * - header: magic "KLN1" (int), version (int), count (long), interval millis (long)
+ * - count records of 40 bytes: open time millis (long), open, high, low, close (double)
+ *
+ * CSV input is the Binance kline dump format (open_time, open, high, low, close,
+ * volume, close_time, ...; an optional header line; open times in ms or µs).
+ */
+public final class KlineSeries {
+
+    static final int MAGIC = 0x4B4C4E31;
+    static final int VERSION = 1;
+    static final int HEADER = 24;
+    static final int RECORD = 40;
+
+    private final ByteBuffer buffer;
+    private final int size;
+    private final long intervalMillis;
+
+    private KlineSeries(ByteBuffer buffer) {
+        this.buffer = buffer.order(ByteOrder.LITTLE_ENDIAN);
+        if (this.buffer.getInt(0) != MAGIC || this.buffer.getInt(4) != VERSION) {
+            throw new IllegalArgumentException("Not a kline file (bad magic/version)");
+        }
+        long count = this.buffer.getLong(8);
+        if (count < 0 || HEADER + count * RECORD > this.buffer.capacity()) {
+            throw new IllegalArgumentException("Truncated kline file: " + count + " records declared");
+        }
+        this.size = (int) count;
+        this.intervalMillis = this.buffer.getLong(16);
+    }
+
+    // ============ LOADING ============
+
+    /**
+     * Memory-map a .klines file (the mapping stays valid after the channel is closed)
+     */
+    public static KlineSeries map(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return new KlineSeries(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * Parse a Binance kline CSV; rows must be in ascending open time (duplicates are skipped)
+     */
+    public static KlineSeries parseCsv(Path file) throws IOException {
+        Builder builder = new Builder();
+        try (BufferedReader reader = Files.newBufferedReader(file)) {
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank() || !Character.isDigit(line.charAt(0))) {
+                    continue; // header
+                }
+                String[] fields = line.split(",", 8);
+                if (fields.length < 5) {
+                    throw new IOException(file + ":" + lineNumber + ": expected open_time,open,high,low,close");
+                }
+                long openTime = toMillis(Long.parseLong(fields[0].trim()));
+                long closeTime = fields.length > 6 ? toMillis(Long.parseLong(fields[6].trim())) : -1;
+                builder.add(openTime, Double.parseDouble(fields[1]), Double.parseDouble(fields[2]),
+                        Double.parseDouble(fields[3]), Double.parseDouble(fields[4]),
+                        closeTime > openTime ? closeTime + 1 - openTime : 0);
+            }
+        }
+        return builder.build();
+    }
+
+    // Binance dumps switched to microseconds; anything past year ~5000 in ms is µs
+    private static long toMillis(long time) {
+        return time > 100_000_000_000_000L ? time / 1000 : time;
+    }
+
+    /**
+     * Write in the binary layout (to a temporary file, then moved into place)
+     */
+    public void write(Path file) throws IOException {
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer copy = buffer.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+            copy.position(0).limit(HEADER + size * RECORD);
+            while (copy.hasRemaining()) {
+                channel.write(copy);
+            }
+        }
+        Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Appends candles in ascending open time into the binary layout on the heap
+     */
+    public static final class Builder {
+        private ByteBuffer buffer = ByteBuffer.allocate(HEADER + 1024 * RECORD).order(ByteOrder.LITTLE_ENDIAN);
+        private int count;
+        private long lastOpenTime = Long.MIN_VALUE;
+        private long intervalMillis;
+
+        /**
+         * @param intervalMillis candle length if known, 0 to derive it from consecutive open times
+         */
+        public Builder add(long openTime, double open, double high, double low, double close, long intervalMillis) {
+            if (openTime <= lastOpenTime) {
+                if (openTime == lastOpenTime) {
+                    return this;
+                }
+                throw new IllegalArgumentException("Klines out of order at open time " + openTime);
+            }
+            if (this.intervalMillis == 0) {
+                this.intervalMillis = intervalMillis > 0 ? intervalMillis
+                        : lastOpenTime != Long.MIN_VALUE ? openTime - lastOpenTime : 0;
+            }
+            if (buffer.capacity() < HEADER + (count + 1) * RECORD) {
+                ByteBuffer grown = ByteBuffer.allocate(HEADER + count * 2 * RECORD).order(ByteOrder.LITTLE_ENDIAN);
+                grown.put(buffer.array(), 0, HEADER + count * RECORD);
+                buffer = grown;
+            }
+            int at = HEADER + count * RECORD;
+            buffer.putLong(at, openTime);
+            buffer.putDouble(at + 8, open);
+            buffer.putDouble(at + 16, high);
+            buffer.putDouble(at + 24, low);
+            buffer.putDouble(at + 32, close);
+            count++;
+            lastOpenTime = openTime;
+            return this;
+        }
+
+        public KlineSeries build() {
+            buffer.putInt(0, MAGIC);
+            buffer.putInt(4, VERSION);
+            buffer.putLong(8, count);
+            buffer.putLong(16, intervalMillis > 0 ? intervalMillis : 60_000);
+            return new KlineSeries(buffer);
+        }
+    }
+
+    // ============ ACCESS ============
+
+    public int size() {
+        return size;
+    }
+
+    public long intervalMillis() {
+        return intervalMillis;
+    }
+
+    public long openTime(int index) {
+        return buffer.getLong(HEADER + index * RECORD);
+    }
+
+    public double open(int index) {
+        return buffer.getDouble(HEADER + index * RECORD + 8);
+    }
+
+    public double high(int index) {
+        return buffer.getDouble(HEADER + index * RECORD + 16);
+    }
+
+    public double low(int index) {
+        return buffer.getDouble(HEADER + index * RECORD + 24);
+    }
+
+    public double close(int index) {
+        return buffer.getDouble(HEADER + index * RECORD + 32);
+    }
+
+    /**
+     * Index of the first candle opening at or after the time, or size() if there is none
+     */
+    public int firstAtOrAfter(long time) {
+        int lo = 0;
+        int hi = size;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (openTime(mid) < time) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+}
@@ -0,0 +1,91 @@
+package mav_intel.com.Intelligent_Crypto_User_Management.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Historical candles for the backtest, from local files in backtest.klines-dir
+ *
+ * Per symbol (exchange notation, e.g. BTCUSDT):
+ * - BTCUSDT.klines: binary KlineSeries layout, memory-mapped
+ * - BTCUSDT.csv: Binance kline CSV; converted once to BTCUSDT.klines next to it
+ *   (re-converted when the CSV is newer), then mapped
+ *
+ * Series are cached for the lifetime of the process; mapped files cost address
+ * space, not heap.
+ */
+@Slf4j
+@Component
+public class KlineStore {
+
+    @Value("${backtest.klines-dir:./klines}")
+    private String klinesDir;
+
+    private final ConcurrentHashMap<String, Optional<KlineSeries>> series = new ConcurrentHashMap<>();
+
+    /**
+     * Candles of the symbol, or null when there is no (readable) file for it
+     */
+    public KlineSeries get(String symbol) {
+        return series.computeIfAbsent(symbol, this::load).orElse(null);
+    }
+
+    private Optional<KlineSeries> load(String symbol) {
+        Path dir = Paths.get(klinesDir);
+        Path binary = dir.resolve(symbol + ".klines");
+        Path csv = dir.resolve(symbol + ".csv");
+        try {
+            if (Files.exists(csv) && (!Files.exists(binary)
+                    || Files.getLastModifiedTime(csv).compareTo(Files.getLastModifiedTime(binary)) > 0)) {
+                long start = System.currentTimeMillis();
+                KlineSeries parsed = KlineSeries.parseCsv(csv);
+                parsed.write(binary);
+                log.info("🕯️ Converted {} candles of {} to {} in {} ms",
+                        parsed.size(), symbol, binary, System.currentTimeMillis() - start);
+            }
+            if (!Files.exists(binary)) {
+                log.warn("⚠️ No candles for {} in {}", symbol, dir.toAbsolutePath());
+                return Optional.empty();
+            }
+            KlineSeries mapped = KlineSeries.map(binary);
+            log.info("🕯️ Mapped {} candles of {} ({} ms interval)", mapped.size(), symbol, mapped.intervalMillis());
+            return Optional.of(mapped);
+        } catch (Exception e) {
+            log.error("❌ Could not load candles of {}: {}", symbol, e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Forget loaded series (e.g. after new files were copied in)
+     */
+    public void clear() {
+        series.clear();
+    }
+
+    public Map<String, Object> getStats() {
+        long candles = 0;
+        int loaded = 0;
+        for (Optional<KlineSeries> entry : series.values()) {
+            if (entry.isPresent()) {
+                loaded++;
+                candles += entry.get().size();
+            }
+        }
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("dir", klinesDir);
+        stats.put("symbols", loaded);
+        stats.put("missing", series.size() - loaded);
+        stats.put("candles", candles);
+        return stats;
+    }
+}
@@ -0,0 +1,70 @@
+package mav_intel.com.Intelligent_Crypto_User_Management.service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Fixed-bucket latency histogram (microseconds in, milliseconds out)
+ * Lock-free; shared by the connection pool and query statistics
+ */
+class LatencyHistogram {
+
+    // Bucket upper bounds in microseconds (last bucket is unbounded)
+    private static final long[] BUCKET_BOUNDS_MICROS = {
+            100, 1_000, 5_000, 10_000, 50_000, 100_000, 500_000, 1_000_000, 5_000_000, 30_000_000, Long.MAX_VALUE
+    };
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_BOUNDS_MICROS.length);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder totalMicros = new LongAdder();
+    private final AtomicLong maxMicros = new AtomicLong();
+
+    void record(long micros) {
+        int i = 0;
+        while (micros > BUCKET_BOUNDS_MICROS[i]) {
+            i++;
+        }
+        buckets.incrementAndGet(i);
+        count.increment();
+        totalMicros.add(micros);
+        maxMicros.accumulateAndGet(micros, Math::max);
+    }
+
+    long count() {
+        return count.sum();
+    }
+
+    long totalMicros() {
+        return totalMicros.sum();
+    }
+
+    Map<String, Object> snapshot() {
+        long n = count.sum();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("count", n);
+        stats.put("avgMs", n > 0 ? totalMicros.sum() / 1_000.0 / n : 0.0);
+        stats.put("p50Ms", percentileMillis(n, 0.50));
+        stats.put("p99Ms", percentileMillis(n, 0.99));
+        stats.put("maxMs", maxMicros.get() / 1_000.0);
+        return stats;
+    }
+
+    // Upper bound of the bucket holding the percentile (capped at the observed max)
+    private double percentileMillis(long n, double percentile) {
+        if (n == 0) {
+            return 0.0;
+        }
+        long rank = (long) Math.ceil(n * percentile);
+        long seen = 0;
+        for (int i = 0; i < BUCKET_BOUNDS_MICROS.length; i++) {
+            seen += buckets.get(i);
+            if (seen >= rank) {
+                return Math.min(BUCKET_BOUNDS_MICROS[i], maxMicros.get()) / 1_000.0;
+            }
+        }
+        return maxMicros.get() / 1_000.0;
+    }
+}
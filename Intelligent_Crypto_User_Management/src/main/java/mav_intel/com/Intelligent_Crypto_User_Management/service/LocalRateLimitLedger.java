@@ -0,0 +1,68 @@
+package mav_intel.com.Intelligent_Crypto_User_Management.service;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-process stand-in for the rate-limit ledger (single node, tests, local development)
+ * Enable with ratelimit.ledger=local
+ */
+@Service
+@ConditionalOnProperty(name = "ratelimit.ledger", havingValue = "local")
+public class LocalRateLimitLedger implements RateLimitLedger {
+
+    private static class Entry {
+        int reserved;
+        int used;
+    }
+
+    // bucket:windowStart -> nodeId -> entry
+    private final Map<String, Map<String, Entry>> windows = new ConcurrentHashMap<>();
+
+    @Override
+    public synchronized int reserve(String bucket, long windowStart, String nodeId, int requested, int limit) {
+        Map<String, Entry> nodes = windows.computeIfAbsent(bucket + ":" + windowStart, k -> new LinkedHashMap<>());
+        int reserved = nodes.values().stream().mapToInt(e -> e.reserved).sum();
+        int grant = Math.max(0, Math.min(requested, limit - reserved));
+        nodes.computeIfAbsent(nodeId, k -> new Entry()).reserved += grant;
+        return grant;
+    }
+
+    @Override
+    public synchronized void release(String bucket, long windowStart, String nodeId, int unused) {
+        Map<String, Entry> nodes = windows.get(bucket + ":" + windowStart);
+        if (nodes != null && nodes.containsKey(nodeId)) {
+            Entry entry = nodes.get(nodeId);
+            entry.reserved = Math.max(0, entry.reserved - unused);
+        }
+    }
+
+    @Override
+    public synchronized void recordUsage(String bucket, long windowStart, String nodeId, int used) {
+        windows.computeIfAbsent(bucket + ":" + windowStart, k -> new LinkedHashMap<>())
+                .computeIfAbsent(nodeId, k -> new Entry()).used += used;
+    }
+
+    @Override
+    public synchronized Map<String, Object> getUsage(String bucket, long windowStart) {
+        Map<String, Entry> nodes = windows.getOrDefault(bucket + ":" + windowStart, Map.of());
+        List<Map<String, Object>> perNode = new ArrayList<>();
+        nodes.forEach((nodeId, entry) -> perNode.add(Map.of("node_id", nodeId, "reserved", entry.reserved, "used", entry.used)));
+        Map<String, Object> usage = new LinkedHashMap<>();
+        usage.put("reserved", nodes.values().stream().mapToInt(e -> e.reserved).sum());
+        usage.put("used", nodes.values().stream().mapToInt(e -> e.used).sum());
+        usage.put("nodes", perNode);
+        return usage;
+    }
+
+    @Override
+    public synchronized void purgeBefore(long windowStart) {
+        windows.keySet().removeIf(key -> Long.parseLong(key.substring(key.indexOf(':') + 1)) < windowStart);
+    }
+}
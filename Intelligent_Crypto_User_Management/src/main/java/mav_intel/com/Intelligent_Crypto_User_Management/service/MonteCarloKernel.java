@@ -0,0 +1,156 @@
+package mav_intel.com.Intelligent_Crypto_User_Management.service;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+
+/**
+ * Circular block bootstrap of per-trade returns into equity paths
+ *
+ * A path draws blocks of blockLength consecutive trades starting at uniform random
+ * positions of the history (wrapping around), until it has horizon trades; blockLength
+ * 1 is the plain i.i.d. bootstrap, longer blocks keep streaks of wins and losses.
+ * Equity compounds by a fixed fraction: each trade multiplies it by
+ * max(0, 1 + fraction x return), so equity 0 is an absorbing ruin.
+ *
+ * Paths are simulated in chunks of CHUNK paths, each with its own SplittableRandom
+ * split from the seed before the parallel section: results depend on the seed only,
+ * not on the number of threads or the scheduling. Everything in the hot loop is a
+ * primitive array.
+ */
+public final class MonteCarloKernel {
+
+    /** Paths per parallel task (and per random generator) */
+    static final int CHUNK = 4096;
+
+    private MonteCarloKernel() {
+    }
+
+    /**
+     * Per-path outcomes, sorted ascending (for percentiles)
+     *
+     * @param maxDrawdowns   deepest peak-to-trough fall of each path, as a fraction of the peak
+     * @param terminalEquity final equity of each path, as a multiple of the starting equity
+     */
+    public record Result(double[] maxDrawdowns, double[] terminalEquity) {
+
+        /**
+         * Nearest-rank percentile of the drawdowns (q in 0..1)
+         */
+        public double drawdownPercentile(double q) {
+            return percentile(maxDrawdowns, q);
+        }
+
+        public double terminalPercentile(double q) {
+            return percentile(terminalEquity, q);
+        }
+
+        /**
+         * Share of paths whose max drawdown reached the level (fraction)
+         */
+        public double drawdownProbability(double level) {
+            int below = lowerBound(maxDrawdowns, level);
+            return (double) (maxDrawdowns.length - below) / maxDrawdowns.length;
+        }
+
+        /**
+         * Share of paths ending below the level (multiple of the starting equity)
+         */
+        public double terminalBelowProbability(double level) {
+            return (double) lowerBound(terminalEquity, level) / terminalEquity.length;
+        }
+    }
+
+    /**
+     * @param returns     per-trade returns on the position (0.05 = +5%), in close order
+     * @param fraction    share of equity committed per trade (0.1 = 10%)
+     * @param parallel    run the chunks as a parallel stream (on the calling pool)
+     */
+    public static Result simulate(double[] returns, int horizon, int blockLength, double fraction,
+                                  int paths, long seed, boolean parallel) {
+        if (returns.length == 0 || horizon <= 0 || blockLength <= 0 || paths <= 0) {
+            throw new IllegalArgumentException("Need returns and positive horizon, block length and paths");
+        }
+        double[] multipliers = new double[returns.length];
+        for (int i = 0; i < returns.length; i++) {
+            multipliers[i] = Math.max(0.0, 1.0 + fraction * returns[i]);
+        }
+
+        int chunks = (paths + CHUNK - 1) / CHUNK;
+        SplittableRandom root = new SplittableRandom(seed);
+        SplittableRandom[] randoms = new SplittableRandom[chunks];
+        for (int c = 0; c < chunks; c++) {
+            randoms[c] = root.split();
+        }
+
+        double[] maxDrawdowns = new double[paths];
+        double[] terminalEquity = new double[paths];
+        IntStream chunkIndexes = IntStream.range(0, chunks);
+        (parallel ? chunkIndexes.parallel() : chunkIndexes).forEach(c ->
+                simulateChunk(multipliers, horizon, Math.min(blockLength, multipliers.length), randoms[c],
+                        c * CHUNK, Math.min(paths, (c + 1) * CHUNK), maxDrawdowns, terminalEquity));
+
+        if (parallel) {
+            Arrays.parallelSort(maxDrawdowns);
+            Arrays.parallelSort(terminalEquity);
+        } else {
+            Arrays.sort(maxDrawdowns);
+            Arrays.sort(terminalEquity);
+        }
+        return new Result(maxDrawdowns, terminalEquity);
+    }
+
+    static void simulateChunk(double[] multipliers, int horizon, int blockLength, SplittableRandom random,
+                              int from, int to, double[] maxDrawdowns, double[] terminalEquity) {
+        int n = multipliers.length;
+        for (int path = from; path < to; path++) {
+            double equity = 1.0;
+            double peak = 1.0;
+            double maxDrawdown = 0.0;
+            int drawn = 0;
+            while (drawn < horizon && equity > 0) {
+                int index = random.nextInt(n);
+                int end = Math.min(blockLength, horizon - drawn);
+                for (int k = 0; k < end; k++) {
+                    equity *= multipliers[index];
+                    if (++index == n) {
+                        index = 0;
+                    }
+                    if (equity > peak) {
+                        peak = equity;
+                    } else {
+                        double drawdown = (peak - equity) / peak;
+                        if (drawdown > maxDrawdown) {
+                            maxDrawdown = drawdown;
+                        }
+                    }
+                }
+                drawn += end;
+            }
+            maxDrawdowns[path] = maxDrawdown;
+            terminalEquity[path] = equity;
+        }
+    }
+
+    // ============ HELPER METHODS ============
+
+    private static double percentile(double[] sorted, double q) {
+        int rank = (int) Math.ceil(q * sorted.length);
+        return sorted[Math.min(sorted.length - 1, Math.max(0, rank - 1))];
+    }
+
+    // First index with sorted[i] >= value
+    private static int lowerBound(double[] sorted, double value) {
+        int lo = 0;
+        int hi = sorted.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (sorted[mid] < value) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+}
@@ -0,0 +1,259 @@
+package mav_intel.com.Intelligent_Crypto_User_Management.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import mav_intel.com.Intelligent_Crypto_User_Management.dto.MonteCarloResultDTO;
+import mav_intel.com.Intelligent_Crypto_User_Management.dto.TradeSummary;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.IntStream;
+
+/**
+ * Monte Carlo risk of a user's trading: resamples the returns of their closed trades
+ * (MonteCarloKernel, block bootstrap) into many equity paths and reports drawdown and
+ * terminal-equity percentiles and the probability of ruin per position size
+ *
+ * - Returns are per trade on its margin (pnl_percent, i.e. leverage included); a
+ *   position size of 10% commits 10% of current equity as margin per trade, so the
+ *   scenarios answer "what if every trade had been sized like this"
+ * - The trades come from ColumnarTradeStore (no query per request)
+ * - All scenarios of a request use the same seed, i.e. the same resampled trade
+ *   sequences, so differences between them are due to sizing, not sampling noise
+ * - Paths run as a parallel stream on a dedicated fork/join pool (analytics.monte-carlo.threads),
+ *   so a large run cannot starve other users of the common pool
+ * - Cost is bounded per request by one work budget (paths x horizon x sizes) and overall by
+ *   max-concurrent-runs, with at most one run per user at a time; a busy request fails fast
+ */
+@Slf4j
+@Service
+public class MonteCarloService {
+
+    private static final double[] PERCENTILES = {0.01, 0.05, 0.10, 0.25, 0.50, 0.75, 0.90, 0.95, 0.99};
+
+    @Autowired
+    private ColumnarTradeStore columnarTradeStore;
+
+    @Value("${analytics.monte-carlo.default-paths:100000}")
+    private int defaultPaths;
+
+    @Value("${analytics.monte-carlo.max-paths:2000000}")
+    private int maxPaths;
+
+    @Value("${analytics.monte-carlo.max-horizon:10000}")
+    private int maxHorizon;
+
+    // Trade steps per request over all scenarios: paths x horizon x position sizes
+    @Value("${analytics.monte-carlo.max-work:500000000}")
+    private long maxWork;
+
+    @Value("${analytics.monte-carlo.threads:0}")
+    private int threads;
+
+    @Value("${analytics.monte-carlo.max-concurrent-runs:2}")
+    private int maxConcurrentRuns;
+
+    @Value("${analytics.monte-carlo.position-percents:5,10,20}")
+    private List<Double> defaultPositionPercents;
+
+    @Value("${analytics.monte-carlo.ruin-drawdown-percent:50}")
+    private double defaultRuinDrawdownPercent;
+
+    private ForkJoinPool pool;
+    private Semaphore runSlots;
+    private final Set<Long> runningUsers = ConcurrentHashMap.newKeySet();
+
+    private final LongAdder runs = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder pathsSimulated = new LongAdder();
+    private final LongAdder runNanos = new LongAdder();
+
+    @PostConstruct
+    public void init() {
+        pool = new ForkJoinPool(threads > 0 ? threads : Runtime.getRuntime().availableProcessors());
+        runSlots = new Semaphore(Math.max(1, maxConcurrentRuns));
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        pool.shutdownNow();
+        pool.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    /**
+     * @param paths             default analytics.monte-carlo.default-paths, fewer if that would exceed max-work
+     * @param horizon           trades per path, default the user's number of closed trades (at most max-horizon)
+     * @param blockLength       consecutive trades per draw, default 1 (i.i.d. bootstrap)
+     * @param positionPercents  margin per trade as % of equity, one scenario each
+     * @throws IllegalArgumentException without closed trades or with out-of-range parameters
+     * @throws IllegalStateException    if the user already has a run, or max-concurrent-runs are running
+     */
+    public MonteCarloResultDTO simulate(Long userId, Integer paths, Integer horizon, Integer blockLength,
+                                        List<Double> positionPercents, Double ruinDrawdownPercent, Long seed) {
+        double[] returns = tradeReturns(columnarTradeStore.columns(userId));
+        if (returns.length == 0) {
+            throw new IllegalArgumentException("No closed trades with a return to resample");
+        }
+        int pathCount = paths != null ? paths : defaultPaths;
+        int tradesPerPath = horizon != null ? horizon : Math.min(returns.length, maxHorizon);
+        int block = blockLength != null ? blockLength : 1;
+        List<Double> sizes = positionPercents != null && !positionPercents.isEmpty() ? positionPercents : defaultPositionPercents;
+        double ruin = ruinDrawdownPercent != null ? ruinDrawdownPercent : defaultRuinDrawdownPercent;
+        long randomSeed = seed != null ? seed : System.nanoTime();
+
+        if (pathCount <= 0 || pathCount > maxPaths) {
+            throw new IllegalArgumentException("paths must be 1.." + maxPaths + ", got " + pathCount);
+        }
+        if (tradesPerPath <= 0 || tradesPerPath > maxHorizon) {
+            throw new IllegalArgumentException("horizon must be 1.." + maxHorizon + ", got " + tradesPerPath);
+        }
+        if (block <= 0 || sizes.size() > 10 || ruin <= 0 || ruin > 100) {
+            throw new IllegalArgumentException("Invalid blockLength, positionPercent or ruinDrawdown");
+        }
+        for (Double size : sizes) {
+            if (size == null || size <= 0 || size > 100) {
+                throw new IllegalArgumentException("positionPercent must be in (0, 100], got " + size);
+            }
+        }
+        if (paths == null) {
+            pathCount = (int) Math.max(1, Math.min(pathCount, maxWork / ((long) tradesPerPath * sizes.size())));
+        }
+        long work = (long) pathCount * tradesPerPath * sizes.size();
+        if (work > maxWork) {
+            throw new IllegalArgumentException("paths x horizon x positionPercents = " + work + " exceeds " + maxWork
+                    + "; use fewer paths, a shorter horizon or fewer sizes");
+        }
+
+        if (!runningUsers.add(userId)) {
+            rejected.increment();
+            throw new IllegalStateException("A Monte Carlo run is already in progress for this user");
+        }
+        long start = System.nanoTime();
+        List<MonteCarloResultDTO.Scenario> scenarios = new ArrayList<>(sizes.size());
+        try {
+            if (!runSlots.tryAcquire()) {
+                rejected.increment();
+                throw new IllegalStateException("Too many Monte Carlo runs in progress");
+            }
+            try {
+                for (double size : sizes) {
+                    MonteCarloKernel.Result result = pool.submit(() -> MonteCarloKernel.simulate(returns, tradesPerPath,
+                            block, size / 100, pathCount, randomSeed, true)).get();
+                    scenarios.add(scenario(size, ruin, result));
+                }
+            } finally {
+                runSlots.release();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted during Monte Carlo run", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Monte Carlo run failed: " + e.getCause().getMessage(), e.getCause());
+        } finally {
+            runningUsers.remove(userId);
+        }
+        long elapsed = System.nanoTime() - start;
+        long simulated = (long) pathCount * sizes.size();
+
+        runs.increment();
+        pathsSimulated.add(simulated);
+        runNanos.add(elapsed);
+        log.info("🎲 Monte Carlo for user {}: {} trades, {} paths x {} trades x {} sizes in {} ms",
+                userId, returns.length, pathCount, tradesPerPath, sizes.size(), elapsed / 1_000_000);
+
+        return MonteCarloResultDTO.builder()
+                .sampleTrades(returns.length)
+                .meanReturnPercent(decimal(Arrays.stream(returns).average().orElse(0) * 100, 4))
+                .paths(pathCount)
+                .horizon(tradesPerPath)
+                .blockLength(block)
+                .ruinDrawdownPercent(decimal(ruin, 2))
+                .seed(randomSeed)
+                .scenarios(scenarios)
+                .elapsedMillis(elapsed / 1_000_000)
+                .pathsPerSecond(elapsed > 0 ? simulated * 1_000_000_000L / elapsed : null)
+                .build();
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        long nanos = runNanos.sum();
+        long simulated = pathsSimulated.sum();
+        stats.put("runs", runs.sum());
+        stats.put("paths", simulated);
+        stats.put("runMillis", nanos / 1_000_000);
+        stats.put("pathsPerSecond", nanos > 0 ? simulated * 1_000_000_000L / nanos : 0);
+        stats.put("parallelism", pool.getParallelism());
+        stats.put("running", runningUsers.size());
+        stats.put("maxConcurrentRuns", maxConcurrentRuns);
+        stats.put("rejected", rejected.sum());
+        return stats;
+    }
+
+    // ============ HELPER METHODS ============
+
+    /**
+     * Return on margin of each closed trade (fraction, at least -1), in close order
+     * pnl_percent when set, else pnl x leverage / entry notional; trades with neither are left out
+     */
+    static double[] tradeReturns(TradeColumns columns) {
+        Integer[] order = IntStream.range(0, columns.size()).boxed().toArray(Integer[]::new);
+        Arrays.sort(order, Comparator.comparingLong(row -> columns.closedAtMicros[row]));
+        double[] returns = new double[order.length];
+        int count = 0;
+        for (int row : order) {
+            TradeSummary trade = columns.row(row);
+            double value;
+            if (trade.getPnlPercent() != null) {
+                value = trade.getPnlPercent() / 100;
+            } else if (trade.getPnl() != null && trade.getEntryPrice() != null && trade.getEntryPrice() > 0
+                    && trade.getEntryQuantity() != null && trade.getEntryQuantity() > 0) {
+                int leverage = trade.getLeverage() != null && trade.getLeverage() > 0 ? trade.getLeverage() : 1;
+                value = trade.getPnl() * leverage / (trade.getEntryPrice() * trade.getEntryQuantity());
+            } else {
+                continue;
+            }
+            returns[count++] = Math.max(-1.0, value);
+        }
+        return Arrays.copyOf(returns, count);
+    }
+
+    private static MonteCarloResultDTO.Scenario scenario(double positionPercent, double ruinPercent,
+                                                         MonteCarloKernel.Result result) {
+        Map<String, BigDecimal> drawdowns = new LinkedHashMap<>();
+        Map<String, BigDecimal> terminal = new LinkedHashMap<>();
+        for (double q : PERCENTILES) {
+            String key = "p" + Math.round(q * 100);
+            drawdowns.put(key, decimal(result.drawdownPercentile(q) * 100, 2));
+            terminal.put(key, decimal(result.terminalPercentile(q), 4));
+        }
+        return MonteCarloResultDTO.Scenario.builder()
+                .positionPercent(decimal(positionPercent, 2))
+                .ruinProbability(decimal(result.drawdownProbability(ruinPercent / 100), 4))
+                .lossProbability(decimal(result.terminalBelowProbability(1.0), 4))
+                .maxDrawdownPercent(drawdowns)
+                .terminalEquity(terminal)
+                .build();
+    }
+
+    private static BigDecimal decimal(double value, int scale) {
+        return BigDecimal.valueOf(value).setScale(scale, RoundingMode.HALF_UP);
+    }
+}
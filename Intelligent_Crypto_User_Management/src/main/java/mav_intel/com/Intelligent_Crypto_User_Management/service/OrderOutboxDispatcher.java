@@ -0,0 +1,239 @@
+package mav_intel.com.Intelligent_Crypto_User_Management.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import mav_intel.com.Intelligent_Crypto_User_Management.model.OrderOutbox;
+import mav_intel.com.Intelligent_Crypto_User_Management.repository.OrderOutboxRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Drains order_outbox and places the orders on Binance
+ *
+ * - Woken right after the trade transaction commits, with a polling fallback
+ * - Each batch holds at most one intent per account (the oldest unfinished one),
+ *   so intents of one account are dispatched strictly in order while different
+ *   accounts are dispatched in parallel
+ * - Failed attempts are retried with exponential backoff; client order ids are
+ *   deterministic, so a retry resumes a bracket instead of duplicating it
+ * - Safe with several nodes: claim() is a single UPDATE over FOR UPDATE SKIP LOCKED
+ *   that leases the intent to this node; an intent whose lease expired (node died
+ *   mid-dispatch) is reclaimed by any node
+ */
+@Slf4j
+@Service
+public class OrderOutboxDispatcher {
+
+    /**
+     * Published inside the transaction that wrote the intent
+     */
+    public record OutboxWritten(Long outboxId) {
+    }
+
+    @Autowired
+    private OrderOutboxRepository outboxRepository;
+
+    @Autowired
+    private TradeService tradeService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private NodeIdentity nodeIdentity;
+
+    @Autowired
+    private WarmUpService warmUpService;
+
+    @Value("${outbox.lease-seconds:120}")
+    private int leaseSeconds;
+
+    @Value("${outbox.batch-size:20}")
+    private int batchSize;
+
+    @Value("${outbox.dispatch-threads:4}")
+    private int dispatchThreads;
+
+    @Value("${outbox.max-attempts:5}")
+    private int maxAttempts;
+
+    @Value("${outbox.retry-base-ms:2000}")
+    private long retryBaseMs;
+
+    @Value("${outbox.retry-max-ms:300000}")
+    private long retryMaxMs;
+
+    private ExecutorService drainThread;
+    private ExecutorService accountPool;
+    private final AtomicBoolean drainScheduled = new AtomicBoolean();
+
+    private final LongAdder dispatched = new LongAdder();
+    private final LongAdder retried = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+
+    @PostConstruct
+    public void init() {
+        drainThread = Executors.newSingleThreadExecutor(r -> new Thread(r, "outbox-drain"));
+        accountPool = Executors.newFixedThreadPool(dispatchThreads, r -> new Thread(r, "outbox-dispatch"));
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        drainThread.shutdown();
+        accountPool.shutdown();
+        accountPool.awaitTermination(30, TimeUnit.SECONDS);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        // Intents left IN_FLIGHT by a crash are reclaimed (idempotently) once their lease expires
+        wake();
+    }
+
+    @TransactionalEventListener
+    public void onOutboxWritten(OutboxWritten event) {
+        wake();
+    }
+
+    /**
+     * Polling fallback (retries that became due, missed wake-ups)
+     */
+    @Scheduled(fixedDelayString = "${outbox.poll-interval-ms:1000}")
+    public void poll() {
+        wake();
+    }
+
+    /**
+     * Schedule a drain pass unless one is already queued
+     */
+    public void wake() {
+        if (!warmUpService.isReady()) {
+            return;
+        }
+        if (drainScheduled.compareAndSet(false, true)) {
+            drainThread.execute(this::drain);
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("pending", outboxRepository.countByStatus("PENDING"));
+        stats.put("inFlight", outboxRepository.countByStatus("IN_FLIGHT"));
+        stats.put("failed", outboxRepository.countByStatus("FAILED"));
+        stats.put("dispatched", dispatched.sum());
+        stats.put("retries", retried.sum());
+        stats.put("givenUp", failed.sum());
+        return stats;
+    }
+
+    // ============ HELPER METHODS ============
+
+    private void drain() {
+        // Cleared first so a wake-up during this pass queues another one
+        drainScheduled.set(false);
+        try {
+            while (true) {
+                List<OrderOutbox> batch = claim();
+                if (batch.isEmpty()) {
+                    return;
+                }
+
+                List<Callable<Void>> tasks = new ArrayList<>(batch.size());
+                for (OrderOutbox intent : batch) {
+                    tasks.add(() -> {
+                        dispatch(intent);
+                        return null;
+                    });
+                }
+                accountPool.invokeAll(tasks);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            log.error("❌ Outbox drain failed: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Lease up to batchSize due intents to this node, at most one per account (its oldest unfinished one)
+     */
+    private List<OrderOutbox> claim() {
+        return jdbcTemplate.query(
+                "UPDATE order_outbox o SET status = 'IN_FLIGHT', attempts = o.attempts + 1, locked_by = ?, " +
+                "locked_until = now() + make_interval(secs => ?), updated_at = now() " +
+                "WHERE o.id IN (SELECT c.id FROM order_outbox c " +
+                "  WHERE ((c.status = 'PENDING' AND c.next_attempt_at <= now()) " +
+                "     OR (c.status = 'IN_FLIGHT' AND (c.locked_until IS NULL OR c.locked_until < now()))) " +
+                "  AND NOT EXISTS (SELECT 1 FROM order_outbox e WHERE e.account_key = c.account_key " +
+                "     AND e.id < c.id AND e.status IN ('PENDING', 'IN_FLIGHT')) " +
+                "  ORDER BY c.id LIMIT ? FOR UPDATE SKIP LOCKED) " +
+                "RETURNING o.id, o.trade_id, o.account_key, o.attempts",
+                (rs, i) -> OrderOutbox.builder()
+                        .id(rs.getLong("id"))
+                        .tradeId(rs.getLong("trade_id"))
+                        .accountKey(rs.getLong("account_key"))
+                        .attempts(rs.getInt("attempts"))
+                        .status("IN_FLIGHT")
+                        .build(),
+                nodeIdentity.getNodeId(), leaseSeconds, batchSize);
+    }
+
+    private void dispatch(OrderOutbox intent) {
+        // attempts already includes this claim
+        int attempt = intent.getAttempts();
+        String owner = nodeIdentity.getNodeId();
+        boolean done;
+        String error = null;
+        try {
+            done = tradeService.dispatchBracket(intent.getTradeId(), attempt > 1);
+            if (!done) {
+                error = "Order placement failed";
+            }
+        } catch (Exception e) {
+            done = false;
+            error = e.getMessage();
+        }
+
+        OffsetDateTime now = OffsetDateTime.now();
+        if (done) {
+            outboxRepository.markDone(intent.getId(), owner, now);
+            dispatched.increment();
+            return;
+        }
+
+        String lastError = error != null && error.length() > 500 ? error.substring(0, 500) : error;
+        if (attempt >= maxAttempts) {
+            log.error("❌ Giving up on trade {} after {} attempts: {}", intent.getTradeId(), attempt, error);
+            if (!tradeService.failDispatch(intent.getTradeId())) {
+                log.error("❌ Trade {} left PENDING: its entry could not be looked up on Binance", intent.getTradeId());
+            }
+            outboxRepository.markFailed(intent.getId(), owner, lastError, now);
+            failed.increment();
+        } else {
+            long delayMs = Math.min(retryMaxMs, retryBaseMs << (attempt - 1));
+            log.warn("⚠️ Dispatch of trade {} failed (attempt {}/{}), retrying in {} ms: {}",
+                    intent.getTradeId(), attempt, maxAttempts, delayMs, error);
+            outboxRepository.scheduleRetry(intent.getId(), owner, now.plusNanos(delayMs * 1_000_000), lastError, now);
+            retried.increment();
+        }
+    }
+}
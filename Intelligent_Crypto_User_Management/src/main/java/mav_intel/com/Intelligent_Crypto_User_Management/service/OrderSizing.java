@@ -0,0 +1,115 @@
+package mav_intel.com.Intelligent_Crypto_User_Management.service;
+
+import mav_intel.com.Intelligent_Crypto_User_Management.dto.TradeConfigSnapshot;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Order sizing rules of the bracket (leverage cap, entry quantity, price/quantity rounding,
+ * TP quantity split), shared by TradeService and the backtest so both size orders identically
+ *
+ * Pure functions, no logging: TradeService logs around them.
+ */
+final class OrderSizing {
+
+    private OrderSizing() {
+    }
+
+    /**
+     * Signal leverage (default 1x), capped at the config's maxLeverage
+     */
+    static int cappedLeverage(Integer requested, TradeConfigSnapshot config) {
+        int leverage = requested != null ? requested : 1;
+        if (config != null && leverage > config.getMaxLeverage().intValue()) {
+            return config.getMaxLeverage().intValue();
+        }
+        return leverage;
+    }
+
+    /**
+     * Requested quantity, or 50% of the balance at the entry price (at least 0.001)
+     */
+    static double entryQuantity(Double requestedQty, double entryPrice, double balance) {
+        if (requestedQty != null && requestedQty > 0) {
+            return requestedQty;
+        }
+        return Math.max((balance * 0.5) / entryPrice, 0.001);
+    }
+
+    /**
+     * Quantity capped so the entry notional stays within the config's max position size
+     * (maxPositionSizePercent, applied as a USDT notional)
+     */
+    static double capPositionSize(double quantity, double entryPrice, TradeConfigSnapshot config) {
+        if (config != null) {
+            double maxPositionSize = config.getMaxPositionSize().doubleValue();
+            if (quantity * entryPrice > maxPositionSize) {
+                return maxPositionSize / entryPrice;
+            }
+        }
+        return quantity;
+    }
+
+    static double roundQuantity(double quantity, int decimalPlaces) {
+        if (decimalPlaces < 0) decimalPlaces = 0;
+        double multiplier = Math.pow(10, decimalPlaces);
+        return Math.round(quantity * multiplier) / multiplier;
+    }
+
+    static double roundPrice(double price, int pricePrecision) {
+        if (pricePrecision < 0) pricePrecision = 2;  // Default fallback
+        double multiplier = Math.pow(10, pricePrecision);
+        return Math.round(price * multiplier) / multiplier;
+    }
+
+    /**
+     * Quantity rounded DOWN to a multiple of the step size, as sent to Binance ("0.57", not "0.5700000001")
+     */
+    static String stepQuantity(double rawQuantity, double stepSize) {
+        BigDecimal qty = new BigDecimal(String.valueOf(rawQuantity));
+        BigDecimal step = new BigDecimal(String.valueOf(stepSize));
+        BigDecimal adjusted = qty.divide(step, 0, RoundingMode.DOWN).multiply(step);
+        return adjusted
+            .setScale(decimalPlaces(String.valueOf(stepSize)), RoundingMode.DOWN)
+            .stripTrailingZeros()
+            .toPlainString();
+    }
+
+    static int decimalPlaces(String stepSize) {
+        String[] parts = stepSize.split("\\.");
+        if (parts.length == 2) {
+            return parts[1].length();
+        }
+        return 0;
+    }
+
+    /**
+     * Entry quantity as placed: sized, capped, rounded to the quantity precision, then stepped
+     */
+    static double placedEntryQuantity(Double requestedQty, double entryPrice, double balance,
+                                      TradeConfigSnapshot config, SymbolFilters filters) {
+        double quantity = capPositionSize(entryQuantity(requestedQty, entryPrice, balance), entryPrice, config);
+        return Double.parseDouble(stepQuantity(roundQuantity(quantity, filters.quantityPrecision), filters.lotSize));
+    }
+
+    /**
+     * TP1-TP4 quantities: the config's exit percentages of the position, rounded and stepped;
+     * without a config every TP is for the full quantity
+     */
+    static double[] takeProfitQuantities(double executedQty, TradeConfigSnapshot config, SymbolFilters filters) {
+        if (config == null) {
+            return new double[]{executedQty, executedQty, executedQty, executedQty};
+        }
+        BigDecimal[] percentages = {
+            config.getTp1ExitPercentage(), config.getTp2ExitPercentage(),
+            config.getTp3ExitPercentage(), config.getTp4ExitPercentage()
+        };
+        double[] quantities = new double[4];
+        for (int i = 0; i < 4; i++) {
+            double quantity = executedQty * (percentages[i].doubleValue() / 100.0);
+            quantities[i] = Double.parseDouble(stepQuantity(roundQuantity(quantity, filters.quantityPrecision), filters.lotSize));
+        }
+        return quantities;
+    }
+}
@@ -0,0 +1,131 @@
+package mav_intel.com.Intelligent_Crypto_User_Management.service;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Fork/join versions of the TradeStatsKernel steps, for large trade histories
+ *
+ * Each step splits its range in halves down to leafSize and combines the halves
+ * in order, so the output is identical to the sequential kernel:
+ * - filter: matches of the left half, then the right half (source order)
+ * - sort: the halves are sorted with the same stable merge sort and merged stably
+ * - aggregate: TradeStatsAccumulator.merge (exact sums, earlier trade wins ties)
+ */
+public final class ParallelTradeStats {
+
+    /** Rows per leaf task; large enough to amortize task overhead */
+    public static final int DEFAULT_LEAF_SIZE = 8192;
+
+    private ParallelTradeStats() {
+    }
+
+    public static int[] filter(TradeColumns columns, TradeStatsKernel.CompiledFilter filter, ForkJoinPool pool, int leafSize) {
+        return pool.invoke(new FilterTask(columns, filter, 0, columns.size(), leafSize));
+    }
+
+    public static void sort(TradeColumns columns, int[] rows, String sortBy, String sortOrder, ForkJoinPool pool, int leafSize) {
+        long[] key = TradeStatsKernel.sortKey(columns, sortBy);
+        pool.invoke(new SortTask(rows, new int[rows.length], 0, rows.length, key,
+                TradeStatsKernel.isDescending(sortOrder), leafSize));
+    }
+
+    public static TradeStatsAccumulator aggregate(TradeColumns columns, int[] rows, ForkJoinPool pool, int leafSize) {
+        return pool.invoke(new AggregateTask(columns, rows, 0, rows.length, leafSize));
+    }
+
+    // ============ TASKS ============
+
+    private static final class FilterTask extends RecursiveTask<int[]> {
+        private final TradeColumns columns;
+        private final TradeStatsKernel.CompiledFilter filter;
+        private final int from;
+        private final int to;
+        private final int leafSize;
+
+        FilterTask(TradeColumns columns, TradeStatsKernel.CompiledFilter filter, int from, int to, int leafSize) {
+            this.columns = columns;
+            this.filter = filter;
+            this.from = from;
+            this.to = to;
+            this.leafSize = leafSize;
+        }
+
+        @Override
+        protected int[] compute() {
+            if (to - from <= leafSize) {
+                return TradeStatsKernel.filterRange(columns, filter, from, to);
+            }
+            int mid = (from + to) >>> 1;
+            FilterTask left = new FilterTask(columns, filter, from, mid, leafSize);
+            left.fork();
+            int[] right = new FilterTask(columns, filter, mid, to, leafSize).compute();
+            int[] leftMatches = left.join();
+            int[] matches = new int[leftMatches.length + right.length];
+            System.arraycopy(leftMatches, 0, matches, 0, leftMatches.length);
+            System.arraycopy(right, 0, matches, leftMatches.length, right.length);
+            return matches;
+        }
+    }
+
+    private static final class SortTask extends RecursiveAction {
+        private final int[] rows;
+        private final int[] buffer;
+        private final int from;
+        private final int to;
+        private final long[] key;
+        private final boolean descending;
+        private final int leafSize;
+
+        SortTask(int[] rows, int[] buffer, int from, int to, long[] key, boolean descending, int leafSize) {
+            this.rows = rows;
+            this.buffer = buffer;
+            this.from = from;
+            this.to = to;
+            this.key = key;
+            this.descending = descending;
+            this.leafSize = leafSize;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= leafSize) {
+                TradeStatsKernel.sortRange(rows, buffer, from, to, key, descending);
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new SortTask(rows, buffer, from, mid, key, descending, leafSize),
+                    new SortTask(rows, buffer, mid, to, key, descending, leafSize));
+            TradeStatsKernel.mergeRuns(rows, buffer, from, mid, to, key, descending);
+        }
+    }
+
+    private static final class AggregateTask extends RecursiveTask<TradeStatsAccumulator> {
+        private final TradeColumns columns;
+        private final int[] rows;
+        private final int from;
+        private final int to;
+        private final int leafSize;
+
+        AggregateTask(TradeColumns columns, int[] rows, int from, int to, int leafSize) {
+            this.columns = columns;
+            this.rows = rows;
+            this.from = from;
+            this.to = to;
+            this.leafSize = leafSize;
+        }
+
+        @Override
+        protected TradeStatsAccumulator compute() {
+            if (to - from <= leafSize) {
+                return TradeStatsAccumulator.over(columns, rows, from, to);
+            }
+            int mid = (from + to) >>> 1;
+            AggregateTask left = new AggregateTask(columns, rows, from, mid, leafSize);
+            left.fork();
+            TradeStatsAccumulator right = new AggregateTask(columns, rows, mid, to, leafSize).compute();
+            return left.join().merge(right);
+        }
+    }
+}
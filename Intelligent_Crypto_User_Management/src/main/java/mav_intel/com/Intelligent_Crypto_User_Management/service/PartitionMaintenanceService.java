@@ -0,0 +1,143 @@
+package mav_intel.com.Intelligent_Crypto_User_Management.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Maintains monthly RANGE partitions for trades and signal_messages
+ *
+ * - Only acts on tables converted with db/partitioning.sql; plain tables are left alone
+ * - Creates partitions for the current month and the next N months ahead
+ * - Drops old partitions once the archival job has emptied them
+ */
+@Slf4j
+@Service
+public class PartitionMaintenanceService {
+
+    // Partitioned table -> partition key column
+    static final Map<String, String> PARTITIONED_TABLES = Map.of(
+            "trades", "opened_at",
+            "signal_messages", "timestamp"
+    );
+
+    private static final DateTimeFormatter SUFFIX = DateTimeFormatter.ofPattern("yyyy_MM");
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ClusterCoordinator clusterCoordinator;
+
+    @Value("${partition.months-ahead:3}")
+    private int monthsAhead;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        ensureUpcomingPartitions();
+    }
+
+    /**
+     * Create missing monthly partitions (daily, idempotent, leader node only)
+     */
+    @Scheduled(cron = "${partition.maintenance-cron:0 0 3 * * *}")
+    public void ensureUpcomingPartitions() {
+        if (!clusterCoordinator.isLeader("partition-maintenance")) {
+            return;
+        }
+        for (String table : PARTITIONED_TABLES.keySet()) {
+            try {
+                if (!isPartitioned(table)) {
+                    continue;
+                }
+                YearMonth month = YearMonth.now();
+                for (int i = 0; i <= monthsAhead; i++) {
+                    createPartition(table, month.plusMonths(i));
+                }
+            } catch (Exception e) {
+                log.error("❌ Partition maintenance failed for {}: {}", table, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Whether the table has been converted to a partitioned parent
+     */
+    public boolean isPartitioned(String table) {
+        Integer count = jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM pg_partitioned_table p JOIN pg_class c ON c.oid = p.partrelid " +
+                "WHERE c.relname = ? AND c.relnamespace = to_regnamespace(current_schema())",
+                Integer.class, table);
+        return count != null && count > 0;
+    }
+
+    /**
+     * Drop monthly partitions that end on or before the cutoff and hold no rows
+     *
+     * @return number of partitions dropped
+     */
+    public int dropEmptyPartitionsBefore(String table, LocalDate cutoff) {
+        if (!isPartitioned(table)) {
+            return 0;
+        }
+        int dropped = 0;
+        for (String partition : listMonthlyPartitions(table)) {
+            YearMonth month = YearMonth.parse(partition.substring(partition.length() - 7), SUFFIX);
+            if (month.plusMonths(1).atDay(1).isAfter(cutoff)) {
+                continue;
+            }
+            Boolean hasRows = jdbcTemplate.queryForObject(
+                    "SELECT EXISTS (SELECT 1 FROM \"" + partition + "\")", Boolean.class);
+            if (Boolean.FALSE.equals(hasRows)) {
+                jdbcTemplate.execute("DROP TABLE IF EXISTS \"" + partition + "\"");
+                log.info("🗑️ Dropped empty partition {}", partition);
+                dropped++;
+            }
+        }
+        return dropped;
+    }
+
+    // ============ HELPER METHODS ============
+
+    private void createPartition(String table, YearMonth month) {
+        String partition = table + "_p" + month.format(SUFFIX);
+        LocalDate from = month.atDay(1);
+        LocalDate to = month.plusMonths(1).atDay(1);
+        try {
+            jdbcTemplate.execute(String.format(
+                    "CREATE TABLE IF NOT EXISTS \"%s\" PARTITION OF \"%s\" FOR VALUES FROM ('%s') TO ('%s')",
+                    partition, table, from, to));
+        } catch (Exception e) {
+            // Fails when the DEFAULT partition already holds rows for this range
+            log.warn("⚠️ Could not create partition {}: {}", partition, e.getMessage());
+        }
+    }
+
+    private List<String> listMonthlyPartitions(String table) {
+        List<String> names = jdbcTemplate.queryForList(
+                "SELECT c.relname FROM pg_inherits i " +
+                "JOIN pg_class c ON c.oid = i.inhrelid JOIN pg_class p ON p.oid = i.inhparent " +
+                "WHERE p.relname = ? AND p.relnamespace = to_regnamespace(current_schema())",
+                String.class, table);
+        List<String> monthly = new ArrayList<>();
+        String pattern = table + "_p\\d{4}_\\d{2}";
+        for (String name : names) {
+            if (name.matches(pattern)) {
+                monthly.add(name);
+            }
+        }
+        return monthly;
+    }
+}
@@ -0,0 +1,343 @@
+package mav_intel.com.Intelligent_Crypto_User_Management.service;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Pre-aggregated PnL cube: one pnl_rollup row per (user, day, symbol, side, exit reason)
+ *
+ * - pnl_rollup_trade records which cell each closed trade is counted in, with its
+ *   pnl (rounded to 8 decimals, like TradeColumns); cells are recomputed from it, so
+ *   sums and extremes stay exact when a late fill revises a trade, moves it to
+ *   another day/exit reason, or reopens it, and survive archival of the trades
+ * - Updated on TradesClosed (after commit): upsert the trades' membership, then
+ *   rebuild the old and new cells; writers serialize on one advisory lock
+ * - A reconcile job (leader only) picks up closes whose event was lost (crash
+ *   between commit and listener, close on a node without this version) and
+ *   backfills all closed trades until the "pnl-rollup" BackfillCursorStore cursor
+ *   is complete, resuming from its last trade id after a crash
+ * - query() answers group-by/filter questions from the cells, so its cost scales
+ *   with days x symbols, not with trades
+ *
+ * Days are calendar days in analytics.rollup.zone; changing it requires a rebuild
+ * (DELETE FROM pnl_rollup_trade and DELETE FROM backfill_cursor WHERE name = 'pnl-rollup';
+ * the reconcile job backfills on its next run).
+ */
+@Slf4j
+@Service
+public class PnlRollupService {
+
+    private static final String CELL = "user_id, day, symbol, side, exit_reason";
+    private static final String BACKFILL = "pnl-rollup";
+
+    private static final String UPSERT_MEMBERS_SQL =
+            "INSERT INTO pnl_rollup_trade (trade_id, " + CELL + ", closed_at, pnl, pnl_percent) " +
+            "SELECT id, user_id, (closed_at AT TIME ZONE ?)::date, pair, side, COALESCE(exit_reason, ''), closed_at, " +
+            "  ROUND(pnl::numeric, 8), ROUND(pnl_percent::numeric, 8) " +
+            "FROM trades WHERE id = ANY (?) AND status = 'CLOSED' AND closed_at IS NOT NULL AND user_id IS NOT NULL " +
+            "ON CONFLICT (trade_id) DO UPDATE SET user_id = EXCLUDED.user_id, day = EXCLUDED.day, " +
+            "  symbol = EXCLUDED.symbol, side = EXCLUDED.side, exit_reason = EXCLUDED.exit_reason, " +
+            "  closed_at = EXCLUDED.closed_at, pnl = EXCLUDED.pnl, pnl_percent = EXCLUDED.pnl_percent";
+
+    // Trades that are in the hot table but no longer CLOSED; archived trades keep their membership
+    private static final String DELETE_REOPENED_SQL =
+            "DELETE FROM pnl_rollup_trade m USING trades t " +
+            "WHERE m.trade_id = t.id AND t.id = ANY (?) AND t.status <> 'CLOSED'";
+
+    private static final String DELETE_CELL_SQL =
+            "DELETE FROM pnl_rollup WHERE user_id = ? AND day = ? AND symbol = ? AND side = ? AND exit_reason = ?";
+
+    private static final String BUILD_CELL_SQL =
+            "INSERT INTO pnl_rollup (" + CELL + ", trades, wins, losses, pnl_sum, pnl_percent_sum, " +
+            "  gross_profit, gross_loss, best_pnl, worst_pnl) " +
+            "SELECT " + CELL + ", COUNT(*), " +
+            "  COUNT(*) FILTER (WHERE pnl > 0), COUNT(*) FILTER (WHERE pnl < 0), " +
+            "  COALESCE(SUM(pnl), 0), COALESCE(SUM(pnl_percent), 0), " +
+            "  COALESCE(SUM(pnl) FILTER (WHERE pnl > 0), 0), COALESCE(SUM(pnl) FILTER (WHERE pnl < 0), 0), " +
+            "  MAX(COALESCE(pnl, 0)), MIN(COALESCE(pnl, 0)) " +
+            "FROM pnl_rollup_trade " +
+            "WHERE user_id = ? AND day = ? AND symbol = ? AND side = ? AND exit_reason = ? " +
+            "GROUP BY " + CELL;
+
+    private static final String RECONCILE_SQL =
+            "SELECT t.id FROM trades t LEFT JOIN pnl_rollup_trade m ON m.trade_id = t.id " +
+            "WHERE t.status = 'CLOSED' AND t.closed_at IS NOT NULL AND t.user_id IS NOT NULL AND t.closed_at >= ? " +
+            "AND (m.trade_id IS NULL OR m.closed_at <> t.closed_at OR m.exit_reason <> COALESCE(t.exit_reason, '') " +
+            "  OR m.pnl IS DISTINCT FROM ROUND(t.pnl::numeric, 8) " +
+            "  OR m.pnl_percent IS DISTINCT FROM ROUND(t.pnl_percent::numeric, 8)) " +
+            "AND t.id > ? ORDER BY t.id LIMIT ?";
+
+    /**
+     * Query dimensions: request name -> SQL expression over pnl_rollup
+     */
+    private static final Map<String, String> DIMENSIONS = new LinkedHashMap<>();
+
+    static {
+        DIMENSIONS.put("symbol", "symbol");
+        DIMENSIONS.put("side", "side");
+        DIMENSIONS.put("exitReason", "exit_reason");
+        DIMENSIONS.put("day", "day");
+        DIMENSIONS.put("week", "date_trunc('week', day)::date");
+        DIMENSIONS.put("month", "date_trunc('month', day)::date");
+    }
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ClusterCoordinator clusterCoordinator;
+
+    @Autowired
+    private WarmUpService warmUpService;
+
+    @Autowired
+    private BackfillCursorStore backfillCursors;
+
+    @Value("${analytics.rollup.zone:UTC}")
+    private String zone;
+
+    // How far back the reconcile job compares trades with their rollup membership
+    @Value("${analytics.rollup.reconcile-days:3}")
+    private int reconcileDays;
+
+    @Value("${analytics.rollup.reconcile-batch-size:1000}")
+    private int reconcileBatchSize;
+
+    private TransactionTemplate transaction;
+
+    private final LongAdder tradesApplied = new LongAdder();
+    private final LongAdder cellsRebuilt = new LongAdder();
+    private final LongAdder reconciled = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private volatile String lastReconcileAt;
+
+    private record Cell(long userId, LocalDate day, String symbol, String side, String exitReason) {
+    }
+
+    @PostConstruct
+    public void init() {
+        transaction = new TransactionTemplate(transactionManager);
+    }
+
+    // ============ UPDATES ============
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTradesClosed(TradeLifecycleWriter.TradesClosed event) {
+        try {
+            apply(event.tradeIds());
+        } catch (Exception e) {
+            // The reconcile job picks these trades up on its next run
+            failures.increment();
+            log.warn("⚠️ PnL rollup update failed for trades {}: {}", event.tradeIds(), e.getMessage());
+        }
+    }
+
+    /**
+     * Re-read the trades, move their membership and rebuild every cell they left or entered
+     */
+    public void apply(Collection<Long> tradeIds) {
+        if (tradeIds.isEmpty()) {
+            return;
+        }
+        Long[] ids = tradeIds.toArray(new Long[0]);
+        int cells = transaction.execute(status -> {
+            jdbcTemplate.queryForList("SELECT pg_advisory_xact_lock(hashtext('pnl_rollup'))");
+            Set<Cell> affected = new HashSet<>(cellsOf(ids));
+            jdbcTemplate.update(DELETE_REOPENED_SQL, (Object) ids);
+            jdbcTemplate.update(UPSERT_MEMBERS_SQL, zone, ids);
+            affected.addAll(cellsOf(ids));
+            rebuild(affected);
+            return affected.size();
+        });
+        tradesApplied.add(ids.length);
+        cellsRebuilt.add(cells);
+    }
+
+    private List<Cell> cellsOf(Long[] ids) {
+        return jdbcTemplate.query("SELECT DISTINCT " + CELL + " FROM pnl_rollup_trade WHERE trade_id = ANY (?)",
+                (rs, i) -> new Cell(rs.getLong("user_id"), rs.getDate("day").toLocalDate(),
+                        rs.getString("symbol"), rs.getString("side"), rs.getString("exit_reason")),
+                (Object) ids);
+    }
+
+    private void rebuild(Collection<Cell> cells) {
+        List<Object[]> keys = new ArrayList<>(cells.size());
+        for (Cell cell : cells) {
+            keys.add(new Object[]{cell.userId(), Date.valueOf(cell.day()), cell.symbol(), cell.side(), cell.exitReason()});
+        }
+        jdbcTemplate.batchUpdate(DELETE_CELL_SQL, keys);
+        jdbcTemplate.batchUpdate(BUILD_CELL_SQL, keys);
+    }
+
+    /**
+     * Apply recent closes whose event was missed; until the backfill is complete, first
+     * continue it over the whole history
+     */
+    @Scheduled(fixedDelayString = "${analytics.rollup.reconcile-interval-ms:300000}", initialDelay = 60_000)
+    public void reconcile() {
+        if (!warmUpService.isReady() || !clusterCoordinator.isLeader("pnl-rollup-reconcile")) {
+            return;
+        }
+        lastReconcileAt = Instant.now().toString();
+        try {
+            BackfillCursorStore.Cursor cursor = backfillCursors.get(BACKFILL);
+            if (!cursor.complete()) {
+                int backfilled = walk(new Timestamp(0), cursor.lastTradeId(), true);
+                backfillCursors.complete(BACKFILL);
+                reconciled.add(backfilled);
+                log.info("🧮 PnL rollup backfill complete: {} trade(s) applied (resumed after trade {})",
+                        backfilled, cursor.lastTradeId());
+            }
+            int total = walk(Timestamp.from(Instant.now().minusSeconds(reconcileDays * 86_400L)), 0, false);
+            if (total > 0) {
+                reconciled.add(total);
+                log.info("🧮 PnL rollup reconcile: {} trade(s) applied", total);
+            }
+        } catch (Exception e) {
+            failures.increment();
+            log.error("❌ PnL rollup reconcile failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Apply, in id order, the trades closed since the given time whose membership is missing or stale
+     * A backfill records its progress after every batch
+     */
+    private int walk(Timestamp since, long afterId, boolean backfill) {
+        int total = 0;
+        while (true) {
+            List<Long> ids = jdbcTemplate.queryForList(RECONCILE_SQL, Long.class, since, afterId, reconcileBatchSize);
+            if (ids.isEmpty()) {
+                return total;
+            }
+            apply(ids);
+            total += ids.size();
+            afterId = ids.get(ids.size() - 1);
+            if (backfill) {
+                backfillCursors.advance(BACKFILL, afterId);
+            }
+            if (ids.size() < reconcileBatchSize) {
+                return total;
+            }
+        }
+    }
+
+    // ============ QUERY ============
+
+    /**
+     * Aggregate the user's cells in [from, to] grouped by the given dimensions
+     * (symbol, side, exitReason, day, week, month), optionally filtered by symbol, side and exit reason
+     *
+     * @throws IllegalArgumentException on an unknown dimension
+     */
+    public List<Map<String, Object>> query(Long userId, List<String> groupBy, LocalDate from, LocalDate to,
+                                           String symbol, String side, String exitReason) {
+        StringBuilder select = new StringBuilder();
+        StringBuilder group = new StringBuilder();
+        for (String dimension : groupBy) {
+            String expression = DIMENSIONS.get(dimension);
+            if (expression == null) {
+                throw new IllegalArgumentException("Unknown dimension '" + dimension + "', expected one of " + DIMENSIONS.keySet());
+            }
+            select.append(expression).append(" AS \"").append(dimension).append("\", ");
+            group.append(group.length() > 0 ? ", " : "").append(expression);
+        }
+
+        StringBuilder sql = new StringBuilder("SELECT ").append(select)
+                .append("SUM(trades) AS trades, SUM(wins) AS wins, SUM(losses) AS losses, ")
+                .append("SUM(pnl_sum) AS pnl, SUM(pnl_percent_sum) AS pnl_percent_sum, ")
+                .append("SUM(gross_profit) AS gross_profit, SUM(gross_loss) AS gross_loss, ")
+                .append("MAX(best_pnl) AS best_pnl, MIN(worst_pnl) AS worst_pnl ")
+                .append("FROM pnl_rollup WHERE user_id = ?");
+        List<Object> args = new ArrayList<>();
+        args.add(userId);
+        if (from != null) {
+            sql.append(" AND day >= ?");
+            args.add(Date.valueOf(from));
+        }
+        if (to != null) {
+            sql.append(" AND day <= ?");
+            args.add(Date.valueOf(to));
+        }
+        if (symbol != null && !symbol.isEmpty()) {
+            sql.append(" AND strpos(symbol, ?) > 0"); // same "contains" match as TradeFilterDTO.symbol
+            args.add(symbol);
+        }
+        if (side != null && !side.isEmpty()) {
+            sql.append(" AND side = ?");
+            args.add(side);
+        }
+        if (exitReason != null && !exitReason.isEmpty()) {
+            sql.append(" AND exit_reason = ?");
+            args.add(exitReason);
+        }
+        if (group.length() > 0) {
+            sql.append(" GROUP BY ").append(group).append(" ORDER BY ").append(group);
+        }
+
+        List<Map<String, Object>> rows = jdbcTemplate.queryForList(sql.toString(), args.toArray());
+        if (group.length() == 0 && !rows.isEmpty() && rows.get(0).get("trades") == null) {
+            return List.of(); // no cells in range
+        }
+        for (Map<String, Object> row : rows) {
+            addRatios(row);
+        }
+        return rows;
+    }
+
+    /**
+     * winRate (0-100), averagePnl and profitFactor, as in the trade history statistics
+     */
+    private static void addRatios(Map<String, Object> row) {
+        long trades = ((Number) row.get("trades")).longValue();
+        long wins = ((Number) row.get("wins")).longValue();
+        BigDecimal pnl = (BigDecimal) row.get("pnl");
+        BigDecimal grossProfit = (BigDecimal) row.get("gross_profit");
+        BigDecimal grossLoss = ((BigDecimal) row.get("gross_loss")).abs();
+        row.put("winRate", trades > 0
+                ? BigDecimal.valueOf(wins * 100).divide(BigDecimal.valueOf(trades), 2, RoundingMode.HALF_UP) : BigDecimal.ZERO);
+        row.put("averagePnl", trades > 0
+                ? pnl.divide(BigDecimal.valueOf(trades), 8, RoundingMode.HALF_UP).stripTrailingZeros() : BigDecimal.ZERO);
+        row.put("profitFactor", grossLoss.signum() > 0
+                ? grossProfit.divide(grossLoss, 4, RoundingMode.HALF_UP) : null);
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("zone", zone);
+        stats.put("tradesApplied", tradesApplied.sum());
+        stats.put("cellsRebuilt", cellsRebuilt.sum());
+        stats.put("reconciled", reconciled.sum());
+        stats.put("failures", failures.sum());
+        stats.put("lastReconcileAt", lastReconcileAt);
+        stats.put("backfill", backfillCursors.get(BACKFILL));
+        stats.put("cells", jdbcTemplate.queryForObject("SELECT COUNT(*) FROM pnl_rollup", Long.class));
+        return stats;
+    }
+}
@@ -29,6 +29,9 @@ public class PositionService {
     @Autowired(required = false)
     private UMFuturesClientImpl futuresClient;
 
+    @Autowired
+    private ExchangeRateLimiter exchangeRateLimiter;
+
     /**
      * ✅ Fetch all open positions from Binance
      * API Endpoint: GET /fapi/v2/positionRisk
@@ -41,6 +44,7 @@ public class PositionService {
 
             LinkedHashMap<String, Object> params = new LinkedHashMap<>();
             params.put("recvWindow", 60000);
+            exchangeRateLimiter.acquire(ExchangeRateLimiter.W_ACCOUNT);
             String positionResponse = futuresClient.account().positionInformation(params);
             JSONArray positions = new JSONArray(positionResponse);
             List<BinancePositionDTO> activePositions = new ArrayList<>();
@@ -115,6 +119,7 @@ public class PositionService {
             params.put("symbol", symbol);
             params.put("recvWindow", 60000);
 
+            exchangeRateLimiter.acquire(ExchangeRateLimiter.W_OPEN_ORDERS);
             String ordersResponse = futuresClient.account().currentAllOpenOrders(params);
             JSONArray orders = new JSONArray(ordersResponse);
             List<BinanceOrderDTO> orderList = new ArrayList<>();
@@ -192,6 +197,7 @@ public class PositionService {
             params.put("timeInForce", "GTC");
             params.put("recvWindow", 60000);
 
+            exchangeRateLimiter.acquireOrder();
             String response = futuresClient.account().newOrder(params);
             JSONObject resp = new JSONObject(response);
 
@@ -251,6 +257,7 @@ public class PositionService {
                 params.put("timeInForce", "GTC");
                 params.put("recvWindow", 60000);
 
+                exchangeRateLimiter.acquireOrder();
                 String response = futuresClient.account().newOrder(params);
                 JSONObject resp = new JSONObject(response);
 
@@ -296,6 +303,7 @@ public class PositionService {
             params.put("timeInForce", "GTC");
             params.put("recvWindow", 60000);
 
+            exchangeRateLimiter.acquireOrder();
             String response = futuresClient.account().newOrder(params);
             JSONObject resp = new JSONObject(response);
 
@@ -322,6 +330,7 @@ public class PositionService {
             params.put("symbol", symbol);
             params.put("recvWindow", 60000);
 
+            exchangeRateLimiter.acquire(ExchangeRateLimiter.W_CANCEL);
             futuresClient.account().cancelAllOpenOrders(params);
             log.info("✅ Cancelled all open orders for {}", symbol);
 
@@ -344,6 +353,7 @@ public class PositionService {
                     params.put("orderId", order.getOrderId());
                     params.put("recvWindow", 60000);
 
+                    exchangeRateLimiter.acquire(ExchangeRateLimiter.W_CANCEL);
                     futuresClient.account().cancelOrder(params);
                     log.info("✅ Cancelled SL order: {}", order.getOrderId());
                 }
@@ -368,6 +378,7 @@ public class PositionService {
                     params.put("orderId", order.getOrderId());
                     params.put("recvWindow", 60000);
 
+                    exchangeRateLimiter.acquire(ExchangeRateLimiter.W_CANCEL);
                     futuresClient.account().cancelOrder(params);
                     log.info("✅ Cancelled TP order: {}", order.getOrderId());
                 }
@@ -0,0 +1,102 @@
+package mav_intel.com.Intelligent_Crypto_User_Management.service;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Rate-limit ledger in Postgres, shared by every node
+ *
+ * rate_limit_window holds the fleet total per bucket/window (row-locked while a
+ * chunk is granted); rate_limit_ledger holds each node's reserved and used weight.
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "ratelimit.ledger", havingValue = "postgres", matchIfMissing = true)
+public class PostgresRateLimitLedger implements RateLimitLedger {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate transaction;
+
+    @PostConstruct
+    public void init() {
+        transaction = new TransactionTemplate(transactionManager);
+    }
+
+    @Override
+    public int reserve(String bucket, long windowStart, String nodeId, int requested, int limit) {
+        Timestamp window = new Timestamp(windowStart);
+        Integer granted = transaction.execute(status -> {
+            jdbcTemplate.update("INSERT INTO rate_limit_window (bucket, window_start) VALUES (?, ?) ON CONFLICT DO NOTHING",
+                    bucket, window);
+            Integer reserved = jdbcTemplate.queryForObject(
+                    "SELECT reserved FROM rate_limit_window WHERE bucket = ? AND window_start = ? FOR UPDATE",
+                    Integer.class, bucket, window);
+            int grant = Math.max(0, Math.min(requested, limit - (reserved != null ? reserved : 0)));
+            if (grant == 0) {
+                return 0;
+            }
+            jdbcTemplate.update("UPDATE rate_limit_window SET reserved = reserved + ? WHERE bucket = ? AND window_start = ?",
+                    grant, bucket, window);
+            jdbcTemplate.update("INSERT INTO rate_limit_ledger (bucket, window_start, node_id, reserved) VALUES (?, ?, ?, ?) " +
+                    "ON CONFLICT (bucket, window_start, node_id) DO UPDATE SET " +
+                    "reserved = rate_limit_ledger.reserved + EXCLUDED.reserved, updated_at = now()",
+                    bucket, window, nodeId, grant);
+            return grant;
+        });
+        return granted != null ? granted : 0;
+    }
+
+    @Override
+    public void release(String bucket, long windowStart, String nodeId, int unused) {
+        Timestamp window = new Timestamp(windowStart);
+        transaction.executeWithoutResult(status -> {
+            jdbcTemplate.update("UPDATE rate_limit_window SET reserved = GREATEST(0, reserved - ?) " +
+                    "WHERE bucket = ? AND window_start = ?", unused, bucket, window);
+            jdbcTemplate.update("UPDATE rate_limit_ledger SET reserved = GREATEST(0, reserved - ?), updated_at = now() " +
+                    "WHERE bucket = ? AND window_start = ? AND node_id = ?", unused, bucket, window, nodeId);
+        });
+    }
+
+    @Override
+    public void recordUsage(String bucket, long windowStart, String nodeId, int used) {
+        jdbcTemplate.update("INSERT INTO rate_limit_ledger (bucket, window_start, node_id, used) VALUES (?, ?, ?, ?) " +
+                "ON CONFLICT (bucket, window_start, node_id) DO UPDATE SET " +
+                "used = rate_limit_ledger.used + EXCLUDED.used, updated_at = now()",
+                bucket, new Timestamp(windowStart), nodeId, used);
+    }
+
+    @Override
+    public Map<String, Object> getUsage(String bucket, long windowStart) {
+        List<Map<String, Object>> nodes = jdbcTemplate.queryForList(
+                "SELECT node_id, reserved, used FROM rate_limit_ledger WHERE bucket = ? AND window_start = ? ORDER BY node_id",
+                bucket, new Timestamp(windowStart));
+        Map<String, Object> usage = new LinkedHashMap<>();
+        usage.put("reserved", nodes.stream().mapToInt(n -> ((Number) n.get("reserved")).intValue()).sum());
+        usage.put("used", nodes.stream().mapToInt(n -> ((Number) n.get("used")).intValue()).sum());
+        usage.put("nodes", nodes);
+        return usage;
+    }
+
+    @Override
+    public void purgeBefore(long windowStart) {
+        Timestamp cutoff = new Timestamp(windowStart);
+        jdbcTemplate.update("DELETE FROM rate_limit_ledger WHERE window_start < ?", cutoff);
+        jdbcTemplate.update("DELETE FROM rate_limit_window WHERE window_start < ?", cutoff);
+    }
+}
@@ -0,0 +1,293 @@
+package mav_intel.com.Intelligent_Crypto_User_Management.service;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * Mergeable quantile sketch with relative-error guarantees (DDSketch layout)
+ *
+ * Values are counted in logarithmic buckets: bucket i of a sign holds |v| in
+ * (gamma^(i-1), gamma^i] with gamma = (1 + a) / (1 - a), so every quantile is
+ * returned within relative accuracy a of a true value, whatever the distribution.
+ * Negative values (losses) have their own buckets; |v| below MIN_INDEXABLE counts as 0.
+ *
+ * Unlike t-digest or KLL, the sketch is just bucket counts, so:
+ * - merge() is exact and order-independent (merging per-symbol sketches equals the
+ *   sketch of all trades)
+ * - remove() undoes an add() exactly, which is what revised and reopened trades need
+ * - size is bounded by the value range, not the count: 1% accuracy over 1e-4..1e6
+ *   is at most ~1,200 buckets per sign, typically a few hundred bytes serialized
+ *
+ * Not thread-safe.
+ */
+public final class QuantileSketch {
+
+    public static final double DEFAULT_RELATIVE_ACCURACY = 0.01;
+    static final double MIN_INDEXABLE = 1e-9;
+    private static final byte FORMAT = 1;
+
+    private final double relativeAccuracy;
+    private final double gamma;
+    private final double logGamma;
+    private final Store positive = new Store();
+    private final Store negative = new Store();
+    private long zeroCount;
+
+    public QuantileSketch() {
+        this(DEFAULT_RELATIVE_ACCURACY);
+    }
+
+    public QuantileSketch(double relativeAccuracy) {
+        if (!(relativeAccuracy > 0 && relativeAccuracy < 1)) {
+            throw new IllegalArgumentException("Relative accuracy must be in (0, 1), got " + relativeAccuracy);
+        }
+        this.relativeAccuracy = relativeAccuracy;
+        this.gamma = (1 + relativeAccuracy) / (1 - relativeAccuracy);
+        this.logGamma = Math.log(gamma);
+    }
+
+    // ============ UPDATES ============
+
+    public void add(double value) {
+        update(value, 1);
+    }
+
+    /**
+     * Take back one earlier add(value)
+     *
+     * @return false (sketch unchanged) if no value in that bucket was counted
+     */
+    public boolean remove(double value) {
+        return update(value, -1);
+    }
+
+    private boolean update(double value, long delta) {
+        if (Double.isNaN(value) || Double.isInfinite(value)) {
+            throw new IllegalArgumentException("Not a finite value: " + value);
+        }
+        if (Math.abs(value) < MIN_INDEXABLE) {
+            if (zeroCount + delta < 0) {
+                return false;
+            }
+            zeroCount += delta;
+            return true;
+        }
+        return (value > 0 ? positive : negative).add(index(Math.abs(value)), delta);
+    }
+
+    /**
+     * Add all values counted by the other sketch (same relative accuracy)
+     */
+    public void merge(QuantileSketch other) {
+        if (other.gamma != gamma) {
+            throw new IllegalArgumentException("Cannot merge sketches of accuracy " + relativeAccuracy
+                    + " and " + other.relativeAccuracy);
+        }
+        positive.merge(other.positive);
+        negative.merge(other.negative);
+        zeroCount += other.zeroCount;
+    }
+
+    // ============ QUERIES ============
+
+    public long count() {
+        return positive.total + negative.total + zeroCount;
+    }
+
+    public double relativeAccuracy() {
+        return relativeAccuracy;
+    }
+
+    /**
+     * Value at quantile q (0..1): within relative accuracy of the value of rank q x (count - 1);
+     * NaN when empty
+     */
+    public double quantile(double q) {
+        if (q < 0 || q > 1) {
+            throw new IllegalArgumentException("Quantile must be in [0, 1], got " + q);
+        }
+        long count = count();
+        if (count == 0) {
+            return Double.NaN;
+        }
+        long rank = (long) Math.floor(q * (count - 1));
+        long seen = 0;
+        // Ascending values: most negative first (largest index of the negative store)
+        for (int i = negative.counts.length - 1; i >= 0; i--) {
+            seen += negative.counts[i];
+            if (seen > rank) {
+                return -value(negative.offset + i);
+            }
+        }
+        seen += zeroCount;
+        if (seen > rank) {
+            return 0;
+        }
+        for (int i = 0; i < positive.counts.length; i++) {
+            seen += positive.counts[i];
+            if (seen > rank) {
+                return value(positive.offset + i);
+            }
+        }
+        return value(positive.offset + positive.counts.length - 1);
+    }
+
+    public double min() {
+        return quantile(0);
+    }
+
+    public double max() {
+        return quantile(1);
+    }
+
+    private int index(double absolute) {
+        return (int) Math.ceil(Math.log(absolute) / logGamma);
+    }
+
+    // Midpoint (in relative terms) of bucket (gamma^(i-1), gamma^i]
+    private double value(int index) {
+        return 2 * Math.pow(gamma, index) / (gamma + 1);
+    }
+
+    // ============ SERIALIZATION ============
+
+    /**
+     * Compact encoding: format, accuracy, zero count, then per sign the first index and
+     * the bucket counts between the first and last non-empty bucket, as varints
+     */
+    public byte[] toBytes() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(64);
+        out.write(FORMAT);
+        long accuracyBits = Double.doubleToLongBits(relativeAccuracy);
+        for (int shift = 56; shift >= 0; shift -= 8) {
+            out.write((int) (accuracyBits >>> shift));
+        }
+        writeVarLong(out, zeroCount);
+        positive.write(out);
+        negative.write(out);
+        return out.toByteArray();
+    }
+
+    public static QuantileSketch fromBytes(byte[] bytes) {
+        ByteBuffer in = ByteBuffer.wrap(bytes);
+        byte format = in.get();
+        if (format != FORMAT) {
+            throw new IllegalArgumentException("Unknown sketch format " + format);
+        }
+        QuantileSketch sketch = new QuantileSketch(in.getDouble());
+        sketch.zeroCount = readVarLong(in);
+        sketch.positive.read(in);
+        sketch.negative.read(in);
+        return sketch;
+    }
+
+    private static void writeVarLong(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private static long readVarLong(ByteBuffer in) {
+        long value = 0;
+        for (int shift = 0; ; shift += 7) {
+            byte b = in.get();
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+    }
+
+    /**
+     * Counts of consecutive bucket indexes [offset, offset + counts.length)
+     */
+    private static final class Store {
+        long[] counts = new long[0];
+        int offset;
+        long total;
+
+        boolean add(int index, long delta) {
+            if (delta < 0 && (index < offset || index >= offset + counts.length || counts[index - offset] + delta < 0)) {
+                return false;
+            }
+            ensure(index, index);
+            counts[index - offset] += delta;
+            total += delta;
+            return true;
+        }
+
+        void merge(Store other) {
+            if (other.counts.length == 0) {
+                return;
+            }
+            ensure(other.offset, other.offset + other.counts.length - 1);
+            for (int i = 0; i < other.counts.length; i++) {
+                counts[other.offset + i - offset] += other.counts[i];
+            }
+            total += other.total;
+        }
+
+        // Grow to cover [low, high], with headroom on the growing side
+        private void ensure(int low, int high) {
+            if (counts.length == 0) {
+                counts = new long[high - low + 1];
+                offset = low;
+                return;
+            }
+            int end = offset + counts.length - 1;
+            if (low >= offset && high <= end) {
+                return;
+            }
+            int newOffset = Math.min(offset, low);
+            int newEnd = Math.max(end, high);
+            int slack = Math.min(64, (newEnd - newOffset + 1) / 2);
+            if (low < offset) {
+                newOffset -= slack;
+            }
+            if (high > end) {
+                newEnd += slack;
+            }
+            long[] grown = new long[newEnd - newOffset + 1];
+            System.arraycopy(counts, 0, grown, offset - newOffset, counts.length);
+            counts = grown;
+            offset = newOffset;
+        }
+
+        void write(ByteArrayOutputStream out) {
+            int first = 0;
+            int last = counts.length - 1;
+            while (first <= last && counts[first] == 0) {
+                first++;
+            }
+            while (last >= first && counts[last] == 0) {
+                last--;
+            }
+            int length = last - first + 1;
+            writeVarLong(out, length);
+            if (length == 0) {
+                return;
+            }
+            int start = offset + first;
+            writeVarLong(out, ((long) start << 1) ^ (start >> 31)); // zigzag
+            for (int i = first; i <= last; i++) {
+                writeVarLong(out, counts[i]);
+            }
+        }
+
+        void read(ByteBuffer in) {
+            int length = (int) readVarLong(in);
+            if (length == 0) {
+                return;
+            }
+            long zigzag = readVarLong(in);
+            offset = (int) ((zigzag >>> 1) ^ -(zigzag & 1));
+            counts = new long[length];
+            for (int i = 0; i < length; i++) {
+                counts[i] = readVarLong(in);
+                total += counts[i];
+            }
+        }
+    }
+}
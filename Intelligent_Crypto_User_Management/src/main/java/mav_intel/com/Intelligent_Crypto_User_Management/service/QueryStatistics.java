@@ -0,0 +1,288 @@
+package mav_intel.com.Intelligent_Crypto_User_Management.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+
+/**
+ * Statement-level database statistics (replaces spring.jpa.show-sql)
+ *
+ * - Per SQL shape (literals stripped): latency histogram and rows
+ * - Per repository method: latency histogram, rows returned, statements issued
+ * - N+1 detection: the same SQL shape repeated within one scope (an HTTP request,
+ *   or a repository call made outside a request) at least n-plus-one-threshold times
+ * - Slow-query log: statements over slow-query-ms are logged and kept in a ring
+ *   buffer; bind parameters are recorded by position and type only, never by value
+ *
+ * Fed by SqlStatisticsDataSource (statements) and RepositoryMetricsPostProcessor
+ * (repository calls); read via GET /api/metrics/queries.
+ */
+@Slf4j
+@Component
+public class QueryStatistics {
+
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern NUMBER_LITERAL = Pattern.compile("(?<![\\w$])-?\\d+(?:\\.\\d+)?(?![\\w$])");
+    private static final Pattern IN_LIST = Pattern.compile("(?i)\\bin\\s*\\(\\s*\\?(?:\\s*,\\s*\\?)+\\s*\\)");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final String OTHER_SHAPES = "<other statements>";
+
+    @Value("${query-stats.slow-query-ms:200}")
+    private long slowQueryMs;
+
+    @Value("${query-stats.n-plus-one-threshold:10}")
+    private int nPlusOneThreshold;
+
+    @Value("${query-stats.max-shapes:500}")
+    private int maxShapes;
+
+    @Value("${query-stats.slow-log-size:50}")
+    private int slowLogSize;
+
+    private final ConcurrentHashMap<String, StatementStats> statements = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, MethodStats> methods = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, NPlusOneStats> nPlusOne = new ConcurrentHashMap<>();
+    private final Deque<Map<String, Object>> slowQueries = new ArrayDeque<>();
+    private final ThreadLocal<Scope> currentScope = new ThreadLocal<>();
+
+    private static class StatementStats {
+        final LatencyHistogram latency = new LatencyHistogram();
+        final LongAdder rows = new LongAdder();
+        final AtomicLong maxRows = new AtomicLong();
+    }
+
+    private static class MethodStats {
+        final LatencyHistogram latency = new LatencyHistogram();
+        final LongAdder rows = new LongAdder();
+        final AtomicLong maxRows = new AtomicLong();
+        final LongAdder statements = new LongAdder();
+        final LongAdder errors = new LongAdder();
+    }
+
+    private static class NPlusOneStats {
+        final LongAdder occurrences = new LongAdder();
+        final AtomicLong maxRepeats = new AtomicLong();
+    }
+
+    /**
+     * Unit of work on one thread that statements are attributed to
+     */
+    public static class Scope {
+        private String name;
+        private int depth = 1;
+        private int statementCount;
+        private final Map<String, Integer> shapeCounts = new HashMap<>();
+
+        private Scope(String name) {
+            this.name = name;
+        }
+    }
+
+    // ============ SCOPES ============
+
+    /**
+     * Open a scope, or join the thread's current one
+     */
+    public Scope openScope(String name) {
+        Scope scope = currentScope.get();
+        if (scope != null) {
+            scope.depth++;
+            return scope;
+        }
+        scope = new Scope(name);
+        currentScope.set(scope);
+        return scope;
+    }
+
+    /**
+     * Close a scope; the outermost close evaluates it for N+1 patterns
+     *
+     * @param finalName name to report under (e.g. the matched request pattern), or null to keep the opening name
+     */
+    public void closeScope(Scope scope, String finalName) {
+        if (--scope.depth > 0) {
+            return;
+        }
+        currentScope.remove();
+        if (finalName != null) {
+            scope.name = finalName;
+        }
+        for (Map.Entry<String, Integer> entry : scope.shapeCounts.entrySet()) {
+            if (entry.getValue() >= nPlusOneThreshold) {
+                NPlusOneStats stats = nPlusOne.computeIfAbsent(scope.name + " :: " + entry.getKey(), k -> new NPlusOneStats());
+                stats.occurrences.increment();
+                stats.maxRepeats.accumulateAndGet(entry.getValue(), Math::max);
+                log.warn("🔁 Possible N+1 in {}: same statement executed {} times: {}", scope.name, entry.getValue(), entry.getKey());
+            }
+        }
+    }
+
+    /**
+     * Statements executed so far in the thread's current scope
+     */
+    public int currentStatementCount() {
+        Scope scope = currentScope.get();
+        return scope != null ? scope.statementCount : 0;
+    }
+
+    // ============ RECORDING ============
+
+    /**
+     * One executed statement (rows = rows read or affected, -1 if unknown)
+     */
+    public void recordStatement(String sql, long nanos, long rows, List<String> paramTypes) {
+        String shape = normalize(sql);
+        StatementStats stats = statements.get(shape);
+        if (stats == null) {
+            if (statements.size() >= maxShapes) {
+                shape = OTHER_SHAPES;
+            }
+            stats = statements.computeIfAbsent(shape, k -> new StatementStats());
+        }
+        stats.latency.record(nanos / 1_000);
+        if (rows > 0) {
+            stats.rows.add(rows);
+            stats.maxRows.accumulateAndGet(rows, Math::max);
+        }
+
+        Scope scope = currentScope.get();
+        if (scope != null) {
+            scope.statementCount++;
+            scope.shapeCounts.merge(shape, 1, Integer::sum);
+        }
+
+        long millis = nanos / 1_000_000;
+        if (millis >= slowQueryMs) {
+            recordSlowQuery(shape, millis, rows, paramTypes, scope != null ? scope.name : Thread.currentThread().getName());
+        }
+    }
+
+    /**
+     * One repository method invocation
+     */
+    public void recordRepositoryCall(String method, long nanos, long rows, int statementCount, boolean failed) {
+        MethodStats stats = methods.computeIfAbsent(method, k -> new MethodStats());
+        stats.latency.record(nanos / 1_000);
+        stats.statements.add(statementCount);
+        if (rows > 0) {
+            stats.rows.add(rows);
+            stats.maxRows.accumulateAndGet(rows, Math::max);
+        }
+        if (failed) {
+            stats.errors.increment();
+        }
+    }
+
+    public void reset() {
+        statements.clear();
+        methods.clear();
+        nPlusOne.clear();
+        synchronized (slowQueries) {
+            slowQueries.clear();
+        }
+    }
+
+    /**
+     * Top statements by total time, all repository methods, N+1 suspects and recent slow queries
+     */
+    public Map<String, Object> getStats(int limit) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("slowQueryMs", slowQueryMs);
+        result.put("nPlusOneThreshold", nPlusOneThreshold);
+
+        List<Map<String, Object>> topStatements = new ArrayList<>();
+        statements.entrySet().stream()
+                .sorted(Comparator.comparingLong((Map.Entry<String, StatementStats> e) -> e.getValue().latency.totalMicros()).reversed())
+                .limit(limit)
+                .forEach(e -> {
+                    Map<String, Object> entry = new LinkedHashMap<>();
+                    entry.put("sql", e.getKey());
+                    entry.put("totalMs", e.getValue().latency.totalMicros() / 1_000.0);
+                    entry.putAll(e.getValue().latency.snapshot());
+                    entry.put("rows", e.getValue().rows.sum());
+                    entry.put("maxRows", e.getValue().maxRows.get());
+                    topStatements.add(entry);
+                });
+        result.put("statements", topStatements);
+
+        List<Map<String, Object>> repositoryMethods = new ArrayList<>();
+        methods.entrySet().stream()
+                .sorted(Comparator.comparingLong((Map.Entry<String, MethodStats> e) -> e.getValue().latency.totalMicros()).reversed())
+                .forEach(e -> {
+                    MethodStats stats = e.getValue();
+                    long calls = stats.latency.count();
+                    Map<String, Object> entry = new LinkedHashMap<>();
+                    entry.put("method", e.getKey());
+                    entry.put("totalMs", stats.latency.totalMicros() / 1_000.0);
+                    entry.putAll(stats.latency.snapshot());
+                    entry.put("avgRows", calls > 0 ? (double) stats.rows.sum() / calls : 0.0);
+                    entry.put("maxRows", stats.maxRows.get());
+                    entry.put("avgStatements", calls > 0 ? (double) stats.statements.sum() / calls : 0.0);
+                    entry.put("errors", stats.errors.sum());
+                    repositoryMethods.add(entry);
+                });
+        result.put("repositoryMethods", repositoryMethods);
+
+        List<Map<String, Object>> suspects = new ArrayList<>();
+        nPlusOne.forEach((key, stats) -> {
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("where", key);
+            entry.put("occurrences", stats.occurrences.sum());
+            entry.put("maxRepeats", stats.maxRepeats.get());
+            suspects.add(entry);
+        });
+        result.put("nPlusOneSuspects", suspects);
+
+        synchronized (slowQueries) {
+            result.put("slowQueries", new ArrayList<>(slowQueries));
+        }
+        return result;
+    }
+
+    // ============ HELPER METHODS ============
+
+    /**
+     * SQL shape: literals replaced by ?, IN lists collapsed, whitespace normalized
+     * Also keeps literal values out of the metrics and logs
+     */
+    static String normalize(String sql) {
+        if (sql == null) {
+            return "<unknown>";
+        }
+        String shape = STRING_LITERAL.matcher(sql).replaceAll("?");
+        shape = NUMBER_LITERAL.matcher(shape).replaceAll("?");
+        shape = IN_LIST.matcher(shape).replaceAll("in (?...)");
+        return WHITESPACE.matcher(shape).replaceAll(" ").trim();
+    }
+
+    private void recordSlowQuery(String shape, long millis, long rows, List<String> paramTypes, String scopeName) {
+        log.warn("🐢 Slow query ({} ms, {} rows) in {}: {} params={}", millis, rows, scopeName, shape, paramTypes);
+        Map<String, Object> entry = new LinkedHashMap<>();
+        entry.put("at", Instant.now().toString());
+        entry.put("ms", millis);
+        entry.put("rows", rows);
+        entry.put("scope", scopeName);
+        entry.put("sql", shape);
+        entry.put("params", paramTypes);
+        synchronized (slowQueries) {
+            slowQueries.addFirst(entry);
+            while (slowQueries.size() > slowLogSize) {
+                slowQueries.removeLast();
+            }
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package mav_intel.com.Intelligent_Crypto_User_Management.service;
+
+import java.util.Map;
+
+/**
+ * Fleet-wide ledger of exchange weight reserved per bucket and one-minute window
+ * Nodes reserve chunks from it and spend them locally (see ExchangeRateLimiter)
+ */
+public interface RateLimitLedger {
+
+    /**
+     * Reserve up to requested weight for a node without exceeding the window's limit
+     *
+     * @return weight granted (0 when the window is exhausted)
+     */
+    int reserve(String bucket, long windowStart, String nodeId, int requested, int limit);
+
+    /**
+     * Return unspent weight of an expired lease to the window
+     */
+    void release(String bucket, long windowStart, String nodeId, int unused);
+
+    /**
+     * Record weight actually spent by a node (for utilization reporting)
+     */
+    void recordUsage(String bucket, long windowStart, String nodeId, int used);
+
+    /**
+     * Reserved/used totals for a window, overall and per node
+     */
+    Map<String, Object> getUsage(String bucket, long windowStart);
+
+    /**
+     * Drop windows that ended before the given epoch millis
+     */
+    void purgeBefore(long windowStart);
+}
@@ -0,0 +1,371 @@
+package mav_intel.com.Intelligent_Crypto_User_Management.service;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Which channel, setup type and pair makes money: closed trades attributed to their signal
+ *
+ * - signal_attribution holds one row per closed, signal-linked trade with the signal's
+ *   channel and setup type, the outcome (exit reason), pnl and the signal/close times;
+ *   it is filled by one set-based join of trades and signal_messages, never per signal
+ * - Updated on TradesClosed (after commit) for the closed trades, including PnL
+ *   revisions and reopened trades; rows survive archival of trades and signals
+ * - A refresh job (leader only) walks trades by (closed_at, id) from a watermark:
+ *   the newest attributed close minus a lookback window. Until the "signal-attribution"
+ *   BackfillCursorStore cursor is complete, it first backfills all closed signal trades
+ *   by id, resuming from the cursor's last trade id after a crash. Only trades missing
+ *   from the table or differing from it are re-joined.
+ * - report() is a single GROUP BY over the table: hit rates, expectancy and
+ *   time-to-outcome per channel / setup type / symbol / period
+ *
+ * Hit rates are by final exit reason. Take-profits are cumulative, so a trade that
+ * exits at TP3 counts as a TP1, TP2 and TP3 hit. A TP1 partial followed by a
+ * stop-out counts as SL only.
+ *
+ * Rows keep the channel and setup type the signal had when its trade was attributed;
+ * after correcting signal_messages, rebuild (DELETE FROM signal_attribution and
+ * DELETE FROM backfill_cursor WHERE name = 'signal-attribution'; the refresh job
+ * backfills on its next run).
+ */
+@Slf4j
+@Service
+public class SignalAttributionService {
+
+    private static final String BACKFILL = "signal-attribution";
+
+    private static final String COLUMNS =
+            "trade_id, user_id, signal_id, channel, setup_type, symbol, side, exit_reason, signal_at, closed_at, pnl, pnl_percent";
+
+    private static final String UPSERT_SQL =
+            "INSERT INTO signal_attribution (" + COLUMNS + ") " +
+            "SELECT t.id, t.user_id, t.signal_id, COALESCE(s.channel, ''), COALESCE(s.setup_type, ''), t.pair, t.side, " +
+            "  COALESCE(t.exit_reason, ''), s.\"timestamp\", t.closed_at, ROUND(t.pnl::numeric, 8), ROUND(t.pnl_percent::numeric, 8) " +
+            "FROM trades t JOIN signal_messages s ON s.id = t.signal_id " +
+            "WHERE t.id = ANY (?) AND t.status = 'CLOSED' AND t.closed_at IS NOT NULL AND t.user_id IS NOT NULL " +
+            "ON CONFLICT (trade_id) DO UPDATE SET user_id = EXCLUDED.user_id, signal_id = EXCLUDED.signal_id, " +
+            "  channel = EXCLUDED.channel, setup_type = EXCLUDED.setup_type, symbol = EXCLUDED.symbol, " +
+            "  side = EXCLUDED.side, exit_reason = EXCLUDED.exit_reason, signal_at = EXCLUDED.signal_at, " +
+            "  closed_at = EXCLUDED.closed_at, pnl = EXCLUDED.pnl, pnl_percent = EXCLUDED.pnl_percent";
+
+    // Trades that are in the hot table but no longer CLOSED; archived trades keep their row
+    private static final String DELETE_REOPENED_SQL =
+            "DELETE FROM signal_attribution a USING trades t " +
+            "WHERE a.trade_id = t.id AND t.id = ANY (?) AND t.status <> 'CLOSED'";
+
+    // Closed signal trades that are not attributed yet or changed since
+    private static final String STALE_TRADES =
+            "FROM trades t " +
+            "JOIN signal_messages s ON s.id = t.signal_id " +
+            "LEFT JOIN signal_attribution a ON a.trade_id = t.id " +
+            "WHERE t.status = 'CLOSED' AND t.closed_at IS NOT NULL AND t.user_id IS NOT NULL " +
+            "AND (a.trade_id IS NULL OR a.closed_at <> t.closed_at OR a.exit_reason <> COALESCE(t.exit_reason, '') " +
+            "  OR a.pnl IS DISTINCT FROM ROUND(t.pnl::numeric, 8) " +
+            "  OR a.pnl_percent IS DISTINCT FROM ROUND(t.pnl_percent::numeric, 8)) ";
+
+    // Next batch after the (closed_at, id) cursor
+    private static final String REFRESH_SQL =
+            "SELECT t.id, t.closed_at " + STALE_TRADES +
+            "AND (t.closed_at, t.id) > (?, ?) ORDER BY t.closed_at, t.id LIMIT ?";
+
+    // Next backfill batch after the trade id cursor
+    private static final String BACKFILL_SQL =
+            "SELECT t.id " + STALE_TRADES + "AND t.id > ? ORDER BY t.id LIMIT ?";
+
+    private static final String SECONDS_TO_OUTCOME = "EXTRACT(EPOCH FROM closed_at - signal_at)";
+
+    /**
+     * Report dimensions: request name -> SQL expression over signal_attribution (? = analytics zone)
+     */
+    private static final Map<String, String> DIMENSIONS = new LinkedHashMap<>();
+
+    static {
+        DIMENSIONS.put("channel", "channel");
+        DIMENSIONS.put("setupType", "setup_type");
+        DIMENSIONS.put("symbol", "symbol");
+        DIMENSIONS.put("side", "side");
+        DIMENSIONS.put("day", "(closed_at AT TIME ZONE ?)::date");
+        DIMENSIONS.put("week", "date_trunc('week', closed_at AT TIME ZONE ?)::date");
+        DIMENSIONS.put("month", "date_trunc('month', closed_at AT TIME ZONE ?)::date");
+    }
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ClusterCoordinator clusterCoordinator;
+
+    @Autowired
+    private WarmUpService warmUpService;
+
+    @Autowired
+    private BackfillCursorStore backfillCursors;
+
+    // Same calendar as the PnL rollup
+    @Value("${analytics.rollup.zone:UTC}")
+    private String zone;
+
+    // How far behind the newest attributed close the refresh job starts
+    @Value("${analytics.signals.lookback-days:3}")
+    private int lookbackDays;
+
+    @Value("${analytics.signals.refresh-batch-size:1000}")
+    private int refreshBatchSize;
+
+    private TransactionTemplate transaction;
+
+    private final LongAdder tradesApplied = new LongAdder();
+    private final LongAdder refreshed = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private volatile String lastRefreshAt;
+    private volatile String watermark;
+
+    @PostConstruct
+    public void init() {
+        transaction = new TransactionTemplate(transactionManager);
+    }
+
+    // ============ UPDATES ============
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTradesClosed(TradeLifecycleWriter.TradesClosed event) {
+        try {
+            apply(event.tradeIds());
+        } catch (Exception e) {
+            // The refresh job picks these trades up on its next run (if within the lookback)
+            failures.increment();
+            log.warn("⚠️ Signal attribution update failed for trades {}: {}", event.tradeIds(), e.getMessage());
+        }
+    }
+
+    /**
+     * Re-join the trades with their signals; trades that are no longer closed are dropped
+     */
+    public void apply(Collection<Long> tradeIds) {
+        if (tradeIds.isEmpty()) {
+            return;
+        }
+        Long[] ids = tradeIds.toArray(new Long[0]);
+        transaction.executeWithoutResult(status -> {
+            jdbcTemplate.update(DELETE_REOPENED_SQL, (Object) ids);
+            jdbcTemplate.update(UPSERT_SQL, (Object) ids);
+        });
+        tradesApplied.add(ids.length);
+    }
+
+    /**
+     * Attribute closes from the watermark on; until the backfill is complete, first
+     * continue it over the whole history
+     */
+    @Scheduled(fixedDelayString = "${analytics.signals.refresh-interval-ms:300000}", initialDelay = 90_000)
+    public void refresh() {
+        if (!warmUpService.isReady() || !clusterCoordinator.isLeader("signal-attribution-refresh")) {
+            return;
+        }
+        lastRefreshAt = Instant.now().toString();
+        try {
+            BackfillCursorStore.Cursor cursor = backfillCursors.get(BACKFILL);
+            if (!cursor.complete()) {
+                int backfilled = backfill(cursor.lastTradeId());
+                backfillCursors.complete(BACKFILL);
+                refreshed.add(backfilled);
+                log.info("🎯 Signal attribution backfill complete: {} trade(s) attributed (resumed after trade {})",
+                        backfilled, cursor.lastTradeId());
+            }
+
+            Timestamp newest = jdbcTemplate.queryForObject("SELECT MAX(closed_at) FROM signal_attribution", Timestamp.class);
+            Timestamp cursorTime = newest == null ? new Timestamp(0)
+                    : Timestamp.from(newest.toInstant().minusSeconds(lookbackDays * 86_400L));
+            long cursorId = 0;
+            watermark = cursorTime.toInstant().toString();
+            int total = 0;
+            while (true) {
+                List<Map<String, Object>> batch = jdbcTemplate.queryForList(REFRESH_SQL, cursorTime, cursorId, refreshBatchSize);
+                if (batch.isEmpty()) {
+                    break;
+                }
+                List<Long> ids = new ArrayList<>(batch.size());
+                for (Map<String, Object> row : batch) {
+                    ids.add(((Number) row.get("id")).longValue());
+                }
+                apply(ids);
+                total += ids.size();
+                Map<String, Object> last = batch.get(batch.size() - 1);
+                cursorTime = (Timestamp) last.get("closed_at");
+                cursorId = ((Number) last.get("id")).longValue();
+                if (batch.size() < refreshBatchSize) {
+                    break;
+                }
+            }
+            if (total > 0) {
+                refreshed.add(total);
+                log.info("🎯 Signal attribution refresh: {} trade(s) attributed", total);
+            }
+        } catch (Exception e) {
+            failures.increment();
+            log.error("❌ Signal attribution refresh failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Attribute, in id order, all closed signal trades after the given id that are missing or stale,
+     * recording progress after every batch
+     */
+    private int backfill(long afterId) {
+        int total = 0;
+        while (true) {
+            List<Long> ids = jdbcTemplate.queryForList(BACKFILL_SQL, Long.class, afterId, refreshBatchSize);
+            if (ids.isEmpty()) {
+                return total;
+            }
+            apply(ids);
+            total += ids.size();
+            afterId = ids.get(ids.size() - 1);
+            backfillCursors.advance(BACKFILL, afterId);
+            if (ids.size() < refreshBatchSize) {
+                return total;
+            }
+        }
+    }
+
+    // ============ REPORT ============
+
+    /**
+     * Outcome statistics of the user's signal trades closed in [from, to] grouped by the given
+     * dimensions (channel, setupType, symbol, side, day, week, month), optionally filtered
+     *
+     * @throws IllegalArgumentException on an unknown dimension
+     */
+    public List<Map<String, Object>> report(Long userId, List<String> groupBy, LocalDate from, LocalDate to,
+                                            String channel, String setupType, String symbol) {
+        StringBuilder select = new StringBuilder();
+        StringBuilder group = new StringBuilder();
+        List<Object> args = new ArrayList<>();
+        for (int position = 1; position <= groupBy.size(); position++) {
+            String dimension = groupBy.get(position - 1);
+            String expression = DIMENSIONS.get(dimension);
+            if (expression == null) {
+                throw new IllegalArgumentException("Unknown dimension '" + dimension + "', expected one of " + DIMENSIONS.keySet());
+            }
+            select.append(expression).append(" AS \"").append(dimension).append("\", ");
+            if (expression.contains("?")) {
+                args.add(zone);
+            }
+            // By position: a bind parameter in the expression would not match it again in GROUP BY
+            group.append(group.length() > 0 ? ", " : "").append(position);
+        }
+
+        StringBuilder sql = new StringBuilder("SELECT ").append(select)
+                .append("COUNT(*) AS trades, ")
+                .append("COUNT(*) FILTER (WHERE pnl > 0) AS wins, COUNT(*) FILTER (WHERE pnl < 0) AS losses, ")
+                .append("COUNT(*) FILTER (WHERE exit_reason IN ('TP1', 'TP2', 'TP3', 'TP4')) AS tp1_hits, ")
+                .append("COUNT(*) FILTER (WHERE exit_reason IN ('TP2', 'TP3', 'TP4')) AS tp2_hits, ")
+                .append("COUNT(*) FILTER (WHERE exit_reason IN ('TP3', 'TP4')) AS tp3_hits, ")
+                .append("COUNT(*) FILTER (WHERE exit_reason = 'TP4') AS tp4_hits, ")
+                .append("COUNT(*) FILTER (WHERE exit_reason = 'SL') AS sl_hits, ")
+                .append("COALESCE(SUM(pnl), 0) AS pnl, AVG(pnl) AS expectancy, AVG(pnl_percent) AS expectancy_percent, ")
+                .append("AVG(pnl) FILTER (WHERE pnl > 0) AS average_win, AVG(pnl) FILTER (WHERE pnl < 0) AS average_loss, ")
+                .append("COALESCE(SUM(pnl) FILTER (WHERE pnl > 0), 0) AS gross_profit, ")
+                .append("COALESCE(SUM(pnl) FILTER (WHERE pnl < 0), 0) AS gross_loss, ")
+                .append("AVG(").append(SECONDS_TO_OUTCOME).append(") AS avg_seconds_to_outcome, ")
+                .append("percentile_cont(0.5) WITHIN GROUP (ORDER BY ").append(SECONDS_TO_OUTCOME).append(") AS median_seconds_to_outcome, ")
+                .append("AVG(").append(SECONDS_TO_OUTCOME).append(") FILTER (WHERE exit_reason LIKE 'TP%') AS avg_seconds_to_tp, ")
+                .append("AVG(").append(SECONDS_TO_OUTCOME).append(") FILTER (WHERE exit_reason = 'SL') AS avg_seconds_to_sl ")
+                .append("FROM signal_attribution WHERE user_id = ?");
+        args.add(userId);
+        if (from != null) {
+            sql.append(" AND closed_at >= ?");
+            args.add(Timestamp.from(from.atStartOfDay(ZoneId.of(zone)).toInstant()));
+        }
+        if (to != null) {
+            sql.append(" AND closed_at < ?");
+            args.add(Timestamp.from(to.plusDays(1).atStartOfDay(ZoneId.of(zone)).toInstant()));
+        }
+        if (channel != null && !channel.isEmpty()) {
+            sql.append(" AND channel = ?");
+            args.add(channel);
+        }
+        if (setupType != null && !setupType.isEmpty()) {
+            sql.append(" AND setup_type = ?");
+            args.add(setupType);
+        }
+        if (symbol != null && !symbol.isEmpty()) {
+            sql.append(" AND strpos(symbol, ?) > 0"); // same "contains" match as TradeFilterDTO.symbol
+            args.add(symbol);
+        }
+        if (group.length() > 0) {
+            sql.append(" GROUP BY ").append(group).append(" ORDER BY ").append(group);
+        }
+
+        List<Map<String, Object>> rows = jdbcTemplate.queryForList(sql.toString(), args.toArray());
+        if (group.length() == 0 && !rows.isEmpty() && ((Number) rows.get(0).get("trades")).longValue() == 0) {
+            return List.of(); // no trades in range
+        }
+        for (Map<String, Object> row : rows) {
+            addRates(row);
+        }
+        return rows;
+    }
+
+    /**
+     * Hit rates (0-100), winRate and profitFactor, as in the trade history statistics
+     */
+    private static void addRates(Map<String, Object> row) {
+        long trades = ((Number) row.get("trades")).longValue();
+        for (String outcome : List.of("tp1", "tp2", "tp3", "tp4", "sl")) {
+            row.put(outcome + "_rate", percent(((Number) row.get(outcome + "_hits")).longValue(), trades));
+        }
+        row.put("winRate", percent(((Number) row.get("wins")).longValue(), trades));
+        BigDecimal grossProfit = (BigDecimal) row.get("gross_profit");
+        BigDecimal grossLoss = ((BigDecimal) row.get("gross_loss")).abs();
+        row.put("profitFactor", grossLoss.signum() > 0
+                ? grossProfit.divide(grossLoss, 4, RoundingMode.HALF_UP) : null);
+        for (String average : List.of("expectancy", "expectancy_percent", "average_win", "average_loss")) {
+            if (row.get(average) instanceof BigDecimal value) {
+                row.put(average, value.setScale(8, RoundingMode.HALF_UP).stripTrailingZeros());
+            }
+        }
+    }
+
+    private static BigDecimal percent(long count, long total) {
+        return total > 0
+                ? BigDecimal.valueOf(count * 100).divide(BigDecimal.valueOf(total), 2, RoundingMode.HALF_UP)
+                : BigDecimal.ZERO;
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("tradesApplied", tradesApplied.sum());
+        stats.put("refreshed", refreshed.sum());
+        stats.put("failures", failures.sum());
+        stats.put("lastRefreshAt", lastRefreshAt);
+        stats.put("watermark", watermark);
+        stats.put("backfill", backfillCursors.get(BACKFILL));
+        stats.put("rows", jdbcTemplate.queryForObject("SELECT COUNT(*) FROM signal_attribution", Long.class));
+        return stats;
+    }
+}
@@ -0,0 +1,59 @@
+package mav_intel.com.Intelligent_Crypto_User_Management.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import mav_intel.com.Intelligent_Crypto_User_Management.dto.ExecuteTradeRequest;
+import mav_intel.com.Intelligent_Crypto_User_Management.dto.ExecuteTradeResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Executes a signal's trade request from the job queue
+ * Exactly one node claims each signal; executeTrade itself only writes the trade + outbox intent
+ */
+@Slf4j
+@Component
+public class SignalExecutionJobHandler implements JobHandler {
+
+    public static final String QUEUE = "signal-execution";
+
+    @Autowired
+    private JobQueueService jobQueueService;
+
+    @Autowired
+    private TradeService tradeService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${jobs.max-attempts:5}")
+    private int maxAttempts;
+
+    @Override
+    public String queue() {
+        return QUEUE;
+    }
+
+    /**
+     * Queue a trade request for a signal (at most once per signal and user)
+     *
+     * @return false if the signal was already queued
+     */
+    public boolean enqueue(ExecuteTradeRequest request) throws Exception {
+        String dedupKey = "signal:" + request.getSignalId() + ":" + request.getUserId();
+        return jobQueueService.enqueue(QUEUE, dedupKey, objectMapper.writeValueAsString(request), maxAttempts);
+    }
+
+    @Override
+    public void handle(String payload) throws Exception {
+        ExecuteTradeRequest request = objectMapper.readValue(payload, ExecuteTradeRequest.class);
+        ExecuteTradeResponse response = tradeService.executeTrade(request);
+        log.info("🎯 Signal {} executed from queue: {} ({})", request.getSignalId(), response.getStatus(), response.getMessage());
+        if ("FAILED".equals(response.getStatus()) && response.getTradeId() == null
+                && response.getMessage() != null && response.getMessage().startsWith("Error:")) {
+            // Unexpected error before the trade was recorded - retry
+            throw new IllegalStateException(response.getMessage());
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package mav_intel.com.Intelligent_Crypto_User_Management.service;
+
+import com.binance.connector.futures.client.impl.UMFuturesClientImpl;
+import lombok.extern.slf4j.Slf4j;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * LOT_SIZE / MIN_NOTIONAL / PRICE_FILTER of every symbol from one exchangeInfo call
+ *
+ * Loaded during warm-up and refreshed hourly, so placing an order no longer
+ * downloads the full exchangeInfo document (~1 MB) per trade. An unknown symbol
+ * (new listing) triggers at most one reload per minute.
+ */
+@Slf4j
+@Service
+public class SymbolFilterCache {
+
+    private static final long MIN_RELOAD_INTERVAL_MS = 60_000;
+
+    @Autowired(required = false)
+    private UMFuturesClientImpl futuresClient;
+
+    @Autowired
+    private ExchangeRateLimiter exchangeRateLimiter;
+
+    private volatile Map<String, SymbolFilters> filters = Map.of();
+    private volatile long loadedAt;
+
+    /**
+     * Filters for a Binance symbol (without the .P suffix); defaults if unknown
+     */
+    SymbolFilters get(String symbol) {
+        SymbolFilters cached = filters.get(symbol);
+        if (cached != null) {
+            return cached;
+        }
+        if (System.currentTimeMillis() - loadedAt > MIN_RELOAD_INTERVAL_MS) {
+            refresh();
+            cached = filters.get(symbol);
+            if (cached != null) {
+                return cached;
+            }
+        }
+        log.warn("⚠️ Symbol {} not found in exchange info, using defaults", symbol);
+        return SymbolFilters.DEFAULT;
+    }
+
+    public int size() {
+        return filters.size();
+    }
+
+    @Scheduled(fixedDelayString = "${exchange.symbol-filters.refresh-ms:3600000}",
+            initialDelayString = "${exchange.symbol-filters.refresh-ms:3600000}")
+    public void scheduledRefresh() {
+        refresh();
+    }
+
+    /**
+     * Reload all symbol filters
+     *
+     * @return number of symbols loaded (0 if the exchange is not configured or unreachable)
+     */
+    public synchronized int refresh() {
+        if (futuresClient == null) {
+            return 0;
+        }
+        try {
+            long start = System.currentTimeMillis();
+            exchangeRateLimiter.acquire(ExchangeRateLimiter.W_EXCHANGE_INFO);
+            JSONArray symbols = new JSONObject(futuresClient.market().exchangeInfo()).getJSONArray("symbols");
+
+            Map<String, SymbolFilters> loaded = new HashMap<>(symbols.length() * 2);
+            for (int i = 0; i < symbols.length(); i++) {
+                JSONObject symbolObj = symbols.getJSONObject(i);
+                loaded.put(symbolObj.getString("symbol"), parse(symbolObj.getJSONArray("filters")));
+            }
+            filters = loaded;
+            loadedAt = System.currentTimeMillis();
+            log.info("✅ Loaded exchange filters for {} symbols in {} ms", loaded.size(), loadedAt - start);
+            return loaded.size();
+        } catch (Exception e) {
+            log.warn("⚠️ Error fetching exchange info: {}", e.getMessage());
+            loadedAt = System.currentTimeMillis();
+            return 0;
+        }
+    }
+
+    // ============ HELPER METHODS ============
+
+    private static SymbolFilters parse(JSONArray filters) {
+        double lotSize = 1.0;
+        double minNotional = 10.0;
+        double tickSize = 0.01;
+        int quantityPrecision = 2;
+        int pricePrecision = 2;
+
+        for (int j = 0; j < filters.length(); j++) {
+            JSONObject filter = filters.getJSONObject(j);
+            String filterType = filter.getString("filterType");
+
+            if ("LOT_SIZE".equals(filterType)) {
+                lotSize = filter.getDouble("stepSize");
+                quantityPrecision = getDecimalPlaces(filter.getString("stepSize"));
+            }
+            if ("MIN_NOTIONAL".equals(filterType)) {
+                minNotional = filter.getDouble("notional");
+            }
+            if ("PRICE_FILTER".equals(filterType)) {
+                tickSize = filter.getDouble("tickSize");
+                pricePrecision = getDecimalPlaces(filter.getString("tickSize"));
+            }
+        }
+        return new SymbolFilters(lotSize, minNotional, quantityPrecision, tickSize, pricePrecision);
+    }
+
+    /**
+     * Calculate decimal places from step size string
+     * e.g., "0.1" → 1, "0.01" → 2, "1" → 0
+     */
+    private static int getDecimalPlaces(String stepSize) {
+        String[] parts = stepSize.split("\\.");
+        if (parts.length == 2) {
+            return parts[1].length();
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,23 @@
+package mav_intel.com.Intelligent_Crypto_User_Management.service;
+
+/**
+ * Exchange info filters for a symbol
+ */
+class SymbolFilters {
+
+    static final SymbolFilters DEFAULT = new SymbolFilters(1.0, 10.0, 2, 0.01, 2);
+
+    final double lotSize;           // Step size for quantity
+    final double minNotional;       // Minimum order value
+    final int quantityPrecision;    // Decimal places for quantity
+    final double tickSize;          // Step size for price (PRICE_FILTER)
+    final int pricePrecision;       // Decimal places for price
+
+    SymbolFilters(double lotSize, double minNotional, int quantityPrecision, double tickSize, int pricePrecision) {
+        this.lotSize = lotSize;
+        this.minNotional = minNotional;
+        this.quantityPrecision = quantityPrecision;
+        this.tickSize = tickSize;
+        this.pricePrecision = pricePrecision;
+    }
+}
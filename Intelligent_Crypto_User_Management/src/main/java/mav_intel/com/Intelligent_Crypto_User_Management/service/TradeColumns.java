@@ -0,0 +1,218 @@
+package mav_intel.com.Intelligent_Crypto_User_Management.service;
+
+import mav_intel.com.Intelligent_Crypto_User_Management.dto.TradeSummary;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Column-oriented copy of a trade list for filtering, sorting and statistics
+ *
+ * - pnl and pnlPercent are fixed-point longs (SCALE decimal places), so sums are
+ *   exact and independent of summation order
+ * - closedAt is epoch microseconds (NO_TIME if missing)
+ * - pair, side and exitReason are dictionary-encoded: a string predicate is
+ *   evaluated once per distinct value, not once per trade
+ *
+ * Rows keep the index of the source list; row(i) returns the original TradeSummary.
+ *
+ * Instances are immutable. append() returns a new instance that shares the arrays
+ * when it can (rows are only ever written past the end of every existing instance,
+ * and dictionaries are copied when they grow), so ColumnarTradeStore can add closed
+ * trades without copying the history while readers keep scanning the old instance.
+ */
+public final class TradeColumns {
+
+    /** Decimal places kept for pnl / pnlPercent (USDT precision) */
+    public static final int SCALE = 8;
+    static final double SCALE_FACTOR = 1e8;
+    public static final long NO_TIME = Long.MIN_VALUE;
+
+    private final int size;
+    private final TradeSummary[] rows;
+    final long[] closedAtMicros;
+    final long[] pnl;
+    final long[] pnlPercent;
+    final int[] pairCode;
+    final int[] sideCode;
+    final int[] exitReasonCode;
+    final List<String> pairs;
+    final List<String> sides;
+    final List<String> exitReasons;
+
+    // Writer-side state shared by the instances over the same arrays
+    private final Tail tail;
+
+    private static final class Tail {
+        int written;   // rows written to the shared arrays; only the instance of this size may append in place
+    }
+
+    private TradeColumns(int size, int capacity, List<String> pairs, List<String> sides, List<String> exitReasons) {
+        this.size = size;
+        rows = new TradeSummary[capacity];
+        closedAtMicros = new long[capacity];
+        pnl = new long[capacity];
+        pnlPercent = new long[capacity];
+        pairCode = new int[capacity];
+        sideCode = new int[capacity];
+        exitReasonCode = new int[capacity];
+        this.pairs = pairs;
+        this.sides = sides;
+        this.exitReasons = exitReasons;
+        tail = new Tail();
+    }
+
+    // Larger view over the same arrays
+    private TradeColumns(TradeColumns base, int size, List<String> pairs, List<String> sides, List<String> exitReasons) {
+        this.size = size;
+        rows = base.rows;
+        closedAtMicros = base.closedAtMicros;
+        pnl = base.pnl;
+        pnlPercent = base.pnlPercent;
+        pairCode = base.pairCode;
+        sideCode = base.sideCode;
+        exitReasonCode = base.exitReasonCode;
+        this.pairs = pairs;
+        this.sides = sides;
+        this.exitReasons = exitReasons;
+        tail = base.tail;
+    }
+
+    // Copy of base's rows into arrays of the given capacity
+    private TradeColumns(TradeColumns base, int size, int capacity,
+                         List<String> pairs, List<String> sides, List<String> exitReasons) {
+        this.size = size;
+        rows = Arrays.copyOf(base.rows, capacity);
+        closedAtMicros = Arrays.copyOf(base.closedAtMicros, capacity);
+        pnl = Arrays.copyOf(base.pnl, capacity);
+        pnlPercent = Arrays.copyOf(base.pnlPercent, capacity);
+        pairCode = Arrays.copyOf(base.pairCode, capacity);
+        sideCode = Arrays.copyOf(base.sideCode, capacity);
+        exitReasonCode = Arrays.copyOf(base.exitReasonCode, capacity);
+        this.pairs = pairs;
+        this.sides = sides;
+        this.exitReasons = exitReasons;
+        tail = new Tail();
+    }
+
+    /**
+     * Build the columns in one pass over the trades
+     */
+    public static TradeColumns of(List<TradeSummary> trades) {
+        return new TradeColumns(0, 0, List.of(), List.of(), List.of()).append(trades);
+    }
+
+    /**
+     * These rows followed by the added trades
+     * Shares the arrays when this is the newest instance over them and they have room;
+     * otherwise copies into arrays with 50% headroom
+     */
+    public TradeColumns append(List<TradeSummary> added) {
+        if (added.isEmpty()) {
+            return this;
+        }
+        int newSize = size + added.size();
+        Dictionary pairDictionary = new Dictionary(pairs);
+        Dictionary sideDictionary = new Dictionary(sides);
+        Dictionary reasonDictionary = new Dictionary(exitReasons);
+        int[] pairCodes = new int[added.size()];
+        int[] sideCodes = new int[added.size()];
+        int[] reasonCodes = new int[added.size()];
+        for (int i = 0; i < added.size(); i++) {
+            TradeSummary trade = added.get(i);
+            pairCodes[i] = pairDictionary.encode(trade.getPair());
+            sideCodes[i] = sideDictionary.encode(trade.getSide());
+            reasonCodes[i] = reasonDictionary.encode(trade.getExitReason());
+        }
+
+        TradeColumns target;
+        if (tail.written == size && newSize <= rows.length) {
+            target = new TradeColumns(this, newSize,
+                    pairDictionary.values, sideDictionary.values, reasonDictionary.values);
+        } else {
+            int capacity = size == 0 ? newSize : Math.max(newSize, size + (size >> 1));
+            target = new TradeColumns(this, newSize, capacity,
+                    pairDictionary.values, sideDictionary.values, reasonDictionary.values);
+        }
+        for (int i = 0; i < added.size(); i++) {
+            int row = size + i;
+            TradeSummary trade = added.get(i);
+            target.rows[row] = trade;
+            target.closedAtMicros[row] = toMicros(trade.getClosedAt());
+            target.pnl[row] = toFixed(trade.getPnl());
+            target.pnlPercent[row] = toFixed(trade.getPnlPercent());
+            target.pairCode[row] = pairCodes[i];
+            target.sideCode[row] = sideCodes[i];
+            target.exitReasonCode[row] = reasonCodes[i];
+        }
+        target.tail.written = newSize;
+        return target;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public TradeSummary row(int index) {
+        if (index >= size) {
+            throw new IndexOutOfBoundsException("Row " + index + " of " + size);
+        }
+        return rows[index];
+    }
+
+    /**
+     * The source trades, in row order (read-only view)
+     */
+    public List<TradeSummary> rows() {
+        return Collections.unmodifiableList(Arrays.asList(rows).subList(0, size));
+    }
+
+    /**
+     * Missing values count as 0
+     */
+    static long toFixed(Double value) {
+        return value != null ? Math.round(value * SCALE_FACTOR) : 0L;
+    }
+
+    static long toMicros(OffsetDateTime time) {
+        if (time == null) {
+            return NO_TIME;
+        }
+        return Math.addExact(Math.multiplyExact(time.toEpochSecond(), 1_000_000L), time.getNano() / 1_000);
+    }
+
+    /**
+     * Value -> code lookup over an instance's dictionary; copied on the first new value
+     */
+    private static final class Dictionary {
+        private final Map<String, Integer> ids = new HashMap<>();
+        private List<String> values;
+        private boolean copied;
+
+        Dictionary(List<String> values) {
+            this.values = values;
+            for (int code = 0; code < values.size(); code++) {
+                ids.put(values.get(code), code);
+            }
+        }
+
+        int encode(String value) {
+            Integer id = ids.get(value);
+            if (id == null) {
+                if (!copied) {
+                    values = new ArrayList<>(values);
+                    copied = true;
+                }
+                id = values.size();
+                ids.put(value, id);
+                values.add(value);
+            }
+            return id;
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package mav_intel.com.Intelligent_Crypto_User_Management.service;
+
+import lombok.extern.slf4j.Slf4j;
+import mav_intel.com.Intelligent_Crypto_User_Management.dto.TradeConfigSnapshot;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Per-user cache of TradeConfigSnapshot
+ *
+ * - Entries are immutable snapshots, so callers can share them freely
+ * - invalidate() is called by saveConfig/resetConfig
+ * - Optional TTL bounds staleness when another instance changes a config
+ * - Size bound evicts the oldest loaded entry
+ */
+@Slf4j
+@Component
+public class TradeConfigCache {
+
+    @Value("${trade.config-cache.ttl-seconds:300}")
+    private long ttlSeconds;
+
+    @Value("${trade.config-cache.max-size:10000}")
+    private int maxSize;
+
+    private final ConcurrentHashMap<Long, Entry> entries = new ConcurrentHashMap<>();
+
+    // Token of the latest load in flight per user; invalidate() drops it, so a load that
+    // started before an invalidation of the same user is not cached (other users unaffected)
+    private final ConcurrentHashMap<Long, Object> loads = new ConcurrentHashMap<>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+
+    private static class Entry {
+        final TradeConfigSnapshot snapshot;
+        final long loadedAtNanos;
+
+        Entry(TradeConfigSnapshot snapshot, long loadedAtNanos) {
+            this.snapshot = snapshot;
+            this.loadedAtNanos = loadedAtNanos;
+        }
+    }
+
+    /**
+     * Get cached snapshot for user, loading it with the given loader on a miss
+     */
+    public TradeConfigSnapshot get(Long userId, Function<Long, TradeConfigSnapshot> loader) {
+        long now = System.nanoTime();
+        Entry entry = entries.get(userId);
+        if (entry != null && !isExpired(entry, now)) {
+            hits.increment();
+            return entry.snapshot;
+        }
+
+        misses.increment();
+        Object token = new Object();
+        loads.put(userId, token);
+        TradeConfigSnapshot snapshot;
+        try {
+            snapshot = loader.apply(userId);
+        } catch (RuntimeException e) {
+            loads.remove(userId, token);
+            throw e;
+        }
+        if (loads.remove(userId, token)) {
+            put(userId, snapshot);
+        }
+        return snapshot;
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    /**
+     * Store a snapshot directly (used by startup warm-up)
+     */
+    public void put(Long userId, TradeConfigSnapshot snapshot) {
+        entries.put(userId, new Entry(snapshot, System.nanoTime()));
+        if (entries.size() > maxSize) {
+            evictOldest();
+        }
+    }
+
+    /**
+     * Drop the cached snapshot for user
+     */
+    public void invalidate(Long userId) {
+        loads.remove(userId);
+        entries.remove(userId);
+        invalidations.increment();
+        log.debug("🧹 Config cache invalidated for user {}", userId);
+    }
+
+    public void clear() {
+        loads.clear();
+        entries.clear();
+    }
+
+    /**
+     * Hit/miss statistics
+     */
+    public Map<String, Object> getStats() {
+        long hitCount = hits.sum();
+        long missCount = misses.sum();
+        long total = hitCount + missCount;
+
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("size", entries.size());
+        stats.put("maxSize", maxSize);
+        stats.put("ttlSeconds", ttlSeconds);
+        stats.put("hits", hitCount);
+        stats.put("misses", missCount);
+        stats.put("hitRatio", total > 0 ? (double) hitCount / total : 0.0);
+        stats.put("evictions", evictions.sum());
+        stats.put("invalidations", invalidations.sum());
+        return stats;
+    }
+
+    private boolean isExpired(Entry entry, long now) {
+        return ttlSeconds > 0 && now - entry.loadedAtNanos > ttlSeconds * 1_000_000_000L;
+    }
+
+    private void evictOldest() {
+        Long oldestKey = null;
+        long oldest = Long.MAX_VALUE;
+        for (Map.Entry<Long, Entry> e : entries.entrySet()) {
+            if (e.getValue().loadedAtNanos < oldest) {
+                oldest = e.getValue().loadedAtNanos;
+                oldestKey = e.getKey();
+            }
+        }
+        if (oldestKey != null && entries.remove(oldestKey) != null) {
+            evictions.increment();
+        }
+    }
+}
@@ -0,0 +1,445 @@
+package mav_intel.com.Intelligent_Crypto_User_Management.service;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Distributions of closed-trade PnL, PnL % and holding time per (user, symbol), kept as
+ * QuantileSketch blobs in trade_quantile_sketch
+ *
+ * - trade_quantile_member records the values each closed trade was counted with, so a
+ *   revision (late fill, exchange PnL sync) or a reopen removes exactly what was added
+ *   before adding the new values; archived trades keep their membership
+ * - Updated on TradesClosed (after commit): one read of the trades and their members,
+ *   then only the sketches of the affected (user, symbol) are read, changed and written
+ *   back; writers serialize on one advisory lock
+ * - A reconcile job (leader only) applies closes whose event was lost and first
+ *   backfills all closed trades until the "trade-distribution" BackfillCursorStore cursor
+ *   is complete; a member is stale when its close time, PnL, PnL % or holding time
+ *   (e.g. after an opened_at correction) differs from the trade
+ * - distribution() merges the user's per-symbol sketches: its cost depends on the number
+ *   of symbols and buckets, not on the number of trades
+ */
+@Slf4j
+@Service
+public class TradeDistributionService {
+
+    // Sketched metrics, as named in the response
+    static final List<String> METRICS = List.of("pnl", "pnlPercent", "holdingSeconds");
+
+    private static final String BACKFILL = "trade-distribution";
+
+    private static final double[] QUANTILES = {0.01, 0.05, 0.10, 0.25, 0.50, 0.75, 0.90, 0.95, 0.99};
+
+    private static final String CURRENT_SQL =
+            "SELECT id, user_id, pair, status, closed_at, pnl, pnl_percent, " +
+            "  EXTRACT(EPOCH FROM (closed_at - opened_at))::float8 AS holding_seconds " +
+            "FROM trades WHERE id = ANY (?)";
+
+    private static final String MEMBERS_SQL =
+            "SELECT trade_id, user_id, symbol, pnl, pnl_percent, holding_seconds " +
+            "FROM trade_quantile_member WHERE trade_id = ANY (?)";
+
+    private static final String UPSERT_MEMBER_SQL =
+            "INSERT INTO trade_quantile_member (trade_id, user_id, symbol, closed_at, pnl, pnl_percent, holding_seconds) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?) " +
+            "ON CONFLICT (trade_id) DO UPDATE SET user_id = EXCLUDED.user_id, symbol = EXCLUDED.symbol, " +
+            "  closed_at = EXCLUDED.closed_at, pnl = EXCLUDED.pnl, pnl_percent = EXCLUDED.pnl_percent, " +
+            "  holding_seconds = EXCLUDED.holding_seconds";
+
+    private static final String UPSERT_SKETCH_SQL =
+            "INSERT INTO trade_quantile_sketch (user_id, symbol, metric, trades, sketch, updated_at) " +
+            "VALUES (?, ?, ?, ?, ?, now()) " +
+            "ON CONFLICT (user_id, symbol, metric) DO UPDATE SET trades = EXCLUDED.trades, " +
+            "  sketch = EXCLUDED.sketch, updated_at = EXCLUDED.updated_at";
+
+    private static final String RECONCILE_SQL =
+            "SELECT t.id FROM trades t LEFT JOIN trade_quantile_member m ON m.trade_id = t.id " +
+            "WHERE t.status = 'CLOSED' AND t.closed_at IS NOT NULL AND t.user_id IS NOT NULL AND t.closed_at >= ? " +
+            "AND (m.trade_id IS NULL OR m.closed_at <> t.closed_at " +
+            "  OR m.pnl IS DISTINCT FROM t.pnl OR m.pnl_percent IS DISTINCT FROM t.pnl_percent " +
+            "  OR m.holding_seconds IS DISTINCT FROM EXTRACT(EPOCH FROM (t.closed_at - t.opened_at))::float8) " +
+            "AND t.id > ? ORDER BY t.id LIMIT ?";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ClusterCoordinator clusterCoordinator;
+
+    @Autowired
+    private WarmUpService warmUpService;
+
+    @Autowired
+    private BackfillCursorStore backfillCursors;
+
+    @Value("${analytics.distribution.reconcile-days:3}")
+    private int reconcileDays;
+
+    @Value("${analytics.distribution.reconcile-batch-size:1000}")
+    private int reconcileBatchSize;
+
+    private TransactionTemplate transaction;
+
+    private final LongAdder tradesApplied = new LongAdder();
+    private final LongAdder sketchesWritten = new LongAdder();
+    private final LongAdder reconciled = new LongAdder();
+    private final LongAdder inconsistent = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private volatile String lastReconcileAt;
+
+    /**
+     * Values a closed trade is counted with (null metric = not counted)
+     */
+    record Member(long tradeId, long userId, String symbol, Timestamp closedAt, Double pnl, Double pnlPercent,
+                  Double holdingSeconds) {
+
+        Double metric(String name) {
+            return switch (name) {
+                case "pnl" -> pnl;
+                case "pnlPercent" -> pnlPercent;
+                default -> holdingSeconds;
+            };
+        }
+
+        boolean sameValues(Member other) {
+            return userId == other.userId && symbol.equals(other.symbol)
+                    && Objects.equals(pnl, other.pnl) && Objects.equals(pnlPercent, other.pnlPercent)
+                    && Objects.equals(holdingSeconds, other.holdingSeconds);
+        }
+    }
+
+    private record SketchKey(long userId, String symbol, String metric) {
+    }
+
+    @PostConstruct
+    public void init() {
+        transaction = new TransactionTemplate(transactionManager);
+    }
+
+    // ============ UPDATES ============
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTradesClosed(TradeLifecycleWriter.TradesClosed event) {
+        try {
+            apply(event.tradeIds());
+        } catch (Exception e) {
+            // The reconcile job picks these trades up on its next run
+            failures.increment();
+            log.warn("⚠️ Trade distribution update failed for trades {} (revision={}): {}",
+                    event.tradeIds(), event.revision(), e.getMessage());
+        }
+    }
+
+    /**
+     * Re-read the trades, take their previous values out of the sketches and add the current ones
+     */
+    public void apply(Collection<Long> tradeIds) {
+        if (tradeIds.isEmpty()) {
+            return;
+        }
+        Long[] ids = tradeIds.toArray(new Long[0]);
+        int written = transaction.execute(status -> {
+            jdbcTemplate.queryForList("SELECT pg_advisory_xact_lock(hashtext('trade_quantile_sketch'))");
+
+            Map<Long, Member> previous = new HashMap<>();
+            jdbcTemplate.query(MEMBERS_SQL, rs -> {
+                Member member = new Member(rs.getLong("trade_id"), rs.getLong("user_id"), rs.getString("symbol"),
+                        null, nullableDouble(rs, "pnl"), nullableDouble(rs, "pnl_percent"),
+                        nullableDouble(rs, "holding_seconds"));
+                previous.put(member.tradeId(), member);
+            }, (Object) ids);
+
+            // Trades no longer in the hot table (archived) keep their membership
+            Set<Long> present = new HashSet<>();
+            Map<Long, Member> current = new HashMap<>();
+            jdbcTemplate.query(CURRENT_SQL, rs -> {
+                long id = rs.getLong("id");
+                present.add(id);
+                Timestamp closedAt = rs.getTimestamp("closed_at");
+                if ("CLOSED".equals(rs.getString("status")) && closedAt != null && rs.getObject("user_id") != null) {
+                    current.put(id, new Member(id, rs.getLong("user_id"), symbolOf(rs.getString("pair")), closedAt,
+                            nullableDouble(rs, "pnl"), nullableDouble(rs, "pnl_percent"),
+                            nullableDouble(rs, "holding_seconds")));
+                }
+            }, (Object) ids);
+
+            List<Member> removed = new ArrayList<>();
+            List<Member> added = new ArrayList<>();
+            for (Long id : present) {
+                Member before = previous.get(id);
+                Member after = current.get(id);
+                if (before != null && after != null && before.sameValues(after)) {
+                    continue;
+                }
+                if (before != null) {
+                    removed.add(before);
+                }
+                if (after != null) {
+                    added.add(after);
+                }
+            }
+            if (removed.isEmpty() && added.isEmpty()) {
+                // Only closed_at may differ; keep the member in step for the reconcile comparison
+                upsertMembers(current.values());
+                return 0;
+            }
+
+            Map<SketchKey, QuantileSketch> sketches = loadSketches(removed, added);
+            for (Member member : removed) {
+                for (String metric : METRICS) {
+                    Double value = member.metric(metric);
+                    if (value != null && !sketch(sketches, member, metric).remove(value)) {
+                        inconsistent.increment();
+                    }
+                }
+            }
+            for (Member member : added) {
+                for (String metric : METRICS) {
+                    Double value = member.metric(metric);
+                    if (value != null && Double.isFinite(value)) {
+                        sketch(sketches, member, metric).add(value);
+                    }
+                }
+            }
+            writeSketches(sketches);
+
+            List<Object[]> gone = new ArrayList<>();
+            for (Member member : removed) {
+                if (!current.containsKey(member.tradeId())) {
+                    gone.add(new Object[]{member.tradeId()});
+                }
+            }
+            if (!gone.isEmpty()) {
+                jdbcTemplate.batchUpdate("DELETE FROM trade_quantile_member WHERE trade_id = ?", gone);
+            }
+            upsertMembers(current.values());
+            return sketches.size();
+        });
+        tradesApplied.add(ids.length);
+        sketchesWritten.add(written);
+    }
+
+    private Map<SketchKey, QuantileSketch> loadSketches(List<Member> removed, List<Member> added) {
+        Set<Long> users = new HashSet<>();
+        Set<String> symbols = new HashSet<>();
+        for (List<Member> members : List.of(removed, added)) {
+            for (Member member : members) {
+                users.add(member.userId());
+                symbols.add(member.symbol());
+            }
+        }
+        Map<SketchKey, QuantileSketch> sketches = new HashMap<>();
+        jdbcTemplate.query("SELECT user_id, symbol, metric, sketch FROM trade_quantile_sketch " +
+                        "WHERE user_id = ANY (?) AND symbol = ANY (?)",
+                (RowCallbackHandler) rs -> sketches.put(
+                        new SketchKey(rs.getLong("user_id"), rs.getString("symbol"), rs.getString("metric")),
+                        QuantileSketch.fromBytes(rs.getBytes("sketch"))),
+                users.toArray(new Long[0]), symbols.toArray(new String[0]));
+        return sketches;
+    }
+
+    private static QuantileSketch sketch(Map<SketchKey, QuantileSketch> sketches, Member member, String metric) {
+        return sketches.computeIfAbsent(new SketchKey(member.userId(), member.symbol(), metric), key -> new QuantileSketch());
+    }
+
+    // Every loaded sketch is written back: at most a few per trade, and unchanged ones are cheap
+    private void writeSketches(Map<SketchKey, QuantileSketch> sketches) {
+        List<Object[]> upserts = new ArrayList<>();
+        List<Object[]> deletes = new ArrayList<>();
+        sketches.forEach((key, sketch) -> {
+            if (sketch.count() == 0) {
+                deletes.add(new Object[]{key.userId(), key.symbol(), key.metric()});
+            } else {
+                upserts.add(new Object[]{key.userId(), key.symbol(), key.metric(), sketch.count(), sketch.toBytes()});
+            }
+        });
+        if (!deletes.isEmpty()) {
+            jdbcTemplate.batchUpdate("DELETE FROM trade_quantile_sketch WHERE user_id = ? AND symbol = ? AND metric = ?", deletes);
+        }
+        if (!upserts.isEmpty()) {
+            jdbcTemplate.batchUpdate(UPSERT_SKETCH_SQL, upserts);
+        }
+    }
+
+    private void upsertMembers(Collection<Member> members) {
+        if (members.isEmpty()) {
+            return;
+        }
+        List<Object[]> rows = new ArrayList<>(members.size());
+        for (Member member : members) {
+            rows.add(new Object[]{member.tradeId(), member.userId(), member.symbol(), member.closedAt(),
+                    member.pnl(), member.pnlPercent(), member.holdingSeconds()});
+        }
+        jdbcTemplate.batchUpdate(UPSERT_MEMBER_SQL, rows);
+    }
+
+    /**
+     * Apply recent closes whose event was missed; until the backfill is complete, first
+     * continue it over the whole history
+     */
+    @Scheduled(fixedDelayString = "${analytics.distribution.reconcile-interval-ms:300000}", initialDelay = 90_000)
+    public void reconcile() {
+        if (!warmUpService.isReady() || !clusterCoordinator.isLeader("trade-distribution-reconcile")) {
+            return;
+        }
+        lastReconcileAt = Instant.now().toString();
+        try {
+            BackfillCursorStore.Cursor cursor = backfillCursors.get(BACKFILL);
+            if (!cursor.complete()) {
+                int backfilled = walk(new Timestamp(0), cursor.lastTradeId(), true);
+                backfillCursors.complete(BACKFILL);
+                reconciled.add(backfilled);
+                log.info("📐 Trade distribution backfill complete: {} trade(s) applied (resumed after trade {})",
+                        backfilled, cursor.lastTradeId());
+            }
+            int total = walk(Timestamp.from(Instant.now().minusSeconds(reconcileDays * 86_400L)), 0, false);
+            if (total > 0) {
+                reconciled.add(total);
+                log.info("📐 Trade distribution reconcile: {} trade(s) applied", total);
+            }
+        } catch (Exception e) {
+            failures.increment();
+            log.error("❌ Trade distribution reconcile failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Apply, in id order, the trades closed since the given time whose membership is missing or stale
+     * A backfill records its progress after every batch
+     */
+    private int walk(Timestamp since, long afterId, boolean backfill) {
+        int total = 0;
+        while (true) {
+            List<Long> ids = jdbcTemplate.queryForList(RECONCILE_SQL, Long.class, since, afterId, reconcileBatchSize);
+            if (ids.isEmpty()) {
+                return total;
+            }
+            apply(ids);
+            total += ids.size();
+            afterId = ids.get(ids.size() - 1);
+            if (backfill) {
+                backfillCursors.advance(BACKFILL, afterId);
+            }
+            if (ids.size() < reconcileBatchSize) {
+                return total;
+            }
+        }
+    }
+
+    // ============ QUERY ============
+
+    /**
+     * Quantiles of the user's closed trades per metric, merged over the matching symbols
+     *
+     * @param symbol        "contains" match as in the rollup (null = all symbols)
+     * @param groupBySymbol one row per symbol instead of one merged row
+     */
+    public List<Map<String, Object>> distribution(Long userId, String symbol, boolean groupBySymbol) {
+        StringBuilder sql = new StringBuilder("SELECT symbol, metric, sketch FROM trade_quantile_sketch WHERE user_id = ?");
+        List<Object> args = new ArrayList<>();
+        args.add(userId);
+        if (symbol != null && !symbol.isEmpty()) {
+            sql.append(" AND strpos(symbol, ?) > 0");
+            args.add(symbol);
+        }
+
+        // group (symbol or "") -> metric -> merged sketch
+        Map<String, Map<String, QuantileSketch>> groups = new TreeMap<>();
+        jdbcTemplate.query(sql.toString(), rs -> {
+            String group = groupBySymbol ? rs.getString("symbol") : "";
+            groups.computeIfAbsent(group, g -> new HashMap<>())
+                    .computeIfAbsent(rs.getString("metric"), m -> new QuantileSketch())
+                    .merge(QuantileSketch.fromBytes(rs.getBytes("sketch")));
+        }, args.toArray());
+
+        List<Map<String, Object>> rows = new ArrayList<>(groups.size());
+        groups.forEach((group, sketches) -> {
+            Map<String, Object> row = new LinkedHashMap<>();
+            if (groupBySymbol) {
+                row.put("symbol", group);
+            }
+            for (String metric : METRICS) {
+                QuantileSketch sketch = sketches.get(metric);
+                row.put(metric, sketch != null ? summary(sketch) : null);
+            }
+            rows.add(row);
+        });
+        return rows;
+    }
+
+    /**
+     * count, min, p1..p99, max (values within the sketch's relative accuracy)
+     */
+    static Map<String, Object> summary(QuantileSketch sketch) {
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("count", sketch.count());
+        summary.put("min", decimal(sketch.min()));
+        for (double q : QUANTILES) {
+            summary.put("p" + Math.round(q * 100), decimal(sketch.quantile(q)));
+        }
+        summary.put("max", decimal(sketch.max()));
+        summary.put("relativeAccuracy", sketch.relativeAccuracy());
+        return summary;
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("tradesApplied", tradesApplied.sum());
+        stats.put("sketchesWritten", sketchesWritten.sum());
+        stats.put("reconciled", reconciled.sum());
+        stats.put("inconsistentRemovals", inconsistent.sum());
+        stats.put("failures", failures.sum());
+        stats.put("lastReconcileAt", lastReconcileAt);
+        stats.put("backfill", backfillCursors.get(BACKFILL));
+        stats.put("sketches", jdbcTemplate.queryForObject("SELECT COUNT(*) FROM trade_quantile_sketch", Long.class));
+        stats.put("sketchBytes", jdbcTemplate.queryForObject(
+                "SELECT COALESCE(SUM(octet_length(sketch)), 0) FROM trade_quantile_sketch", Long.class));
+        return stats;
+    }
+
+    // ============ HELPER METHODS ============
+
+    private static Double nullableDouble(ResultSet rs, String column) throws SQLException {
+        double value = rs.getDouble(column);
+        return rs.wasNull() ? null : value;
+    }
+
+    private static String symbolOf(String pair) {
+        return pair != null ? pair : "";
+    }
+
+    private static BigDecimal decimal(double value) {
+        return Double.isNaN(value) ? null : BigDecimal.valueOf(value).setScale(8, RoundingMode.HALF_UP).stripTrailingZeros();
+    }
+}
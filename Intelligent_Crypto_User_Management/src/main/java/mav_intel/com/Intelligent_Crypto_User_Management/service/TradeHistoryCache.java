@@ -0,0 +1,286 @@
+package mav_intel.com.Intelligent_Crypto_User_Management.service;
+
+import mav_intel.com.Intelligent_Crypto_User_Management.dto.TradeFilterDTO;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Result cache for POST /api/trades/history
+ *
+ * Two levels, both LRU-bounded:
+ * - Snapshot: the closed trades of a scope as TradeColumns (scope = user id, or
+ *   null for all users), tagged with the scope's version when it was loaded
+ * - Result: filtered + sorted row indexes and statistics for one normalized filter
+ *   of one snapshot; pagination is not part of the key, so paging through a result
+ *   is a slice of the cached rows
+ *
+ * Invalidation: every user has a version counter, and the all-users scope has its
+ * own; ColumnarTradeStore bumps the affected users and the global counter once it
+ * has applied a close, archival bumps everything. A snapshot whose version is behind is reloaded, and results of older
+ * snapshots are never served (they reference the snapshot by identity). A load that
+ * raced with a bump is used for its request but not cached. The TTL bounds staleness
+ * from closes handled by another instance.
+ *
+ * Saved time = load/compute time of the entry, added on every hit.
+ */
+@Component
+public class TradeHistoryCache {
+
+    @Value("${trades.history-cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${trades.history-cache.ttl-seconds:60}")
+    private long ttlSeconds;
+
+    @Value("${trades.history-cache.max-snapshots:16}")
+    private int maxSnapshots;
+
+    @Value("${trades.history-cache.max-results:256}")
+    private int maxResults;
+
+    private final AtomicLong globalVersion = new AtomicLong();
+    private final ConcurrentHashMap<Long, AtomicLong> userVersions = new ConcurrentHashMap<>();
+
+    private final LruMap<Scope, Snapshot> snapshots = new LruMap<>(() -> maxSnapshots);
+    private final LruMap<ResultKey, Result> results = new LruMap<>(() -> maxResults);
+
+    private final LongAdder snapshotHits = new LongAdder();
+    private final LongAdder snapshotMisses = new LongAdder();
+    private final LongAdder resultHits = new LongAdder();
+    private final LongAdder resultMisses = new LongAdder();
+    private final LongAdder savedNanos = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+
+    /**
+     * Closed trades of a scope as loaded at some version
+     */
+    public static final class Snapshot {
+        private final TradeColumns columns;
+        private final long version;
+        private final long loadedAtNanos;
+        private final long loadNanos;
+
+        private Snapshot(TradeColumns columns, long version, long loadedAtNanos, long loadNanos) {
+            this.columns = columns;
+            this.version = version;
+            this.loadedAtNanos = loadedAtNanos;
+            this.loadNanos = loadNanos;
+        }
+
+        public TradeColumns columns() {
+            return columns;
+        }
+    }
+
+    /**
+     * Filtered and sorted rows of one snapshot with their statistics; shared, never modify
+     */
+    public static final class Result {
+        private final Snapshot snapshot;
+        private final int[] rows;
+        private final TradeStatsAccumulator stats;
+        private final long computeNanos;
+
+        public Result(Snapshot snapshot, int[] rows, TradeStatsAccumulator stats, long computeNanos) {
+            this.snapshot = snapshot;
+            this.rows = rows;
+            this.stats = stats;
+            this.computeNanos = computeNanos;
+        }
+
+        public int[] rows() {
+            return rows;
+        }
+
+        public TradeStatsAccumulator stats() {
+            return stats;
+        }
+    }
+
+    private record Scope(Long userId) {
+    }
+
+    private record ResultKey(Scope scope, String filter) {
+    }
+
+    // ============ LOOKUP ============
+
+    /**
+     * Closed trades of the scope (userId, or null for all users), loading them on a miss
+     */
+    public Snapshot snapshot(Long userId, Supplier<TradeColumns> loader) {
+        Scope scope = new Scope(userId);
+        long version = version(userId);
+        long now = System.nanoTime();
+        Snapshot cached = enabled ? snapshots.get(scope) : null;
+        if (cached != null && cached.version == version && !isExpired(cached.loadedAtNanos, now)) {
+            snapshotHits.increment();
+            savedNanos.add(cached.loadNanos);
+            return cached;
+        }
+
+        snapshotMisses.increment();
+        long start = System.nanoTime();
+        TradeColumns columns = loader.get();
+        long end = System.nanoTime();
+        Snapshot loaded = new Snapshot(columns, version, end, end - start);
+        if (enabled && version(userId) == version) {
+            snapshots.put(scope, loaded);
+        }
+        return loaded;
+    }
+
+    /**
+     * Result for the filter on the snapshot, computing it on a miss
+     * The computer must return a Result of this snapshot
+     */
+    public Result result(Long userId, Snapshot snapshot, TradeFilterDTO filter, Supplier<Result> computer) {
+        ResultKey key = new ResultKey(new Scope(userId), normalize(filter));
+        Result cached = enabled ? results.get(key) : null;
+        if (cached != null && cached.snapshot == snapshot) {
+            resultHits.increment();
+            savedNanos.add(cached.computeNanos);
+            return cached;
+        }
+
+        resultMisses.increment();
+        Result computed = computer.get();
+        if (enabled && snapshot.version == version(userId)) {
+            results.put(key, computed);
+        }
+        return computed;
+    }
+
+    /**
+     * Filter fields that affect the result, in a canonical form; page and pageSize are excluded
+     * (status too: the history is always CLOSED trades)
+     */
+    static String normalize(TradeFilterDTO filter) {
+        return String.join("|",
+                text(filter.getSymbol()),
+                Objects.toString(filter.getFromDate(), ""),
+                Objects.toString(filter.getToDate(), ""),
+                decimal(filter.getPnlMin()),
+                decimal(filter.getPnlMax()),
+                decimal(filter.getPnlPercentMin()),
+                decimal(filter.getPnlPercentMax()),
+                text(filter.getSide()),
+                text(filter.getExitReason()),
+                sortBy(filter.getSortBy()),
+                TradeStatsKernel.isDescending(filter.getSortOrder()) ? "DESC" : "ASC");
+    }
+
+    private static String text(String value) {
+        return value != null ? value : "";
+    }
+
+    private static String decimal(BigDecimal value) {
+        return value != null ? value.stripTrailingZeros().toPlainString() : "";
+    }
+
+    // Unknown sort fields fall back to closedAt in TradeStatsKernel.sortKey
+    private static String sortBy(String sortBy) {
+        return sortBy != null && List.of("pnl", "pnlPercent", "symbol").contains(sortBy) ? sortBy : "closedAt";
+    }
+
+    // ============ INVALIDATION ============
+
+    private long version(Long userId) {
+        if (userId == null) {
+            return globalVersion.get();
+        }
+        AtomicLong version = userVersions.get(userId);
+        return version != null ? version.get() : 0;
+    }
+
+    /**
+     * The user's trades changed: bump their version and the all-users version
+     * (null = trades without a user, only the all-users version)
+     */
+    public void invalidate(Long userId) {
+        if (userId != null) {
+            userVersions.computeIfAbsent(userId, id -> new AtomicLong()).incrementAndGet();
+        }
+        globalVersion.incrementAndGet();
+        invalidations.increment();
+    }
+
+    /**
+     * Trades of unknown users changed (e.g. archival)
+     */
+    public void invalidateAll() {
+        userVersions.values().forEach(AtomicLong::incrementAndGet);
+        globalVersion.incrementAndGet();
+        snapshots.clear();
+        results.clear();
+        invalidations.increment();
+    }
+
+    // ============ STATS ============
+
+    public Map<String, Object> getStats() {
+        long hits = resultHits.sum();
+        long misses = resultMisses.sum();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("ttlSeconds", ttlSeconds);
+        stats.put("snapshots", snapshots.size());
+        stats.put("results", results.size());
+        stats.put("hits", hits);
+        stats.put("misses", misses);
+        stats.put("hitRatio", hits + misses > 0 ? (double) hits / (hits + misses) : 0.0);
+        stats.put("snapshotHits", snapshotHits.sum());
+        stats.put("snapshotMisses", snapshotMisses.sum());
+        stats.put("savedMillis", savedNanos.sum() / 1_000_000);
+        stats.put("evictions", snapshots.evictions.sum() + results.evictions.sum());
+        stats.put("invalidations", invalidations.sum());
+        return stats;
+    }
+
+    private boolean isExpired(long loadedAtNanos, long now) {
+        return ttlSeconds > 0 && now - loadedAtNanos > ttlSeconds * 1_000_000_000L;
+    }
+
+    /**
+     * Access-ordered map bounded by a (property-backed) size, evicting the least recently used entry
+     */
+    private static final class LruMap<K, V> {
+        private final LinkedHashMap<K, V> map = new LinkedHashMap<>(16, 0.75f, true);
+        private final Supplier<Integer> maxSize;
+        private final LongAdder evictions = new LongAdder();
+
+        LruMap(Supplier<Integer> maxSize) {
+            this.maxSize = maxSize;
+        }
+
+        synchronized V get(K key) {
+            return map.get(key);
+        }
+
+        synchronized void put(K key, V value) {
+            map.put(key, value);
+            while (map.size() > maxSize.get()) {
+                map.remove(map.keySet().iterator().next());
+                evictions.increment();
+            }
+        }
+
+        synchronized int size() {
+            return map.size();
+        }
+
+        synchronized void clear() {
+            map.clear();
+        }
+    }
+}
@@ -0,0 +1,315 @@
+package mav_intel.com.Intelligent_Crypto_User_Management.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only, memory-mapped journal of trade lifecycle events
+ *
+ * - Written before each exchange call, so a crash always leaves a record of
+ *   how far a bracket (entry + SL + TPs) got
+ * - Fixed 64-byte records in mapped segment files; an append is a handful of
+ *   absolute puts into the page cache (survives a JVM crash; journal.fsync=true
+ *   also survives an OS crash at the cost of an msync per append)
+ * - On startup all segments are replayed, brackets still in flight are carried
+ *   over into a fresh segment and the old segments are deleted
+ *
+ * Record layout (little room on purpose - details live in the trades table):
+ *   0  long  sequence
+ *   8  long  timestamp (epoch millis)
+ *   16 long  tradeId
+ *   24 byte  event type
+ *   25 byte  leg (TP number for TP_ACKED)
+ *   32 long  exchange order id
+ *   40 double price
+ *   48 double quantity
+ *   56 int   CRC32 of bytes 0..55
+ *   60 int   commit marker (written last)
+ */
+@Slf4j
+@Component
+public class TradeJournal {
+
+    public enum EventType {
+        INTENT,         // trade row saved as PENDING, entry order about to be sent
+        ENTRY_ACKED,    // exchange accepted the entry order
+        SL_ACKED,       // exchange accepted the stop-loss
+        TP_ACKED,       // exchange accepted take-profit <leg>
+        COMPLETE,       // bracket fully placed
+        FAILED,         // execution gave up (nothing left to repair)
+        CLOSED          // position closed
+    }
+
+    static final int RECORD_SIZE = 64;
+    private static final int COMMIT_MARKER = 0x4A524E4C; // "JRNL"
+    private static final String SEGMENT_PREFIX = "journal-";
+    private static final String SEGMENT_SUFFIX = ".seg";
+
+    @Value("${journal.dir:./journal}")
+    private String journalDir;
+
+    @Value("${journal.segment-size-mb:16}")
+    private int segmentSizeMb;
+
+    @Value("${journal.fsync:false}")
+    private boolean fsync;
+
+    private FileChannel channel;
+    private MappedByteBuffer buffer;
+    private int segmentIndex;
+    private int segmentCapacity;
+    private long sequence;
+
+    // Brackets that were still in flight when the journal was opened
+    private final Map<Long, BracketState> recovered = new LinkedHashMap<>();
+
+    /**
+     * Progress of one trade's bracket as reconstructed from the journal
+     */
+    public static class BracketState {
+        public final long tradeId;
+        public long entryOrderId;
+        public double entryPrice;
+        public double entryQuantity;
+        public boolean entryAcked;
+        public boolean slAcked;
+        public int tpAckedMask; // bit n-1 set when TPn acked
+        public boolean finished;
+
+        BracketState(long tradeId) {
+            this.tradeId = tradeId;
+        }
+
+        public boolean isTpAcked(int tp) {
+            return (tpAckedMask & (1 << (tp - 1))) != 0;
+        }
+    }
+
+    /**
+     * Standalone constructor for tools and benchmarks (Spring uses field injection)
+     */
+    public TradeJournal(String journalDir, int segmentSizeMb, boolean fsync) {
+        this.journalDir = journalDir;
+        this.segmentSizeMb = segmentSizeMb;
+        this.fsync = fsync;
+    }
+
+    public TradeJournal() {
+    }
+
+    @PostConstruct
+    public void open() throws IOException {
+        Path dir = Paths.get(journalDir);
+        Files.createDirectories(dir);
+        segmentCapacity = (segmentSizeMb * 1024 * 1024 / RECORD_SIZE) * RECORD_SIZE;
+
+        List<Path> oldSegments = listSegments(dir);
+        for (Path segment : oldSegments) {
+            replaySegment(segment);
+        }
+        recovered.values().removeIf(state -> state.finished);
+
+        segmentIndex = oldSegments.isEmpty() ? 1 : parseIndex(oldSegments.get(oldSegments.size() - 1)) + 1;
+        mapSegment(dir, segmentIndex);
+
+        // Carry in-flight brackets over so old segments can go
+        for (BracketState state : recovered.values()) {
+            append(EventType.INTENT, state.tradeId, 0, 0, 0, 0);
+            if (state.entryAcked) {
+                append(EventType.ENTRY_ACKED, state.tradeId, 0, state.entryOrderId, state.entryPrice, state.entryQuantity);
+            }
+            if (state.slAcked) {
+                append(EventType.SL_ACKED, state.tradeId, 0, 0, 0, 0);
+            }
+            for (int tp = 1; tp <= 4; tp++) {
+                if (state.isTpAcked(tp)) {
+                    append(EventType.TP_ACKED, state.tradeId, tp, 0, 0, 0);
+                }
+            }
+        }
+        buffer.force();
+        for (Path segment : oldSegments) {
+            Files.deleteIfExists(segment);
+        }
+
+        log.info("✅ Trade journal opened at {} (segment {}, {} in-flight bracket(s) recovered)",
+                dir.toAbsolutePath(), segmentIndex, recovered.size());
+    }
+
+    @PreDestroy
+    public synchronized void close() throws IOException {
+        if (buffer != null) {
+            buffer.force();
+        }
+        if (channel != null) {
+            channel.close();
+        }
+    }
+
+    // ============ APPEND ============
+
+    public void intent(long tradeId) {
+        append(EventType.INTENT, tradeId, 0, 0, 0, 0);
+    }
+
+    public void entryAcked(long tradeId, long orderId, double price, double quantity) {
+        append(EventType.ENTRY_ACKED, tradeId, 0, orderId, price, quantity);
+    }
+
+    public void stopLossAcked(long tradeId, long orderId) {
+        append(EventType.SL_ACKED, tradeId, 0, orderId, 0, 0);
+    }
+
+    public void takeProfitAcked(long tradeId, int tp, long orderId) {
+        append(EventType.TP_ACKED, tradeId, tp, orderId, 0, 0);
+    }
+
+    public void complete(long tradeId) {
+        append(EventType.COMPLETE, tradeId, 0, 0, 0, 0);
+    }
+
+    public void failed(long tradeId) {
+        append(EventType.FAILED, tradeId, 0, 0, 0, 0);
+    }
+
+    public void closed(long tradeId) {
+        append(EventType.CLOSED, tradeId, 0, 0, 0, 0);
+    }
+
+    /**
+     * Append one record; rolls to a new segment when the current one is full
+     */
+    public synchronized void append(EventType type, long tradeId, int leg, long orderId, double price, double quantity) {
+        if (buffer.position() + RECORD_SIZE > segmentCapacity) {
+            rollSegment();
+        }
+        int pos = buffer.position();
+        buffer.putLong(pos, ++sequence);
+        buffer.putLong(pos + 8, System.currentTimeMillis());
+        buffer.putLong(pos + 16, tradeId);
+        buffer.put(pos + 24, (byte) type.ordinal());
+        buffer.put(pos + 25, (byte) leg);
+        buffer.putLong(pos + 32, orderId);
+        buffer.putDouble(pos + 40, price);
+        buffer.putDouble(pos + 48, quantity);
+        buffer.putInt(pos + 56, checksum(buffer, pos));
+        buffer.putInt(pos + 60, COMMIT_MARKER);
+        buffer.position(pos + RECORD_SIZE);
+        if (fsync) {
+            buffer.force(pos, RECORD_SIZE);
+        }
+    }
+
+    /**
+     * Brackets that were in flight when the process last stopped
+     */
+    public synchronized Collection<BracketState> getRecoveredBrackets() {
+        return new ArrayList<>(recovered.values());
+    }
+
+    /**
+     * Drop a recovered bracket once it has been repaired
+     */
+    public synchronized void markRecovered(long tradeId) {
+        recovered.remove(tradeId);
+    }
+
+    // ============ HELPER METHODS ============
+
+    private void replaySegment(Path segment) throws IOException {
+        try (FileChannel ch = FileChannel.open(segment, StandardOpenOption.READ)) {
+            MappedByteBuffer in = ch.map(FileChannel.MapMode.READ_ONLY, 0, ch.size());
+            int records = 0;
+            for (int pos = 0; pos + RECORD_SIZE <= in.limit(); pos += RECORD_SIZE) {
+                if (in.getInt(pos + 60) != COMMIT_MARKER) {
+                    break; // end of written data (or torn record)
+                }
+                if (in.getInt(pos + 56) != checksum(in, pos)) {
+                    log.warn("⚠️ Corrupt journal record at {}:{} - stopping replay of this segment", segment, pos);
+                    break;
+                }
+                apply(in, pos);
+                records++;
+            }
+            log.info("🔁 Replayed {} journal record(s) from {}", records, segment.getFileName());
+        }
+    }
+
+    private void apply(MappedByteBuffer in, int pos) {
+        sequence = Math.max(sequence, in.getLong(pos));
+        long tradeId = in.getLong(pos + 16);
+        EventType type = EventType.values()[in.get(pos + 24)];
+        BracketState state = recovered.computeIfAbsent(tradeId, BracketState::new);
+        switch (type) {
+            case INTENT -> state.finished = false;
+            case ENTRY_ACKED -> {
+                state.entryAcked = true;
+                long orderId = in.getLong(pos + 32);
+                if (orderId != 0) {
+                    state.entryOrderId = orderId;
+                    state.entryPrice = in.getDouble(pos + 40);
+                    state.entryQuantity = in.getDouble(pos + 48);
+                }
+            }
+            case SL_ACKED -> state.slAcked = true;
+            case TP_ACKED -> state.tpAckedMask |= 1 << (in.get(pos + 25) - 1);
+            case COMPLETE, FAILED, CLOSED -> state.finished = true;
+        }
+    }
+
+    private void rollSegment() {
+        try {
+            buffer.force();
+            channel.close();
+            mapSegment(Paths.get(journalDir), ++segmentIndex);
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot roll trade journal segment", e);
+        }
+    }
+
+    private void mapSegment(Path dir, int index) throws IOException {
+        Path file = dir.resolve(String.format("%s%06d%s", SEGMENT_PREFIX, index, SEGMENT_SUFFIX));
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentCapacity);
+    }
+
+    private static int checksum(java.nio.ByteBuffer buf, int pos) {
+        CRC32 crc = new CRC32();
+        crc.update(buf.slice(pos, 56));
+        return (int) crc.getValue();
+    }
+
+    private static List<Path> listSegments(Path dir) throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files
+                    .filter(p -> p.getFileName().toString().startsWith(SEGMENT_PREFIX)
+                            && p.getFileName().toString().endsWith(SEGMENT_SUFFIX))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+    }
+
+    private static int parseIndex(Path segment) {
+        String name = segment.getFileName().toString();
+        return Integer.parseInt(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+}
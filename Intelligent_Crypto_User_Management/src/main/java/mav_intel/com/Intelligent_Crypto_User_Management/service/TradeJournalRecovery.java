@@ -0,0 +1,100 @@
+package mav_intel.com.Intelligent_Crypto_User_Management.service;
+
+import lombok.extern.slf4j.Slf4j;
+import mav_intel.com.Intelligent_Crypto_User_Management.repository.OrderOutboxRepository;
+import mav_intel.com.Intelligent_Crypto_User_Management.repository.TradeRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Replays the trade journal at startup and repairs half-finished brackets
+ * before new signals are executed
+ *
+ * Brackets whose outbox intent is still open are left to OrderOutboxDispatcher,
+ * which resumes them by client order id on its next attempt.
+ *
+ * PENDING trades that the journal never saw and that have no open outbox intent
+ * (older than one outbox lease) are resolved the same way: the entry is looked up
+ * by client order id, then the bracket is completed or the trade marked FAILED.
+ */
+@Slf4j
+@Component
+public class TradeJournalRecovery implements ApplicationRunner {
+
+    @Autowired
+    private TradeJournal tradeJournal;
+
+    @Autowired
+    private TradeService tradeService;
+
+    @Autowired
+    private OrderOutboxRepository outboxRepository;
+
+    @Autowired
+    private TradeRepository tradeRepository;
+
+    @Value("${outbox.lease-seconds:120}")
+    private long leaseSeconds;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        Collection<TradeJournal.BracketState> inFlight = tradeJournal.getRecoveredBrackets();
+        if (!inFlight.isEmpty()) {
+            replayJournal(inFlight);
+        }
+        sweepOrphanedPending(inFlight);
+    }
+
+    private void replayJournal(Collection<TradeJournal.BracketState> inFlight) {
+        log.info("🔁 Repairing {} bracket(s) left in flight by the previous run", inFlight.size());
+        int repaired = 0;
+        for (TradeJournal.BracketState state : inFlight) {
+            if (outboxRepository.existsByTradeIdAndStatusIn(state.tradeId, List.of("PENDING", "IN_FLIGHT"))) {
+                tradeJournal.markRecovered(state.tradeId);
+                repaired++;
+                continue;
+            }
+            if (tradeService.recoverBracket(state)) {
+                tradeJournal.markRecovered(state.tradeId);
+                repaired++;
+            }
+        }
+        log.info("✅ Journal recovery complete: {}/{} bracket(s) resolved", repaired, inFlight.size());
+    }
+
+    private void sweepOrphanedPending(Collection<TradeJournal.BracketState> journaled) {
+        Set<Long> seen = new HashSet<>();
+        journaled.forEach(state -> seen.add(state.tradeId));
+        List<Long> orphaned;
+        try {
+            orphaned = new ArrayList<>(tradeRepository.findOrphanedPendingIds(OffsetDateTime.now().minusSeconds(leaseSeconds)));
+        } catch (Exception e) {
+            log.error("❌ Could not look for orphaned PENDING trades: {}", e.getMessage());
+            return;
+        }
+        orphaned.removeIf(seen::contains);
+        if (orphaned.isEmpty()) {
+            return;
+        }
+
+        log.warn("⚠️ {} PENDING trade(s) without journal entry or outbox intent, resolving by client order id",
+                orphaned.size());
+        int resolved = 0;
+        for (Long tradeId : orphaned) {
+            if (tradeService.recoverBracket(new TradeJournal.BracketState(tradeId))) {
+                resolved++;
+            }
+        }
+        log.info("✅ Orphaned PENDING sweep complete: {}/{} trade(s) resolved", resolved, orphaned.size());
+    }
+}
@@ -0,0 +1,112 @@
+package mav_intel.com.Intelligent_Crypto_User_Management.service;
+
+import lombok.extern.slf4j.Slf4j;
+import mav_intel.com.Intelligent_Crypto_User_Management.model.OrderOutbox;
+import mav_intel.com.Intelligent_Crypto_User_Management.model.Trade;
+import mav_intel.com.Intelligent_Crypto_User_Management.repository.OrderOutboxRepository;
+import mav_intel.com.Intelligent_Crypto_User_Management.repository.TradeRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.OffsetDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Single writer for Trade status transitions
+ *
+ * Keeps write amplification per execution to the minimum durability allows:
+ * - Exchange path: one INSERT of the PENDING trade plus its order_outbox intent
+ *   (same transaction) + one partial UPDATE of status and order id once the
+ *   dispatcher has placed the bracket
+ * - No exchange client: one INSERT straight as OPEN
+ * - Close: one partial UPDATE of status, closedAt and exitReason
+ *
+ * Transitions that happen in-memory during a dispatch (e.g. binanceOrderId
+ * set by placeBinanceOrder) are coalesced into the final UPDATE.
+ *
+ * Every method is its own short transaction; callers must not wrap exchange
+ * calls in a transaction, so no connection is held while waiting on Binance.
+ *
+ * Closes are announced with TradesClosed (delivered after commit), which
+ * ExchangePnlSyncService also publishes when fills close or revise trades.
+ */
+@Slf4j
+@Service
+public class TradeLifecycleWriter {
+
+    @Autowired
+    private TradeRepository tradeRepository;
+
+    @Autowired
+    private OrderOutboxRepository outboxRepository;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    /**
+     * Trades that were closed, or whose realized PnL changed after closing (revision = true)
+     * Listeners re-read the rows; trades that are not (yet) CLOSED are skipped
+     */
+    public record TradesClosed(Collection<Long> tradeIds, boolean revision) {
+    }
+
+    /**
+     * Persist the PENDING trade and its BRACKET order intent atomically
+     * The dispatcher is woken once this transaction commits
+     */
+    @Transactional
+    public Trade recordIntent(Trade trade) {
+        trade.setStatus("PENDING");
+        Trade saved = tradeRepository.save(trade);
+
+        OrderOutbox intent = outboxRepository.save(OrderOutbox.builder()
+                .tradeId(saved.getId())
+                .accountKey(saved.getUserId() != null ? saved.getUserId() : 0L)
+                .build());
+        eventPublisher.publishEvent(new OrderOutboxDispatcher.OutboxWritten(intent.getId()));
+
+        log.info("✅ Trade intent recorded with ID: {} (outbox {})", saved.getId(), intent.getId());
+        return saved;
+    }
+
+    /**
+     * Persist a trade that is already OPEN (no exchange round trip to wait for)
+     */
+    @Transactional
+    public Trade recordOpen(Trade trade) {
+        trade.setStatus("OPEN");
+        Trade saved = tradeRepository.save(trade);
+        log.info("✅ Trade recorded as OPEN with ID: {}", saved.getId());
+        return saved;
+    }
+
+    /**
+     * Coalesced final write of an execution: status and entry order id in one partial UPDATE
+     */
+    @Transactional
+    public void completeExecution(Trade trade, boolean orderPlaced) {
+        String status = orderPlaced ? "OPEN" : "FAILED";
+        int updated = tradeRepository.updateStatusAndOrderId(trade.getId(), trade.getOpenedAt(), status,
+                trade.getBinanceOrderId());
+        if (updated == 0) {
+            log.warn("⚠️ Trade {} not found while completing execution", trade.getId());
+        }
+        trade.setStatus(status);
+    }
+
+    /**
+     * Transition an open trade to CLOSED (openedAt locates its partition)
+     * Returns false if the trade was already closed
+     */
+    @Transactional
+    public boolean markClosed(Long tradeId, OffsetDateTime openedAt, OffsetDateTime closedAt, String exitReason) {
+        if (tradeRepository.markClosed(tradeId, openedAt, closedAt, exitReason) == 0) {
+            return false;
+        }
+        eventPublisher.publishEvent(new TradesClosed(List.of(tradeId), false));
+        return true;
+    }
+}
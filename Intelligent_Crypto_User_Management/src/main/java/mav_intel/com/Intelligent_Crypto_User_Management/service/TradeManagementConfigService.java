@@ -2,14 +2,20 @@ package mav_intel.com.Intelligent_Crypto_User_Management.service;
 
 import lombok.extern.slf4j.Slf4j;
 import mav_intel.com.Intelligent_Crypto_User_Management.dto.ExecuteTradeRequest;
+import mav_intel.com.Intelligent_Crypto_User_Management.dto.TradeConfigSnapshot;
 import mav_intel.com.Intelligent_Crypto_User_Management.dto.TradeManagementConfigDTO;
 import mav_intel.com.Intelligent_Crypto_User_Management.model.TradeManagementConfig;
 import mav_intel.com.Intelligent_Crypto_User_Management.repository.TradeManagementConfigRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 @Slf4j
 @Service
@@ -18,6 +24,9 @@ public class TradeManagementConfigService {
     @Autowired
     private TradeManagementConfigRepository configRepository;
 
+    @Autowired
+    private TradeConfigCache configCache;
+
     /**
      * Default configuration - used as fallback
      */
@@ -31,6 +40,8 @@ public class TradeManagementConfigService {
             .marginMode("ISOLATE")
             .build();
 
+    private static final TradeConfigSnapshot DEFAULT_SNAPSHOT = TradeConfigSnapshot.from(DEFAULT_CONFIG);
+
     /**
      * Get active configuration for user (from DB or defaults)
      */
@@ -40,6 +51,41 @@ public class TradeManagementConfigService {
                 .orElse(DEFAULT_CONFIG);
     }
 
+    /**
+     * Get cached, immutable configuration for user (trade execution path)
+     * Only the first call per user (or after save/reset) reaches the database
+     */
+    public TradeConfigSnapshot getConfigSnapshot(Long userId) {
+        return configCache.get(userId, this::loadSnapshot);
+    }
+
+    private TradeConfigSnapshot loadSnapshot(Long userId) {
+        log.info("📊 Loading trade management config for user: {} (cache miss)", userId);
+        return configRepository.findByUserId(userId)
+                .map(TradeConfigSnapshot::from)
+                .orElse(DEFAULT_SNAPSHOT);
+    }
+
+    /**
+     * Pre-load config snapshots for the given users with a single query (startup warm-up)
+     * Users without a custom config get the default snapshot; only the first maxSize users
+     * are loaded (pass them most recently active first), so warm-up never evicts
+     */
+    public int warmCache(List<Long> userIds) {
+        List<Long> warm = userIds.subList(0, Math.min(userIds.size(), configCache.getMaxSize()));
+        if (warm.isEmpty()) {
+            return 0;
+        }
+        Map<Long, TradeConfigSnapshot> snapshots = new HashMap<>();
+        for (TradeManagementConfig config : configRepository.findByUserIdIn(warm)) {
+            snapshots.put(config.getUserId(), TradeConfigSnapshot.from(config));
+        }
+        for (Long userId : warm) {
+            configCache.put(userId, snapshots.getOrDefault(userId, DEFAULT_SNAPSHOT));
+        }
+        return warm.size();
+    }
+
     /**
      * Save or update configuration for user
      */
@@ -73,6 +119,7 @@ public class TradeManagementConfigService {
         config.setMarginMode(dto.getMarginMode());
 
         TradeManagementConfig saved = configRepository.save(config);
+        configCache.invalidate(userId);
         log.info("✅ Configuration saved to DB for user {}: ConfigID={}, MaxPos={}, MaxLev={}, MarginMode={}, TP:{}%/{}%/{}%/{}%",
             userId,
             saved.getId(),
@@ -96,6 +143,7 @@ public class TradeManagementConfigService {
         log.info("🔄 Resetting trade management config for user: {}", userId);
 
         configRepository.deleteByUserId(userId);
+        invalidateAfterCommit(userId);
 
         log.info("✅ Configuration reset to defaults for user: {}", userId);
     }
@@ -105,7 +153,7 @@ public class TradeManagementConfigService {
      * Returns true if trade is allowed, false if it violates limits
      */
     public boolean isTradeValid(Long userId, ExecuteTradeRequest trade) {
-        TradeManagementConfig config = getActiveConfig(userId);
+        TradeConfigSnapshot config = getConfigSnapshot(userId);
 
         BigDecimal tradeAmount = BigDecimal.valueOf(trade.getAmount() != null ? trade.getAmount() : 0);
         BigDecimal tradeLeverage = BigDecimal.valueOf(trade.getLeverage() != null ? trade.getLeverage() : 1);
@@ -133,7 +181,7 @@ public class TradeManagementConfigService {
      * Get validation error message for a failed trade
      */
     public String getValidationError(Long userId, ExecuteTradeRequest trade) {
-        TradeManagementConfig config = getActiveConfig(userId);
+        TradeConfigSnapshot config = getConfigSnapshot(userId);
 
         BigDecimal tradeAmount = BigDecimal.valueOf(trade.getAmount() != null ? trade.getAmount() : 0);
         BigDecimal tradeLeverage = BigDecimal.valueOf(trade.getLeverage() != null ? trade.getLeverage() : 1);
@@ -149,6 +197,22 @@ public class TradeManagementConfigService {
         return null;
     }
 
+    /**
+     * Invalidate now and again once the surrounding transaction commits,
+     * so a concurrent load cannot re-cache the row we are deleting
+     */
+    private void invalidateAfterCommit(Long userId) {
+        configCache.invalidate(userId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    configCache.invalidate(userId);
+                }
+            });
+        }
+    }
+
     /**
      * Private helper to validate TP percentages sum to 100
      */
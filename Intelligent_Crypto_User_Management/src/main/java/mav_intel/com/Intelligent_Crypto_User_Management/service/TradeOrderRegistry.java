@@ -0,0 +1,67 @@
+package mav_intel.com.Intelligent_Crypto_User_Management.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Maps exchange order ids to the trade and bracket leg that placed them
+ *
+ * Binance fills (userTrades) carry the order id but not our client order id,
+ * so every order we place is registered here when it is acknowledged.
+ * Orders placed by someone else are registered with a null trade id once
+ * resolved, so they are never looked up on the exchange twice.
+ */
+@Slf4j
+@Service
+public class TradeOrderRegistry {
+
+    public static final String LEG_ENTRY = "E";
+    public static final String LEG_MANUAL = "X";
+
+    /**
+     * Trade and leg (E, SL, TP1-TP4, X) an order belongs to; tradeId is null for foreign orders
+     */
+    public record OrderRef(Long tradeId, String leg) {
+    }
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Record an acknowledged order; never fails the caller (the sync can resolve it from the exchange)
+     */
+    public void register(Long tradeId, String symbol, String leg, String orderId) {
+        if (orderId == null || orderId.isEmpty()) {
+            return;
+        }
+        try {
+            jdbcTemplate.update("INSERT INTO trade_orders (symbol, order_id, trade_id, leg) VALUES (?, ?, ?, ?) " +
+                    "ON CONFLICT (symbol, order_id) DO NOTHING", symbol, Long.parseLong(orderId), tradeId, leg);
+        } catch (Exception e) {
+            log.warn("⚠️ Could not register order {} of trade {}: {}", orderId, tradeId, e.getMessage());
+        }
+    }
+
+    /**
+     * Known orders among the given ids; missing keys are unknown to us
+     */
+    public Map<Long, OrderRef> find(String symbol, Collection<Long> orderIds) {
+        Map<Long, OrderRef> refs = new HashMap<>();
+        if (orderIds.isEmpty()) {
+            return refs;
+        }
+        jdbcTemplate.query("SELECT order_id, trade_id, leg FROM trade_orders WHERE symbol = ? AND order_id = ANY (?)",
+                rs -> {
+                    long tradeId = rs.getLong("trade_id");
+                    refs.put(rs.getLong("order_id"), new OrderRef(rs.wasNull() ? null : tradeId, rs.getString("leg")));
+                },
+                symbol, orderIds.toArray(new Long[0]));
+        return refs;
+    }
+}
@@ -3,31 +3,34 @@ package mav_intel.com.Intelligent_Crypto_User_Management.service;
 import com.binance.connector.futures.client.impl.UMFuturesClientImpl;
 import lombok.extern.slf4j.Slf4j;
 import mav_intel.com.Intelligent_Crypto_User_Management.dto.ExecuteTradeRequest;
+import mav_intel.com.Intelligent_Crypto_User_Management.dto.TradeConfigSnapshot;
 import mav_intel.com.Intelligent_Crypto_User_Management.dto.BinancePositionDTO;
 import mav_intel.com.Intelligent_Crypto_User_Management.dto.BinanceOrderDTO;
 import mav_intel.com.Intelligent_Crypto_User_Management.dto.TradeFilterDTO;
 import mav_intel.com.Intelligent_Crypto_User_Management.dto.TradeHistoryResponseDTO;
+import mav_intel.com.Intelligent_Crypto_User_Management.dto.TradeSummary;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import mav_intel.com.Intelligent_Crypto_User_Management.dto.ExecuteTradeResponse;
 import mav_intel.com.Intelligent_Crypto_User_Management.model.Signal;
 import mav_intel.com.Intelligent_Crypto_User_Management.model.Trade;
-import mav_intel.com.Intelligent_Crypto_User_Management.model.TradeManagementConfig;
 import mav_intel.com.Intelligent_Crypto_User_Management.repository.SignalRepository;
 import mav_intel.com.Intelligent_Crypto_User_Management.repository.TradeRepository;
 import org.json.JSONObject;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.time.OffsetDateTime;
-import java.time.LocalDate;
 import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.concurrent.ForkJoinPool;
 import org.json.JSONArray;
 
 @Slf4j
@@ -43,9 +46,34 @@ public class TradeService {
     @Autowired(required = false)
     private UMFuturesClientImpl futuresClient;
 
+    @Autowired
+    private ExchangeRateLimiter exchangeRateLimiter;
+
+    @Autowired
+    private SymbolFilterCache symbolFilterCache;
+
     @Autowired
     private TradeManagementConfigService tradeManagementConfigService;
 
+    @Autowired
+    private TradeLifecycleWriter tradeLifecycleWriter;
+
+    @Autowired
+    private TradeJournal tradeJournal;
+
+    @Autowired
+    private TradeOrderRegistry tradeOrderRegistry;
+
+    @Autowired
+    private TradeHistoryCache tradeHistoryCache;
+
+    @Autowired
+    private ColumnarTradeStore columnarTradeStore;
+
+    // Closed-trade histories at least this large are filtered/sorted/aggregated in parallel
+    @Value("${trades.stats.parallel-threshold:50000}")
+    private int statsParallelThreshold;
+
     /**
      * Execute a new trade based on the request
      */
@@ -56,10 +84,21 @@ public class TradeService {
                 return new ExecuteTradeResponse(null, request.getPair(), "FAILED", "Missing required fields");
             }
 
-            // ✅ LOG TRADE MANAGEMENT CONFIG (will cap values, not reject)
+            // ✅ IDEMPOTENT PER SIGNAL: a re-delivered queue job returns the trade it already created
+            if (request.getSignalId() != null && request.getUserId() != null) {
+                Trade existing = tradeRepository.findFirstBySignalIdAndUserId(request.getSignalId(), request.getUserId()).orElse(null);
+                if (existing != null) {
+                    log.info("ℹ️ Signal {} already executed for user {} as trade {}", request.getSignalId(), request.getUserId(), existing.getId());
+                    return new ExecuteTradeResponse(existing.getId(), request.getPair(), existing.getStatus(), "Signal already executed");
+                }
+            }
+
+            // ✅ RESOLVE TRADE MANAGEMENT CONFIG ONCE (cached snapshot, reused for the whole execution)
             Long userId = request.getUserId();
-            if (userId != null) {
-                TradeManagementConfig config = tradeManagementConfigService.getActiveConfig(userId);
+            TradeConfigSnapshot config = userId != null ? tradeManagementConfigService.getConfigSnapshot(userId) : null;
+
+            // ✅ LOG TRADE MANAGEMENT CONFIG (will cap values, not reject)
+            if (config != null) {
                 BigDecimal tradeAmount = BigDecimal.valueOf(request.getAmount() != null ? request.getAmount() : 0);
                 BigDecimal tradeLeverage = BigDecimal.valueOf(request.getLeverage() != null ? request.getLeverage() : 1);
 
@@ -81,14 +120,9 @@ public class TradeService {
 
             // ✅ CAP LEVERAGE IF EXCEEDS MAX
             int originalLeverage = request.getLeverage() != null ? request.getLeverage() : 1;
-            int cappedLeverage = originalLeverage;
-            if (userId != null) {
-                TradeManagementConfig config = tradeManagementConfigService.getActiveConfig(userId);
-                int maxLeverage = config.getMaxLeverage().intValue();
-                if (originalLeverage > maxLeverage) {
-                    log.info("⚠️ Leverage capped: {}x → {}x", originalLeverage, maxLeverage);
-                    cappedLeverage = maxLeverage;
-                }
+            int cappedLeverage = OrderSizing.cappedLeverage(request.getLeverage(), config);
+            if (cappedLeverage != originalLeverage) {
+                log.info("⚠️ Leverage capped: {}x → {}x", originalLeverage, cappedLeverage);
             }
             trade.setLeverage(cappedLeverage);
 
@@ -102,8 +136,7 @@ public class TradeService {
             trade.setTp2(request.getTp2());
             trade.setTp3(request.getTp3());
             trade.setTp4(request.getTp4());
-            trade.setStatus("PENDING");
-            trade.setOpenedAt(OffsetDateTime.now());
+            trade.setOpenedAt(OffsetDateTime.now().truncatedTo(ChronoUnit.MICROS));
             trade.setSignalId(request.getSignalId());
             trade.setUserId(userId);
 
@@ -112,41 +145,10 @@ public class TradeService {
             log.info("   Entry: {}, SL: {}", trade.getEntryPrice(), trade.getStopLoss());
             log.info("   TP1: {}, TP2: {}, TP3: {}, TP4: {}", trade.getTp1(), trade.getTp2(), trade.getTp3(), trade.getTp4());
 
-            // Save initial trade record
-            Trade savedTrade = tradeRepository.save(trade);
-            log.info("✅ Trade record created with ID: {}", savedTrade.getId());
-
-            // ✅ LOG SAVED TRADE VALUES FROM DATABASE
-            log.info("🔍 [VALUE TRACE] Trade object after saving to database:");
-            log.info("   Entry: {}, SL: {}", savedTrade.getEntryPrice(), savedTrade.getStopLoss());
-            log.info("   TP1: {}, TP2: {}, TP3: {}, TP4: {}", savedTrade.getTp1(), savedTrade.getTp2(), savedTrade.getTp3(), savedTrade.getTp4());
-
-            // 2. Place order on Binance
-            if (futuresClient != null) {
-                boolean orderPlaced = placeBinanceOrder(savedTrade, userId);
-                if (orderPlaced) {
-                    trade.setStatus("OPEN");
-                    tradeRepository.save(trade);
-                    return new ExecuteTradeResponse(
-                        savedTrade.getId(),
-                        request.getPair(),
-                        "SUCCESS",
-                        "Order placed successfully on Binance"
-                    );
-                } else {
-                    trade.setStatus("FAILED");
-                    tradeRepository.save(trade);
-                    return new ExecuteTradeResponse(
-                        savedTrade.getId(),
-                        request.getPair(),
-                        "FAILED",
-                        "Failed to place order on Binance"
-                    );
-                }
-            } else {
+            // 2. No exchange client: a single INSERT straight as OPEN
+            if (futuresClient == null) {
                 log.warn("⚠️ Binance client not configured. Trade saved in database but order not placed");
-                trade.setStatus("OPEN");
-                tradeRepository.save(trade);
+                Trade savedTrade = tradeLifecycleWriter.recordOpen(trade);
                 return new ExecuteTradeResponse(
                     savedTrade.getId(),
                     request.getPair(),
@@ -155,6 +157,21 @@ public class TradeService {
                 );
             }
 
+            // Save PENDING trade + outbox intent in one transaction; OrderOutboxDispatcher places the orders
+            Trade savedTrade = tradeLifecycleWriter.recordIntent(trade);
+
+            // ✅ LOG SAVED TRADE VALUES FROM DATABASE
+            log.info("🔍 [VALUE TRACE] Trade object after saving to database:");
+            log.info("   Entry: {}, SL: {}", savedTrade.getEntryPrice(), savedTrade.getStopLoss());
+            log.info("   TP1: {}, TP2: {}, TP3: {}, TP4: {}", savedTrade.getTp1(), savedTrade.getTp2(), savedTrade.getTp3(), savedTrade.getTp4());
+
+            return new ExecuteTradeResponse(
+                savedTrade.getId(),
+                request.getPair(),
+                "PENDING",
+                "Order queued for placement on Binance"
+            );
+
         } catch (Exception e) {
             log.error("❌ Error executing trade: {}", e.getMessage(), e);
             return new ExecuteTradeResponse(null, request.getPair(), "FAILED", "Error: " + e.getMessage());
@@ -165,7 +182,8 @@ public class TradeService {
      * Place order on Binance Futures (LIMIT or MARKET)
      * ✅ UPDATED: Now applies position quantity splitting based on TP exit percentages
      */
-    private boolean placeBinanceOrder(Trade trade, Long userId) {
+    private boolean placeBinanceOrder(Trade trade, TradeConfigSnapshot config) {
+        warnIfTransactionActive("placeBinanceOrder");
         try {
             double balance = getBalance();
             if (balance <= 10) {
@@ -184,12 +202,10 @@ public class TradeService {
             // Just use it as-is, don't convert again
             String side = trade.getSide();
 
-            // ✅ GET USER'S TRADE MANAGEMENT CONFIG
-            TradeManagementConfig config = null;
-            if (userId != null) {
-                config = tradeManagementConfigService.getActiveConfig(userId);
+            // ✅ USER'S TRADE MANAGEMENT CONFIG (resolved once by executeTrade)
+            if (config != null) {
                 log.info("📋 Applying config for user {}: MarginMode={}, TP:{}%/{}%/{}%/{}%",
-                    userId,
+                    trade.getUserId(),
                     config.getMarginMode(),
                     config.getTp1ExitPercentage(),
                     config.getTp2ExitPercentage(),
@@ -210,15 +226,11 @@ public class TradeService {
             double entryQty = calculateQuantity(trade.getEntryQuantity(), trade.getEntryPrice(), balance);
 
             // ✅ CAP POSITION SIZE TO TRADE MANAGEMENT MAXIMUM
-            if (config != null) {
-                double positionValue = entryQty * trade.getEntryPrice();
-                double maxPositionSize = config.getMaxPositionSize().doubleValue();
-                if (positionValue > maxPositionSize) {
-                    double cappedQty = maxPositionSize / trade.getEntryPrice();
-                    log.info("⚠️ Position size capped: ${} → ${} | Qty: {} → {}",
-                        positionValue, maxPositionSize, entryQty, cappedQty);
-                    entryQty = cappedQty;
-                }
+            double cappedQty = OrderSizing.capPositionSize(entryQty, trade.getEntryPrice(), config);
+            if (cappedQty != entryQty) {
+                log.info("⚠️ Position size capped: ${} → ${} | Qty: {} → {}",
+                    entryQty * trade.getEntryPrice(), config.getMaxPositionSize(), entryQty, cappedQty);
+                entryQty = cappedQty;
             }
 
             // ✅ FETCH DYNAMIC FILTERS FROM BINANCE API (LOT_SIZE, MIN_NOTIONAL, precision)
@@ -248,11 +260,13 @@ public class TradeService {
             orderParams.put("timeInForce", "GTC"); // Good Till Cancel
             orderParams.put("quantity", finalQty); // ✅ STEP SIZE ADJUSTED
             orderParams.put("price", roundedPrice); // ✅ LIMIT order with rounded price
+            orderParams.put("newClientOrderId", clientOrderId(trade.getId(), "E")); // ✅ Lets recovery find the order
             orderParams.put("recvWindow", 60000);
 
             log.info("📍 Placing LIMIT order: {} {} @ ${} Qty={} (original: {})",
                 side, symbol, roundedPrice, finalQty, entryQty);
 
+            exchangeRateLimiter.acquireOrder();
             String orderResponse = futuresClient.account().newOrder(orderParams);
             JSONObject resp = new JSONObject(orderResponse);
             String orderId = resp.optString("orderId", "");
@@ -273,92 +287,13 @@ public class TradeService {
             log.info("✅ LIMIT Order placed: {} {} Qty={} Status={}", side, symbol, executedQty, status);
 
             trade.setBinanceOrderId(orderId);
-
-            // 3. Place Stop-Loss
-            if (trade.getStopLoss() != null && trade.getStopLoss() > 0) {
-                // ✅ LOG SL VALUE BEFORE PLACING
-                log.info("🔍 [VALUE TRACE] About to place SL order:");
-                log.info("   trade.getStopLoss() = {}", trade.getStopLoss());
-                log.info("   Entry price = {}", trade.getEntryPrice());
-                log.info("   Symbol = {}, Side = {}", symbol, side);
-
-                double roundedSlQty = roundQuantityToDecimal(executedQty, filters.quantityPrecision);
-                log.info("🔍 [VALUE TRACE] Placing SL with parameters:");
-                log.info("   Qty: {}, SL Price: {}, Price Precision: {}", roundedSlQty, trade.getStopLoss(), filters.pricePrecision);
-
-                placeStopLoss(symbol, side, roundedSlQty, trade.getStopLoss(), filters.pricePrecision);
-            } else {
-                log.warn("⚠️ [WARNING] SL value is null or <= 0: {}", trade.getStopLoss());
+            if (!orderId.isEmpty()) {
+                tradeJournal.entryAcked(trade.getId(), Long.parseLong(orderId), roundedPrice, executedQty);
+                tradeOrderRegistry.register(trade.getId(), symbol, TradeOrderRegistry.LEG_ENTRY, orderId);
             }
 
-            // ✅ 4. PLACE TAKE-PROFITS WITH QUANTITY SPLITTING
-            if (config != null) {
-                // Calculate quantities based on TP exit percentages
-                double tp1Qty = executedQty * (config.getTp1ExitPercentage().doubleValue() / 100.0);
-                double tp2Qty = executedQty * (config.getTp2ExitPercentage().doubleValue() / 100.0);
-                double tp3Qty = executedQty * (config.getTp3ExitPercentage().doubleValue() / 100.0);
-                double tp4Qty = executedQty * (config.getTp4ExitPercentage().doubleValue() / 100.0);
-
-                // ✅ ROUND QUANTITIES TO PROPER DECIMAL PLACES (using dynamic precision from filters)
-                double tp1QtyRounded = roundQuantityToDecimal(tp1Qty, filters.quantityPrecision);
-                double tp2QtyRounded = roundQuantityToDecimal(tp2Qty, filters.quantityPrecision);
-                double tp3QtyRounded = roundQuantityToDecimal(tp3Qty, filters.quantityPrecision);
-                double tp4QtyRounded = roundQuantityToDecimal(tp4Qty, filters.quantityPrecision);
-
-                // ✅ ADJUST TO STEP SIZE (using dynamic step size from filters)
-                String tp1QtyAdjusted = adjustQuantityToStepSize(tp1QtyRounded, filters.lotSize);
-                String tp2QtyAdjusted = adjustQuantityToStepSize(tp2QtyRounded, filters.lotSize);
-                String tp3QtyAdjusted = adjustQuantityToStepSize(tp3QtyRounded, filters.lotSize);
-                String tp4QtyAdjusted = adjustQuantityToStepSize(tp4QtyRounded, filters.lotSize);
-
-                log.info("📊 Position Quantity Split: TP1={}({}%), TP2={}({}%), TP3={}({}%), TP4={}({}%)",
-                    tp1QtyAdjusted, config.getTp1Percentage(),
-                    tp2QtyAdjusted, config.getTp2Percentage(),
-                    tp3QtyAdjusted, config.getTp3Percentage(),
-                    tp4QtyAdjusted, config.getTp4Percentage()
-                );
-
-                // ✅ USE TP PRICES FROM SIGNAL (DO NOT RECALCULATE)
-                // TP percentages are for POSITION SIZING only, not for price calculation
-                double tp1Price = trade.getTp1() != null && trade.getTp1() > 0 ? trade.getTp1() : 0;
-                double tp2Price = trade.getTp2() != null && trade.getTp2() > 0 ? trade.getTp2() : 0;
-                double tp3Price = trade.getTp3() != null && trade.getTp3() > 0 ? trade.getTp3() : 0;
-                double tp4Price = trade.getTp4() != null && trade.getTp4() > 0 ? trade.getTp4() : 0;
-
-                log.info("📈 TP Prices from signal: TP1=${}, TP2=${}, TP3=${}, TP4=${} | Position sizing: TP1={}%, TP2={}%, TP3={}%, TP4={}%",
-                    tp1Price, tp2Price, tp3Price, tp4Price,
-                    config.getTp1Percentage(), config.getTp2Percentage(),
-                    config.getTp3Percentage(), config.getTp4Percentage());
-
-                // Place TP orders with CALCULATED PRICES and STEP-SIZE-ADJUSTED QUANTITIES
-                if (Double.parseDouble(tp1QtyAdjusted) > 0) {
-                    placeTakeProfit(symbol, side, Double.parseDouble(tp1QtyAdjusted), tp1Price, "TP1", filters.pricePrecision);
-                }
-                if (Double.parseDouble(tp2QtyAdjusted) > 0) {
-                    placeTakeProfit(symbol, side, Double.parseDouble(tp2QtyAdjusted), tp2Price, "TP2", filters.pricePrecision);
-                }
-                if (Double.parseDouble(tp3QtyAdjusted) > 0) {
-                    placeTakeProfit(symbol, side, Double.parseDouble(tp3QtyAdjusted), tp3Price, "TP3", filters.pricePrecision);
-                }
-                if (Double.parseDouble(tp4QtyAdjusted) > 0) {
-                    placeTakeProfit(symbol, side, Double.parseDouble(tp4QtyAdjusted), tp4Price, "TP4", filters.pricePrecision);
-                }
-            } else {
-                // Fallback: Place all TP orders with full quantity (if no config)
-                log.warn("⚠️ No user config found - placing TPs with full quantity");
-                if (trade.getTp1() != null && trade.getTp1() > 0) {
-                    placeTakeProfit(symbol, side, executedQty, trade.getTp1(), "TP1", filters.pricePrecision);
-                }
-                if (trade.getTp2() != null && trade.getTp2() > 0) {
-                    placeTakeProfit(symbol, side, executedQty, trade.getTp2(), "TP2", filters.pricePrecision);
-                }
-                if (trade.getTp3() != null && trade.getTp3() > 0) {
-                    placeTakeProfit(symbol, side, executedQty, trade.getTp3(), "TP3", filters.pricePrecision);
-                }
-                if (trade.getTp4() != null && trade.getTp4() > 0) {
-                    placeTakeProfit(symbol, side, executedQty, trade.getTp4(), "TP4", filters.pricePrecision);
-                }
-            }
+            // 3-4. Place SL and TPs
+            placeBracketLegs(trade, config, symbol, side, executedQty, filters, null);
 
             log.info("✅ All orders placed for {} (Entry + SL + TP)", symbol);
             return true;
@@ -370,97 +305,99 @@ public class TradeService {
     }
 
     /**
-     * Helper class to store exchange info filters for a symbol
+     * Place the protective legs of a bracket: Stop-Loss and TP1-TP4
+     *
+     * @param done null on the live path (place every leg); during recovery, the legs
+     *             already acked according to the journal - those are skipped, and any
+     *             other leg found on the exchange by client order id is not re-sent
      */
-    private static class SymbolFilters {
-        double lotSize;           // Step size for quantity
-        double minNotional;       // Minimum order value
-        int quantityPrecision;    // Decimal places for quantity
-        double tickSize;          // Step size for price (PRICE_FILTER)
-        int pricePrecision;       // Decimal places for price
-
-        SymbolFilters(double lotSize, double minNotional, int quantityPrecision, double tickSize, int pricePrecision) {
-            this.lotSize = lotSize;
-            this.minNotional = minNotional;
-            this.quantityPrecision = quantityPrecision;
-            this.tickSize = tickSize;
-            this.pricePrecision = pricePrecision;
+    private void placeBracketLegs(Trade trade, TradeConfigSnapshot config, String symbol, String side,
+                                  double executedQty, SymbolFilters filters, TradeJournal.BracketState done) {
+        long tradeId = trade.getId();
+
+        // 3. Place Stop-Loss
+        if (trade.getStopLoss() != null && trade.getStopLoss() > 0) {
+            // ✅ LOG SL VALUE BEFORE PLACING
+            log.info("🔍 [VALUE TRACE] About to place SL order:");
+            log.info("   trade.getStopLoss() = {}", trade.getStopLoss());
+            log.info("   Entry price = {}", trade.getEntryPrice());
+            log.info("   Symbol = {}, Side = {}", symbol, side);
+
+            double roundedSlQty = roundQuantityToDecimal(executedQty, filters.quantityPrecision);
+            log.info("🔍 [VALUE TRACE] Placing SL with parameters:");
+            log.info("   Qty: {}, SL Price: {}, Price Precision: {}", roundedSlQty, trade.getStopLoss(), filters.pricePrecision);
+
+            if (legPending(done, symbol, tradeId, "SL")) {
+                placeStopLoss(tradeId, symbol, side, roundedSlQty, trade.getStopLoss(), filters.pricePrecision);
+            }
+        } else {
+            log.warn("⚠️ [WARNING] SL value is null or <= 0: {}", trade.getStopLoss());
         }
-    }
 
-    /**
-     * 🔄 Fetch symbol filters from Binance ExchangeInfo API
-     * Returns LOT_SIZE (step size), MIN_NOTIONAL, and quantity precision
-     * Required by Binance FAPI: /fapi/v1/exchangeInfo
-     */
-    private SymbolFilters getSymbolFilters(String symbol) {
-        try {
-            log.info("🔍 Fetching exchange info for symbol: {}", symbol);
-            String exchangeInfo = futuresClient.market().exchangeInfo();
-
-            JSONObject response = new JSONObject(exchangeInfo);
-            JSONArray symbols = response.getJSONArray("symbols");
-
-            for (int i = 0; i < symbols.length(); i++) {
-                JSONObject symbolObj = symbols.getJSONObject(i);
-                if (symbol.equals(symbolObj.getString("symbol"))) {
-                    JSONArray filters = symbolObj.getJSONArray("filters");
-                    double lotSize = 1.0;
-                    double minNotional = 10.0;
-                    double tickSize = 0.01;
-                    int quantityPrecision = 2;
-                    int pricePrecision = 2;
-
-                    for (int j = 0; j < filters.length(); j++) {
-                        JSONObject filter = filters.getJSONObject(j);
-                        String filterType = filter.getString("filterType");
-
-                        // Extract LOT_SIZE filter
-                        if ("LOT_SIZE".equals(filterType)) {
-                            lotSize = filter.getDouble("stepSize");
-                            quantityPrecision = getDecimalPlaces(filter.getString("stepSize"));
-                            log.info("📏 LOT_SIZE filter: stepSize={}, precision={}", lotSize, quantityPrecision);
-                        }
-
-                        // Extract MIN_NOTIONAL filter
-                        if ("MIN_NOTIONAL".equals(filterType)) {
-                            minNotional = filter.getDouble("notional");
-                            log.info("💰 MIN_NOTIONAL filter: {}", minNotional);
-                        }
-
-                        // Extract PRICE_FILTER
-                        if ("PRICE_FILTER".equals(filterType)) {
-                            tickSize = filter.getDouble("tickSize");
-                            pricePrecision = getDecimalPlaces(filter.getString("tickSize"));
-                            log.info("💲 PRICE_FILTER: tickSize={}, pricePrecision={}", tickSize, pricePrecision);
-                        }
-                    }
-
-                    log.info("✅ Symbol filters for {}: lotSize={}, minNotional={}, qtyPrecision={}, tickSize={}, pricePrecision={}",
-                        symbol, lotSize, minNotional, quantityPrecision, tickSize, pricePrecision);
-                    return new SymbolFilters(lotSize, minNotional, quantityPrecision, tickSize, pricePrecision);
-                }
+        // ✅ 4. PLACE TAKE-PROFITS WITH QUANTITY SPLITTING
+        if (config != null) {
+            // Quantities from the TP exit percentages, rounded and adjusted to the step size
+            double[] tpQty = OrderSizing.takeProfitQuantities(executedQty, config, filters);
+
+            log.info("📊 Position Quantity Split: TP1={}({}%), TP2={}({}%), TP3={}({}%), TP4={}({}%)",
+                tpQty[0], config.getTp1Percentage(),
+                tpQty[1], config.getTp2Percentage(),
+                tpQty[2], config.getTp3Percentage(),
+                tpQty[3], config.getTp4Percentage()
+            );
+
+            // ✅ USE TP PRICES FROM SIGNAL (DO NOT RECALCULATE)
+            // TP percentages are for POSITION SIZING only, not for price calculation
+            double tp1Price = trade.getTp1() != null && trade.getTp1() > 0 ? trade.getTp1() : 0;
+            double tp2Price = trade.getTp2() != null && trade.getTp2() > 0 ? trade.getTp2() : 0;
+            double tp3Price = trade.getTp3() != null && trade.getTp3() > 0 ? trade.getTp3() : 0;
+            double tp4Price = trade.getTp4() != null && trade.getTp4() > 0 ? trade.getTp4() : 0;
+
+            log.info("📈 TP Prices from signal: TP1=${}, TP2=${}, TP3=${}, TP4=${} | Position sizing: TP1={}%, TP2={}%, TP3={}%, TP4={}%",
+                tp1Price, tp2Price, tp3Price, tp4Price,
+                config.getTp1Percentage(), config.getTp2Percentage(),
+                config.getTp3Percentage(), config.getTp4Percentage());
+
+            // Place TP orders with CALCULATED PRICES and STEP-SIZE-ADJUSTED QUANTITIES
+            if (tpQty[0] > 0 && legPending(done, symbol, tradeId, "TP1")) {
+                placeTakeProfit(tradeId, symbol, side, tpQty[0], tp1Price, "TP1", filters.pricePrecision);
+            }
+            if (tpQty[1] > 0 && legPending(done, symbol, tradeId, "TP2")) {
+                placeTakeProfit(tradeId, symbol, side, tpQty[1], tp2Price, "TP2", filters.pricePrecision);
+            }
+            if (tpQty[2] > 0 && legPending(done, symbol, tradeId, "TP3")) {
+                placeTakeProfit(tradeId, symbol, side, tpQty[2], tp3Price, "TP3", filters.pricePrecision);
+            }
+            if (tpQty[3] > 0 && legPending(done, symbol, tradeId, "TP4")) {
+                placeTakeProfit(tradeId, symbol, side, tpQty[3], tp4Price, "TP4", filters.pricePrecision);
+            }
+        } else {
+            // Fallback: Place all TP orders with full quantity (if no config)
+            log.warn("⚠️ No user config found - placing TPs with full quantity");
+            if (trade.getTp1() != null && trade.getTp1() > 0 && legPending(done, symbol, tradeId, "TP1")) {
+                placeTakeProfit(tradeId, symbol, side, executedQty, trade.getTp1(), "TP1", filters.pricePrecision);
+            }
+            if (trade.getTp2() != null && trade.getTp2() > 0 && legPending(done, symbol, tradeId, "TP2")) {
+                placeTakeProfit(tradeId, symbol, side, executedQty, trade.getTp2(), "TP2", filters.pricePrecision);
+            }
+            if (trade.getTp3() != null && trade.getTp3() > 0 && legPending(done, symbol, tradeId, "TP3")) {
+                placeTakeProfit(tradeId, symbol, side, executedQty, trade.getTp3(), "TP3", filters.pricePrecision);
+            }
+            if (trade.getTp4() != null && trade.getTp4() > 0 && legPending(done, symbol, tradeId, "TP4")) {
+                placeTakeProfit(tradeId, symbol, side, executedQty, trade.getTp4(), "TP4", filters.pricePrecision);
             }
-
-            log.warn("⚠️ Symbol {} not found in exchange info, using defaults", symbol);
-            return new SymbolFilters(1.0, 10.0, 2, 0.01, 2);
-
-        } catch (Exception e) {
-            log.warn("⚠️ Error fetching exchange info for {}: {}", symbol, e.getMessage());
-            return new SymbolFilters(1.0, 10.0, 2, 0.01, 2); // Default filters
         }
     }
 
     /**
-     * Calculate decimal places from step size string
-     * e.g., "0.1" → 1, "0.01" → 2, "1" → 0
+     * Exchange filters for a symbol (LOT_SIZE, MIN_NOTIONAL, PRICE_FILTER)
+     * Served from SymbolFilterCache - no exchangeInfo round trip per trade
      */
-    private int getDecimalPlaces(String stepSize) {
-        String[] parts = stepSize.split("\\.");
-        if (parts.length == 2) {
-            return parts[1].length();
-        }
-        return 0;
+    private SymbolFilters getSymbolFilters(String symbol) {
+        SymbolFilters filters = symbolFilterCache.get(symbol);
+        log.info("✅ Symbol filters for {}: lotSize={}, minNotional={}, qtyPrecision={}, tickSize={}, pricePrecision={}",
+            symbol, filters.lotSize, filters.minNotional, filters.quantityPrecision, filters.tickSize, filters.pricePrecision);
+        return filters;
     }
 
     /**
@@ -470,6 +407,7 @@ public class TradeService {
         try {
             LinkedHashMap<String, Object> params = new LinkedHashMap<>();
             params.put("recvWindow", 60000);
+            exchangeRateLimiter.acquire(ExchangeRateLimiter.W_ACCOUNT);
             String result = futuresClient.account().futuresAccountBalance(params);
             var balances = new org.json.JSONArray(result);
             for (int i = 0; i < balances.length(); i++) {
@@ -493,14 +431,11 @@ public class TradeService {
      * This ensures the position size is 50% of available balance
      */
     private double calculateQuantity(Double requestedQty, double entryPrice, double balance) {
-        if (requestedQty != null && requestedQty > 0) {
-            return requestedQty; // Use provided quantity
+        double quantity = OrderSizing.entryQuantity(requestedQty, entryPrice, balance);
+        if (requestedQty == null || requestedQty <= 0) {
+            log.info("📊 Auto-calculated quantity: {} (50% of balance: ${} ÷ price: ${})", quantity, balance * 0.5, entryPrice);
         }
-        // Default: Use 50% of available balance divided by entry price
-        // This gives us the quantity that will cost 50% of our balance
-        double quantity = (balance * 0.5) / entryPrice;
-        log.info("📊 Auto-calculated quantity: {} (50% of balance: ${} ÷ price: ${})", quantity, balance * 0.5, entryPrice);
-        return Math.max(quantity, 0.001); // Minimum quantity
+        return quantity;
     }
 
     /**
@@ -518,9 +453,7 @@ public class TradeService {
      * Examples: precision=0 → rounds to whole number, precision=2 → 2 decimal places
      */
     private double roundQuantityToDecimal(double quantity, int decimalPlaces) {
-        if (decimalPlaces < 0) decimalPlaces = 0;
-        double multiplier = Math.pow(10, decimalPlaces);
-        double rounded = Math.round(quantity * multiplier) / multiplier;
+        double rounded = OrderSizing.roundQuantity(quantity, decimalPlaces);
         log.info("📐 Rounded quantity: {} → {} (decimal places: {})", quantity, rounded, decimalPlaces);
         return rounded;
     }
@@ -538,9 +471,7 @@ public class TradeService {
      *   - pricePrecision=4 (tickSize=0.0001): 0.253456 → 0.2535
      */
     private double roundPrice(double price, int pricePrecision) {
-        if (pricePrecision < 0) pricePrecision = 2;  // Default fallback
-        double multiplier = Math.pow(10, pricePrecision);
-        double rounded = Math.round(price * multiplier) / multiplier;
+        double rounded = OrderSizing.roundPrice(price, pricePrecision);
         log.debug("💲 Price rounding: {} → {} (precision: {})", price, rounded, pricePrecision);
         return rounded;
     }
@@ -556,24 +487,7 @@ public class TradeService {
      * NOT "0.57000000000000001186..." ✅
      */
     private String adjustQuantityToStepSize(double rawQuantity, double stepSize) {
-        // Use String constructor to avoid floating-point precision issues from the start
-        BigDecimal qty = new BigDecimal(String.valueOf(rawQuantity));
-        BigDecimal step = new BigDecimal(String.valueOf(stepSize));
-
-        // 1. Divide by step size and round DOWN (e.g., 0.575 / 0.01 = 57.5 → 57)
-        BigDecimal value = qty.divide(step, 0, RoundingMode.DOWN);
-
-        // 2. Multiply back by step size (57 * 0.01 = 0.57)
-        BigDecimal adjusted = value.multiply(step);
-
-        // 3. Set scale to match step size's decimal places, then strip trailing zeros
-        // This ensures "0.57" NOT "0.57000000000000001186..."
-        int decimalPlaces = getDecimalPlaces(String.valueOf(stepSize));
-        String result = adjusted
-            .setScale(decimalPlaces, RoundingMode.DOWN)  // ⚠️ CRITICAL: Force exact decimal places
-            .stripTrailingZeros()                         // Remove "0.57000" → "0.57"
-            .toPlainString();                             // Convert to string without scientific notation
-
+        String result = OrderSizing.stepQuantity(rawQuantity, stepSize);
         log.info("📏 Quantity Adjusted: {} → {} (Step Size: {})", rawQuantity, result, stepSize);
         return result;
     }
@@ -587,6 +501,7 @@ public class TradeService {
             params.put("symbol", symbol);
             params.put("leverage", leverage);
             params.put("recvWindow", 60000);
+            exchangeRateLimiter.acquire(ExchangeRateLimiter.W_LEVERAGE);
             futuresClient.account().changeInitialLeverage(params);
             log.info("⚙️ Leverage set to {}x for {}", leverage, symbol);
         } catch (Exception e) {
@@ -608,6 +523,7 @@ public class TradeService {
             params.put("recvWindow", 60000);
 
             log.info("🔧 Setting margin mode: symbol={}, marginType={}", symbol, marginMode);
+            exchangeRateLimiter.acquire(ExchangeRateLimiter.W_LEVERAGE);
             futuresClient.account().changeMarginType(params);
             log.info("✅ Margin mode successfully set to {} for {}", marginMode, symbol);
         } catch (Exception e) {
@@ -621,7 +537,7 @@ public class TradeService {
      * ✅ UPDATED: Added reduce_only=true to allow orders below MIN_NOTIONAL
      * Binance allows orders < $5 notional if reduce_only=true (closing positions)
      */
-    private boolean placeStopLoss(String symbol, String side, double qty, double stopPrice, int pricePrecision) {
+    private boolean placeStopLoss(long tradeId, String symbol, String side, double qty, double stopPrice, int pricePrecision) {
         try {
             // ✅ ROUND STOP PRICE TO SYMBOL'S PRECISION
             double roundedStopPrice = roundPrice(stopPrice, pricePrecision);
@@ -641,6 +557,7 @@ public class TradeService {
             slParams.put("stopPrice", roundedStopPrice);  // ✅ ROUNDED TO PRECISION
             slParams.put("timeInForce", "GTC");
             slParams.put("reduceOnly", true);  // ✅ Required: Allows small orders & works with pending entry
+            slParams.put("newClientOrderId", clientOrderId(tradeId, "SL"));
             slParams.put("recvWindow", 60000);
 
             // ✅ LOG FINAL PARAMETERS BEFORE SENDING
@@ -648,10 +565,15 @@ public class TradeService {
             log.info("   Symbol: {}, Side: {}, Type: STOP_MARKET", symbol, slSide);
             log.info("   Qty: {}, StopPrice: {}, ReduceOnly: true", qty, roundedStopPrice);
 
+            exchangeRateLimiter.acquireOrder();
             String resp = futuresClient.account().newOrder(slParams);
             JSONObject respObj = new JSONObject(resp);
             String orderId = respObj.optString("orderId", "");
             log.info("🛑 Stop-Loss placed: orderId={}", orderId);
+            if (!orderId.isEmpty()) {
+                tradeJournal.stopLossAcked(tradeId, Long.parseLong(orderId));
+                tradeOrderRegistry.register(tradeId, symbol, "SL", orderId);
+            }
             return true;
         } catch (Exception e) {
             log.error("❌ Error placing Stop-Loss: {}", e.getMessage());
@@ -670,7 +592,7 @@ public class TradeService {
      * @param tpPrice Take-profit price from signal (static)
      * @param label TP level label (TP1, TP2, TP3, TP4)
      */
-    private void placeTakeProfit(String symbol, String side, double qty, double tpPrice, String label, int pricePrecision) {
+    private void placeTakeProfit(long tradeId, String symbol, String side, double qty, double tpPrice, String label, int pricePrecision) {
         try {
             // ✅ ROUND TP PRICE TO SYMBOL'S PRECISION
             double roundedTpPrice = roundPrice(tpPrice, pricePrecision);
@@ -691,13 +613,20 @@ public class TradeService {
             tpParams.put("timeInForce", "GTC");
             // ✅ REQUIRED: Allows small orders below $5 notional & works with pending entry
             tpParams.put("reduceOnly", true);
+            tpParams.put("newClientOrderId", clientOrderId(tradeId, label));
             tpParams.put("recvWindow", 60000);
 
+            exchangeRateLimiter.acquireOrder();
             String resp = futuresClient.account().newOrder(tpParams);
             JSONObject respObj = new JSONObject(resp);
             String orderId = respObj.optString("orderId", "");
             String status = respObj.optString("status", "FAILED");
 
+            if (!orderId.isEmpty()) {
+                tradeJournal.takeProfitAcked(tradeId, label.charAt(2) - '0', Long.parseLong(orderId));
+                tradeOrderRegistry.register(tradeId, symbol, label, orderId);
+            }
+
             if ("NEW".equals(status) || "PARTIALLY_FILLED".equals(status)) {
                 log.info("📈 {} placed: orderId={}, notional=${}", label, orderId, tpNotional);
             } else {
@@ -725,10 +654,14 @@ public class TradeService {
                 closePositionOnBinance(trade);
             }
 
-            // Update database
-            trade.setStatus("CLOSED");
-            trade.setClosedAt(OffsetDateTime.now());
-            tradeRepository.save(trade);
+            // Update database (partial UPDATE of status + closedAt)
+            boolean closed = tradeLifecycleWriter.markClosed(tradeId, trade.getOpenedAt(), OffsetDateTime.now(), null);
+            tradeJournal.closed(tradeId);
+            if (!closed) {
+                // Closed concurrently (exchange PnL sync, another request): keep its close time and reason
+                log.warn("⚠️ Trade {} was already closed by another update, close time not overwritten", tradeId);
+                return new ExecuteTradeResponse(tradeId, trade.getPair(), "SUCCESS", "Position already closed");
+            }
 
             return new ExecuteTradeResponse(tradeId, trade.getPair(), "SUCCESS", "Position closed");
         } catch (Exception e) {
@@ -741,6 +674,7 @@ public class TradeService {
      * Close position on Binance
      */
     private void closePositionOnBinance(Trade trade) {
+        warnIfTransactionActive("closePositionOnBinance");
         try {
             String symbol = trade.getPair();
             String side = trade.getSide().equalsIgnoreCase("LONG") ? "SELL" : "BUY";
@@ -751,11 +685,16 @@ public class TradeService {
             params.put("type", "MARKET");
             params.put("quantity", trade.getEntryQuantity());
             params.put("reduceOnly", "true");
+            params.put("newClientOrderId", clientOrderId(trade.getId(), TradeOrderRegistry.LEG_MANUAL));
             params.put("recvWindow", 60000);
 
+            exchangeRateLimiter.acquireOrder();
             String resp = futuresClient.account().newOrder(params);
             JSONObject response = new JSONObject(resp);
             String status = response.optString("status", "");
+            // Fill price, PnL and fees arrive through ExchangePnlSyncService
+            tradeOrderRegistry.register(trade.getId(), exchangeSymbol(symbol), TradeOrderRegistry.LEG_MANUAL,
+                response.optString("orderId", ""));
 
             log.info("✅ Position closed on Binance: {}", status);
         } catch (Exception e) {
@@ -766,8 +705,8 @@ public class TradeService {
     /**
      * Get all trades
      */
-    public List<Trade> getAllTrades() {
-        return tradeRepository.findAllByOrderByOpenedAtDesc();
+    public List<TradeSummary> getAllTrades() {
+        return tradeRepository.findAllSummariesOrderByOpenedAtDesc();
     }
 
     /**
@@ -781,15 +720,15 @@ public class TradeService {
     /**
      * Get open trades
      */
-    public List<Trade> getOpenTrades() {
-        return tradeRepository.findByStatus("OPEN");
+    public List<TradeSummary> getOpenTrades() {
+        return tradeRepository.findOpenSummaries();
     }
 
     /**
      * Get trades by pair
      */
-    public List<Trade> getTradesByPair(String pair) {
-        return tradeRepository.findByPair(pair);
+    public List<TradeSummary> getTradesByPair(String pair) {
+        return tradeRepository.findSummariesByPair(pair);
     }
 
     // ============ TRADE HISTORY & FILTERING ============
@@ -811,30 +750,31 @@ public class TradeService {
             log.info("📊 Fetching closed trades with filters: symbol={}, fromDate={}, toDate={}",
                 filter.getSymbol(), filter.getFromDate(), filter.getToDate());
 
-            // Fetch all closed trades from database
-            List<Trade> allClosedTrades = tradeRepository.findByStatus("CLOSED");
+            // Closed trades as columns, kept in memory and updated on close by ColumnarTradeStore
+            TradeHistoryCache.Snapshot snapshot = tradeHistoryCache.snapshot(null,
+                () -> columnarTradeStore.columns(null));
+            TradeColumns columns = snapshot.columns();
 
-            // Apply filters
-            List<Trade> filteredTrades = allClosedTrades.stream()
-                .filter(trade -> applyTradeFilters(trade, filter))
-                .sorted((t1, t2) -> compareTrades(t1, t2, filter))
-                .collect(Collectors.toList());
+            // Filtered + sorted rows and statistics, cached per normalized filter (all pages share one entry)
+            TradeHistoryCache.Result result = tradeHistoryCache.result(null, snapshot, filter,
+                () -> computeHistory(snapshot, filter));
+            int[] rows = result.rows();
 
             // Calculate pagination
             int page = filter.getPage() != null ? filter.getPage() : 0;
             int pageSize = filter.getPageSize() != null ? filter.getPageSize() : 20;
-            int totalCount = filteredTrades.size();
+            int totalCount = rows.length;
             int totalPages = (totalCount + pageSize - 1) / pageSize;
 
             // Get paginated trades
             int fromIndex = page * pageSize;
-            int toIndex = Math.min(fromIndex + pageSize, filteredTrades.size());
-            List<Trade> paginatedTrades = fromIndex < filteredTrades.size()
-                ? filteredTrades.subList(fromIndex, toIndex)
-                : new ArrayList<>();
+            int toIndex = Math.min(fromIndex + pageSize, rows.length);
+            List<TradeSummary> paginatedTrades = new ArrayList<>();
+            for (int i = fromIndex; i < toIndex; i++) {
+                paginatedTrades.add(columns.row(rows[i]));
+            }
 
-            // Calculate statistics
-            return calculateTradeStatistics(paginatedTrades, filteredTrades, page, pageSize, totalCount, totalPages);
+            return calculateTradeStatistics(paginatedTrades, columns, result.stats(), page, pageSize, totalCount, totalPages);
 
         } catch (Exception e) {
             log.error("❌ Error fetching closed trades: {}", e.getMessage());
@@ -848,141 +788,52 @@ public class TradeService {
     }
 
     /**
-     * Apply all filters to a trade
+     * Filter and sort on primitive columns (row indexes, no per-trade objects), then aggregate
+     * Large histories run on the fork/join pool; the result is identical either way
      */
-    private boolean applyTradeFilters(Trade trade, TradeFilterDTO filter) {
-        // Symbol filter
-        if (filter.getSymbol() != null && !filter.getSymbol().isEmpty()) {
-            if (!trade.getPair().contains(filter.getSymbol())) {
-                return false;
-            }
-        }
-
-        // Date range filter
-        if (filter.getFromDate() != null || filter.getToDate() != null) {
-            OffsetDateTime tradeDate = trade.getClosedAt();
-            if (tradeDate == null) return false;
-            LocalDate closedLocalDate = tradeDate.atZoneSameInstant(ZoneId.systemDefault()).toLocalDate();
-
-            if (filter.getFromDate() != null && closedLocalDate.isBefore(filter.getFromDate())) {
-                return false;
-            }
-            if (filter.getToDate() != null && closedLocalDate.isAfter(filter.getToDate())) {
-                return false;
-            }
-        }
-
-        // P&L amount filter
-        if (filter.getPnlMin() != null) {
-            BigDecimal tradePnl = new BigDecimal(trade.getPnl().toString());
-            if (tradePnl.compareTo(filter.getPnlMin()) < 0) {
-                return false;
-            }
-        }
-        if (filter.getPnlMax() != null) {
-            BigDecimal tradePnl = new BigDecimal(trade.getPnl().toString());
-            if (tradePnl.compareTo(filter.getPnlMax()) > 0) {
-                return false;
-            }
-        }
-
-        // P&L percentage filter
-        if (filter.getPnlPercentMin() != null) {
-            BigDecimal tradePnlPercent = new BigDecimal(trade.getPnlPercent().toString());
-            if (tradePnlPercent.compareTo(filter.getPnlPercentMin()) < 0) {
-                return false;
-            }
+    private TradeHistoryCache.Result computeHistory(TradeHistoryCache.Snapshot snapshot, TradeFilterDTO filter) {
+        long start = System.nanoTime();
+        TradeColumns columns = snapshot.columns();
+        TradeStatsKernel.CompiledFilter compiledFilter =
+            TradeStatsKernel.compile(filter, columns, ZoneId.systemDefault());
+        boolean parallel = columns.size() >= statsParallelThreshold;
+        ForkJoinPool pool = ForkJoinPool.commonPool();
+        int[] rows = parallel
+            ? ParallelTradeStats.filter(columns, compiledFilter, pool, ParallelTradeStats.DEFAULT_LEAF_SIZE)
+            : TradeStatsKernel.filter(columns, compiledFilter);
+        if (parallel) {
+            ParallelTradeStats.sort(columns, rows, filter.getSortBy(), filter.getSortOrder(),
+                pool, ParallelTradeStats.DEFAULT_LEAF_SIZE);
+        } else {
+            TradeStatsKernel.sort(columns, rows, filter.getSortBy(), filter.getSortOrder());
         }
-        if (filter.getPnlPercentMax() != null) {
-            BigDecimal tradePnlPercent = new BigDecimal(trade.getPnlPercent().toString());
-            if (tradePnlPercent.compareTo(filter.getPnlPercentMax()) > 0) {
-                return false;
-            }
-        }
-
-        // Side filter
-        if (filter.getSide() != null && !filter.getSide().isEmpty()) {
-            if (!trade.getSide().equals(filter.getSide())) {
-                return false;
-            }
-        }
-
-        // Exit reason filter
-        if (filter.getExitReason() != null && !filter.getExitReason().isEmpty()) {
-            if (!filter.getExitReason().equals(trade.getExitReason())) {
-                return false;
-            }
-        }
-
-        return true;
+        TradeStatsAccumulator stats = parallel
+            ? ParallelTradeStats.aggregate(columns, rows, pool, ParallelTradeStats.DEFAULT_LEAF_SIZE)
+            : TradeStatsKernel.aggregate(columns, rows);
+        return new TradeHistoryCache.Result(snapshot, rows, stats, System.nanoTime() - start);
     }
 
     /**
-     * Compare trades for sorting
-     */
-    private int compareTrades(Trade t1, Trade t2, TradeFilterDTO filter) {
-        String sortBy = filter.getSortBy() != null ? filter.getSortBy() : "closedAt";
-        String sortOrder = filter.getSortOrder() != null ? filter.getSortOrder() : "DESC";
-
-        int comparison = 0;
-        switch (sortBy) {
-            case "pnl":
-                comparison = t1.getPnl().compareTo(t2.getPnl());
-                break;
-            case "pnlPercent":
-                comparison = t1.getPnlPercent().compareTo(t2.getPnlPercent());
-                break;
-            case "symbol":
-                comparison = t1.getPair().compareTo(t2.getPair());
-                break;
-            case "closedAt":
-            default:
-                comparison = t1.getClosedAt().compareTo(t2.getClosedAt());
-        }
-
-        return "ASC".equals(sortOrder) ? comparison : -comparison;
-    }
-
-    /**
-     * Calculate comprehensive trade statistics
+     * Build the response; BigDecimal is only created here, from the kernel's fixed-point sums
      */
     private TradeHistoryResponseDTO calculateTradeStatistics(
-            List<Trade> paginatedTrades,
-            List<Trade> allFilteredTrades,
+            List<TradeSummary> paginatedTrades,
+            TradeColumns columns,
+            TradeStatsAccumulator stats,
             int page,
             int pageSize,
             int totalCount,
             int totalPages) {
 
-        int totalTrades = allFilteredTrades.size();
-        BigDecimal totalPnL = BigDecimal.ZERO;
-        BigDecimal totalPnLPercent = BigDecimal.ZERO;
-        int winningTrades = 0;
-        int losingTrades = 0;
-        Trade bestTrade = null;
-        Trade worstTrade = null;
-        BigDecimal largestWin = BigDecimal.ZERO;
-        BigDecimal largestLoss = BigDecimal.ZERO;
-
-        for (Trade trade : allFilteredTrades) {
-            BigDecimal pnl = new BigDecimal(trade.getPnl().toString());
-            totalPnL = totalPnL.add(pnl);
-            totalPnLPercent = totalPnLPercent.add(new BigDecimal(trade.getPnlPercent().toString()));
-
-            if (pnl.compareTo(BigDecimal.ZERO) > 0) {
-                winningTrades++;
-                if (largestWin.compareTo(pnl) < 0) {
-                    largestWin = pnl;
-                    bestTrade = trade;
-                }
-            } else if (pnl.compareTo(BigDecimal.ZERO) < 0) {
-                losingTrades++;
-                if (largestLoss.compareTo(pnl) > 0) {
-                    largestLoss = pnl;
-                    worstTrade = trade;
-                }
-            }
-        }
+        int totalTrades = stats.count;
+        int winningTrades = stats.wins;
+        int losingTrades = stats.losses;
+        BigDecimal totalPnL = TradeStatsKernel.toDecimal(stats.sumPnl);
+        BigDecimal totalPnLPercent = TradeStatsKernel.toDecimal(stats.sumPnlPercent);
+        BigDecimal largestWin = TradeStatsKernel.toDecimal(stats.largestWin);
+        BigDecimal largestLoss = TradeStatsKernel.toDecimal(stats.largestLoss);
+        TradeSummary bestTrade = stats.bestRow >= 0 ? columns.row(stats.bestRow) : null;
+        TradeSummary worstTrade = stats.worstRow >= 0 ? columns.row(stats.worstRow) : null;
 
         // Calculate averages
         BigDecimal averagePnL = totalTrades > 0
@@ -1061,10 +912,12 @@ public class TradeService {
             params.put("timestamp", System.currentTimeMillis());
             params.put("recvWindow", 60000);
 
+            exchangeRateLimiter.acquire(ExchangeRateLimiter.W_ACCOUNT);
             String positionRiskResponse = futuresClient.account().positionInformation(params);
             JSONArray positionsArray = new JSONArray(positionRiskResponse);
 
             // Fetch all open orders
+            exchangeRateLimiter.acquire(ExchangeRateLimiter.W_OPEN_ORDERS_ALL);
             String openOrdersResponse = futuresClient.account().currentAllOpenOrders(params);
             JSONArray ordersArray = new JSONArray(openOrdersResponse);
 
@@ -1129,6 +982,7 @@ public class TradeService {
             LinkedHashMap<String, Object> params = new LinkedHashMap<>();
             params.put("symbol", symbol);
 
+            exchangeRateLimiter.acquire(ExchangeRateLimiter.W_TICKER_24H);
             String tickerResponse = futuresClient.market().ticker24H(params);
             JSONObject tickerObj = new JSONObject(tickerResponse);
 
@@ -1218,6 +1072,7 @@ public class TradeService {
             params.put("recvWindow", 60000);
 
             log.info("📉 Closing position: {} {} Qty={}...", closeSide, symbol, quantity);
+            exchangeRateLimiter.acquireOrder();
             String resp = futuresClient.account().newOrder(params);
 
             JSONObject respObj = new JSONObject(resp);
@@ -1240,4 +1095,196 @@ public class TradeService {
             return false;
         }
     }
+
+    // ============ OUTBOX DISPATCH ============
+
+    /**
+     * Place the bracket for a PENDING trade (called by OrderOutboxDispatcher)
+     *
+     * @param retry true when an earlier attempt may already have reached Binance;
+     *              the bracket is then resumed by client order id instead of re-sent
+     * @return true when the trade no longer needs dispatching, false to retry later
+     */
+    public boolean dispatchBracket(Long tradeId, boolean retry) {
+        Trade trade = tradeRepository.findById(tradeId).orElse(null);
+        if (trade == null || !"PENDING".equals(trade.getStatus())) {
+            log.info("ℹ️ Trade {} is no longer pending, skipping dispatch", tradeId);
+            return true;
+        }
+        if (futuresClient == null) {
+            log.warn("⚠️ Binance client not configured. Cannot dispatch trade {}", tradeId);
+            return false;
+        }
+
+        if (retry && findOrderByClientId(exchangeSymbol(trade.getPair()), clientOrderId(tradeId, "E")) != null) {
+            log.info("🔁 Entry for trade {} already on Binance, resuming bracket", tradeId);
+            return recoverBracket(new TradeJournal.BracketState(tradeId));
+        }
+
+        TradeConfigSnapshot config = trade.getUserId() != null
+            ? tradeManagementConfigService.getConfigSnapshot(trade.getUserId())
+            : null;
+
+        tradeJournal.intent(tradeId);
+        if (!placeBinanceOrder(trade, config)) {
+            return false;
+        }
+        tradeLifecycleWriter.completeExecution(trade, true);
+        tradeJournal.complete(tradeId);
+        return true;
+    }
+
+    /**
+     * Resolve a PENDING trade once the dispatcher gives up on it
+     *
+     * The last attempt may still have reached Binance (e.g. a timeout after the send), so
+     * the entry is looked up by client order id first, as journal recovery does: a live
+     * entry gets its bracket completed, only an entry Binance never saw marks the trade FAILED
+     *
+     * @return false when Binance could not be asked; the trade stays PENDING and is picked
+     *         up by the orphaned-PENDING sweep of TradeJournalRecovery
+     */
+    public boolean failDispatch(Long tradeId) {
+        Trade trade = tradeRepository.findById(tradeId).orElse(null);
+        if (trade == null || !"PENDING".equals(trade.getStatus())) {
+            return true;
+        }
+        if (futuresClient != null) {
+            return recoverBracket(new TradeJournal.BracketState(tradeId));
+        }
+        tradeLifecycleWriter.completeExecution(trade, false);
+        tradeJournal.failed(tradeId);
+        return true;
+    }
+
+    // ============ JOURNAL RECOVERY ============
+
+    /**
+     * Resume or repair a bracket that was in flight when the process stopped
+     *
+     * - Entry never acked: look the entry up by client order id; if the exchange
+     *   never saw it, the trade is marked FAILED
+     * - Entry acked: place whichever SL/TP legs are still missing, then mark OPEN
+     *
+     * @return true when the bracket is resolved and can be dropped from the journal
+     */
+    public boolean recoverBracket(TradeJournal.BracketState state) {
+        long tradeId = state.tradeId;
+        Trade trade = tradeRepository.findById(tradeId).orElse(null);
+        if (trade == null || !"PENDING".equals(trade.getStatus())) {
+            log.info("🔁 Journal: trade {} is no longer pending, nothing to repair", tradeId);
+            tradeJournal.complete(tradeId);
+            return true;
+        }
+        if (futuresClient == null) {
+            log.warn("⚠️ Journal: cannot repair trade {} - Binance client not configured", tradeId);
+            return false;
+        }
+
+        try {
+            String symbol = exchangeSymbol(trade.getPair());
+
+            if (!state.entryAcked) {
+                JSONObject entry = findOrderByClientId(symbol, clientOrderId(tradeId, "E"));
+                if (entry == null) {
+                    log.info("🔁 Journal: entry for trade {} never reached Binance - marking FAILED", tradeId);
+                    tradeLifecycleWriter.completeExecution(trade, false);
+                    tradeJournal.failed(tradeId);
+                    return true;
+                }
+                state.entryAcked = true;
+                state.entryOrderId = entry.optLong("orderId");
+                state.entryPrice = entry.optDouble("price", trade.getEntryPrice());
+                state.entryQuantity = entry.optDouble("origQty", 0.0);
+                tradeJournal.entryAcked(tradeId, state.entryOrderId, state.entryPrice, state.entryQuantity);
+            }
+
+            log.info("🔁 Journal: resuming bracket for trade {} (SL acked={}, TP mask={})",
+                tradeId, state.slAcked, Integer.toBinaryString(state.tpAckedMask));
+
+            TradeConfigSnapshot config = trade.getUserId() != null
+                ? tradeManagementConfigService.getConfigSnapshot(trade.getUserId())
+                : null;
+            SymbolFilters filters = getSymbolFilters(symbol);
+            placeBracketLegs(trade, config, symbol, trade.getSide(), state.entryQuantity, filters, state);
+
+            trade.setBinanceOrderId(String.valueOf(state.entryOrderId));
+            tradeLifecycleWriter.completeExecution(trade, true);
+            tradeJournal.complete(tradeId);
+            return true;
+        } catch (Exception e) {
+            log.error("❌ Journal: failed to repair trade {}: {}", tradeId, e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Whether a bracket leg still has to be sent
+     * During recovery, a leg already on the exchange is journaled as acked instead of re-sent
+     */
+    private boolean legPending(TradeJournal.BracketState done, String symbol, long tradeId, String leg) {
+        if (done == null) {
+            return true;
+        }
+        boolean acked = "SL".equals(leg) ? done.slAcked : done.isTpAcked(leg.charAt(2) - '0');
+        if (acked) {
+            return false;
+        }
+        JSONObject existing = findOrderByClientId(symbol, clientOrderId(tradeId, leg));
+        if (existing == null) {
+            return true;
+        }
+        long orderId = existing.optLong("orderId");
+        if ("SL".equals(leg)) {
+            tradeJournal.stopLossAcked(tradeId, orderId);
+        } else {
+            tradeJournal.takeProfitAcked(tradeId, leg.charAt(2) - '0', orderId);
+        }
+        return false;
+    }
+
+    /**
+     * Telegram notation → Binance symbol (strip .P suffix)
+     */
+    private static String exchangeSymbol(String pair) {
+        return pair != null && pair.endsWith(".P") ? pair.substring(0, pair.length() - 2) : pair;
+    }
+
+    /**
+     * Deterministic client order id per bracket leg (E, SL, TP1-TP4) or manual close (X)
+     */
+    private static String clientOrderId(long tradeId, String leg) {
+        return "ict-" + tradeId + "-" + leg;
+    }
+
+    /**
+     * Look up an order by client order id; null if Binance does not know it
+     */
+    private JSONObject findOrderByClientId(String symbol, String clientOrderId) {
+        try {
+            LinkedHashMap<String, Object> params = new LinkedHashMap<>();
+            params.put("symbol", symbol);
+            params.put("origClientOrderId", clientOrderId);
+            params.put("recvWindow", 60000);
+            exchangeRateLimiter.acquire(ExchangeRateLimiter.W_QUERY_ORDER);
+            return new JSONObject(futuresClient.account().queryOrder(params));
+        } catch (Exception e) {
+            if (e.getMessage() != null && e.getMessage().contains("-2013")) {
+                // -2013 Order does not exist
+                return null;
+            }
+            // Timeout, rate limit, ...: unknown is not "never placed"
+            throw new IllegalStateException("Lookup of order " + clientOrderId + " failed: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Exchange calls take seconds; doing them inside a transaction pins a pool connection
+     * for the whole round trip. Persistence goes through TradeLifecycleWriter instead.
+     */
+    private void warnIfTransactionActive(String operation) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            log.warn("⚠️ {} called inside a transaction - a DB connection is held across exchange I/O", operation);
+        }
+    }
 }
@@ -0,0 +1,86 @@
+package mav_intel.com.Intelligent_Crypto_User_Management.service;
+
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+
+/**
+ * Mergeable trade statistics over a run of sorted rows
+ *
+ * All parts are associative: counts and fixed-point sums add exactly, and the
+ * best/worst trade (argmax/argmin of pnl) prefers the left side on ties, i.e.
+ * the earlier position - the same trade a single left-to-right pass picks.
+ * Merging accumulators of consecutive ranges in order therefore gives a result
+ * identical to one sequential pass, however the rows were split.
+ */
+@ToString
+@EqualsAndHashCode
+public final class TradeStatsAccumulator {
+
+    public int count;
+    public long sumPnl;
+    public long sumPnlPercent;
+    public int wins;
+    public int losses;
+    public long largestWin;      // 0 if no winning trade
+    public int bestRow = -1;     // source row index, -1 if none
+    public long largestLoss;     // 0 if no losing trade
+    public int worstRow = -1;
+
+    /**
+     * Accumulate rows[from, to) left to right
+     */
+    public static TradeStatsAccumulator over(TradeColumns columns, int[] rows, int from, int to) {
+        TradeStatsAccumulator acc = new TradeStatsAccumulator();
+        long[] pnlColumn = columns.pnl;
+        long[] pnlPercentColumn = columns.pnlPercent;
+        for (int i = from; i < to; i++) {
+            int row = rows[i];
+            long pnl = pnlColumn[row];
+            acc.sumPnl += pnl;
+            acc.sumPnlPercent += pnlPercentColumn[row];
+            if (pnl > 0) {
+                acc.wins++;
+                if (acc.largestWin < pnl) {
+                    acc.largestWin = pnl;
+                    acc.bestRow = row;
+                }
+            } else if (pnl < 0) {
+                acc.losses++;
+                if (acc.largestLoss > pnl) {
+                    acc.largestLoss = pnl;
+                    acc.worstRow = row;
+                }
+            }
+        }
+        acc.count = to - from;
+        return acc;
+    }
+
+    /**
+     * Combine with the accumulator of the range directly to the right of this one
+     */
+    public TradeStatsAccumulator merge(TradeStatsAccumulator right) {
+        TradeStatsAccumulator merged = new TradeStatsAccumulator();
+        merged.count = count + right.count;
+        merged.sumPnl = sumPnl + right.sumPnl;
+        merged.sumPnlPercent = sumPnlPercent + right.sumPnlPercent;
+        merged.wins = wins + right.wins;
+        merged.losses = losses + right.losses;
+        // Strictly greater on the right wins; ties keep the earlier (left) trade
+        if (right.largestWin > largestWin) {
+            merged.largestWin = right.largestWin;
+            merged.bestRow = right.bestRow;
+        } else {
+            merged.largestWin = largestWin;
+            merged.bestRow = bestRow;
+        }
+        if (right.largestLoss < largestLoss) {
+            merged.largestLoss = right.largestLoss;
+            merged.worstRow = right.worstRow;
+        } else {
+            merged.largestLoss = largestLoss;
+            merged.worstRow = worstRow;
+        }
+        return merged;
+    }
+}
@@ -0,0 +1,245 @@
+package mav_intel.com.Intelligent_Crypto_User_Management.service;
+
+import mav_intel.com.Intelligent_Crypto_User_Management.dto.TradeFilterDTO;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Arrays;
+
+/**
+ * Filter, sort and aggregate trade history on primitive columns (see TradeColumns)
+ *
+ * - The filter is compiled once per request: date bounds become epoch-microsecond
+ *   bounds in the given zone, BigDecimal bounds become fixed-point longs, and
+ *   string predicates become per-dictionary-code lookups
+ * - filter() and sort() work on int row indexes; no per-trade objects are created
+ * - Statistics are plain long sums (TradeStatsAccumulator); BigDecimal is only built
+ *   for the response DTO
+ * - ParallelTradeStats runs the same steps on the fork/join pool for large histories
+ *
+ * Same semantics as the former per-trade BigDecimal path: the date filter uses the
+ * calendar day of closedAt in the zone, sorting is stable, best/worst trade is the
+ * first one (in sorted order) with the largest win / loss. Missing pnl counts as 0.
+ */
+public final class TradeStatsKernel {
+
+    private TradeStatsKernel() {
+    }
+
+    /**
+     * A TradeFilterDTO compiled against one TradeColumns instance
+     */
+    public static final class CompiledFilter {
+        private final boolean[] pairAllowed;
+        private final boolean[] sideAllowed;
+        private final boolean[] exitReasonAllowed;
+        private final boolean dateFilter;
+        private final long closedFromMicros;   // inclusive
+        private final long closedToMicros;     // exclusive
+        private final long pnlMin;
+        private final long pnlMax;
+        private final long pnlPercentMin;
+        private final long pnlPercentMax;
+
+        private CompiledFilter(TradeFilterDTO filter, TradeColumns columns, ZoneId zone) {
+            String symbol = filter.getSymbol();
+            pairAllowed = new boolean[columns.pairs.size()];
+            for (int code = 0; code < pairAllowed.length; code++) {
+                String pair = columns.pairs.get(code);
+                pairAllowed[code] = symbol == null || symbol.isEmpty() || (pair != null && pair.contains(symbol));
+            }
+            String side = filter.getSide();
+            sideAllowed = new boolean[columns.sides.size()];
+            for (int code = 0; code < sideAllowed.length; code++) {
+                String value = columns.sides.get(code);
+                sideAllowed[code] = side == null || side.isEmpty() || side.equals(value);
+            }
+            String exitReason = filter.getExitReason();
+            exitReasonAllowed = new boolean[columns.exitReasons.size()];
+            for (int code = 0; code < exitReasonAllowed.length; code++) {
+                exitReasonAllowed[code] = exitReason == null || exitReason.isEmpty()
+                        || exitReason.equals(columns.exitReasons.get(code));
+            }
+
+            dateFilter = filter.getFromDate() != null || filter.getToDate() != null;
+            closedFromMicros = filter.getFromDate() != null ? startOfDayMicros(filter.getFromDate(), zone) : Long.MIN_VALUE;
+            closedToMicros = filter.getToDate() != null ? startOfDayMicros(filter.getToDate().plusDays(1), zone) : Long.MAX_VALUE;
+
+            pnlMin = filter.getPnlMin() != null ? toFixedBound(filter.getPnlMin(), RoundingMode.CEILING) : Long.MIN_VALUE;
+            pnlMax = filter.getPnlMax() != null ? toFixedBound(filter.getPnlMax(), RoundingMode.FLOOR) : Long.MAX_VALUE;
+            pnlPercentMin = filter.getPnlPercentMin() != null
+                    ? toFixedBound(filter.getPnlPercentMin(), RoundingMode.CEILING) : Long.MIN_VALUE;
+            pnlPercentMax = filter.getPnlPercentMax() != null
+                    ? toFixedBound(filter.getPnlPercentMax(), RoundingMode.FLOOR) : Long.MAX_VALUE;
+        }
+
+        boolean matches(TradeColumns c, int row) {
+            if (!pairAllowed[c.pairCode[row]] || !sideAllowed[c.sideCode[row]] || !exitReasonAllowed[c.exitReasonCode[row]]) {
+                return false;
+            }
+            if (dateFilter) {
+                long closedAt = c.closedAtMicros[row];
+                if (closedAt == TradeColumns.NO_TIME || closedAt < closedFromMicros || closedAt >= closedToMicros) {
+                    return false;
+                }
+            }
+            long pnl = c.pnl[row];
+            long pnlPercent = c.pnlPercent[row];
+            return pnl >= pnlMin && pnl <= pnlMax && pnlPercent >= pnlPercentMin && pnlPercent <= pnlPercentMax;
+        }
+    }
+
+    // ============ FILTER ============
+
+    public static CompiledFilter compile(TradeFilterDTO filter, TradeColumns columns, ZoneId zone) {
+        return new CompiledFilter(filter, columns, zone);
+    }
+
+    /**
+     * Matching row indexes in source order
+     */
+    public static int[] filter(TradeColumns columns, CompiledFilter filter) {
+        return filterRange(columns, filter, 0, columns.size());
+    }
+
+    static int[] filterRange(TradeColumns columns, CompiledFilter filter, int from, int to) {
+        int[] matches = new int[to - from];
+        int count = 0;
+        for (int row = from; row < to; row++) {
+            if (filter.matches(columns, row)) {
+                matches[count++] = row;
+            }
+        }
+        return count == matches.length ? matches : Arrays.copyOf(matches, count);
+    }
+
+    // ============ SORT ============
+
+    /**
+     * Stable sort of row indexes by closedAt (default), pnl, pnlPercent or symbol; DESC unless sortOrder is ASC
+     */
+    public static void sort(TradeColumns columns, int[] rows, String sortBy, String sortOrder) {
+        long[] key = sortKey(columns, sortBy);
+        sortRange(rows, new int[rows.length], 0, rows.length, key, isDescending(sortOrder));
+    }
+
+    static boolean isDescending(String sortOrder) {
+        return !"ASC".equals(sortOrder);
+    }
+
+    /**
+     * Stable bottom-up merge sort of rows[from, to), using buffer[from, to) as scratch
+     * A stable sort has exactly one result, however the range is split
+     */
+    static void sortRange(int[] rows, int[] buffer, int from, int to, long[] key, boolean descending) {
+        int[] src = rows;
+        int[] dst = buffer;
+        int n = to - from;
+        for (int width = 1; width < n; width <<= 1) {
+            for (int lo = from; lo < to; lo += width << 1) {
+                int mid = Math.min(lo + width, to);
+                int hi = Math.min(lo + (width << 1), to);
+                merge(src, dst, lo, mid, hi, key, descending);
+            }
+            int[] swap = src;
+            src = dst;
+            dst = swap;
+        }
+        if (src != rows) {
+            System.arraycopy(src, from, rows, from, n);
+        }
+    }
+
+    /**
+     * Merge the sorted runs rows[lo, mid) and rows[mid, hi) back into rows
+     */
+    static void mergeRuns(int[] rows, int[] buffer, int lo, int mid, int hi, long[] key, boolean descending) {
+        merge(rows, buffer, lo, mid, hi, key, descending);
+        System.arraycopy(buffer, lo, rows, lo, hi - lo);
+    }
+
+    private static void merge(int[] src, int[] dst, int lo, int mid, int hi, long[] key, boolean descending) {
+        int i = lo;
+        int j = mid;
+        for (int k = lo; k < hi; k++) {
+            if (i < mid && (j >= hi || !before(key[src[j]], key[src[i]], descending))) {
+                dst[k] = src[i++];
+            } else {
+                dst[k] = src[j++];
+            }
+        }
+    }
+
+    private static boolean before(long a, long b, boolean descending) {
+        return descending ? a > b : a < b;
+    }
+
+    static long[] sortKey(TradeColumns columns, String sortBy) {
+        switch (sortBy != null ? sortBy : "closedAt") {
+            case "pnl":
+                return columns.pnl;
+            case "pnlPercent":
+                return columns.pnlPercent;
+            case "symbol": {
+                // Rank each pair code by the pair's string order
+                Integer[] codes = new Integer[columns.pairs.size()];
+                for (int code = 0; code < codes.length; code++) {
+                    codes[code] = code;
+                }
+                Arrays.sort(codes, (a, b) -> {
+                    String pa = columns.pairs.get(a);
+                    String pb = columns.pairs.get(b);
+                    return pa == null ? (pb == null ? 0 : -1) : pb == null ? 1 : pa.compareTo(pb);
+                });
+                long[] rank = new long[codes.length];
+                for (int r = 0; r < codes.length; r++) {
+                    rank[codes[r]] = r;
+                }
+                long[] key = new long[columns.size()];
+                for (int row = 0; row < key.length; row++) {
+                    key[row] = rank[columns.pairCode[row]];
+                }
+                return key;
+            }
+            case "closedAt":
+            default:
+                return columns.closedAtMicros;
+        }
+    }
+
+    // ============ AGGREGATE ============
+
+    /**
+     * Sums, win/loss counts and best/worst trade over rows, in the given order
+     */
+    public static TradeStatsAccumulator aggregate(TradeColumns columns, int[] rows) {
+        return TradeStatsAccumulator.over(columns, rows, 0, rows.length);
+    }
+
+    // ============ CONVERSION ============
+
+    /**
+     * Fixed-point column value as a BigDecimal (trailing zeros dropped)
+     */
+    public static BigDecimal toDecimal(long fixed) {
+        BigDecimal value = BigDecimal.valueOf(fixed, TradeColumns.SCALE).stripTrailingZeros();
+        return value.scale() < 0 ? value.setScale(0) : value;
+    }
+
+    private static long toFixedBound(BigDecimal bound, RoundingMode rounding) {
+        BigDecimal scaled = bound.movePointRight(TradeColumns.SCALE).setScale(0, rounding);
+        if (scaled.compareTo(BigDecimal.valueOf(Long.MAX_VALUE)) > 0) {
+            return Long.MAX_VALUE;
+        }
+        if (scaled.compareTo(BigDecimal.valueOf(Long.MIN_VALUE)) < 0) {
+            return Long.MIN_VALUE;
+        }
+        return scaled.longValue();
+    }
+
+    private static long startOfDayMicros(LocalDate date, ZoneId zone) {
+        return TradeColumns.toMicros(date.atStartOfDay(zone).toOffsetDateTime());
+    }
+}
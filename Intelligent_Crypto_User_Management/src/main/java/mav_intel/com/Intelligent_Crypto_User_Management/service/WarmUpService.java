@@ -0,0 +1,175 @@
+package mav_intel.com.Intelligent_Crypto_User_Management.service;
+
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import mav_intel.com.Intelligent_Crypto_User_Management.repository.SignalRepository;
+import mav_intel.com.Intelligent_Crypto_User_Management.repository.TradeRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+
+/**
+ * Startup warm-up, run before the instance reports ready (GET /api/health/ready)
+ *
+ * Pays the one-off costs up front instead of on the first signal after a deploy:
+ * - opens both connection pools to their working size (minimum-idle)
+ * - runs the hot JPA queries once (query plan compilation, statement cache)
+ * - pre-loads the TradeManagementConfig snapshots of the most recently active users
+ *   into TradeConfigCache (at most its max size)
+ * - loads all symbol filters, which also opens the TLS connection to the exchange
+ *
+ * Job and outbox workers do not start claiming work until this has finished.
+ */
+@Slf4j
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class WarmUpService implements ApplicationRunner {
+
+    public enum State { STARTING, WARMING, READY, FAILED }
+
+    @Autowired
+    @Qualifier("writeDataSource")
+    private HikariDataSource writeDataSource;
+
+    @Autowired
+    @Qualifier("readDataSource")
+    private HikariDataSource readDataSource;
+
+    @Autowired
+    private TradeRepository tradeRepository;
+
+    @Autowired
+    private SignalRepository signalRepository;
+
+    @Autowired
+    private TradeManagementConfigService tradeManagementConfigService;
+
+    @Autowired
+    private TradeConfigCache tradeConfigCache;
+
+    @Autowired
+    private SymbolFilterCache symbolFilterCache;
+
+    private volatile State state = State.STARTING;
+    private final Map<String, Object> steps = new LinkedHashMap<>();
+    private volatile long durationMs;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        state = State.WARMING;
+        long start = System.currentTimeMillis();
+        log.info("🔥 Warming up before accepting traffic...");
+
+        // Database steps are required; the exchange may be down without making this node useless
+        boolean dbReady = step("writePool", true, () -> fillPool(writeDataSource))
+                & step("readPool", true, () -> fillPool(readDataSource))
+                & step("queries", true, this::warmQueries)
+                & step("tradeConfigs", true, this::warmConfigs);
+        step("symbolFilters", false, symbolFilterCache::refresh);
+
+        durationMs = System.currentTimeMillis() - start;
+        state = dbReady ? State.READY : State.FAILED;
+        if (dbReady) {
+            log.info("✅ Warm-up complete in {} ms: {}", durationMs, steps);
+        } else {
+            log.error("❌ Warm-up failed after {} ms, instance stays unready: {}", durationMs, steps);
+        }
+    }
+
+    /**
+     * A failed warm-up (database unreachable at boot) is retried until it succeeds
+     */
+    @Scheduled(fixedDelayString = "${warmup.retry-interval-ms:30000}")
+    public void retryIfFailed() {
+        if (state == State.FAILED) {
+            run(null);
+        }
+    }
+
+    public boolean isReady() {
+        return state == State.READY;
+    }
+
+    public Map<String, Object> getStatus() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("state", state);
+        status.put("durationMs", durationMs);
+        synchronized (steps) {
+            status.put("steps", new LinkedHashMap<>(steps));
+        }
+        return status;
+    }
+
+    // ============ HELPER METHODS ============
+
+    /**
+     * Run one warm-up step and record its result and duration
+     */
+    private boolean step(String name, boolean required, Callable<Integer> action) {
+        long start = System.currentTimeMillis();
+        Map<String, Object> result = new LinkedHashMap<>();
+        boolean ok;
+        try {
+            result.put("count", action.call());
+            ok = true;
+        } catch (Exception e) {
+            log.warn("⚠️ Warm-up step {} failed: {}", name, e.getMessage());
+            result.put("error", e.getMessage());
+            ok = !required;
+        }
+        result.put("ms", System.currentTimeMillis() - start);
+        synchronized (steps) {
+            steps.put(name, result);
+        }
+        return ok;
+    }
+
+    /**
+     * Hold minimum-idle connections at once so the pool opens them now (TCP + TLS + auth)
+     */
+    private int fillPool(HikariDataSource dataSource) throws Exception {
+        int target = Math.max(1, dataSource.getMinimumIdle());
+        List<Connection> held = new ArrayList<>(target);
+        try {
+            for (int i = 0; i < target; i++) {
+                Connection connection = dataSource.getConnection();
+                held.add(connection);
+                connection.isValid(5);
+            }
+        } finally {
+            for (Connection connection : held) {
+                connection.close();
+            }
+        }
+        return held.size();
+    }
+
+    /**
+     * Execute the queries on the signal/trade hot path once
+     */
+    private int warmQueries() {
+        tradeRepository.findFirstBySignalIdAndUserId(-1L, -1L);
+        tradeRepository.findOpenSummaries();
+        signalRepository.findRecentSummaries(OffsetDateTime.now());
+        return 3;
+    }
+
+    private int warmConfigs() {
+        List<Long> userIds = tradeRepository.findUserIdsByLatestTrade(PageRequest.of(0, tradeConfigCache.getMaxSize()));
+        return tradeManagementConfigService.warmCache(userIds);
+    }
+}
@@ -0,0 +1,101 @@
+-- =====================================================================
+-- One-time migration: monthly RANGE partitioning for trades and signal_messages
+--
+-- Run manually during a maintenance window (psql -f partitioning.sql).
+-- Hibernate keeps working against the partitioned parent tables;
+-- PartitionMaintenanceService creates the upcoming monthly partitions
+-- from then on, and ArchiveService drops old partitions once they are empty.
+--
+-- Partition keys:
+--   trades          -> opened_at  (always set by Trade.onCreate)
+--   signal_messages -> timestamp  (set by the webhook)
+--
+-- Postgres requires the partition key in the primary key, so the PK
+-- becomes (id, <key>). Ids keep coming from a sequence.
+-- The legacy tables are kept for rollback; drop them after verification.
+-- =====================================================================
+
+BEGIN;
+
+-- ============ TRADES ============
+ALTER TABLE trades RENAME TO trades_legacy;
+
+CREATE SEQUENCE IF NOT EXISTS trades_part_id_seq;
+SELECT setval('trades_part_id_seq', COALESCE((SELECT max(id) FROM trades_legacy), 0) + 1, false);
+
+CREATE TABLE trades (LIKE trades_legacy INCLUDING DEFAULTS) PARTITION BY RANGE (opened_at);
+ALTER TABLE trades ALTER COLUMN id SET DEFAULT nextval('trades_part_id_seq');
+ALTER TABLE trades ALTER COLUMN opened_at SET NOT NULL;
+ALTER TABLE trades ADD PRIMARY KEY (id, opened_at);
+ALTER SEQUENCE trades_part_id_seq OWNED BY trades.id;
+
+CREATE TABLE trades_default PARTITION OF trades DEFAULT;
+
+DO $$
+DECLARE
+    m date := date_trunc('month', COALESCE((SELECT min(COALESCE(opened_at, created_at)) FROM trades_legacy), now()))::date;
+    last_month date := (date_trunc('month', now()) + interval '3 months')::date;
+BEGIN
+    WHILE m <= last_month LOOP
+        EXECUTE format('CREATE TABLE IF NOT EXISTS %I PARTITION OF trades FOR VALUES FROM (%L) TO (%L)',
+                       'trades_p' || to_char(m, 'YYYY_MM'), m, (m + interval '1 month')::date);
+        m := (m + interval '1 month')::date;
+    END LOOP;
+END $$;
+
+INSERT INTO trades (id, user_id, signal_id, pair, side, leverage, entry_price, entry_quantity, stop_loss,
+                    tp1, tp2, tp3, tp4, status, binance_order_id, binance_position_id,
+                    opened_at, closed_at, exit_price, pnl, pnl_percent, exit_reason, fees, exit_quantity, created_at)
+SELECT id, user_id, signal_id, pair, side, leverage, entry_price, entry_quantity, stop_loss,
+       tp1, tp2, tp3, tp4, status, binance_order_id, binance_position_id,
+       COALESCE(opened_at, created_at, now()), closed_at, exit_price, pnl, pnl_percent, exit_reason, fees, exit_quantity, created_at
+FROM trades_legacy;
+
+-- Hot-path indexes (created on every partition)
+-- Updates by id also carry opened_at (partition pruning); the OPEN listing cannot be bounded
+-- by opened_at and instead probes the small partial index of each partition
+CREATE INDEX IF NOT EXISTS idx_trades_open ON trades (status) WHERE status IN ('OPEN', 'PENDING');
+CREATE INDEX IF NOT EXISTS idx_trades_status ON trades (status);
+CREATE INDEX IF NOT EXISTS idx_trades_user_closed_at ON trades (user_id, closed_at);
+CREATE INDEX IF NOT EXISTS idx_trades_signal_id ON trades (signal_id);
+
+-- ============ SIGNAL MESSAGES ============
+ALTER TABLE signal_messages RENAME TO signal_messages_legacy;
+
+CREATE SEQUENCE IF NOT EXISTS signal_messages_part_id_seq;
+SELECT setval('signal_messages_part_id_seq', COALESCE((SELECT max(id) FROM signal_messages_legacy), 0) + 1, false);
+
+CREATE TABLE signal_messages (LIKE signal_messages_legacy INCLUDING DEFAULTS) PARTITION BY RANGE ("timestamp");
+ALTER TABLE signal_messages ALTER COLUMN id SET DEFAULT nextval('signal_messages_part_id_seq');
+ALTER TABLE signal_messages ALTER COLUMN "timestamp" SET NOT NULL;
+ALTER TABLE signal_messages ADD PRIMARY KEY (id, "timestamp");
+ALTER SEQUENCE signal_messages_part_id_seq OWNED BY signal_messages.id;
+
+CREATE TABLE signal_messages_default PARTITION OF signal_messages DEFAULT;
+
+DO $$
+DECLARE
+    m date := date_trunc('month', COALESCE((SELECT min("timestamp") FROM signal_messages_legacy), now()))::date;
+    last_month date := (date_trunc('month', now()) + interval '3 months')::date;
+BEGIN
+    WHILE m <= last_month LOOP
+        EXECUTE format('CREATE TABLE IF NOT EXISTS %I PARTITION OF signal_messages FOR VALUES FROM (%L) TO (%L)',
+                       'signal_messages_p' || to_char(m, 'YYYY_MM'), m, (m + interval '1 month')::date);
+        m := (m + interval '1 month')::date;
+    END LOOP;
+END $$;
+
+INSERT INTO signal_messages (id, pair, setup_type, entry, leverage, tp1, tp2, tp3, tp4, stop_loss,
+                             "timestamp", full_message, channel, quantity, user_id)
+SELECT id, pair, setup_type, entry, leverage, tp1, tp2, tp3, tp4, stop_loss,
+       COALESCE("timestamp", now()), full_message, channel, quantity, user_id
+FROM signal_messages_legacy;
+
+CREATE INDEX IF NOT EXISTS idx_signal_messages_timestamp ON signal_messages ("timestamp");
+CREATE INDEX IF NOT EXISTS idx_signal_messages_pair ON signal_messages (pair);
+
+COMMIT;
+
+-- After verifying the application against the partitioned tables:
+--   DROP TABLE trades_legacy;
+--   DROP TABLE signal_messages_legacy;
@@ -0,0 +1,139 @@
+package mav_intel.com.Intelligent_Crypto_User_Management.benchmark;
+
+import mav_intel.com.Intelligent_Crypto_User_Management.dto.TradeFilterDTO;
+import mav_intel.com.Intelligent_Crypto_User_Management.dto.TradeSummary;
+import mav_intel.com.Intelligent_Crypto_User_Management.model.Trade;
+import mav_intel.com.Intelligent_Crypto_User_Management.service.TradeColumns;
+import mav_intel.com.Intelligent_Crypto_User_Management.service.TradeStatsKernel;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Scan throughput (rows/s) of a closed-trade analytics query: symbol + date range + side
+ * filter, then count / PnL sum / wins over the matches
+ *
+ * - entities: List<Trade> as JPA returns it (boxed Double, OffsetDateTime, String per row)
+ * - columns: the same trades in ColumnarTradeStore's TradeColumns (primitive arrays)
+ *
+ * One operation = one row scanned, so the score is rows per second.
+ *
+ * Run: mvn test-compile exec:java -Dexec.classpathScope=test
+ *      -Dexec.mainClass=mav_intel.com.Intelligent_Crypto_User_Management.benchmark.ColumnarScanBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ColumnarScanBenchmark {
+
+    // Fixed (not a @Param): @OperationsPerInvocation needs a constant
+    private static final int ROWS = 1_000_000;
+
+    private static final LocalDate FROM = LocalDate.of(2025, 3, 1);
+    private static final LocalDate TO = LocalDate.of(2025, 9, 30);
+
+    private List<Trade> entities;
+    private TradeColumns columns;
+    private TradeStatsKernel.CompiledFilter filter;
+    private OffsetDateTime from;
+    private OffsetDateTime to;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        List<TradeSummary> history = TradeStatsKernelBenchmark.generate(ROWS, 42);
+        entities = new ArrayList<>(history.size());
+        for (TradeSummary summary : history) {
+            entities.add(toEntity(summary));
+        }
+        columns = TradeColumns.of(history);
+
+        TradeFilterDTO dto = new TradeFilterDTO();
+        dto.setSymbol("USDT");
+        dto.setSide("BUY");
+        dto.setFromDate(FROM);
+        dto.setToDate(TO);
+        filter = TradeStatsKernel.compile(dto, columns, ZoneOffset.UTC);
+        from = FROM.atStartOfDay().atOffset(ZoneOffset.UTC);
+        to = TO.plusDays(1).atStartOfDay().atOffset(ZoneOffset.UTC);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public Object entities() {
+        long count = 0;
+        double sum = 0;
+        long wins = 0;
+        for (Trade trade : entities) {
+            if (trade.getPair() == null || !trade.getPair().contains("USDT") || !"BUY".equals(trade.getSide())) {
+                continue;
+            }
+            OffsetDateTime closed = trade.getClosedAt();
+            if (closed == null || closed.isBefore(from) || !closed.isBefore(to)) {
+                continue;
+            }
+            Double pnl = trade.getPnl();
+            count++;
+            if (pnl != null) {
+                sum += pnl;
+                if (pnl > 0) {
+                    wins++;
+                }
+            }
+        }
+        return new Object[]{count, BigDecimal.valueOf(sum), wins};
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public Object columns() {
+        int[] rows = TradeStatsKernel.filter(columns, filter);
+        return TradeStatsKernel.aggregate(columns, rows);
+    }
+
+    private static Trade toEntity(TradeSummary summary) {
+        Trade trade = new Trade();
+        trade.setId(summary.getId());
+        trade.setUserId(summary.getUserId());
+        trade.setPair(summary.getPair());
+        trade.setSide(summary.getSide());
+        trade.setLeverage(summary.getLeverage());
+        trade.setStatus(summary.getStatus());
+        trade.setOpenedAt(summary.getOpenedAt());
+        trade.setClosedAt(summary.getClosedAt());
+        trade.setPnl(summary.getPnl());
+        trade.setPnlPercent(summary.getPnlPercent());
+        trade.setExitReason(summary.getExitReason());
+        trade.setEntryPrice(100.0);
+        trade.setEntryQuantity(1.0);
+        return trade;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(ColumnarScanBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,93 @@
+package mav_intel.com.Intelligent_Crypto_User_Management.benchmark;
+
+import mav_intel.com.Intelligent_Crypto_User_Management.service.MonteCarloKernel;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Monte Carlo throughput (paths/s) of MonteCarloKernel: 100k paths of 200 trades
+ * resampled from a 500-trade history, including the percentile sort
+ *
+ * parallelism = 0 is the sequential stream (the single-core baseline); otherwise the
+ * parallel stream runs inside a ForkJoinPool of that many workers. Paths per second
+ * per core = score / max(1, parallelism).
+ *
+ * One operation = one path, so the score is paths per second.
+ *
+ * Run: mvn test-compile exec:java -Dexec.classpathScope=test
+ *      -Dexec.mainClass=mav_intel.com.Intelligent_Crypto_User_Management.benchmark.MonteCarloBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MonteCarloBenchmark {
+
+    // Fixed (not a @Param): @OperationsPerInvocation needs a constant
+    private static final int PATHS = 100_000;
+    private static final int HISTORY = 500;
+    private static final int HORIZON = 200;
+
+    @Param({"1", "5"})
+    public int blockLength;
+
+    @Param({"0", "1", "2", "4", "8"})
+    public int parallelism;
+
+    private double[] returns;
+    private ForkJoinPool pool;
+    private long seed;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(42);
+        returns = new double[HISTORY];
+        for (int i = 0; i < HISTORY; i++) {
+            // ~45% winners, losers capped at the stop
+            returns[i] = random.nextDouble() < 0.45 ? random.nextDouble(0.05, 0.8) : -random.nextDouble(0.05, 0.5);
+        }
+        pool = parallelism > 0 ? new ForkJoinPool(parallelism) : null;
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        if (pool != null) {
+            pool.shutdown();
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PATHS)
+    public Object simulate() {
+        long runSeed = seed++;
+        if (pool == null) {
+            return MonteCarloKernel.simulate(returns, HORIZON, blockLength, 0.1, PATHS, runSeed, false);
+        }
+        return pool.submit(() -> MonteCarloKernel.simulate(returns, HORIZON, blockLength, 0.1, PATHS, runSeed, true)).join();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(MonteCarloBenchmark.class.getSimpleName()).build()).run();
+    }
+}
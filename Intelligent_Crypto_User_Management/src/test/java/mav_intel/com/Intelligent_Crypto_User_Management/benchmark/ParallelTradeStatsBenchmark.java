@@ -0,0 +1,82 @@
+package mav_intel.com.Intelligent_Crypto_User_Management.benchmark;
+
+import mav_intel.com.Intelligent_Crypto_User_Management.dto.TradeFilterDTO;
+import mav_intel.com.Intelligent_Crypto_User_Management.service.ParallelTradeStats;
+import mav_intel.com.Intelligent_Crypto_User_Management.service.TradeColumns;
+import mav_intel.com.Intelligent_Crypto_User_Management.service.TradeStatsKernel;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.time.ZoneId;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Scaling curve of the fork/join statistics path: ms per filter + sort + aggregate
+ * at 1..N worker threads (parallelism = 0 is the sequential kernel, the baseline)
+ *
+ * Run: mvn test-compile exec:java -Dexec.classpathScope=test
+ *      -Dexec.mainClass=mav_intel.com.Intelligent_Crypto_User_Management.benchmark.ParallelTradeStatsBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ParallelTradeStatsBenchmark {
+
+    @Param({"100000", "1000000"})
+    public int trades;
+
+    @Param({"0", "1", "2", "4", "8"})
+    public int parallelism;
+
+    private TradeColumns columns;
+    private TradeStatsKernel.CompiledFilter filter;
+    private ForkJoinPool pool;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        columns = TradeColumns.of(TradeStatsKernelBenchmark.generate(trades, 42));
+        filter = TradeStatsKernel.compile(new TradeFilterDTO(), columns, ZoneId.systemDefault());
+        pool = parallelism > 0 ? new ForkJoinPool(parallelism) : null;
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        if (pool != null) {
+            pool.shutdown();
+        }
+    }
+
+    @Benchmark
+    public Object filterSortAggregate() {
+        if (pool == null) {
+            int[] rows = TradeStatsKernel.filter(columns, filter);
+            TradeStatsKernel.sort(columns, rows, "pnl", "DESC");
+            return TradeStatsKernel.aggregate(columns, rows);
+        }
+        int[] rows = ParallelTradeStats.filter(columns, filter, pool, ParallelTradeStats.DEFAULT_LEAF_SIZE);
+        ParallelTradeStats.sort(columns, rows, "pnl", "DESC", pool, ParallelTradeStats.DEFAULT_LEAF_SIZE);
+        return ParallelTradeStats.aggregate(columns, rows, pool, ParallelTradeStats.DEFAULT_LEAF_SIZE);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(ParallelTradeStatsBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,185 @@
+package mav_intel.com.Intelligent_Crypto_User_Management.benchmark;
+
+import mav_intel.com.Intelligent_Crypto_User_Management.dto.TradeFilterDTO;
+import mav_intel.com.Intelligent_Crypto_User_Management.dto.TradeSummary;
+import mav_intel.com.Intelligent_Crypto_User_Management.service.TradeColumns;
+import mav_intel.com.Intelligent_Crypto_User_Management.service.TradeStatsAccumulator;
+import mav_intel.com.Intelligent_Crypto_User_Management.service.TradeStatsKernel;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Closed-trade history: filter + sort + statistics over 100k trades
+ *
+ * - legacy: the former per-trade path (BigDecimal via toString, LocalDate per comparison)
+ * - kernel: TradeColumns + TradeStatsKernel (build columns, filter, sort, aggregate)
+ * - kernelAggregate: statistics only, columns already built
+ *
+ * Throughput in ops/ms; the GC profiler adds gc.alloc.rate.norm (bytes per op).
+ *
+ * Run: mvn test-compile exec:java -Dexec.classpathScope=test
+ *      -Dexec.mainClass=mav_intel.com.Intelligent_Crypto_User_Management.benchmark.TradeStatsKernelBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TradeStatsKernelBenchmark {
+
+    private static final String[] PAIRS = {"BTCUSDT", "ETHUSDT", "SOLUSDT", "XRPUSDT", "DOGEUSDT", "BNBUSDT", "ADAUSDT"};
+    private static final String[] EXIT_REASONS = {"TP1", "TP2", "TP3", "TP4", "SL", "MANUAL"};
+
+    @Param({"100000"})
+    public int trades;
+
+    // "none" = statistics over all trades, "filtered" = symbol + date range + pnl floor
+    @Param({"none", "filtered"})
+    public String filterMode;
+
+    private List<TradeSummary> history;
+    private TradeFilterDTO filter;
+    private TradeColumns columns;
+    private int[] allRows;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        history = generate(trades, 42);
+        filter = new TradeFilterDTO();
+        if ("filtered".equals(filterMode)) {
+            filter.setSymbol("USDT");
+            filter.setFromDate(LocalDate.of(2025, 3, 1));
+            filter.setToDate(LocalDate.of(2025, 9, 30));
+            filter.setPnlMin(new BigDecimal("-50"));
+        }
+        columns = TradeColumns.of(history);
+        allRows = new int[history.size()];
+        for (int i = 0; i < allRows.length; i++) {
+            allRows[i] = i;
+        }
+    }
+
+    @Benchmark
+    public Object legacy() {
+        List<TradeSummary> filtered = history.stream()
+                .filter(t -> legacyFilter(t, filter))
+                .sorted((a, b) -> -a.getClosedAt().compareTo(b.getClosedAt()))
+                .collect(Collectors.toList());
+        BigDecimal total = BigDecimal.ZERO;
+        BigDecimal totalPct = BigDecimal.ZERO;
+        BigDecimal largestWin = BigDecimal.ZERO;
+        BigDecimal largestLoss = BigDecimal.ZERO;
+        int wins = 0;
+        int losses = 0;
+        for (TradeSummary trade : filtered) {
+            BigDecimal pnl = new BigDecimal(trade.getPnl().toString());
+            total = total.add(pnl);
+            totalPct = totalPct.add(new BigDecimal(trade.getPnlPercent().toString()));
+            if (pnl.compareTo(BigDecimal.ZERO) > 0) {
+                wins++;
+                if (largestWin.compareTo(pnl) < 0) {
+                    largestWin = pnl;
+                }
+            } else if (pnl.compareTo(BigDecimal.ZERO) < 0) {
+                losses++;
+                if (largestLoss.compareTo(pnl) > 0) {
+                    largestLoss = pnl;
+                }
+            }
+        }
+        return new Object[]{total, totalPct, largestWin, largestLoss, wins, losses};
+    }
+
+    @Benchmark
+    public Object kernel() {
+        TradeColumns c = TradeColumns.of(history);
+        int[] rows = TradeStatsKernel.filter(c, TradeStatsKernel.compile(filter, c, ZoneId.systemDefault()));
+        TradeStatsKernel.sort(c, rows, "closedAt", "DESC");
+        TradeStatsAccumulator stats = TradeStatsKernel.aggregate(c, rows);
+        return TradeStatsKernel.toDecimal(stats.sumPnl);
+    }
+
+    @Benchmark
+    public Object kernelAggregate() {
+        return TradeStatsKernel.aggregate(columns, allRows);
+    }
+
+    private static boolean legacyFilter(TradeSummary trade, TradeFilterDTO filter) {
+        if (filter.getSymbol() != null && !trade.getPair().contains(filter.getSymbol())) {
+            return false;
+        }
+        if (filter.getFromDate() != null || filter.getToDate() != null) {
+            LocalDate closed = trade.getClosedAt().atZoneSameInstant(ZoneId.systemDefault()).toLocalDate();
+            if (filter.getFromDate() != null && closed.isBefore(filter.getFromDate())) {
+                return false;
+            }
+            if (filter.getToDate() != null && closed.isAfter(filter.getToDate())) {
+                return false;
+            }
+        }
+        if (filter.getPnlMin() != null && new BigDecimal(trade.getPnl().toString()).compareTo(filter.getPnlMin()) < 0) {
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Deterministic synthetic history (pnl rounded to cents, like exchange-reported PnL)
+     */
+    public static List<TradeSummary> generate(int count, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        OffsetDateTime start = OffsetDateTime.of(2025, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC);
+        List<TradeSummary> list = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            TradeSummary trade = new TradeSummary();
+            trade.setId((long) i + 1);
+            trade.setUserId(1L + random.nextInt(50));
+            trade.setPair(PAIRS[random.nextInt(PAIRS.length)]);
+            trade.setSide(random.nextBoolean() ? "BUY" : "SELL");
+            trade.setLeverage(10);
+            trade.setStatus("CLOSED");
+            OffsetDateTime opened = start.plusSeconds(random.nextLong(365L * 86_400));
+            trade.setOpenedAt(opened);
+            trade.setClosedAt(opened.plusSeconds(60 + random.nextLong(3 * 86_400)));
+            double pnl = Math.round((random.nextDouble() * 200 - 90) * 100) / 100.0;
+            trade.setPnl(pnl);
+            trade.setPnlPercent(Math.round(pnl * 0.5 * 100) / 100.0);
+            trade.setExitReason(EXIT_REASONS[random.nextInt(EXIT_REASONS.length)]);
+            list.add(trade);
+        }
+        return list;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(TradeStatsKernelBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
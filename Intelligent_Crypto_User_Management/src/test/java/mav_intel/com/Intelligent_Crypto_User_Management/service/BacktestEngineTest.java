@@ -0,0 +1,148 @@
+package mav_intel.com.Intelligent_Crypto_User_Management.service;
+
+import mav_intel.com.Intelligent_Crypto_User_Management.dto.BacktestResultDTO;
+import mav_intel.com.Intelligent_Crypto_User_Management.dto.TradeConfigSnapshot;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Fill rules of the backtest on hand-made candles (no fees, no maintenance margin,
+ * so every expected PnL is price difference x quantity)
+ */
+class BacktestEngineTest {
+
+    private static final long T0 = 1_700_000_000_000L;
+    private static final long MINUTE = 60_000L;
+    private static final SymbolFilters FILTERS = new SymbolFilters(0.001, 5, 3, 0.01, 2);
+    private static final TradeConfigSnapshot CONFIG = TradeConfigSnapshot.builder()
+            .maxLeverage(BigDecimal.valueOf(20))
+            .maxPositionSizePercent(BigDecimal.valueOf(100_000))
+            .tp1Percentage(BigDecimal.valueOf(25))
+            .tp2Percentage(BigDecimal.valueOf(25))
+            .tp3Percentage(BigDecimal.valueOf(25))
+            .tp4Percentage(BigDecimal.valueOf(25))
+            .build();
+
+    @Test
+    void takeProfitLadder() {
+        KlineSeries candles = candles(
+                101, 101, 99.5, 100,   // entry fills at the limit
+                100, 115, 100, 112,    // TP1
+                112, 125, 111, 122,    // TP2
+                122, 145, 121, 140);   // TP3 and TP4 in one candle
+        BacktestResultDTO result = run(candles, 1_000, signal(T0, 1.0, 5, 90));
+
+        assertEquals(1, result.getTrades());
+        assertEquals(Map.of("TP4", 1), result.getExitReasons());
+        // 0.25 x (10 + 20 + 30 + 40)
+        assertMoney(25, result.getNetPnl());
+        assertMoney(1_025, result.getFinalEquity());
+    }
+
+    @Test
+    void stopWinsWhenBothSidesAreReached() {
+        KlineSeries candles = candles(
+                100, 100.5, 99, 100,
+                100, 115, 85, 100);
+        BacktestResultDTO result = run(candles, 1_000, signal(T0, 1.0, 5, 90));
+
+        assertEquals(Map.of("SL", 1), result.getExitReasons());
+        assertMoney(-10, result.getNetPnl());
+        assertMoney(10, result.getMaxDrawdown());
+    }
+
+    @Test
+    void legsTriggeredBeforeTheEntryAreRejected() {
+        KlineSeries candles = candles(
+                101, 112, 101, 111,    // TP1 reached without a position
+                111, 111, 99, 100,     // entry
+                100, 115, 100, 114,    // TP1 again: already rejected
+                114, 121, 113, 118,    // TP2
+                118, 118, 85, 86);     // SL closes the remaining 0.75
+        BacktestResultDTO result = run(candles, 1_000, signal(T0, 1.0, 5, 90));
+
+        assertEquals(Map.of("SL", 1), result.getExitReasons());
+        // 0.25 x 20 - 0.75 x 10
+        assertMoney(-2.5, result.getNetPnl());
+    }
+
+    @Test
+    void liquidationBeforeAFarStop() {
+        KlineSeries candles = candles(
+                100, 100, 99, 100,
+                100, 100, 89, 89);
+        // 10x: liquidated at 90, long before the stop at 80
+        BacktestResultDTO result = run(candles, 1_000, signal(T0, 1.0, 10, 80));
+
+        assertEquals(Map.of("LIQUIDATED", 1), result.getExitReasons());
+        assertMoney(-10, result.getNetPnl());
+    }
+
+    @Test
+    void unfilledEntryAndReservedMargin() {
+        KlineSeries candles = candles(
+                100, 100, 99, 100,
+                100, 101, 99.5, 100,
+                100, 101, 99.5, 100);
+        // First order reserves 9 x 100 / 10 = 90 of 100: the second finds 10 available
+        BacktestResultDTO reserved = run(candles, 100,
+                signal(T0, 9.0, 10, 50),
+                signal(T0 + MINUTE, 9.0, 10, 50));
+        assertEquals(Map.of("balance", 1), reserved.getSkipped());
+
+        BacktestResultDTO unfilled = run(candles(105, 106, 104, 105, 105, 107, 103, 104), 1_000,
+                signal(T0, 1.0, 5, 90));
+        assertEquals(0, unfilled.getTrades());
+        assertEquals(Map.of("notFilled", 1), unfilled.getSkipped());
+        assertMoney(1_000, unfilled.getFinalEquity());
+    }
+
+    @Test
+    void signalsWithoutSetupTypeOrLeverageAreInvalid() {
+        KlineSeries candles = candles(
+                101, 101, 99.5, 100,
+                100, 111, 100, 110);
+        BacktestResultDTO result = run(candles, 1_000,
+                new BacktestEngine.Signal(T0, T0, "BTCUSDT", null, 100, 10, 1.0, 90, new double[]{110, 120, 130, 140}),
+                new BacktestEngine.Signal(T0, T0, "BTCUSDT", true, 100, null, 1.0, 90, new double[]{110, 120, 130, 140}));
+
+        assertEquals(0, result.getTrades());
+        assertEquals(Map.of("invalid", 2), result.getSkipped());
+    }
+
+    // ============ HELPER METHODS ============
+
+    private static BacktestResultDTO run(KlineSeries candles, double balance, BacktestEngine.Signal... signals) {
+        BacktestEngine engine = new BacktestEngine(symbol -> candles, symbol -> FILTERS,
+                new BacktestEngine.Settings(balance, 0, 0, 0, 0));
+        return engine.run("test", List.of(signals), CONFIG);
+    }
+
+    /**
+     * Long BTCUSDT at 100 with TPs at 110/120/130/140
+     */
+    private static BacktestEngine.Signal signal(long time, double quantity, int leverage, double stopLoss) {
+        return new BacktestEngine.Signal(time, time, "BTCUSDT", true, 100, leverage, quantity, stopLoss,
+                new double[]{110, 120, 130, 140});
+    }
+
+    /**
+     * One-minute candles from T0, given as open, high, low, close quadruples
+     */
+    private static KlineSeries candles(double... ohlc) {
+        KlineSeries.Builder builder = new KlineSeries.Builder();
+        for (int i = 0; i < ohlc.length; i += 4) {
+            builder.add(T0 + (i / 4) * MINUTE, ohlc[i], ohlc[i + 1], ohlc[i + 2], ohlc[i + 3], MINUTE);
+        }
+        return builder.build();
+    }
+
+    private static void assertMoney(double expected, BigDecimal actual) {
+        assertEquals(0, BigDecimal.valueOf(expected).compareTo(actual), "expected " + expected + " but was " + actual);
+    }
+}
@@ -0,0 +1,116 @@
+package mav_intel.com.Intelligent_Crypto_User_Management.service;
+
+import mav_intel.com.Intelligent_Crypto_User_Management.dto.EquityCurveDTO;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Incremental maintenance (appends, late closes, PnL revisions, removals) must give
+ * the same curve as computing it from scratch over the final set of trades
+ */
+class EquityCurveTest {
+
+    private static final long HOUR = 3_600_000L;
+
+    @Test
+    void drawdownAndDuration() {
+        EquityCurve curve = new EquityCurve();
+        curve.upsert(1, 1 * HOUR, TradeColumns.toFixed(100.0));  // peak 100
+        curve.upsert(2, 2 * HOUR, TradeColumns.toFixed(-30.0));  // 70
+        curve.upsert(3, 4 * HOUR, TradeColumns.toFixed(-50.0));  // 20, drawdown 80
+        curve.upsert(4, 6 * HOUR, TradeColumns.toFixed(90.0));   // 110, regained after 5h
+
+        assertEquals(TradeColumns.toFixed(110.0), curve.equity());
+        assertEquals(TradeColumns.toFixed(80.0), curve.maxDrawdown());
+        assertEquals(5 * HOUR, curve.longestDrawdownMillis(6 * HOUR));
+        assertEquals(0L, curve.currentDrawdownMillis(10 * HOUR));
+
+        // A late fill turns the last trade into a loss: back under water since hour 1
+        curve.upsert(4, 6 * HOUR, TradeColumns.toFixed(-10.0));
+        assertEquals(TradeColumns.toFixed(90.0), curve.maxDrawdown());
+        assertEquals(9 * HOUR, curve.currentDrawdownMillis(10 * HOUR));
+        assertEquals(9 * HOUR, curve.longestDrawdownMillis(10 * HOUR));
+
+        List<EquityCurveDTO.Point> days = curve.buckets(Long.MIN_VALUE, Long.MAX_VALUE, EquityCurve.Bucket.DAY, ZoneOffset.UTC);
+        assertEquals(1, days.size());
+        assertEquals(4, days.get(0).getTrades());
+        assertEquals(0, new BigDecimal("10").compareTo(days.get(0).getLow()));
+    }
+
+    @Test
+    void incrementalMatchesRebuild() {
+        SplittableRandom random = new SplittableRandom(20250301L);
+        for (int iteration = 0; iteration < 300; iteration++) {
+            EquityCurve curve = new EquityCurve();
+            Map<Long, long[]> trades = new HashMap<>();   // id -> {time, pnl}
+            int operations = random.nextInt(400);
+            for (int op = 0; op < operations; op++) {
+                long id = random.nextInt(120);
+                if (trades.containsKey(id) && random.nextInt(6) == 0) {
+                    curve.remove(id);
+                    trades.remove(id);
+                    continue;
+                }
+                // Coarse times and pnl, so equal timestamps and exact recoveries are common
+                long time = trades.containsKey(id) && random.nextBoolean()
+                        ? trades.get(id)[0] : random.nextInt(48) * HOUR;
+                long pnl = TradeColumns.toFixed((random.nextInt(21) - 10) * 5.0);
+                curve.upsert(id, time, pnl);
+                trades.put(id, new long[]{time, pnl});
+            }
+            long now = 50 * HOUR;
+            long[] expected = rebuild(trades, now);
+            String message = "iteration " + iteration;
+            assertEquals(trades.size(), curve.size(), message);
+            assertEquals(expected[0], curve.equity(), message);
+            assertEquals(expected[1], curve.peak(), message);
+            assertEquals(expected[2], curve.maxDrawdown(), message);
+            assertEquals(expected[3], curve.longestDrawdownMillis(now), message);
+            assertEquals(expected[4], curve.currentDrawdownMillis(now), message);
+
+            long bucketTrades = 0;
+            for (EquityCurveDTO.Point point : curve.buckets(Long.MIN_VALUE, Long.MAX_VALUE, EquityCurve.Bucket.HOUR, ZoneOffset.UTC)) {
+                bucketTrades += point.getTrades();
+            }
+            assertEquals((long) trades.size(), bucketTrades, message);
+        }
+    }
+
+    /**
+     * {equity, peak, maxDrawdown, longest spell, current spell} by a direct pass in (time, id) order
+     */
+    private static long[] rebuild(Map<Long, long[]> trades, long now) {
+        List<long[]> rows = new ArrayList<>();
+        trades.forEach((id, v) -> rows.add(new long[]{v[0], id, v[1]}));
+        rows.sort((a, b) -> a[0] != b[0] ? Long.compare(a[0], b[0]) : Long.compare(a[1], b[1]));
+        long equity = 0;
+        long peak = 0;
+        long maxDrawdown = 0;
+        long longest = 0;
+        long peakTime = rows.isEmpty() ? 0 : rows.get(0)[0];
+        for (long[] row : rows) {
+            equity += row[2];
+            if (equity >= peak) {
+                if (peak - (equity - row[2]) > 0) {
+                    longest = Math.max(longest, row[0] - peakTime);
+                }
+                peak = equity;
+                peakTime = row[0];
+            } else {
+                longest = Math.max(longest, row[0] - peakTime);
+            }
+            maxDrawdown = Math.max(maxDrawdown, peak - equity);
+        }
+        long current = peak > equity ? now - peakTime : 0;
+        return new long[]{equity, peak, maxDrawdown, Math.max(longest, current), current};
+    }
+}
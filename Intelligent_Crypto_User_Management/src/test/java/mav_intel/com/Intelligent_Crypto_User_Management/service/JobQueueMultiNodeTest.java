@@ -0,0 +1,180 @@
+package mav_intel.com.Intelligent_Crypto_User_Management.service;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Multi-node behaviour of JobQueueService against a real Postgres
+ *
+ * Each simulated node has its own connection pool and worker threads, as separate
+ * backend instances would. Checks that with 1, 2 and 4 nodes no job is claimed twice
+ * and every job ends DONE; throughput is printed for information only (wall-clock
+ * ratios depend on the machine and are not asserted).
+ *
+ * Run: TEST_PG_URL=jdbc:postgresql://localhost:5432/postgres TEST_PG_USER=postgres TEST_PG_PASSWORD=postgres \
+ *      mvn test -Dtest=JobQueueMultiNodeTest
+ */
+@EnabledIfEnvironmentVariable(named = "TEST_PG_URL", matches = ".+")
+class JobQueueMultiNodeTest {
+
+    private static final int JOBS = 2000;
+    private static final int THREADS_PER_NODE = 2;
+    private static final long WORK_MS = 5; // stands in for the exchange round trip of a signal execution
+
+    private static final List<HikariDataSource> pools = new ArrayList<>();
+    private static final String queuePrefix = "test-" + UUID.randomUUID().toString().substring(0, 8);
+
+    @BeforeAll
+    static void createSchema() {
+        // The application gets this table from the QueuedJob entity; same columns and defaults
+        new JdbcTemplate(pool()).execute("CREATE TABLE IF NOT EXISTS job_queue (" +
+                "id BIGSERIAL PRIMARY KEY, " +
+                "queue VARCHAR(50) NOT NULL, " +
+                "dedup_key VARCHAR(100) UNIQUE, " +
+                "payload TEXT NOT NULL, " +
+                "status VARCHAR(20) DEFAULT 'READY' NOT NULL, " +
+                "attempts INT DEFAULT 0 NOT NULL, " +
+                "max_attempts INT DEFAULT 5 NOT NULL, " +
+                "run_at TIMESTAMPTZ DEFAULT now() NOT NULL, " +
+                "locked_by VARCHAR(100), " +
+                "locked_until TIMESTAMPTZ, " +
+                "last_error VARCHAR(500), " +
+                "created_at TIMESTAMPTZ DEFAULT now() NOT NULL, " +
+                "updated_at TIMESTAMPTZ DEFAULT now() NOT NULL)");
+    }
+
+    @AfterAll
+    static void cleanup() {
+        new JdbcTemplate(pools.get(0)).update("DELETE FROM job_queue WHERE queue LIKE ?", queuePrefix + "%");
+        pools.forEach(HikariDataSource::close);
+    }
+
+    @Test
+    void everyJobRunsExactlyOnceWithConcurrentNodes() throws Exception {
+        double oneNode = run(1);
+        double twoNodes = run(2);
+        double fourNodes = run(4);
+
+        System.out.printf("job_queue throughput: 1 node %.0f jobs/s, 2 nodes %.0f jobs/s, 4 nodes %.0f jobs/s%n",
+                oneNode, twoNodes, fourNodes);
+    }
+
+    @Test
+    void expiredLeaseIsReclaimedAndExhaustedJobIsDeadLettered() {
+        String queue = queuePrefix + "-lease";
+        JobQueueService node = new JobQueueService(new JdbcTemplate(pools.get(0)));
+        node.enqueue(queue, queue + ":1", "{}", 2);
+
+        // Worker A claims with a 1s lease and "dies"
+        List<JobQueueService.Job> first = node.claim(queue, "node-a", 10, 1);
+        assertEquals(1, first.size());
+        assertTrue(node.claim(queue, "node-b", 10, 60).isEmpty(), "leased job must be invisible");
+
+        sleep(1500);
+        List<JobQueueService.Job> second = node.claim(queue, "node-b", 10, 1);
+        assertEquals(1, second.size());
+        assertEquals(2, second.get(0).attempts());
+        assertFalse(node.complete(first.get(0).id(), "node-a"), "stale owner must not complete the job");
+
+        // Node B dies too on the last attempt -> dead-lettered
+        sleep(1500);
+        assertTrue(node.claim(queue, "node-c", 10, 60).isEmpty());
+        assertEquals(1, node.deadLetterExpired());
+    }
+
+    // ============ HELPER METHODS ============
+
+    /**
+     * Process JOBS jobs with the given number of nodes, check each ran once, return jobs per second
+     */
+    private double run(int nodes) throws Exception {
+        String queue = queuePrefix + "-" + nodes;
+        JobQueueService producer = new JobQueueService(new JdbcTemplate(pools.get(0)));
+        for (int i = 0; i < JOBS; i++) {
+            producer.enqueue(queue, queue + ":" + i, "{\"n\":" + i + "}", 3);
+        }
+
+        Map<Long, AtomicInteger> executions = new ConcurrentHashMap<>();
+        CountDownLatch done = new CountDownLatch(JOBS);
+        List<ExecutorService> workers = new ArrayList<>();
+
+        long start = System.nanoTime();
+        for (int n = 0; n < nodes; n++) {
+            while (pools.size() <= n) {
+                pool();
+            }
+            JobQueueService node = new JobQueueService(new JdbcTemplate(pools.get(n)));
+            ExecutorService threads = Executors.newFixedThreadPool(THREADS_PER_NODE);
+            workers.add(threads);
+            for (int t = 0; t < THREADS_PER_NODE; t++) {
+                String workerId = "node-" + n + "-" + t;
+                threads.execute(() -> {
+                    while (done.getCount() > 0) {
+                        List<JobQueueService.Job> jobs = node.claim(queue, workerId, 1, 60);
+                        if (jobs.isEmpty()) {
+                            sleep(5);
+                            continue;
+                        }
+                        for (JobQueueService.Job job : jobs) {
+                            sleep(WORK_MS);
+                            executions.computeIfAbsent(job.id(), id -> new AtomicInteger()).incrementAndGet();
+                            node.complete(job.id(), workerId);
+                            done.countDown();
+                        }
+                    }
+                });
+            }
+        }
+
+        assertTrue(done.await(2, TimeUnit.MINUTES), "jobs did not finish");
+        double seconds = (System.nanoTime() - start) / 1e9;
+        for (ExecutorService threads : workers) {
+            threads.shutdownNow();
+            threads.awaitTermination(10, TimeUnit.SECONDS);
+        }
+
+        assertEquals(JOBS, executions.size(), "every job must be claimed");
+        assertTrue(executions.values().stream().allMatch(count -> count.get() == 1), "a job was claimed twice");
+        Integer doneRows = new JdbcTemplate(pools.get(0)).queryForObject(
+                "SELECT count(*) FROM job_queue WHERE queue = ? AND status = 'DONE'", Integer.class, queue);
+        assertEquals(JOBS, doneRows);
+        return JOBS / seconds;
+    }
+
+    private static HikariDataSource pool() {
+        HikariDataSource ds = new HikariDataSource();
+        ds.setJdbcUrl(System.getenv("TEST_PG_URL"));
+        ds.setUsername(System.getenv().getOrDefault("TEST_PG_USER", "postgres"));
+        ds.setPassword(System.getenv().getOrDefault("TEST_PG_PASSWORD", "postgres"));
+        ds.setMaximumPoolSize(THREADS_PER_NODE + 1);
+        pools.add(ds);
+        return ds;
+    }
+
+    private static void sleep(long ms) {
+        try {
+            Thread.sleep(ms);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package mav_intel.com.Intelligent_Crypto_User_Management.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * MonteCarloKernel: reproducible from the seed alone, and exact on degenerate histories
+ */
+class MonteCarloKernelTest {
+
+    @Test
+    void parallelRunMatchesSequentialRun() {
+        double[] returns = randomReturns(new SplittableRandom(11), 300);
+        // Not a multiple of CHUNK, so the last chunk is partial
+        int paths = MonteCarloKernel.CHUNK * 5 + 123;
+        MonteCarloKernel.Result sequential = MonteCarloKernel.simulate(returns, 150, 4, 0.2, paths, 99L, false);
+        MonteCarloKernel.Result parallel = MonteCarloKernel.simulate(returns, 150, 4, 0.2, paths, 99L, true);
+
+        assertArrayEquals(sequential.maxDrawdowns(), parallel.maxDrawdowns());
+        assertArrayEquals(sequential.terminalEquity(), parallel.terminalEquity());
+    }
+
+    @Test
+    void constantReturnsGiveOnePath() {
+        MonteCarloKernel.Result result = MonteCarloKernel.simulate(new double[]{0.5, 0.5}, 10, 3, 0.2, 1000, 1L, true);
+
+        double expected = Math.pow(1.1, 10);
+        assertEquals(expected, result.terminalPercentile(0.01), 1e-9);
+        assertEquals(expected, result.terminalPercentile(0.99), 1e-9);
+        assertEquals(0.0, result.drawdownPercentile(0.99));
+        assertEquals(0.0, result.terminalBelowProbability(1.0));
+    }
+
+    @Test
+    void totalLossIsAbsorbing() {
+        // Every trade loses its whole margin; committing all equity ruins each path on its first trade
+        MonteCarloKernel.Result result = MonteCarloKernel.simulate(new double[]{-1.0, -2.0}, 50, 1, 1.0, 500, 3L, false);
+
+        assertEquals(0.0, result.terminalPercentile(0.99));
+        assertEquals(1.0, result.drawdownPercentile(0.01));
+        assertEquals(1.0, result.drawdownProbability(0.5));
+    }
+
+    @Test
+    void blocksKeepStreaks() {
+        // Ten losses then ten wins: a whole-history block (wrapping around) always holds at least
+        // one run of 5 or more of the losses, and all 10 when it starts on the first loss or win
+        double[] returns = new double[20];
+        for (int i = 0; i < 20; i++) {
+            returns[i] = i < 10 ? -0.1 : 0.1;
+        }
+        MonteCarloKernel.Result blocks = MonteCarloKernel.simulate(returns, 20, 20, 1.0, 2000, 5L, false);
+        MonteCarloKernel.Result iid = MonteCarloKernel.simulate(returns, 20, 1, 1.0, 2000, 5L, false);
+
+        assertEquals(1 - Math.pow(0.9, 5), blocks.drawdownPercentile(0.01), 1e-9);
+        assertEquals(1 - Math.pow(0.9, 10), blocks.drawdownPercentile(0.99), 1e-9);
+        assertTrue(iid.drawdownPercentile(0.5) < blocks.drawdownPercentile(0.5));
+    }
+
+    private static double[] randomReturns(SplittableRandom random, int count) {
+        double[] returns = new double[count];
+        for (int i = 0; i < count; i++) {
+            returns[i] = random.nextDouble(-0.8, 1.2);
+        }
+        return returns;
+    }
+}
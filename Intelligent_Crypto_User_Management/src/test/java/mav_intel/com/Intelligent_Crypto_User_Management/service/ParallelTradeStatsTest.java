@@ -0,0 +1,77 @@
+package mav_intel.com.Intelligent_Crypto_User_Management.service;
+
+import mav_intel.com.Intelligent_Crypto_User_Management.dto.TradeFilterDTO;
+import mav_intel.com.Intelligent_Crypto_User_Management.dto.TradeSummary;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Property test: the fork/join path gives exactly the sequential result
+ *
+ * Random histories (heavy pnl/time ties, missing values) x random filters and sort
+ * orders x random leaf sizes and pool sizes; row order and every statistic,
+ * including which trade is best/worst, must be identical.
+ */
+class ParallelTradeStatsTest {
+
+    private static final String[] SORT_BY = {"closedAt", "pnl", "pnlPercent", "symbol", null};
+
+    @Test
+    void parallelMatchesSequential() {
+        SplittableRandom random = new SplittableRandom(20250101L);
+        for (int iteration = 0; iteration < 200; iteration++) {
+            List<TradeSummary> history = TradeHistoryFixture.randomHistory(random, random.nextInt(5_000));
+            TradeColumns columns = TradeColumns.of(history);
+            TradeFilterDTO filter = randomFilter(random);
+            int leafSize = 1 + random.nextInt(300);
+            ForkJoinPool pool = new ForkJoinPool(1 + random.nextInt(8));
+            try {
+                TradeStatsKernel.CompiledFilter compiled = TradeStatsKernel.compile(filter, columns, ZoneOffset.UTC);
+
+                int[] sequential = TradeStatsKernel.filter(columns, compiled);
+                int[] parallel = ParallelTradeStats.filter(columns, compiled, pool, leafSize);
+                assertArrayEquals(sequential, parallel, "filter, iteration " + iteration);
+
+                TradeStatsKernel.sort(columns, sequential, filter.getSortBy(), filter.getSortOrder());
+                ParallelTradeStats.sort(columns, parallel, filter.getSortBy(), filter.getSortOrder(), pool, leafSize);
+                assertArrayEquals(sequential, parallel, "sort, iteration " + iteration);
+
+                assertEquals(TradeStatsKernel.aggregate(columns, sequential),
+                        ParallelTradeStats.aggregate(columns, parallel, pool, leafSize),
+                        "aggregate, iteration " + iteration);
+            } finally {
+                pool.shutdown();
+            }
+        }
+    }
+
+    private static TradeFilterDTO randomFilter(SplittableRandom random) {
+        TradeFilterDTO filter = new TradeFilterDTO();
+        filter.setSortBy(SORT_BY[random.nextInt(SORT_BY.length)]);
+        filter.setSortOrder(random.nextBoolean() ? "ASC" : "DESC");
+        if (random.nextInt(3) == 0) {
+            filter.setSymbol(random.nextBoolean() ? "BTC" : "USDT");
+        }
+        if (random.nextInt(3) == 0) {
+            LocalDate from = LocalDate.of(2025, 1, 1).plusDays(random.nextInt(60));
+            filter.setFromDate(from);
+            filter.setToDate(from.plusDays(random.nextInt(10)));
+        }
+        if (random.nextInt(3) == 0) {
+            filter.setPnlMin(BigDecimal.valueOf(random.nextInt(41) - 20));
+        }
+        if (random.nextInt(4) == 0) {
+            filter.setSide(TradeHistoryFixture.SIDES[random.nextInt(TradeHistoryFixture.SIDES.length)]);
+        }
+        return filter;
+    }
+}
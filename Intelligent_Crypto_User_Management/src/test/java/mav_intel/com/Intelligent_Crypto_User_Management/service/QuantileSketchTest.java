@@ -0,0 +1,113 @@
+package mav_intel.com.Intelligent_Crypto_User_Management.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * QuantileSketch against exact sorted quantiles, and the properties the sketch store
+ * relies on: merge = union, remove undoes add, bytes round-trip
+ */
+class QuantileSketchTest {
+
+    private static final double[] QUANTILES = {0, 0.01, 0.05, 0.25, 0.5, 0.75, 0.95, 0.99, 1};
+
+    @Test
+    void quantilesWithinRelativeAccuracy() {
+        SplittableRandom random = new SplittableRandom(2024);
+        for (int iteration = 0; iteration < 20; iteration++) {
+            double[] values = pnlLike(random, 1 + random.nextInt(20_000));
+            QuantileSketch sketch = new QuantileSketch();
+            for (double value : values) {
+                sketch.add(value);
+            }
+            double[] sorted = values.clone();
+            Arrays.sort(sorted);
+
+            assertEquals(values.length, sketch.count());
+            for (double q : QUANTILES) {
+                double expected = sorted[(int) Math.floor(q * (sorted.length - 1))];
+                double actual = sketch.quantile(q);
+                assertTrue(Math.abs(actual - expected) <= sketch.relativeAccuracy() * Math.abs(expected) + 1e-9,
+                        "iteration " + iteration + ", q=" + q + ": " + actual + " vs " + expected);
+            }
+        }
+    }
+
+    @Test
+    void mergeOfPartsEqualsWhole() {
+        SplittableRandom random = new SplittableRandom(5);
+        double[] values = pnlLike(random, 5_000);
+        QuantileSketch whole = new QuantileSketch();
+        QuantileSketch[] parts = {new QuantileSketch(), new QuantileSketch(), new QuantileSketch()};
+        for (double value : values) {
+            whole.add(value);
+            parts[random.nextInt(parts.length)].add(value);
+        }
+        QuantileSketch merged = new QuantileSketch();
+        for (QuantileSketch part : parts) {
+            merged.merge(QuantileSketch.fromBytes(part.toBytes()));
+        }
+
+        assertArrayEquals(whole.toBytes(), merged.toBytes());
+    }
+
+    @Test
+    void removeUndoesAdd() {
+        SplittableRandom random = new SplittableRandom(9);
+        double[] kept = pnlLike(random, 1_000);
+        double[] revised = pnlLike(random, 300);
+        QuantileSketch expected = new QuantileSketch();
+        QuantileSketch sketch = new QuantileSketch();
+        for (double value : kept) {
+            expected.add(value);
+            sketch.add(value);
+        }
+        for (double value : revised) {
+            sketch.add(value);
+        }
+        for (double value : revised) {
+            assertTrue(sketch.remove(value));
+        }
+
+        assertArrayEquals(expected.toBytes(), sketch.toBytes());
+        QuantileSketch empty = new QuantileSketch();
+        assertFalse(empty.remove(12.5));
+        assertFalse(empty.remove(0));
+        assertEquals(0, empty.count());
+        assertTrue(Double.isNaN(empty.quantile(0.5)));
+    }
+
+    @Test
+    void bytesRoundTrip() {
+        QuantileSketch sketch = new QuantileSketch();
+        for (double value : new double[]{-1_250.5, -0.00012, 0, 0, 3e-12, 0.75, 42, 1e6}) {
+            sketch.add(value);
+        }
+        byte[] bytes = sketch.toBytes();
+        QuantileSketch copy = QuantileSketch.fromBytes(bytes);
+
+        assertArrayEquals(bytes, copy.toBytes());
+        assertEquals(8, copy.count());
+        for (double q : QUANTILES) {
+            assertEquals(sketch.quantile(q), copy.quantile(q), 0.0);
+        }
+        assertEquals(0.0, copy.quantile(0.4), 0.0);
+    }
+
+    // Mostly small wins and losses with fat tails, both signs, some exact zeros
+    private static double[] pnlLike(SplittableRandom random, int count) {
+        double[] values = new double[count];
+        for (int i = 0; i < count; i++) {
+            double magnitude = Math.exp(random.nextGaussian() * 2.5);
+            values[i] = random.nextInt(50) == 0 ? 0 : random.nextBoolean() ? magnitude : -magnitude * 0.6;
+        }
+        return values;
+    }
+}
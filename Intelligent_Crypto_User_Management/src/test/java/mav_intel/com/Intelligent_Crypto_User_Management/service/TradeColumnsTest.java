@@ -0,0 +1,74 @@
+package mav_intel.com.Intelligent_Crypto_User_Management.service;
+
+import mav_intel.com.Intelligent_Crypto_User_Management.dto.TradeFilterDTO;
+import mav_intel.com.Intelligent_Crypto_User_Management.dto.TradeSummary;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/**
+ * Appending to TradeColumns (as ColumnarTradeStore does on close) must give the same
+ * scans as building the columns in one go, and never change an earlier instance
+ */
+class TradeColumnsTest {
+
+    @Test
+    void appendMatchesBuild() {
+        SplittableRandom random = new SplittableRandom(20250401L);
+        for (int iteration = 0; iteration < 100; iteration++) {
+            List<TradeSummary> history = TradeHistoryFixture.randomHistory(random, random.nextInt(2_000));
+            TradeColumns appended = TradeColumns.of(List.of());
+            int from = 0;
+            while (from < history.size()) {
+                int to = Math.min(history.size(), from + 1 + random.nextInt(200));
+                appended = appended.append(history.subList(from, to));
+                from = to;
+            }
+            TradeColumns built = TradeColumns.of(history);
+
+            String message = "iteration " + iteration;
+            assertEquals(built.size(), appended.size(), message);
+            TradeFilterDTO filter = new TradeFilterDTO();
+            filter.setSymbol(random.nextBoolean() ? "BTC" : null);
+            filter.setExitReason(random.nextBoolean() ? "SL" : null);
+            filter.setPnlMin(random.nextBoolean() ? BigDecimal.valueOf(-5) : null);
+            int[] expected = scan(built, filter);
+            int[] actual = scan(appended, filter);
+            assertArrayEquals(expected, actual, message);
+            assertEquals(TradeStatsKernel.aggregate(built, expected), TradeStatsKernel.aggregate(appended, actual), message);
+        }
+    }
+
+    @Test
+    void appendLeavesEarlierInstancesUnchanged() {
+        List<TradeSummary> history = TradeHistoryFixture.randomHistory(new SplittableRandom(7), 300);
+        TradeColumns base = TradeColumns.of(history.subList(0, 100));
+        TradeColumns first = base.append(history.subList(100, 200));
+        // Appending to base again must not overwrite the rows first shares with it
+        TradeColumns second = base.append(history.subList(200, 300));
+
+        assertEquals(100, base.size());
+        assertEquals(200, first.size());
+        assertEquals(200, second.size());
+        for (int row = 100; row < 200; row++) {
+            assertSame(history.get(row), first.row(row), "row " + row + " of first");
+            assertSame(history.get(row + 100), second.row(row), "row " + row + " of second");
+        }
+        TradeFilterDTO all = new TradeFilterDTO();
+        assertEquals(TradeStatsKernel.aggregate(TradeColumns.of(history.subList(0, 200)), scan(TradeColumns.of(history.subList(0, 200)), all)),
+                TradeStatsKernel.aggregate(first, scan(first, all)));
+    }
+
+    private static int[] scan(TradeColumns columns, TradeFilterDTO filter) {
+        int[] rows = TradeStatsKernel.filter(columns, TradeStatsKernel.compile(filter, columns, ZoneOffset.UTC));
+        TradeStatsKernel.sort(columns, rows, "pnl", "DESC");
+        return rows;
+    }
+}
@@ -0,0 +1,113 @@
+package mav_intel.com.Intelligent_Crypto_User_Management.service;
+
+import mav_intel.com.Intelligent_Crypto_User_Management.dto.TradeFilterDTO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/**
+ * Key normalization, version-based invalidation and LRU bound of TradeHistoryCache
+ */
+class TradeHistoryCacheTest {
+
+    private TradeHistoryCache cache;
+    private final AtomicInteger loads = new AtomicInteger();
+    private final AtomicInteger computes = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        cache = new TradeHistoryCache();
+        ReflectionTestUtils.setField(cache, "enabled", true);
+        ReflectionTestUtils.setField(cache, "ttlSeconds", 60L);
+        ReflectionTestUtils.setField(cache, "maxSnapshots", 4);
+        ReflectionTestUtils.setField(cache, "maxResults", 2);
+    }
+
+    @Test
+    void equivalentFiltersShareAKey() {
+        TradeFilterDTO a = new TradeFilterDTO();
+        a.setPage(0);
+        a.setSymbol("");
+        a.setPnlMin(new BigDecimal("10"));
+        a.setSortBy(null);
+        a.setSortOrder(null);
+
+        TradeFilterDTO b = new TradeFilterDTO();
+        b.setPage(3);
+        b.setPageSize(50);
+        b.setPnlMin(new BigDecimal("10.00"));
+        b.setSortBy("closedAt");
+        b.setSortOrder("DESC");
+
+        assertEquals(TradeHistoryCache.normalize(a), TradeHistoryCache.normalize(b));
+
+        b.setSymbol("BTC");
+        assertNotEquals(TradeHistoryCache.normalize(a), TradeHistoryCache.normalize(b), "symbol is part of the key");
+    }
+
+    @Test
+    void versionBumpInvalidatesOnlyAffectedScopes() {
+        TradeFilterDTO filter = new TradeFilterDTO();
+        TradeHistoryCache.Result first = lookup(null, filter);
+        TradeHistoryCache.Result again = lookup(null, filter);
+        assertSame(first, again, "second lookup is a hit");
+        assertEquals(1, loads.get());
+        assertEquals(1, computes.get());
+
+        lookup(8L, filter);
+        assertEquals(2, loads.get());
+
+        // User 7's trades changed: the all-users scope reloads, user 8 does not
+        cache.invalidate(7L);
+        TradeHistoryCache.Result reloaded = lookup(null, filter);
+        assertNotSame(first, reloaded, "stale result not served");
+        assertEquals(3, loads.get());
+        lookup(8L, filter);
+        assertEquals(3, loads.get());
+    }
+
+    @Test
+    void leastRecentlyUsedResultIsEvicted() {
+        TradeFilterDTO btc = filter("BTC");
+        TradeFilterDTO eth = filter("ETH");
+        TradeFilterDTO sol = filter("SOL");
+        lookup(null, btc);
+        lookup(null, eth);
+        lookup(null, btc);   // btc is now more recent than eth
+        lookup(null, sol);   // evicts eth
+        assertEquals(3, computes.get());
+
+        lookup(null, btc);
+        assertEquals(3, computes.get());
+        lookup(null, eth);
+        assertEquals(4, computes.get());
+        assertEquals(2, cache.getStats().get("results"));
+    }
+
+    private TradeHistoryCache.Result lookup(Long userId, TradeFilterDTO filter) {
+        TradeHistoryCache.Snapshot snapshot = cache.snapshot(userId, () -> {
+            loads.incrementAndGet();
+            return TradeColumns.of(List.of());
+        });
+        return cache.result(userId, snapshot, filter, () -> {
+            computes.incrementAndGet();
+            return new TradeHistoryCache.Result(snapshot, new int[0],
+                    TradeStatsKernel.aggregate(snapshot.columns(), new int[0]), 1_000);
+        });
+    }
+
+    private static TradeFilterDTO filter(String symbol) {
+        TradeFilterDTO filter = new TradeFilterDTO();
+        filter.setSymbol(symbol);
+        return filter;
+    }
+}
@@ -0,0 +1,43 @@
+package mav_intel.com.Intelligent_Crypto_User_Management.service;
+
+import mav_intel.com.Intelligent_Crypto_User_Management.dto.TradeSummary;
+
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Random closed-trade histories for the TradeColumns / TradeStatsKernel property tests
+ */
+final class TradeHistoryFixture {
+
+    static final String[] PAIRS = {"BTCUSDT", "ETHUSDT", "SOLUSDT", null};
+    static final String[] SIDES = {"BUY", "SELL"};
+    static final String[] EXIT_REASONS = {"TP1", "TP2", "SL", "MANUAL", null};
+
+    private TradeHistoryFixture() {
+    }
+
+    /**
+     * Trades with ids 0..size-1 over two months of 2025, with missing pairs, exit reasons,
+     * close times and pnl; few distinct values, so ties (and tie-breaking) are everywhere
+     */
+    static List<TradeSummary> randomHistory(SplittableRandom random, int size) {
+        OffsetDateTime start = OffsetDateTime.of(2025, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC);
+        List<TradeSummary> history = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            TradeSummary trade = new TradeSummary();
+            trade.setId((long) i);
+            trade.setPair(PAIRS[random.nextInt(PAIRS.length)]);
+            trade.setSide(SIDES[random.nextInt(SIDES.length)]);
+            trade.setExitReason(EXIT_REASONS[random.nextInt(EXIT_REASONS.length)]);
+            trade.setClosedAt(random.nextInt(20) == 0 ? null : start.plusHours(random.nextInt(24 * 60)));
+            trade.setPnl(random.nextInt(20) == 0 ? null : (random.nextInt(41) - 20) * 2.5);
+            trade.setPnlPercent(random.nextInt(20) == 0 ? null : (random.nextInt(21) - 10) * 0.01);
+            history.add(trade);
+        }
+        return history;
+    }
+}